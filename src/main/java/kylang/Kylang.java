@@ -1,50 +1,451 @@
 // Kyran Day, 12/07/2025.
 package kylang;
-import java.io.BufferedReader;
+import java.io.CharArrayWriter;
 import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import kylang.flat.FlatInterpreter;
+import kylang.flat.FlatParser;
+import kylang.flat.FlatProgram;
+import kylang.flat.ProgramCache;
+import kylang.jit.CompiledProgram;
+import kylang.jit.JitCompiler;
+import kylang.jit.TierStats;
+import kylang.jit.TieredCompilation;
+import kylang.lexer.ParallelLexer;
+import kylang.lexer.ReaderLineSource;
+import kylang.memory.ConcurrentMemory;
 import kylang.memory.Memory;
+import kylang.memory.SymbolTable;
+import kylang.optimizer.Optimizer;
+import kylang.statements.ForStatement;
+import kylang.statements.ParallelForStatement;
+import kylang.statements.SpawnStatement;
+import kylang.statements.Statement;
 import kylang.tree_nodes.StatementList;
+import kylang.tree_nodes.TreeWalker;
 import kylang.parser.Parser;
 import kylang.parser.ParseTree;
+import kylang.parser.Resolver;
+import kylang.parser.Fusion;
+import kylang.parser.IncrementalParser;
+import kylang.runtime.BatchRunner;
+import kylang.runtime.BufferedOutputSink;
+import kylang.runtime.ExecutionContext;
+import kylang.vm.VirtualMachine;
+import kylang.vm.VmCompiler;
+import kylang.worker.WorkerPool;
 
 /**
  * Main entry point for the interpreter program.
  *
  * Reads a source text file from the command line argument, parses its contents
  * into a parse tree, and executes the program in a memory environment.
+ * Options pick another engine ({@code --vm}, {@code --jit}, {@code --tiered},
+ * {@code --flat}) or mode ({@code --stream}, {@code --watch}, {@code --cache},
+ * {@code --batch}, {@code --inputs}); see the README.
  *
  * @author Kyran Day
  * @version 5.0
  */
 public class Kylang {
 
+    /** What runs a whole program read from a file. */
+    private enum Engine { TREE, VM, JIT, TIERED, FLAT }
+
+    /** The command-line options, with their defaults. */
+    private static final class Options {
+        String filePath;
+        Engine engine = Engine.TREE;
+        String emitPath;
+        int tierThreshold = TieredCompilation.DEFAULT_THRESHOLD;
+        boolean tierStats;
+        boolean fuse = true;
+        boolean optimize;
+        boolean optStats;
+        int unrollFactor = Optimizer.DEFAULT_UNROLL_FACTOR;
+        int parallelThreshold = Optimizer.DEFAULT_PARALLEL_THRESHOLD;
+        int workers;
+        boolean batch;
+        int concurrency = BatchRunner.DEFAULT_CONCURRENCY;
+        Path inputsPath;
+        boolean stream;
+        boolean watch;
+        boolean asyncOutput;
+        Path cacheDir;
+        long cacheBytes = ProgramCache.DEFAULT_MAX_BYTES;
+
+        /** Reads the options, then the source file; prints the usage and exits if they do not make sense together. */
+        static Options parse(String[] args) {
+            Options o = new Options();
+            for (String arg : args) {
+                if (arg.equals("--vm")) o.engine = Engine.VM;
+                else if (arg.equals("--jit")) o.engine = Engine.JIT;
+                else if (arg.equals("--tiered")) o.engine = Engine.TIERED;
+                else if (arg.equals("--flat")) o.engine = Engine.FLAT;
+                else if (arg.startsWith("--emit-class=")) o.emitPath = arg.substring("--emit-class=".length());
+                else if (arg.startsWith("--tier-threshold=")) o.tierThreshold = intOption(arg);
+                else if (arg.equals("--tier-stats")) o.tierStats = true;
+                else if (arg.equals("--no-fuse")) o.fuse = false;
+                else if (arg.equals("-O")) o.optimize = true;
+                else if (arg.equals("--opt-stats")) o.optStats = true;
+                else if (arg.startsWith("--unroll=")) o.unrollFactor = intOption(arg);
+                else if (arg.startsWith("--parallel-threshold=")) o.parallelThreshold = intOption(arg);
+                else if (arg.startsWith("--workers=")) o.workers = intOption(arg);
+                else if (arg.equals("--batch")) o.batch = true;
+                else if (arg.startsWith("--concurrency=")) o.concurrency = intOption(arg);
+                else if (arg.startsWith("--inputs=")) o.inputsPath = Paths.get(arg.substring("--inputs=".length()));
+                else if (arg.equals("--stream")) o.stream = true;
+                else if (arg.equals("--watch")) o.watch = true;
+                else if (arg.equals("--async-output")) o.asyncOutput = true;
+                else if (arg.equals("--cache")) o.cacheDir = ProgramCache.defaultDirectory();
+                else if (arg.startsWith("--cache-dir=")) o.cacheDir = Paths.get(arg.substring("--cache-dir=".length()));
+                else if (arg.startsWith("--cache-size=")) o.cacheBytes = (long) intOption(arg) << 20;
+                else if (arg.startsWith("--")) usage("Unknown option \"" + arg + "\".");
+                else o.filePath = arg;
+            }
+            o.check();
+            return o;
+        }
+
+        private void check() {
+            if (filePath == null) usage("No file path provided.");
+            boolean tree = engine == Engine.TREE && emitPath == null; // the plain tree interpreter
+            boolean stdin = filePath.equals("-");
+            if (stream && !tree)
+                usage("--stream runs the tree interpreter and cannot be combined with another engine.");
+            if (watch && (!tree || stream || stdin))
+                usage("--watch runs the tree interpreter on a file and cannot be combined with another mode.");
+            if (optimize && (engine == Engine.FLAT || cacheDir != null || stream || watch))
+                usage("-O optimizes the whole parse tree and cannot be combined with --flat, --cache, --stream or --watch.");
+            if (cacheDir != null && (!(tree || engine == Engine.FLAT) || emitPath != null || stream || watch))
+                usage("--cache runs the flat interpreter and cannot be combined with another engine or mode.");
+            if (workers < 0 || (workers > 0 && (!optimize || !tree)))
+                usage("--workers=<n> splits the loops -O proves independent across n processes, on the tree interpreter only.");
+            if ((batch || inputsPath != null) && (!tree || stream || watch || cacheDir != null || workers > 0 || stdin))
+                usage("--batch and --inputs run scripts on the tree interpreter and cannot be combined with another engine or mode.");
+            if (batch && inputsPath != null) usage("--inputs runs one script on many inputs; --batch runs many scripts.");
+            if (concurrency < 1) usage("--concurrency=<n> needs at least 1 script at a time.");
+        }
+    }
+
     public static void main(String[] args) {
+        Options options = Options.parse(args);
+        if (options.batch) {
+            batch(Paths.get(options.filePath), new BatchRunner(options.concurrency, options.optimize, options.fuse));
+            return;
+        }
+        if (options.inputsPath != null) {
+            forked(Paths.get(options.filePath), options.inputsPath, new BatchRunner(options.concurrency, options.optimize, options.fuse));
+            return;
+        }
+
+        BufferedOutputSink out = BufferedOutputSink.stdout(options.asyncOutput); // every run below displays through it
+        if (options.cacheDir != null) cached(options.filePath, new ProgramCache(options.cacheDir, options.cacheBytes), out);
+        else if (options.watch) watch(Paths.get(options.filePath), options.fuse, out);
+        else if (options.stream) stream(options.filePath, options.fuse, out);
+        else if (options.engine == Engine.FLAT && options.emitPath == null) flat(options.filePath, out);
+        else run(options, out);
+    }
+
+    /**
+     * Reads, parses and resolves the whole program, optimizes it if asked,
+     * and then either writes it out compiled or runs it on the chosen engine. */
+    private static void run(Options options, BufferedOutputSink out) {
+        StatementList program = new Parser().parse(new ParallelLexer().lex(read(options.filePath))); // large files lex on all cores
+        SymbolTable symbols = new Resolver().resolve(program); // bind every variable to a frame slot
+        Engine engine = options.engine;
+        try (WorkerPool workers = (options.workers > 0) ? new WorkerPool(options.workers) : null) { // started when a loop first needs it
+            if (options.optimize) {
+                Optimizer optimizer = new Optimizer(symbols, options.unrollFactor,
+                        (engine == Engine.TREE) ? options.parallelThreshold : 0, workers); // compiled loops stay sequential
+                optimizer.optimize(program); // before fusion, which matches the simplified shapes
+                if (options.optStats) System.err.println(optimizer.report());
+            }
+            if (options.emitPath != null) { // ahead-of-time: write the compiled class and stop
+                emit(program, symbols, options.emitPath);
+                return;
+            }
+
+            Memory memory = (engine == Engine.TREE && concurrent(program)) // create a memory environment for variable storage
+                    ? new ConcurrentMemory(symbols) : new Memory(symbols);
+            attach(memory, out);
+            if (options.fuse && (engine == Engine.TREE || engine == Engine.TIERED)) // the compiler takes unfused trees
+                new Fusion().fuse(program); // specialize common shapes for the tree interpreter
+            try {
+                switch (engine) {
+                    case VM -> new VirtualMachine().run(new VmCompiler(symbols).compile(program), memory);
+                    case JIT -> jit(program, symbols, memory, options.fuse);
+                    case TIERED -> tiered(program, symbols, memory, options.tierThreshold, options.tierStats);
+                    default -> new ParseTree(program).execute(memory); // build a parse tree (Program ::= Stmt_List) and execute it
+                }
+            } finally {
+                out.flush(); // also when the program fails, before its error is printed
+            }
+        }
+    }
+
+    /** Writes the program compiled to a JVM class, or exits with an error. */
+    private static void emit(StatementList program, SymbolTable symbols, String emitPath) {
+        try {
+            new JitCompiler(symbols).compile(program).writeTo(Paths.get(emitPath));
+        } catch (IOException e) {
+            System.err.println("Error writing \"" + emitPath + "\": " + e.getMessage());
+            System.exit(1);
+        } catch (IllegalStateException e) { // too large for one class
+            System.err.println("Error: " + e.getMessage() + "; run it with the interpreter or --vm instead");
+            System.exit(1);
+        }
+    }
+
+    /** Compiles the program to a hidden class and runs it, or interprets it if it is too large to compile. */
+    private static void jit(StatementList program, SymbolTable symbols, Memory memory, boolean fuse) {
+        CompiledProgram compiled;
+        try {
+            compiled = new JitCompiler(symbols).compile(program);
+        } catch (IllegalStateException e) { // too large for one class: interpret it, as tiered loops do
+            System.err.println("Warning: " + e.getMessage() + "; running the tree interpreter instead");
+            if (fuse) new Fusion().fuse(program);
+            new ParseTree(program).execute(memory);
+            return;
+        }
+        compiled.run(memory); // HotSpot compiles the generated method like any other Java code
+    }
+
+    /** Interprets the program, letting hot loops switch to compiled code on their own. */
+    private static void tiered(StatementList program, SymbolTable symbols, Memory memory, int threshold, boolean report) {
+        TierStats stats = new TieredCompilation(symbols, threshold).install(program);
+        long start = System.nanoTime();
+        try {
+            new ParseTree(program).execute(memory);
+        } finally {
+            if (report) System.err.println(stats.report(System.nanoTime() - start));
+        }
+    }
+
+    /** Flat mode: parses straight into the array form and runs it, never building a tree. */
+    private static void flat(String filePath, BufferedOutputSink out) {
+        SymbolTable symbols = new SymbolTable();
+        FlatProgram flat = new FlatParser(symbols).parse(new ParallelLexer().lex(read(filePath)));
+        try {
+            new FlatInterpreter(flat).run(attach(new Memory(symbols), out));
+        } finally {
+            out.flush();
+        }
+    }
+
+    /** @return the whole source file, or stdin for {@code -}; exits with an error if it cannot be read */
+    private static char[] read(String filePath) {
+        CharArrayWriter source = new CharArrayWriter();
+        try (Reader reader = open(filePath)) {
+            reader.transferTo(source);
+        } catch (IOException e) {
+            System.err.println("Error reading file \"" + filePath + "\": " + e.getMessage());
+            System.exit(1);
+        }
+        return source.toCharArray();
+    }
 
-        if (args.length == 0) { // verify a command line argument exists
-            System.err.println("Error: No file path provided.");
-            System.err.println("Usage: java Main <file_path>");
+    /** @return true if the program has a parallel for loop or a spawned block */
+    private static boolean concurrent(StatementList program) {
+        boolean[] found = new boolean[1];
+        new TreeWalker() {
+            @Override
+            public Void visit(ForStatement stmt) {
+                found[0] |= stmt instanceof ParallelForStatement;
+                return super.visit(stmt);
+            }
+
+            @Override
+            public Void visit(SpawnStatement stmt) {
+                found[0] = true;
+                return null;
+            }
+        }.walk(program);
+        return found[0];
+    }
+
+    /**
+     * Batch mode: runs every script of a directory or manifest concurrently,
+     * then prints the results. */
+    private static void batch(Path path, BatchRunner runner) {
+        List<BatchRunner.Script> scripts = null;
+        try {
+            scripts = BatchRunner.scripts(path);
+        } catch (IOException e) {
+            System.err.println("Error reading batch \"" + path + "\": " + e.getMessage());
             System.exit(1);
         }
+        print(runner.run(scripts));
+    }
 
-        String filePath = args[0];
-        ArrayList<String> programLines = new ArrayList<>();
+    /**
+     * Forked mode: runs one script once per input set, sharing the work
+     * before its first input, and prints the results as batch mode does. */
+    private static void forked(Path script, Path inputsPath, BatchRunner runner) {
+        BatchRunner.Report report = null;
+        try {
+            report = runner.fork(script, BatchRunner.inputs(inputsPath));
+        } catch (IOException e) {
+            System.err.println("Error reading \"" + script + "\" or \"" + inputsPath + "\": " + e.getMessage());
+            System.exit(1);
+        }
+        print(report);
+    }
+
+    /** Prints each result's output under a header, in order, then the throughput to stderr; exits with 1 if any failed. */
+    private static void print(BatchRunner.Report report) {
+        StringBuilder out = new StringBuilder();
+        for (BatchRunner.Result result : report.getResults()) {
+            out.append("==> ").append(result.getName()).append(" <==").append(System.lineSeparator()).append(result.getOutput());
+            if (result.isOk()) continue;
+            if (out.length() > 0 && out.charAt(out.length() - 1) != '\n') out.append(System.lineSeparator()); // after a prompt
+            out.append("Error: ").append(result.getFailure()).append(System.lineSeparator());
+        }
+        System.out.print(out);
+        System.out.flush();
+        System.err.println(report);
+        if (report.failed() > 0) System.exit(1);
+    }
+
+    /** Opens the source file, or stdin for {@code -}. */
+    private static Reader open(String filePath) throws IOException {
+        return filePath.equals("-") ? new InputStreamReader(System.in) : new FileReader(filePath);
+    }
 
-        try { // Read the source file line by line
-            BufferedReader br = new BufferedReader(new FileReader(filePath));
-            String line;
-            while ((line = br.readLine()) != null) programLines.add(line);
+    /**
+     * Cached mode: hashes the source and runs the cached flat program if
+     * there is one; otherwise lexes and parses it into flat form, caches
+     * that, and runs it. A cache that cannot be written only costs a warning. */
+    private static void cached(String filePath, ProgramCache cache, BufferedOutputSink out) {
+        byte[] bytes = null;
+        try {
+            bytes = filePath.equals("-") ? System.in.readAllBytes() : Files.readAllBytes(Paths.get(filePath));
         } catch (IOException e) {
             System.err.println("Error reading file \"" + filePath + "\": " + e.getMessage());
             System.exit(1);
         }
+        byte[] digest = ProgramCache.digest(bytes);
+        SymbolTable symbols = new SymbolTable();
+        FlatProgram program = cache.load(digest, symbols);
+        if (program == null) { // miss: run the front end once
+            symbols = new SymbolTable();
+            char[] source = new String(bytes, Charset.defaultCharset()).toCharArray();
+            program = new FlatParser(symbols).parse(new ParallelLexer().lex(source));
+            try {
+                cache.store(digest, program, symbols);
+            } catch (UncheckedIOException e) {
+                System.err.println("Warning: could not write the program cache: " + e.getCause().getMessage());
+            }
+        }
+        try {
+            new FlatInterpreter(program).run(attach(new Memory(symbols), out));
+        } finally {
+            out.flush();
+        }
+    }
+
+    /**
+     * Streaming mode: parses one top-level statement at a time from a lazily
+     * read source, resolves it against the growing symbol table and runs it
+     * before reading further. Only the current statement is ever held.
+     * A program read from stdin cannot also use {@code input}, which reads
+     * the same stream. */
+    private static void stream(String filePath, boolean fuse, BufferedOutputSink out) {
+        try (Reader reader = open(filePath)) {
+            Parser parser = new Parser();
+            parser.begin(new ReaderLineSource(reader));
+            SymbolTable symbols = new SymbolTable();
+            Resolver resolver = new Resolver(symbols);
+            Fusion fusion = new Fusion();
+            Memory memory = attach(new Memory(symbols), out);
+            try {
+                for (Statement stmt = parser.next(); stmt != null; stmt = parser.next()) {
+                    resolver.resolve(stmt);
+                    StatementList single = new StatementList();
+                    single.addStatement(stmt);
+                    if (fuse) fusion.fuse(single);
+                    new ParseTree(single).execute(memory); // grows the frame for any new variables first
+                }
+            } finally {
+                out.flush();
+            }
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Error reading file \"" + filePath + "\": " + e.getMessage());
+            System.exit(1);
+        }
+    }
 
-        Parser parser = new Parser();
-        Memory memory = new Memory(); // create a memory environment for variable storage
-        StatementList program = parser.parse(programLines);
+    /**
+     * Watch mode: polls the file, and on every change updates the parsed
+     * program incrementally and runs it again in fresh memory. Errors are
+     * reported and the watch goes on; it ends when the process is stopped. */
+    private static void watch(Path path, boolean fuse, BufferedOutputSink out) {
+        IncrementalParser program = new IncrementalParser(new SymbolTable(), fuse);
+        String seen = null;
+        while (true) {
+            try {
+                String stamp = Files.getLastModifiedTime(path) + "/" + Files.size(path);
+                if (!stamp.equals(seen)) {
+                    seen = stamp;
+                    List<String> lines = new String(Files.readAllBytes(path), Charset.defaultCharset()).lines().toList();
+                    long start = System.nanoTime();
+                    program.update(lines);
+                    System.err.printf("[watch] %s in %.2f ms%n", program.describe(), (System.nanoTime() - start) / 1e6);
+                    try {
+                        new ParseTree(program.getProgram()).execute(attach(new Memory(program.getSymbols()), out));
+                    } finally {
+                        out.flush();
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("[watch] Error reading file \"" + path + "\": " + e.getMessage());
+            } catch (RuntimeException e) {
+                System.err.println("[watch] " + e);
+            }
+            try {
+                Thread.sleep(WATCH_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private static final int WATCH_INTERVAL_MILLIS = 250;
+
+    /** Gives a memory stdin and the buffered stdout as its run's input and output. */
+    private static Memory attach(Memory memory, BufferedOutputSink out) {
+        ExecutionContext.standard(memory, out);
+        return memory;
+    }
+
+    /** Parses the integer value of a {@code --name=value} option. */
+    private static int intOption(String arg) {
+        String value = arg.substring(arg.indexOf('=') + 1);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            usage("Option " + arg.substring(0, arg.indexOf('=')) + " expects an integer, found \"" + value + "\".");
+            return 0;
+        }
+    }
 
-        ParseTree tree = new ParseTree(program); // build a parse tree (Program ::= Stmt_List)
-        tree.execute(memory); // execute the program in the memory environment
+    /** Prints an error and the usage line, then exits. */
+    private static void usage(String error) {
+        System.err.println("Error: " + error);
+        System.err.println("Usage: java Main [--vm | --jit | --tiered | --flat] [--tier-threshold=<n>] [--tier-stats]");
+        System.err.println("                 [-O] [--opt-stats] [--unroll=<n>] [--parallel-threshold=<n>] [--workers=<n>]");
+        System.err.println("                 [--no-fuse] [--stream | --watch] [--async-output] [--emit-class=<dir|file.jar>]");
+        System.err.println("                 [--cache | --cache-dir=<dir>] [--cache-size=<MB>] <file_path | ->");
+        System.err.println("       java Main --batch [-O] [--no-fuse] [--concurrency=<n>] <directory | manifest>");
+        System.err.println("       java Main --inputs=<directory | file> [-O] [--no-fuse] [--concurrency=<n>] <file_path>");
+        System.exit(1);
     }
 }
@@ -0,0 +1,106 @@
+// Kyran Day, 10/17/2026.
+package kylang.bench;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import kylang.flat.FlatInterpreter;
+import kylang.flat.FlatParser;
+import kylang.flat.FlatProgram;
+import kylang.lexer.LexedLine;
+import kylang.lexer.SourceScanner;
+import kylang.memory.Memory;
+import kylang.memory.SymbolTable;
+import kylang.parser.ParseTree;
+import kylang.parser.Parser;
+import kylang.parser.Resolver;
+import kylang.tree_nodes.StatementList;
+
+/**
+ * FlatBenchmark
+ * ------------------------------------------------------------
+ * Compares the object tree with the flat array form on a large program:
+ * retained heap after parsing, parse time, and execution time.
+ * Uses the given file (which must not read input), or a generated
+ * program with the given number of statements.
+ *
+ * Usage: java -cp target/classes kylang.bench.FlatBenchmark [file | statements] [rounds] */
+public final class FlatBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        String source = (args.length > 0 && !args[0].matches("\\d+"))
+                ? Files.readString(Paths.get(args[0]))
+                : generate(args.length > 0 ? Integer.parseInt(args[0]) : 200_000);
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        char[] chars = source.toCharArray();
+        List<LexedLine> lines = new SourceScanner(chars).scan();
+        PrintStream out = System.out;
+        System.out.printf("source: %d lines%n", lines.size());
+
+        // Retained heap: everything reachable from the parsed form (tokens included, lexed lines not)
+        long before = usedHeap();
+        StatementList tree = new Parser().parse(new SourceScanner(chars).scan());
+        SymbolTable treeSymbols = new Resolver().resolve(tree);
+        long treeBytes = usedHeap() - before;
+
+        before = usedHeap();
+        SymbolTable flatSymbols = new SymbolTable();
+        FlatProgram flat = new FlatParser(flatSymbols).parse(new SourceScanner(chars).scan());
+        long flatBytes = usedHeap() - before;
+        System.out.printf("object tree  %8.1f MB retained%n", treeBytes / 1048576.0);
+        System.out.printf("flat arrays  %8.1f MB retained (%d nodes, %.1f MB in arrays)%n",
+                flatBytes / 1048576.0, flat.size(), flat.footprint() / 1048576.0);
+
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (int round = 0; round <= rounds; round++) { // round 0 warms up
+                long start = System.nanoTime();
+                new Resolver().resolve(new Parser().parse(lines));
+                long treeParse = System.nanoTime() - start;
+                start = System.nanoTime();
+                new FlatParser(new SymbolTable()).parse(lines);
+                long flatParse = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                new ParseTree(tree).execute(new Memory(treeSymbols));
+                long treeRun = System.nanoTime() - start;
+                start = System.nanoTime();
+                new FlatInterpreter(flat).run(new Memory(flatSymbols));
+                long flatRun = System.nanoTime() - start;
+
+                if (round == 0) continue;
+                out.printf("parse: tree %7.1f ms  flat %7.1f ms    run: tree %7.1f ms  flat %7.1f ms%n",
+                        treeParse / 1e6, flatParse / 1e6, treeRun / 1e6, flatRun / 1e6);
+            }
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /** Generates straight-line arithmetic with a short loop every few statements, like our code generators. */
+    private static String generate(int statements) {
+        StringBuilder sb = new StringBuilder();
+        for (int n = 0; n < statements; n++) {
+            int v = n % 997;
+            switch (n % 8) {
+                case 0 -> sb.append("let v").append(v).append(" := (v").append((v + 1) % 997).append(" + ").append(n)
+                        .append(") * 3 - v").append((v + 7) % 997).append(" / 5\n");
+                case 1 -> sb.append("for i in 1 .. 4:\n\tlet v").append(v).append(" := v").append(v).append(" + i * 2\n");
+                case 2 -> sb.append("if v").append(v).append(" > ").append(n).append(":\n\tlet v").append(v)
+                        .append(" := v").append(v).append(" - 1\nelse:\n\tlet v").append(v).append(" := -v").append(v)
+                        .append("\n");
+                default -> sb.append("let v").append(v).append(" := v").append((v + 3) % 997).append(" + ")
+                        .append(n % 100).append("\n");
+            }
+        }
+        return sb.append("display v0\n").toString();
+    }
+}
@@ -0,0 +1,113 @@
+// Kyran Day, 10/17/2026.
+package kylang.bench;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import kylang.lexer.LexedLine;
+import kylang.lexer.LexicalAnalyzer;
+import kylang.lexer.ParallelLexer;
+import kylang.lexer.SourceScanner;
+import kylang.tree_nodes.Token;
+
+/**
+ * LexerBenchmark
+ * ------------------------------------------------------------
+ * Lexing throughput of the line-at-a-time {@link LexicalAnalyzer} against
+ * the whole-buffer {@link SourceScanner} and the chunked
+ * {@link ParallelLexer}, in tokens/sec and MB/sec.
+ * Lexes the given file, or a generated program of the given size.
+ *
+ * Usage: java -cp target/classes kylang.bench.LexerBenchmark [file | size-in-MB] [rounds] */
+public final class LexerBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        String source = (args.length > 0 && !args[0].matches("\\d+"))
+                ? Files.readString(Paths.get(args[0]))
+                : generate(args.length > 0 ? Integer.parseInt(args[0]) : 8);
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        char[] chars = source.toCharArray();
+        List<String> lines = source.lines().toList();
+        double megabytes = chars.length / (1024.0 * 1024.0);
+
+        ParallelLexer parallel = new ParallelLexer(ForkJoinPool.commonPool(), 0);
+        System.out.printf("source: %.1f MB, %d lines, %d lexing threads%n",
+                megabytes, lines.size(), ForkJoinPool.commonPool().getParallelism());
+        for (int round = 0; round <= rounds; round++) { // round 0 warms up
+            long start = System.nanoTime();
+            long legacyTokens = legacy(lines);
+            long legacyNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long scannerTokens = scanner(chars);
+            long scannerNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long parallelTokens = count(parallel.lex(chars));
+            long parallelNanos = System.nanoTime() - start;
+
+            if (round == 0) continue;
+            report("LexicalAnalyzer", legacyTokens, legacyNanos, megabytes);
+            report("SourceScanner  ", scannerTokens, scannerNanos, megabytes);
+            report("ParallelLexer  ", parallelTokens, parallelNanos, megabytes);
+        }
+    }
+
+    /** Lexes line by line as the parser used to, draining every line's tokens. */
+    private static long legacy(List<String> lines) {
+        LexicalAnalyzer lexer = new LexicalAnalyzer();
+        long tokens = 0;
+        for (int row = 0; row < lines.size(); row++) {
+            String line = lines.get(row);
+            if (line.trim().isEmpty()) continue;
+            lexer.analyze(line, row);
+            Token token;
+            do {
+                token = lexer.getToken();
+                tokens++;
+            } while (token.getType() != Token.Type.EOL);
+        }
+        return tokens;
+    }
+
+    private static long scanner(char[] chars) {
+        return count(new SourceScanner(chars).scan());
+    }
+
+    private static long count(List<LexedLine> lines) {
+        long tokens = 0;
+        for (LexedLine line : lines) {
+            if (!line.isBlank()) tokens += line.getTokens().length;
+        }
+        return tokens;
+    }
+
+    private static void report(String name, long tokens, long nanos, double megabytes) {
+        double seconds = nanos / 1e9;
+        System.out.printf("%s  %8.1f ms  %12.0f tokens/sec  %8.1f MB/sec%n",
+                name, nanos / 1e6, tokens / seconds, megabytes / seconds);
+    }
+
+    /** Generates a program of roughly the given size from a few typical statement shapes. */
+    private static String generate(int megabytes) {
+        StringBuilder sb = new StringBuilder();
+        List<String> block = new ArrayList<>(List.of(
+                "let total := 0",
+                "for i in 1 .. 100:",
+                "\tlet total := total + i * (Count_%d - 3) / 2",
+                "\tlet Count_%d := Count_%d + 1",
+                "while total >= 10:",
+                "\tlet total := total - 10",
+                "if total /= 7:",
+                "\tdisplay total",
+                "else:",
+                "\tdisplay Count_%d",
+                ""));
+        for (int n = 0; sb.length() < megabytes * 1024 * 1024; n++) {
+            for (String line : block) sb.append(line.replace("%d", Integer.toString(n % 512))).append('\n');
+        }
+        return sb.toString();
+    }
+}
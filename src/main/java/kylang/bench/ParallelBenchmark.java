@@ -0,0 +1,84 @@
+// Kyran Day, 10/17/2026.
+package kylang.bench;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import kylang.lexer.SourceScanner;
+import kylang.memory.ConcurrentMemory;
+import kylang.memory.Memory;
+import kylang.memory.SymbolTable;
+import kylang.parser.Fusion;
+import kylang.parser.ParseTree;
+import kylang.parser.Parser;
+import kylang.parser.Resolver;
+import kylang.tree_nodes.StatementList;
+
+/**
+ * ParallelBenchmark
+ * ------------------------------------------------------------
+ * Runs a program with {@code parallel for} loops on the tree interpreter,
+ * first sequentially on plain memory, then on a concurrent memory in a
+ * fork/join pool of 1, 2, ... threads, and reports each time with its
+ * speedup over the one-thread pool. Uses the given file (which must not
+ * read input), or a generated loop whose iterations each run a short
+ * inner loop and add to shared sums.
+ *
+ * Usage: java -cp target/classes kylang.bench.ParallelBenchmark [file | trips] [threads] [rounds] */
+public final class ParallelBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        String source = (args.length > 0 && !args[0].matches("\\d+"))
+                ? Files.readString(Paths.get(args[0]))
+                : generate(args.length > 0 ? Integer.parseInt(args[0]) : 200_000);
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        StatementList program = new Parser().parse(new SourceScanner(source.toCharArray()).scan());
+        SymbolTable symbols = new Resolver().resolve(program);
+        new Fusion().fuse(program);
+        ParseTree tree = new ParseTree(program);
+
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (int round = 0; round <= rounds; round++) { // round 0 warms up
+                StringBuilder line = new StringBuilder();
+                long start = System.nanoTime();
+                tree.execute(new Memory(symbols)); // parallel loops run sequentially
+                line.append(String.format("sequential %8.1f ms   ", (System.nanoTime() - start) / 1e6));
+                double single = 0;
+                for (int n = 1; n <= threads; n++) {
+                    ForkJoinPool pool = new ForkJoinPool(n);
+                    try {
+                        start = System.nanoTime();
+                        pool.submit(() -> tree.execute(new ConcurrentMemory(symbols))).join(); // loops split over this pool
+                        double millis = (System.nanoTime() - start) / 1e6;
+                        if (n == 1) single = millis;
+                        line.append(String.format("%d: %8.1f ms (%.2fx)   ", n, millis, single / millis));
+                    } finally {
+                        pool.shutdown();
+                    }
+                }
+                if (round > 0) out.println(line.toString().trim());
+            }
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    /** Generates a parallel loop whose iterations each run a short inner loop and accumulate into shared sums. */
+    private static String generate(int trips) {
+        return "let k := 7\n"
+                + "parallel for i in 1 .. " + trips + ":\n"
+                + "\tlet t := i * k\n"
+                + "\tfor j in 1 .. 20:\n"
+                + "\t\tlet t := t * 3 + j\n"
+                + "\tlet u := 0\n" // the parser drops the line after a nested block
+                + "\tlet s := s + t\n"
+                + "\tlet c := c + 1\n"
+                + "display s\n"
+                + "display c\n";
+    }
+}
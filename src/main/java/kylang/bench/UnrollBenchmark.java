@@ -0,0 +1,81 @@
+// Kyran Day, 10/17/2026.
+package kylang.bench;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import kylang.lexer.SourceScanner;
+import kylang.memory.Memory;
+import kylang.memory.SymbolTable;
+import kylang.optimizer.Optimizer;
+import kylang.parser.Fusion;
+import kylang.parser.ParseTree;
+import kylang.parser.Parser;
+import kylang.parser.Resolver;
+import kylang.tree_nodes.StatementList;
+
+/**
+ * UnrollBenchmark
+ * ------------------------------------------------------------
+ * Runs a program on the tree interpreter after {@code -O} with loop
+ * unrolling off, with only short loops unrolled fully, and with long
+ * loops also unrolled by the given factor. Uses the given file (which
+ * must not read input), or generated nested loops with constant bounds.
+ *
+ * Usage: java -cp target/classes kylang.bench.UnrollBenchmark [file | outer trips] [factor] [rounds] */
+public final class UnrollBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        String source = (args.length > 0 && !args[0].matches("\\d+"))
+                ? Files.readString(Paths.get(args[0]))
+                : generate(args.length > 0 ? Integer.parseInt(args[0]) : 200_000);
+        int factor = args.length > 1 ? Integer.parseInt(args[1]) : Optimizer.DEFAULT_UNROLL_FACTOR;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        int[] factors = { 0, 1, factor };
+        String[] names = { "no unrolling", "full only", "factor " + factor };
+        StatementList[] programs = new StatementList[factors.length];
+        SymbolTable[] symbols = new SymbolTable[factors.length];
+        for (int k = 0; k < factors.length; k++) {
+            programs[k] = new Parser().parse(new SourceScanner(source.toCharArray()).scan());
+            symbols[k] = new Resolver().resolve(programs[k]);
+            Optimizer optimizer = new Optimizer(symbols[k], factors[k], 0); // sequential loops, to time unrolling alone
+            optimizer.optimize(programs[k]);
+            new Fusion().fuse(programs[k]);
+            System.out.println(names[k] + ": " + optimizer.report());
+        }
+
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (int round = 0; round <= rounds; round++) { // round 0 warms up
+                StringBuilder line = new StringBuilder();
+                for (int k = 0; k < factors.length; k++) {
+                    long start = System.nanoTime();
+                    new ParseTree(programs[k]).execute(new Memory(symbols[k]));
+                    line.append(String.format("%s %8.1f ms   ", names[k], (System.nanoTime() - start) / 1e6));
+                }
+                if (round > 0) out.println(line.toString().trim());
+            }
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    /** Generates nested loops with literal bounds around a small arithmetic body, then one long loop. */
+    private static String generate(int outer) {
+        return "let s := 0\n"
+                + "let t := 1\n"
+                + "for a in 1 .. " + outer + ":\n"
+                + "\tfor b in 1 .. 6:\n"
+                + "\t\tfor c in 0 .. 3:\n"
+                + "\t\t\tlet s := s + b * c - a\n"
+                + "\t\t\tlet t := t * 3 + c\n"
+                + "\t\tlet u := 0\n" // the parser drops the line after a nested block
+                + "\tlet u := 0\n"
+                + "for d in 1 .. " + 24L * outer + ":\n"
+                + "\tlet t := t * 3 + d\n"
+                + "display s\n"
+                + "display t\n";
+    }
+}
@@ -0,0 +1,133 @@
+// Kyran Day, 10/17/2026.
+package kylang.flat;
+import kylang.memory.Memory;
+import kylang.runtime.ExecutionContext;
+
+/**
+ * FlatInterpreter
+ * ------------------------------------------------------------
+ * Executes a {@link FlatProgram} directly over its arrays: one switch on
+ * the node kind per node, operands read by index, and variables kept in
+ * the memory's int frame. Behaves exactly like the tree interpreter,
+ * including the divide-by-zero error and input and output through the
+ * memory's {@link ExecutionContext}. */
+public final class FlatInterpreter {
+
+    private final int[] kind, a, b, c, items;
+    private final FlatProgram program;
+    private int[] frame;
+    private ExecutionContext context;
+
+    /**
+     * @param program the program to execute */
+    public FlatInterpreter(FlatProgram program) {
+        this.program = program;
+        this.kind = program.kind;
+        this.a = program.a;
+        this.b = program.b;
+        this.c = program.c;
+        this.items = program.items;
+    }
+
+    /**
+     * Runs the whole program.
+     *
+     * @param memory the memory environment, sized for the parser's symbol table */
+    public void run(Memory memory) {
+        run(program.getRoot(), memory);
+    }
+
+    /**
+     * Runs one statement or block of the program.
+     *
+     * @param node the statement or block node
+     * @param memory the memory environment, which must have a frame
+     * @throws IllegalArgumentException if the memory has no frame ({@link Memory#hasFrame}) */
+    public void run(int node, Memory memory) {
+        if (!memory.hasFrame()) throw new IllegalArgumentException("the flat interpreter needs a plain memory");
+        memory.ensureCapacity();
+        frame = memory.getFrame();
+        context = memory.getContext();
+        execute(node);
+    }
+
+    private void execute(int node) {
+        switch (kind[node]) {
+            case FlatProgram.BLOCK: {
+                for (int i = a[node], end = i + b[node]; i < end; i++) execute(items[i]);
+                break;
+            }
+            case FlatProgram.ASSIGN:
+                frame[a[node]] = operand(b[node]);
+                break;
+            case FlatProgram.DISPLAY:
+                context.display(frame[a[node]]);
+                break;
+            case FlatProgram.INPUT:
+                frame[a[node]] = context.readValue(program.string(b[node]));
+                break;
+            case FlatProgram.IF:
+                if (test(a[node])) execute(b[node]);
+                else if (c[node] >= 0) execute(c[node]); // elif chain, or else block
+                break;
+            case FlatProgram.WHILE: {
+                int condition = a[node], body = b[node];
+                while (test(condition)) execute(body);
+                break;
+            }
+            case FlatProgram.FOR: {
+                int slot = a[node], range = b[node], body = c[node];
+                int start = evaluate(a[range]);
+                int end = evaluate(b[range]);
+                for (int i = start; i <= end; i++) {
+                    frame[slot] = i;
+                    execute(body);
+                }
+                break;
+            }
+            default:
+                throw new IllegalStateException("Not a statement: node " + node + " of kind " + kind[node]);
+        }
+    }
+
+    private boolean test(int node) {
+        int left = operand(a[node]);
+        int right = operand(b[node]);
+        switch (kind[node]) {
+            case FlatProgram.LT: return left < right;
+            case FlatProgram.LE: return left <= right;
+            case FlatProgram.GT: return left > right;
+            case FlatProgram.GE: return left >= right;
+            case FlatProgram.EQ: return left == right;
+            case FlatProgram.NE: return left != right;
+            default: throw new IllegalStateException("Not a condition: node " + node + " of kind " + kind[node]);
+        }
+    }
+
+    /** Evaluates an operand, reading variables and literals without another dispatch. */
+    private int operand(int node) {
+        int k = kind[node];
+        if (k == FlatProgram.VARIABLE) return frame[a[node]];
+        if (k == FlatProgram.NUMBER) return a[node];
+        return evaluate(node);
+    }
+
+    private int evaluate(int node) {
+        switch (kind[node]) {
+            case FlatProgram.NUMBER: return a[node];
+            case FlatProgram.VARIABLE: return frame[a[node]];
+            case FlatProgram.ADD: return operand(a[node]) + operand(b[node]);
+            case FlatProgram.SUB: return operand(a[node]) - operand(b[node]);
+            case FlatProgram.MUL: return operand(a[node]) * operand(b[node]);
+            case FlatProgram.DIV: {
+                int left = operand(a[node]);
+                int right = operand(b[node]);
+                if (right == 0) throw new ArithmeticException("divide by zero");
+                return left / right;
+            }
+            case FlatProgram.NEGATE: return -operand(a[node]);
+            case FlatProgram.BIG_NUMBER: return Integer.parseInt(program.string(a[node])); // throws, as the tree does
+            default: throw new IllegalStateException("Not an expression: node " + node + " of kind " + kind[node]);
+        }
+    }
+}
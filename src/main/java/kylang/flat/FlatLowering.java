@@ -0,0 +1,142 @@
+// Kyran Day, 10/17/2026.
+package kylang.flat;
+import java.util.List;
+import kylang.statements.*;
+import kylang.tree_nodes.*;
+
+/**
+ * FlatLowering
+ * ------------------------------------------------------------
+ * Lowers a resolved block of the parse tree to a {@link FlatProgram}
+ * whose root is that block, node for node, keeping the tree's variable
+ * slots. Nodes that stand in for others (closed forms, strength-reduced
+ * terms, fused statements) are lowered as the nodes they replace, and a
+ * spawned block runs in place, as on any memory that is not concurrent.
+ * Used to ship a loop body to another process in encoded form. */
+public final class FlatLowering implements NodeVisitor<Integer> {
+
+    private final FlatProgram program = new FlatProgram();
+
+    private FlatLowering() {}
+
+    /**
+     * @param block a resolved block
+     * @return the block as a flat program */
+    public static FlatProgram lower(StatementList block) {
+        FlatLowering lowering = new FlatLowering();
+        lowering.program.root = lowering.block(block);
+        lowering.program.trim();
+        return lowering.program;
+    }
+
+    private int block(StatementList block) {
+        List<Statement> statements = block.getStatements();
+        int[] nodes = new int[statements.size()];
+        int count = 0;
+        for (Statement stmt : statements) {
+            int node = stmt.accept(this);
+            if (node >= 0) nodes[count++] = node;
+        }
+        return program.block(nodes, 0, count, 0);
+    }
+
+    // ==== Statements: each returns its node, or -1 if it does nothing ====
+
+    @Override
+    public Integer visit(AssignmentStatement stmt) {
+        return program.add(FlatProgram.ASSIGN, stmt.getSlot(), stmt.getExpression().accept(this), 0, 0, 0);
+    }
+
+    @Override
+    public Integer visit(DisplayStatement stmt) {
+        return program.add(FlatProgram.DISPLAY, stmt.getSlot(), 0, 0, 0, 0);
+    }
+
+    @Override
+    public Integer visit(InputStatement stmt) {
+        return program.add(FlatProgram.INPUT, stmt.getSlot(), program.string(stmt.getId()), 0, 0, 0);
+    }
+
+    @Override
+    public Integer visit(IfStatement stmt) {
+        int condition = stmt.getCondition().accept(this), then = block(stmt.getThenBlock());
+        int otherwise = (stmt.getElifChain() != null) ? stmt.getElifChain().accept(this) // same precedence as IfStatement.execute
+                : (stmt.getElseBlock() != null) ? block(stmt.getElseBlock()) : -1;
+        return program.add(FlatProgram.IF, condition, then, otherwise, 0, 0);
+    }
+
+    @Override
+    public Integer visit(WhileStatement stmt) {
+        int condition = stmt.getCondition().accept(this);
+        return program.add(FlatProgram.WHILE, condition, block(stmt.getBody()), 0, 0, 0);
+    }
+
+    @Override
+    public Integer visit(ForStatement stmt) {
+        int bounds = program.add(FlatProgram.RANGE, stmt.getStartExpr().accept(this), stmt.getEndExpr().accept(this), 0, 0, 0);
+        return program.add(FlatProgram.FOR, stmt.getSlot(), bounds, block(stmt.getBody()), 0, 0);
+    }
+
+    @Override
+    public Integer visit(SpawnStatement stmt) {
+        return block(stmt.getBody());
+    }
+
+    @Override
+    public Integer visit(JoinStatement stmt) {
+        return -1;
+    }
+
+    // ==== Expressions ====
+
+    @Override
+    public Integer visit(BinaryExpressionNode node) {
+        int kind = (node.getOperator() == ArithmeticOperator.SUBTRACT) ? FlatProgram.SUB : FlatProgram.ADD;
+        int left = node.getLeft().accept(this);
+        return program.add(kind, left, node.getRight().accept(this), 0, 0, 0);
+    }
+
+    @Override
+    public Integer visit(UnaryExpressionNode node) {
+        return node.getTerm().accept(this);
+    }
+
+    @Override
+    public Integer visit(BinaryTermNode node) {
+        int kind = (node.getOperator() == ArithmeticOperator.DIVIDE) ? FlatProgram.DIV : FlatProgram.MUL;
+        int left = node.getLeft().accept(this);
+        return program.add(kind, left, node.getRight().accept(this), 0, 0, 0);
+    }
+
+    @Override
+    public Integer visit(UnaryTermNode node) {
+        return node.getFactor().accept(this);
+    }
+
+    @Override
+    public Integer visit(IdentifierFactorNode node) {
+        return program.add(FlatProgram.VARIABLE, node.getSlot(), 0, 0, 0, 0);
+    }
+
+    @Override
+    public Integer visit(NumberFactorNode node) {
+        if (node.isInRange()) return program.add(FlatProgram.NUMBER, node.getValue(), 0, 0, 0, 0);
+        return program.add(FlatProgram.BIG_NUMBER, program.string(node.getIntLit().getLEXEME()), 0, 0, 0, 0); // fails when evaluated
+    }
+
+    @Override
+    public Integer visit(ParenFactorNode node) {
+        return node.getExpr().accept(this); // parentheses only group
+    }
+
+    @Override
+    public Integer visit(MinusFactorNode node) {
+        return program.add(FlatProgram.NEGATE, node.getExpr().accept(this), 0, 0, 0, 0);
+    }
+
+    @Override
+    public Integer visit(RelationalExpressionNode node) {
+        int left = node.getLeft().accept(this);
+        return program.add(FlatProgram.LT + node.getOperator().ordinal(), left, node.getRight().accept(this), 0, 0, 0);
+    }
+}
@@ -0,0 +1,339 @@
+// Kyran Day, 10/17/2026.
+package kylang.flat;
+import java.util.Arrays;
+import java.util.List;
+import kylang.lexer.LexedLine;
+import kylang.memory.SymbolTable;
+import kylang.tree_nodes.RelationalOperator;
+import kylang.tree_nodes.Token;
+import kylang.tree_nodes.Token.Type;
+
+/**
+ * FlatParser
+ * ------------------------------------------------------------
+ * Recursive-descent parser for the same grammar as
+ * {@link kylang.parser.Parser}, rule for rule, that writes the program
+ * straight into a {@link FlatProgram} instead of building tree nodes.
+ * Variables are bound to their {@link SymbolTable} slots as they are
+ * parsed, so no resolver pass is needed. Accepts and rejects exactly the
+ * programs the tree parser does, with the same messages. */
+public final class FlatParser {
+
+    private final SymbolTable symbols;
+    private FlatProgram program;
+    private List<LexedLine> programLines;
+    private int currentLineIndex;
+    private Token[] lineTokens; // tokens of the line being parsed
+    private int tokenIndex;
+    private Token current;
+    private int[] pending = new int[64]; // statements of the blocks still open, innermost last
+    private int pendingTop;
+    private boolean spawned; // the block being parsed has a spawn not yet joined
+
+    /**
+     * @param symbols the symbol table to bind variables in */
+    public FlatParser(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    /**
+     * Parses a lexed program.
+     * Grammar: Program ::= Stmt_List
+     *
+     * @param programLines the lexed source lines
+     * @return the flat program; its root is the top-level block */
+    public FlatProgram parse(List<LexedLine> programLines) {
+        this.programLines = programLines;
+        this.currentLineIndex = 0;
+        this.program = new FlatProgram(Math.max(64, programLines.size() * 4));
+        this.pendingTop = 0;
+        this.spawned = false;
+
+        while (currentLineIndex < programLines.size()) {
+            LexedLine line = programLines.get(currentLineIndex);
+            if (line.isBlank()) {
+                currentLineIndex++;
+                continue;
+            }
+            if (line.getIndent() != 0)
+                throw new RuntimeException("Unexpected indentation at line " + (currentLineIndex + 1));
+
+            int lineBeforeStatement = currentLineIndex;
+            startLine(line);
+            push(statement(0));
+            if (currentLineIndex == lineBeforeStatement) { // simple statements end with EOL
+                match(Type.EOL);
+                currentLineIndex++;
+            }
+        }
+        if (spawned) throw error("spawn without a join at the end of the program");
+        program.root = program.block(pending, 0, pendingTop, 0);
+        program.trim();
+        return program;
+    }
+
+    // ====== RD parser methods: each returns the index of the node it appended ======
+
+    private int statement(int currentIndentLevel) {
+        return switch (current.getType()) {
+            case LET -> assnStmt();
+            case DISPLAY -> displayStmt();
+            case INPUT -> inputStmt();
+            case IF -> ifStmt();
+            case WHILE -> whileStmt(++currentIndentLevel);
+            case FOR -> forStmt(++currentIndentLevel);
+            case PARALLEL -> parallelForStmt(++currentIndentLevel);
+            case SPAWN -> spawnStmt(++currentIndentLevel);
+            case JOIN -> joinStmt();
+            default -> throw error("Expected statement, found: "+current.getType()+" at line "+current.getRow());
+        };
+    }
+
+    private int assnStmt() {
+        Token let = match(Type.LET);
+        String id = match(Type.IDENTIFIER).getLEXEME();
+        match(Type.ASSIGN);
+        int value = arithmeticExpression();
+        return node(FlatProgram.ASSIGN, symbols.slotOf(id), value, 0, let);
+    }
+
+    private int displayStmt() {
+        Token display = match(Type.DISPLAY);
+        String id = match(Type.IDENTIFIER).getLEXEME();
+        return node(FlatProgram.DISPLAY, symbols.slotOf(id), 0, 0, display);
+    }
+
+    private int inputStmt() {
+        Token input = match(Type.INPUT);
+        String id = match(Type.IDENTIFIER).getLEXEME();
+        return node(FlatProgram.INPUT, symbols.slotOf(id), program.string(id), 0, input);
+    }
+
+    /** Expression ::= Term { ("+" | "-") Term }, folded to the left */
+    private int arithmeticExpression() {
+        int acc = term();
+        while (current.getType() == Type.ADD || current.getType() == Type.SUBTRACT) {
+            Token op = current;
+            match(op.getType());
+            int rhs = term();
+            acc = node(op.getType() == Type.ADD ? FlatProgram.ADD : FlatProgram.SUB, acc, rhs, 0, op);
+        }
+        return acc;
+    }
+
+    /** Term ::= Factor { ("*" | "/") Factor }, folded to the left */
+    private int term() {
+        int acc = factor();
+        while (current.getType() == Type.MULTI || current.getType() == Type.DIVIDE) {
+            Token op = current;
+            match(op.getType());
+            int rhs = factor();
+            acc = node(op.getType() == Type.MULTI ? FlatProgram.MUL : FlatProgram.DIV, acc, rhs, 0, op);
+        }
+        return acc;
+    }
+
+    /** Factor ::= "(" Expression ")" | "-" Expression | Number | Id */
+    private int factor() {
+        switch (current.getType()) {
+            case LEFT_PAREN: {
+                match(Type.LEFT_PAREN);
+                int inner = arithmeticExpression();
+                match(Type.RIGHT_PAREN);
+                return inner; // parentheses only group
+            }
+            case SUBTRACT: {
+                Token minus = match(Type.SUBTRACT);
+                int inner = arithmeticExpression();
+                return node(FlatProgram.NEGATE, inner, 0, 0, minus);
+            }
+            case INT_LIT: {
+                Token lit = match(Type.INT_LIT);
+                try {
+                    return node(FlatProgram.NUMBER, Integer.parseInt(lit.getLEXEME()), 0, 0, lit);
+                } catch (NumberFormatException e) { // fails when evaluated, as in the tree
+                    return node(FlatProgram.BIG_NUMBER, program.string(lit.getLEXEME()), 0, 0, lit);
+                }
+            }
+            case IDENTIFIER: {
+                Token id = match(Type.IDENTIFIER);
+                return node(FlatProgram.VARIABLE, symbols.slotOf(id.getLEXEME()), 0, 0, id);
+            }
+            default:
+                throw error("Expected factor, found: "+current.getType()+" at line "+current.getRow());
+        }
+    }
+
+    /** Boolean_Expr ::= Expression relop Expression */
+    private int booleanExpression() {
+        int left = arithmeticExpression();
+        Token relop = current;
+        Type relopType = relop.getType();
+        if (relopType != Type.LT && relopType != Type.LE && relopType != Type.GT
+            && relopType != Type.GE && relopType != Type.EQ && relopType != Type.NE) {
+            throw error("Expected relational operator, found: " + relopType);
+        }
+        match(relopType);
+        int right = arithmeticExpression();
+        return node(FlatProgram.LT + RelationalOperator.of(relopType).ordinal(), left, right, 0, relop);
+    }
+
+    private int ifStmt() {
+        Token ifToken = match(Type.IF);
+        int condition = booleanExpression();
+        match(Type.COLON);
+        currentLineIndex++;
+        int thenBlock = statementBlock(1);
+
+        int elifChain = -1;
+        int elseBlock = -1;
+        boolean inBlock = true;
+        while (currentLineIndex < programLines.size() && inBlock) {
+            LexedLine line = programLines.get(currentLineIndex);
+            if (line.isBlank()) {
+                currentLineIndex++;
+                continue;
+            }
+            int indentLevel = line.getIndent();
+            Type first = line.firstType();
+
+            if (indentLevel == 0 && first == Type.ELIF) {
+                startLine(line);
+                Token elif = match(Type.ELIF);
+                int elifCondition = booleanExpression();
+                match(Type.COLON);
+                currentLineIndex++;
+                int elifBlock = statementBlock(1);
+                elifChain = node(FlatProgram.IF, elifCondition, elifBlock, elifChain, elif);
+            } else if (indentLevel == 0 && first == Type.ELSE) {
+                startLine(line);
+                match(Type.ELSE);
+                match(Type.COLON);
+                currentLineIndex++;
+                elseBlock = statementBlock(1);
+                inBlock = false;
+            } else {
+                inBlock = false;
+            }
+        }
+        return node(FlatProgram.IF, condition, thenBlock, elifChain >= 0 ? elifChain : elseBlock, ifToken);
+    }
+
+    private int whileStmt(int currentIndentLevel) {
+        Token whileToken = match(Type.WHILE);
+        int condition = booleanExpression();
+        match(Type.COLON);
+        currentLineIndex++;
+        int body = statementBlock(currentIndentLevel);
+        return node(FlatProgram.WHILE, condition, body, 0, whileToken);
+    }
+
+    private int forStmt(int expectedIndentLevel) {
+        Token forToken = match(Type.FOR);
+        int slot = symbols.slotOf(match(Type.IDENTIFIER).getLEXEME());
+        match(Type.IN);
+        int start = arithmeticExpression();
+        Token range = match(Type.RANGE);
+        int end = arithmeticExpression();
+        match(Type.COLON);
+        currentLineIndex++;
+        int body = statementBlock(expectedIndentLevel);
+        int bounds = node(FlatProgram.RANGE, start, end, 0, range);
+        return node(FlatProgram.FOR, slot, bounds, body, forToken);
+    }
+
+    /** A parallel for runs as an ordinary for loop, as on every engine but the tree interpreter. */
+    private int parallelForStmt(int expectedIndentLevel) {
+        match(Type.PARALLEL);
+        return forStmt(expectedIndentLevel);
+    }
+
+    /** A spawned block runs in place, as a block among the statements. */
+    private int spawnStmt(int expectedIndentLevel) {
+        match(Type.SPAWN);
+        match(Type.COLON);
+        currentLineIndex++;
+        int body = statementBlock(expectedIndentLevel);
+        spawned = true;
+        return body;
+    }
+
+    /** A join has nothing left to wait for: an empty block. */
+    private int joinStmt() {
+        if (!spawned) throw error("join without a spawn before it in the same block");
+        Token join = match(Type.JOIN);
+        spawned = false;
+        return program.block(pending, pendingTop, 0, join.getRow());
+    }
+
+    private int statementBlock(int currentIndentLevel) {
+        int mark = pendingTop;
+        boolean outerSpawned = spawned; // spawns are joined within their own block
+        spawned = false;
+        int row = currentLineIndex;
+        boolean inBlock = true;
+
+        while (currentLineIndex < programLines.size() && inBlock) {
+            LexedLine line = programLines.get(currentLineIndex);
+            if (line.isBlank()) {
+                currentLineIndex++;
+                continue;
+            }
+            int indentLevel = line.getIndent();
+
+            if (indentLevel < currentIndentLevel) inBlock = false;
+            else if (indentLevel > currentIndentLevel) {
+                throw new RuntimeException("Unexpected indentation level at line " + (currentLineIndex + 1)
+                    + ". Expected " + currentIndentLevel + " tabs, found " + indentLevel);
+            } else {
+                int lineBeforeStatement = currentLineIndex;
+                startLine(line);
+                Type first = current.getType();
+                push(statement(currentIndentLevel));
+                if (currentLineIndex > lineBeforeStatement && (first == Type.SPAWN || first == Type.PARALLEL))
+                    continue; // already at the line after its block, as in Parser
+                match(Type.EOL);
+                currentLineIndex++;
+            }
+        }
+        if (spawned) throw error("spawn without a join in the same block");
+        spawned = outerSpawned;
+        int block = program.block(pending, mark, pendingTop - mark, row);
+        pendingTop = mark;
+        return block;
+    }
+
+    // ==== Helpers ====
+
+    private int node(int kind, int a, int b, int c, Token at) {
+        return program.add(kind, a, b, c, at.getRow(), at.getCOLUMN());
+    }
+
+    private void push(int statement) {
+        if (pendingTop == pending.length) pending = Arrays.copyOf(pending, pendingTop * 2);
+        pending[pendingTop++] = statement;
+    }
+
+    private void startLine(LexedLine line) {
+        lineTokens = line.getTokens();
+        tokenIndex = 0;
+        current = nextToken();
+    }
+
+    private Token nextToken() {
+        if (tokenIndex >= lineTokens.length) return lineTokens[lineTokens.length - 1];
+        return lineTokens[tokenIndex++];
+    }
+
+    private Token match(Type expectedType) {
+        if (current.getType() != expectedType)
+            throw error("Expected "+expectedType+" but found "+current.getType()+" at line "+current.getRow()+", column "+current.getCOLUMN()+".");
+        Token parsed = current;
+        current = nextToken();
+        return parsed;
+    }
+
+    private RuntimeException error(String msg) {
+        return new RuntimeException("Parse error at row "+current.getRow()+", column "+current.getCOLUMN() +" : "+msg);
+    }
+}
@@ -0,0 +1,296 @@
+// Kyran Day, 10/17/2026.
+package kylang.flat;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import kylang.memory.SymbolTable;
+
+/**
+ * FlatProgram
+ * ------------------------------------------------------------
+ * A whole program in struct-of-arrays form. Node {@code n} is the
+ * {@code n}-th entry of the parallel arrays: {@code kind[n]} says what it
+ * is, and {@code a[n]}, {@code b[n]}, {@code c[n]} hold its operands (child
+ * node indices, a variable slot, or a literal value). {@code position[n]}
+ * packs its source row and column. Wrapper nodes of the object tree (unary
+ * expressions and terms, parentheses) have no entry at all. A statement
+ * block is a {@link #BLOCK} node whose statements are
+ * {@code items[a[n] .. a[n]+b[n])}.
+ *
+ * <pre>
+ *   NUMBER      a = value                BIG_NUMBER  a = index of the literal's text
+ *   VARIABLE    a = slot                 NEGATE      a = operand
+ *   ADD .. DIV  a = left,  b = right     LT .. NE    a = left,  b = right
+ *   ASSIGN      a = slot,  b = value     DISPLAY     a = slot
+ *   INPUT       a = slot,  b = index of the name as written
+ *   IF          a = condition, b = then block,
+ *               c = the elif IF node, else the else block, else -1
+ *   WHILE       a = condition, b = body block
+ *   FOR         a = slot,  b = RANGE node, c = body block
+ *   RANGE       a = start, b = end       BLOCK       a = first item, b = count
+ * </pre>
+ * Only the most recent elif reaches its else block, exactly as in the
+ * object tree (an else runs only when the if has no elif at all).
+ * The flat form runs the parallel constructs sequentially: a
+ * {@code parallel for} is a FOR, a spawned block a BLOCK among the
+ * statements, and a join an empty BLOCK. */
+public final class FlatProgram {
+
+    // Node kinds; ADD..DIV and LT..NE follow ArithmeticOperator and RelationalOperator order
+    public static final int NUMBER = 0, BIG_NUMBER = 1, VARIABLE = 2, NEGATE = 3,
+            ADD = 4, SUB = 5, MUL = 6, DIV = 7,
+            LT = 8, LE = 9, GT = 10, GE = 11, EQ = 12, NE = 13,
+            ASSIGN = 14, DISPLAY = 15, INPUT = 16, IF = 17, WHILE = 18, FOR = 19, RANGE = 20, BLOCK = 21;
+
+    private static final String[] KIND_NAMES = { "NUMBER", "BIG_NUMBER", "VARIABLE", "NEGATE", "ADD", "SUB", "MUL",
+            "DIV", "LT", "LE", "GT", "GE", "EQ", "NE", "ASSIGN", "DISPLAY", "INPUT", "IF", "WHILE", "FOR", "RANGE",
+            "BLOCK" };
+
+    private static final int MAGIC = 0x4B59464C; // "KYFL"
+    private static final int FORMAT = 1;
+
+    private static final int COLUMN_BITS = 12;
+    private static final int MAX_COLUMN = (1 << COLUMN_BITS) - 1;
+
+    int[] kind, a, b, c, position;
+    int[] items;
+    int size, itemCount;
+    final ArrayList<String> strings = new ArrayList<>();
+    int root = -1;
+
+    FlatProgram() {
+        this(64);
+    }
+
+    FlatProgram(int capacity) {
+        kind = new int[capacity];
+        a = new int[capacity];
+        b = new int[capacity];
+        c = new int[capacity];
+        position = new int[capacity];
+        items = new int[capacity];
+    }
+
+    // ==== Building ====
+
+    /** Appends a node and returns its index. */
+    int add(int nodeKind, int opA, int opB, int opC, int row, int column) {
+        if (size == kind.length) {
+            int capacity = size * 2;
+            kind = Arrays.copyOf(kind, capacity);
+            a = Arrays.copyOf(a, capacity);
+            b = Arrays.copyOf(b, capacity);
+            c = Arrays.copyOf(c, capacity);
+            position = Arrays.copyOf(position, capacity);
+        }
+        kind[size] = nodeKind;
+        a[size] = opA;
+        b[size] = opB;
+        c[size] = opC;
+        position[size] = (row << COLUMN_BITS) | Math.min(column, MAX_COLUMN);
+        return size++;
+    }
+
+    /** Appends a block node over {@code count} statement nodes taken from {@code statements[from..]}. */
+    int block(int[] statements, int from, int count, int row) {
+        if (itemCount + count > items.length) items = Arrays.copyOf(items, Math.max(items.length * 2, itemCount + count));
+        System.arraycopy(statements, from, items, itemCount, count);
+        int node = add(BLOCK, itemCount, count, 0, row, 0);
+        itemCount += count;
+        return node;
+    }
+
+    /** Stores a string (a name as written, or an out-of-range literal) and returns its index. */
+    int string(String value) {
+        strings.add(value);
+        return strings.size() - 1;
+    }
+
+    /** Releases the spare capacity left over from building. */
+    void trim() {
+        kind = Arrays.copyOf(kind, size);
+        a = Arrays.copyOf(a, size);
+        b = Arrays.copyOf(b, size);
+        c = Arrays.copyOf(c, size);
+        position = Arrays.copyOf(position, size);
+        items = Arrays.copyOf(items, itemCount);
+        strings.trimToSize();
+    }
+
+    // ==== Reading ====
+
+    /** @return the top-level block */
+    public int getRoot() { return root; }
+
+    /** @return the number of nodes */
+    public int size() { return size; }
+
+    public int kind(int node) { return kind[node]; }
+    public int a(int node) { return a[node]; }
+    public int b(int node) { return b[node]; }
+    public int c(int node) { return c[node]; }
+
+    /** @return the i-th statement of a block node */
+    public int item(int block, int i) { return items[a[block] + i]; }
+
+    public String string(int index) { return strings.get(index); }
+
+    public int row(int node) { return position[node] >>> COLUMN_BITS; }
+    public int column(int node) { return position[node] & MAX_COLUMN; }
+
+    /** @return approximate bytes held by the arrays (excluding the strings' characters) */
+    public long footprint() {
+        return 4L * (kind.length + a.length + b.length + c.length + position.length + items.length) + 6 * 16;
+    }
+
+    // ==== Binary form ====
+
+    /**
+     * Encodes the program, with the names of its variable slots, as a
+     * compact binary image: a header, the node and item arrays, then the
+     * strings and slot names, then the magic number again so that a
+     * truncated image is detected.
+     *
+     * @param symbols the symbol table the program was parsed against
+     * @return the encoded program */
+    public byte[] encode(SymbolTable symbols) {
+        long bytes = 4L * (8 + 5L * size + itemCount + 1);
+        for (String value : strings) bytes += 4 + 2L * value.length();
+        for (int slot = 0; slot < symbols.size(); slot++) bytes += 4 + 2L * symbols.nameOf(slot).length();
+        if (bytes > Integer.MAX_VALUE) throw new IllegalStateException("Program too large to encode");
+
+        ByteBuffer out = ByteBuffer.allocate((int) bytes);
+        out.putInt(MAGIC).putInt(FORMAT).putInt(size).putInt(itemCount).putInt(root)
+           .putInt(strings.size()).putInt(symbols.size()).putInt(0);
+        IntBuffer ints = out.asIntBuffer();
+        ints.put(kind, 0, size).put(a, 0, size).put(b, 0, size).put(c, 0, size).put(position, 0, size)
+            .put(items, 0, itemCount);
+        out.position(out.position() + 4 * ints.position());
+        for (String value : strings) putString(out, value);
+        for (int slot = 0; slot < symbols.size(); slot++) putString(out, symbols.nameOf(slot));
+        out.putInt(MAGIC);
+        return out.array();
+    }
+
+    /**
+     * Decodes a program written by {@link #encode}, e.g. straight from a
+     * memory-mapped file.
+     *
+     * @param in the encoded program, read from its current position
+     * @param symbols an empty symbol table; receives the program's slots
+     * @return the program
+     * @throws IllegalArgumentException if the image is not a valid encoded program, or its nodes do not form one */
+    public static FlatProgram decode(ByteBuffer in, SymbolTable symbols) {
+        try {
+            if (in.getInt() != MAGIC || in.getInt() != FORMAT) throw new IllegalArgumentException("Not an encoded program");
+            int size = in.getInt(), itemCount = in.getInt(), root = in.getInt();
+            int stringCount = in.getInt(), symbolCount = in.getInt();
+            in.getInt(); // reserved
+            if (size < 0 || itemCount < 0 || stringCount < 0 || symbolCount < 0 || root < 0 || root >= size
+                    || 4L * (5L * size + itemCount) + 4L * (stringCount + symbolCount) > in.remaining()) // before allocating
+                throw new IllegalArgumentException("Corrupt program header");
+
+            FlatProgram program = new FlatProgram(0);
+            IntBuffer ints = in.asIntBuffer();
+            program.kind = new int[size];
+            program.a = new int[size];
+            program.b = new int[size];
+            program.c = new int[size];
+            program.position = new int[size];
+            program.items = new int[itemCount];
+            ints.get(program.kind).get(program.a).get(program.b).get(program.c).get(program.position)
+                .get(program.items);
+            in.position(in.position() + 4 * ints.position());
+            for (int i = 0; i < stringCount; i++) program.strings.add(getString(in));
+            for (int slot = 0; slot < symbolCount; slot++) symbols.slotOf(getString(in));
+            if (in.getInt() != MAGIC || symbols.size() != symbolCount)
+                throw new IllegalArgumentException("Truncated or corrupt program");
+            program.size = size;
+            program.itemCount = itemCount;
+            program.root = root;
+            program.validate(symbolCount);
+            return program;
+        } catch (java.nio.BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated program", e);
+        }
+    }
+
+    /**
+     * Checks that every node has a known kind and operands of the right
+     * kinds, slots and string indices in range, and children before itself,
+     * as the parser builds them. A decoded program that passes cannot index
+     * outside its arrays or loop through its own nodes.
+     *
+     * @throws IllegalArgumentException naming the first bad node */
+    private void validate(int slots) {
+        if (kind[root] != BLOCK) throw corrupt(root);
+        for (int n = 0; n < size; n++) {
+            int x = a[n], y = b[n], z = c[n];
+            boolean ok = switch (kind[n]) {
+                case NUMBER -> true;
+                case BIG_NUMBER -> x >= 0 && x < strings.size();
+                case VARIABLE, DISPLAY -> x >= 0 && x < slots;
+                case NEGATE -> isExpression(x, n);
+                case ADD, SUB, MUL, DIV, LT, LE, GT, GE, EQ, NE -> isExpression(x, n) && isExpression(y, n);
+                case ASSIGN -> x >= 0 && x < slots && isExpression(y, n);
+                case INPUT -> x >= 0 && x < slots && y >= 0 && y < strings.size();
+                case IF -> isCondition(x, n) && isKind(y, n, BLOCK) && (z == -1 || isKind(z, n, IF) || isKind(z, n, BLOCK));
+                case WHILE -> isCondition(x, n) && isKind(y, n, BLOCK);
+                case FOR -> x >= 0 && x < slots && isKind(y, n, RANGE) && isKind(z, n, BLOCK);
+                case RANGE -> isExpression(x, n) && isExpression(y, n);
+                case BLOCK -> x >= 0 && y >= 0 && x <= itemCount - y && isStatements(x, x + y, n);
+                default -> false;
+            };
+            if (!ok) throw corrupt(n);
+        }
+    }
+
+    private boolean isKind(int child, int parent, int expected) {
+        return child >= 0 && child < parent && kind[child] == expected;
+    }
+
+    private boolean isExpression(int child, int parent) {
+        return child >= 0 && child < parent && kind[child] >= NUMBER && kind[child] <= DIV;
+    }
+
+    private boolean isCondition(int child, int parent) {
+        return child >= 0 && child < parent && kind[child] >= LT && kind[child] <= NE;
+    }
+
+    private boolean isStatements(int from, int to, int parent) {
+        for (int i = from; i < to; i++) {
+            int item = items[i];
+            if (item < 0 || item >= parent || kind[item] < ASSIGN || kind[item] > FOR && kind[item] != BLOCK) return false; // a block runs in place
+        }
+        return true;
+    }
+
+    private IllegalArgumentException corrupt(int n) {
+        return new IllegalArgumentException("Corrupt program: node " + n + " of kind " + kind[n]);
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        out.putInt(value.length());
+        for (int i = 0; i < value.length(); i++) out.putChar(value.charAt(i));
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0 || length > in.remaining() / 2) throw new IllegalArgumentException("Corrupt string");
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) chars[i] = in.getChar();
+        return new String(chars);
+    }
+
+    /** @return a one-node-per-line dump, for debugging */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int n = 0; n < size; n++) {
+            sb.append(String.format("%6d  %-10s %8d %8d %8d   @%d:%d%n",
+                    n, KIND_NAMES[kind[n]], a[n], b[n], c[n], row(n), column(n)));
+        }
+        return sb.append("root ").append(root).append('\n').toString();
+    }
+}
@@ -0,0 +1,215 @@
+// Kyran Day, 10/17/2026.
+package kylang.flat;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.zip.CRC32;
+import kylang.memory.SymbolTable;
+
+/**
+ * ProgramCache
+ * ------------------------------------------------------------
+ * A directory of parsed programs in flat form, so that a script that has
+ * been run before skips lexing and parsing. Entries are keyed by the
+ * SHA-256 of the interpreter version and the source bytes: editing the
+ * script or upgrading the interpreter simply misses. Each entry repeats
+ * its digest, then holds a CRC-32 of the encoded program and the program
+ * itself. An entry whose checksum does not match, or whose program does
+ * not decode to well-formed nodes, is treated as a miss and removed.
+ *
+ * Entries are written to a private temporary file and atomically renamed
+ * into place, so processes starting together never see a partial entry;
+ * the last rename wins, and all writers wrote the same bytes anyway. The
+ * directory is kept under a byte budget by evicting the least recently
+ * used entries, where a hit refreshes the entry's modification time. */
+public final class ProgramCache {
+
+    /** Part of every key; change it whenever the flat form or its meaning changes. */
+    public static final String VERSION = "kylang-flat-2";
+    public static final long DEFAULT_MAX_BYTES = 256L << 20;
+
+    private static final String SUFFIX = ".kyc";
+    private static final int DIGEST_BYTES = 32;
+    private static final int CHECKSUM_BYTES = 4;
+    private static final long STALE_TEMP_MILLIS = 60 * 60 * 1000;
+
+    private final Path directory;
+    private final long maxBytes;
+
+    /**
+     * @param directory the cache directory; created when first written to
+     * @param maxBytes the most the entries may take up together */
+    public ProgramCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /** @return {@code $XDG_CACHE_HOME/kylang}, or {@code ~/.cache/kylang} */
+    public static Path defaultDirectory() {
+        String xdg = System.getenv("XDG_CACHE_HOME");
+        Path base = (xdg != null && !xdg.isEmpty()) ? Paths.get(xdg) : Paths.get(System.getProperty("user.home"), ".cache");
+        return base.resolve("kylang");
+    }
+
+    /**
+     * @param source the program source, as read from disk
+     * @return the digest of the interpreter version and the source */
+    public static byte[] digest(byte[] source) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(VERSION.getBytes(StandardCharsets.UTF_8));
+            sha.update((byte) 0);
+            return sha.digest(source);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JDK provides SHA-256
+        }
+    }
+
+    /**
+     * Loads a cached program.
+     *
+     * @param digest the {@link #digest} of the source
+     * @param symbols an empty symbol table; receives the program's slots (discard it on a miss)
+     * @return the program, or null on a miss */
+    public FlatProgram load(byte[] digest, SymbolTable symbols) {
+        Path entry = entry(digest);
+        try (FileChannel channel = FileChannel.open(entry, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            byte[] stored = new byte[DIGEST_BYTES];
+            buffer.get(stored);
+            if (!Arrays.equals(stored, digest)) throw new IllegalArgumentException("Digest mismatch");
+            int checksum = buffer.getInt();
+            if (checksum != checksum(buffer.slice())) throw new IllegalArgumentException("Checksum mismatch");
+            FlatProgram program = FlatProgram.decode(buffer, symbols);
+            touch(entry);
+            return program;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) { // unreadable or corrupt: drop it
+            deleteQuietly(entry);
+            return null;
+        }
+    }
+
+    /**
+     * Stores a program, then evicts least recently used entries over the budget.
+     *
+     * @param digest the {@link #digest} of the source
+     * @param program the parsed program
+     * @param symbols the symbol table it was parsed against
+     * @throws UncheckedIOException if the entry cannot be written */
+    public void store(byte[] digest, FlatProgram program, SymbolTable symbols) {
+        byte[] encoded = program.encode(symbols);
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, hex(digest, 8) + "-", ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer out = ByteBuffer.allocate(DIGEST_BYTES + CHECKSUM_BYTES + encoded.length);
+                out.put(digest).putInt(checksum(ByteBuffer.wrap(encoded))).put(encoded).flip();
+                while (out.hasRemaining()) channel.write(out);
+                channel.force(false);
+            }
+            Path entry = entry(digest);
+            try {
+                Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+            temp = null;
+            evict();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (temp != null) deleteQuietly(temp);
+        }
+    }
+
+    /** Deletes least recently used entries until the rest fit the budget, and abandoned temporary files. */
+    private void evict() throws IOException {
+        ArrayList<Path> entries = new ArrayList<>();
+        ArrayList<FileTime> used = new ArrayList<>();
+        ArrayList<Long> sizes = new ArrayList<>();
+        long total = 0;
+        long now = System.currentTimeMillis();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    FileTime modified = Files.getLastModifiedTime(file);
+                    if (name.endsWith(".tmp")) {
+                        if (now - modified.toMillis() > STALE_TEMP_MILLIS) deleteQuietly(file); // a writer died
+                    } else if (name.endsWith(SUFFIX)) {
+                        long size = Files.size(file);
+                        entries.add(file);
+                        used.add(modified);
+                        sizes.add(size);
+                        total += size;
+                    }
+                } catch (NoSuchFileException e) {
+                    // removed by another process meanwhile
+                }
+            }
+        }
+        if (total <= maxBytes) return;
+
+        Integer[] order = new Integer[entries.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparing(used::get));
+        for (int i = 0; i < order.length && total > maxBytes; i++) {
+            deleteQuietly(entries.get(order[i]));
+            total -= sizes.get(order[i]);
+        }
+    }
+
+    /** @return the CRC-32 of the bytes left in the buffer, leaving it exhausted */
+    private static int checksum(ByteBuffer bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    private Path entry(byte[] digest) {
+        return directory.resolve(hex(digest, digest.length) + SUFFIX);
+    }
+
+    private static void touch(Path entry) {
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // a read-only cache still serves hits
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // another process may hold or have removed it
+        }
+    }
+
+    private static String hex(byte[] bytes, int count) {
+        StringBuilder sb = new StringBuilder(count * 2);
+        for (int i = 0; i < count; i++) sb.append(Character.forDigit((bytes[i] >> 4) & 0xF, 16))
+                .append(Character.forDigit(bytes[i] & 0xF, 16));
+        return sb.toString();
+    }
+}
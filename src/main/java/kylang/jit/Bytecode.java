@@ -0,0 +1,139 @@
+// Kyran Day, 10/17/2026.
+package kylang.jit;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Bytecode
+ * ------------------------------------------------------------
+ * Assembles the body of one generated method. Tracks the operand stack
+ * depth as instructions are emitted, resolves forward and backward
+ * jumps through {@link Label}s, and records the stack depth at every
+ * jump target so the StackMapTable can be written at the end. The
+ * generated code only ever holds ints on the stack, and every local is
+ * initialized on entry, which keeps each frame trivially describable. */
+final class Bytecode {
+
+    // Opcodes used by the generator
+    static final int ICONST_0 = 0x03, BIPUSH = 0x10, SIPUSH = 0x11, LDC = 0x12, LDC_W = 0x13;
+    static final int ILOAD = 0x15, ALOAD = 0x19, IALOAD = 0x2e, ISTORE = 0x36, ASTORE = 0x3a, IASTORE = 0x4f;
+    static final int DUP = 0x59, IADD = 0x60, ISUB = 0x64, IMUL = 0x68, IDIV = 0x6c, INEG = 0x74, IINC = 0x84;
+    static final int IFEQ = 0x99, IF_ICMPEQ = 0x9f, GOTO = 0xa7, RETURN = 0xb1;
+    static final int INVOKESPECIAL = 0xb7, INVOKESTATIC = 0xb8, NEW = 0xbb, NEWARRAY = 0xbc, ATHROW = 0xbf;
+    static final int WIDE = 0xc4;
+
+    /** A jump target; bound to an offset once its position is known. */
+    static final class Label {
+        int offset = -1;
+        int stack = -1;                                    // operand stack depth at the target
+        private final ArrayList<int[]> fixups = new ArrayList<>(); // {instruction offset, operand offset}
+    }
+
+    private byte[] code = new byte[256];
+    private int length;
+    private int stack, maxStack;
+    private boolean reachable = true;                       // false right after goto/athrow/return
+    private final ArrayList<Label> targets = new ArrayList<>();
+
+    int length() { return length; }
+    int maxStack() { return maxStack; }
+    ArrayList<Label> targets() { return targets; }
+    byte[] toByteArray() { return Arrays.copyOf(code, length); }
+
+    // ==== Instructions ====
+
+    void pushInt(ConstantPool pool, int value) {
+        if (value >= -1 && value <= 5) op(ICONST_0 + value, 1);
+        else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) { op(BIPUSH, 1); u1(value); }
+        else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) { op(SIPUSH, 1); u2(value); }
+        else ldc(pool.integer(value));
+    }
+
+    void ldc(int index) {
+        if (index <= 0xFF) { op(LDC, 1); u1(index); }
+        else { op(LDC_W, 1); u2(index); }
+    }
+
+    void iload(int local) { local(ILOAD, local, 1); }
+    void istore(int local) { local(ISTORE, local, -1); }
+    void aload(int local) { local(ALOAD, local, 1); }
+    void astore(int local) { local(ASTORE, local, -1); }
+
+    void iinc(int local, int delta) {
+        if (local <= 0xFF && delta >= Byte.MIN_VALUE && delta <= Byte.MAX_VALUE) {
+            op(IINC, 0); u1(local); u1(delta);
+        } else {
+            op(WIDE, 0); u1(IINC); u2(local); u2(delta);
+        }
+    }
+
+    /** Emits an instruction with no operands, adjusting the stack by {@code delta}. */
+    void op(int opcode, int delta) {
+        if (!reachable) throw new IllegalStateException("Unreachable code emitted without a label");
+        ensure(1);
+        code[length++] = (byte) opcode;
+        stack += delta;
+        if (stack > maxStack) maxStack = stack;
+        if (opcode == GOTO || opcode == ATHROW || opcode == RETURN) reachable = false;
+    }
+
+    /** Emits an instruction taking a two-byte constant pool index. */
+    void op(int opcode, int delta, int index) {
+        op(opcode, delta);
+        u2(index);
+    }
+
+    /**
+     * Emits a conditional or unconditional jump.
+     *
+     * @param opcode the branch opcode
+     * @param pops the number of ints the branch pops
+     * @param target the label to jump to */
+    void jump(int opcode, int pops, Label target) {
+        int at = length;
+        op(opcode, -pops);
+        if (target.stack < 0) target.stack = stack;
+        else if (target.stack != stack) throw new IllegalStateException("Stack depth mismatch at jump target");
+        if (target.offset >= 0) u2(target.offset - at);
+        else { target.fixups.add(new int[] { at, length }); u2(0); }
+    }
+
+    /** Binds a label to the current offset. */
+    void bind(Label label) {
+        if (!reachable) { // only reachable through jumps
+            if (label.stack < 0) label.stack = 0;
+            stack = label.stack;
+        } else if (label.stack < 0) label.stack = stack;
+        else if (label.stack != stack) throw new IllegalStateException("Stack depth mismatch at label");
+        label.offset = length;
+        reachable = true;
+        for (int[] fixup : label.fixups) {
+            int delta = length - fixup[0];
+            code[fixup[1]] = (byte) (delta >> 8);
+            code[fixup[1] + 1] = (byte) delta;
+        }
+        targets.add(label);
+    }
+
+    // ==== Encoding ====
+
+    private void local(int opcode, int local, int delta) {
+        if (local <= 0xFF) { op(opcode, delta); u1(local); }
+        else { op(WIDE, 0); u1(opcode); u2(local); stack += delta; if (stack > maxStack) maxStack = stack; }
+    }
+
+    void u1(int value) {
+        ensure(1);
+        code[length++] = (byte) value;
+    }
+
+    private void u2(int value) {
+        ensure(2);
+        code[length++] = (byte) (value >> 8);
+        code[length++] = (byte) value;
+    }
+
+    private void ensure(int bytes) {
+        if (length + bytes > code.length) code = Arrays.copyOf(code, Math.max(code.length * 2, length + bytes));
+    }
+}
@@ -0,0 +1,141 @@
+// Kyran Day, 10/17/2026.
+package kylang.jit;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import kylang.memory.Memory;
+import kylang.runtime.ExecutionContext;
+
+/**
+ * CompiledProgram
+ * ------------------------------------------------------------
+ * The class file produced by {@link JitCompiler}. It is defined as a
+ * hidden class on first use, so each compiled program can be unloaded
+ * with its last reference, or written out as a regular {@code .class}
+ * file or runnable jar for ahead-of-time reuse. */
+public final class CompiledProgram {
+
+    private final byte[] classBytes;
+    private final String className;
+    private final String descriptor;
+    private final int variableCount;
+    private MethodHandle entry; // the run method, bound when the hidden class is defined
+
+    CompiledProgram(byte[] classBytes, String className, String descriptor, int variableCount) {
+        this.classBytes = classBytes;
+        this.className = className;
+        this.descriptor = descriptor;
+        this.variableCount = variableCount;
+    }
+
+    /**
+     * Runs the compiled program against a memory environment. Variables
+     * are read from the memory frame on entry and written back on exit,
+     * and display and input use the memory's context.
+     *
+     * @param memory the memory holding the program's variables
+     * @throws IllegalArgumentException if the memory has no frame ({@link Memory#hasFrame}) */
+    public void run(Memory memory) {
+        checkFrame(memory);
+        memory.ensureCapacity();
+        ExecutionContext outer = ExecutionContext.makeCurrent(memory.getContext()); // display and input calls find it here
+        try {
+            entry(JitCompiler.RUN_DESCRIPTOR).invokeExact(memory.getFrame());
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        } finally {
+            ExecutionContext.makeCurrent(outer);
+        }
+    }
+
+    /**
+     * Runs the remaining iterations of a compiled for-loop tail.
+     *
+     * @param memory the memory holding the program's variables
+     * @param from the next value of the loop counter
+     * @param end the loop's (already evaluated) end bound
+     * @throws IllegalArgumentException if the memory has no frame ({@link Memory#hasFrame}) */
+    public void run(Memory memory, int from, int end) {
+        checkFrame(memory);
+        memory.ensureCapacity();
+        ExecutionContext outer = ExecutionContext.makeCurrent(memory.getContext()); // display and input calls find it here
+        try {
+            entry(JitCompiler.TAIL_DESCRIPTOR).invokeExact(memory.getFrame(), from, end);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        } finally {
+            ExecutionContext.makeCurrent(outer);
+        }
+    }
+
+    /**
+     * Writes the class out for ahead-of-time reuse. A path ending in
+     * {@code .jar} produces a runnable jar (its main method runs the program
+     * in a fresh memory, with the kylang classes on the class path); any other
+     * path is treated as a class output directory.
+     *
+     * @param path the jar file or output directory
+     * @throws IOException if the file cannot be written */
+    public void writeTo(Path path) throws IOException {
+        String entryName = className.replace('.', '/') + ".class";
+        if (path.toString().endsWith(".jar")) {
+            Manifest manifest = new Manifest();
+            manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+            manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, className);
+            try (OutputStream file = Files.newOutputStream(path);
+                 JarOutputStream jar = new JarOutputStream(file, manifest)) {
+                jar.putNextEntry(new JarEntry(entryName));
+                jar.write(classBytes);
+                jar.closeEntry();
+            }
+        } else {
+            Path file = path.resolve(entryName);
+            Files.createDirectories(file.getParent());
+            Files.write(file, classBytes);
+        }
+    }
+
+    /**
+     * Defines the hidden class now rather than on the first run, so the
+     * cost is paid (and any error raised) up front. */
+    public void define() {
+        try {
+            entry(descriptor);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** @return the raw class file bytes */
+    public byte[] getClassBytes() { return classBytes.clone(); }
+
+    /** @return the number of variable slots the program reads and writes */
+    public int getVariableCount() { return variableCount; }
+
+    private static void checkFrame(Memory memory) {
+        if (!memory.hasFrame()) throw new IllegalArgumentException("compiled code needs a plain memory");
+    }
+
+    private MethodHandle entry(String expected) throws IllegalAccessException, NoSuchMethodException {
+        if (!descriptor.equals(expected))
+            throw new IllegalStateException("Compiled code has signature " + descriptor + ", not " + expected);
+        if (entry == null) {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(classBytes, true);
+            MethodType type = MethodType.fromMethodDescriptorString(descriptor, null);
+            entry = lookup.findStatic(lookup.lookupClass(), "run", type);
+        }
+        return entry;
+    }
+}
@@ -0,0 +1,72 @@
+// Kyran Day, 10/17/2026.
+package kylang.jit;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+
+/**
+ * ConstantPool
+ * ------------------------------------------------------------
+ * Builds the constant pool of a generated class file. Entries are
+ * de-duplicated, so asking for the same constant twice returns the
+ * same index. */
+final class ConstantPool {
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(bytes);
+    private final HashMap<String, Integer> indices = new HashMap<>();
+    private int count = 1; // index 0 is reserved by the class file format
+
+    int utf8(String value) {
+        return entry("U" + value, () -> { out.writeByte(1); out.writeUTF(value); });
+    }
+
+    int classRef(String internalName) {
+        int name = utf8(internalName);
+        return entry("C" + internalName, () -> { out.writeByte(7); out.writeShort(name); });
+    }
+
+    int string(String value) {
+        int utf = utf8(value);
+        return entry("S" + value, () -> { out.writeByte(8); out.writeShort(utf); });
+    }
+
+    int integer(int value) {
+        return entry("I" + value, () -> { out.writeByte(3); out.writeInt(value); });
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+        int cls = classRef(owner);
+        int nat = nameAndType(name, descriptor);
+        return entry("M" + owner + "." + name + descriptor, () -> {
+            out.writeByte(10); out.writeShort(cls); out.writeShort(nat);
+        });
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        int n = utf8(name);
+        int d = utf8(descriptor);
+        return entry("N" + name + ":" + descriptor, () -> { out.writeByte(12); out.writeShort(n); out.writeShort(d); });
+    }
+
+    /** @return the constant_pool_count value (one more than the last index) */
+    int count() { return count; }
+
+    byte[] toByteArray() { return bytes.toByteArray(); }
+
+    private interface Writer { void write() throws IOException; }
+
+    private int entry(String key, Writer writer) {
+        Integer index = indices.get(key);
+        if (index != null) return index;
+        try {
+            writer.write();
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // ByteArrayOutputStream never throws
+        }
+        indices.put(key, count);
+        if (count == 0xFFFF) throw new IllegalStateException("Constant pool overflow");
+        return count++;
+    }
+}
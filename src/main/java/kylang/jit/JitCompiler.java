@@ -0,0 +1,454 @@
+// Kyran Day, 10/17/2026.
+package kylang.jit;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import kylang.memory.SymbolTable;
+import kylang.statements.*;
+import kylang.tree_nodes.*;
+
+/**
+ * JitCompiler
+ * ------------------------------------------------------------
+ * Translates a resolved {@link StatementList} into a JVM class with one
+ * static method, {@code run(int[] frame)}, so HotSpot compiles the user's
+ * program as a single straight-line method. Every variable is held in a
+ * JVM local for the whole run (loaded from the memory frame on entry and
+ * stored back on exit); arithmetic uses native {@code iadd/isub/imul/idiv},
+ * and if/while/for become real branches and loops. Division by a value
+ * that is not a non-zero literal is checked first so the error matches
+ * the interpreter's {@code ArithmeticException("divide by zero")}.
+ * Display and input call static helpers that use the context of the
+ * run on the current thread.
+ * Single loops can also be compiled on their own, for promoting a hot
+ * loop of an interpreted program (see {@link LoopTier}). */
+public final class JitCompiler implements NodeVisitor<Void> {
+
+    static final String CLASS_NAME = "kylang/jit/KylangProgram"; // must share the package of the defining lookup
+    static final String RUN_DESCRIPTOR = "([I)V";
+    static final String TAIL_DESCRIPTOR = "([III)V"; // frame, first remaining counter value, end bound
+
+    private static final int MAX_BRANCH = Short.MAX_VALUE;   // branch offsets are signed 16-bit
+
+    private final SymbolTable symbols;
+    private ConstantPool pool;
+    private Bytecode code;
+    private int variableCount;
+    private int firstVariableLocal; // locals before this hold the method parameters
+    private int divisorLocal;   // scratch local holding a divisor while it is checked for zero
+    private int nextLocal;      // next free local for loop counters and bounds
+    private int maxLocals;
+
+    /**
+     * @param symbols the symbol table the program was resolved against */
+    public JitCompiler(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    /**
+     * Compiles a whole program into class file bytes.
+     *
+     * @param program the resolved statement list
+     * @return the compiled program, ready to be defined as a hidden class or written out */
+    public CompiledProgram compile(StatementList program) {
+        begin(1);
+        block(program);
+        return finish(RUN_DESCRIPTOR, true);
+    }
+
+    /**
+     * Compiles a single while loop, entered at its loop head: the
+     * condition is tested first, against the current memory state.
+     *
+     * @param loop the resolved loop
+     * @return a program running the loop to completion */
+    public CompiledProgram compileLoop(WhileStatement loop) {
+        begin(1);
+        loop.accept(this);
+        return finish(RUN_DESCRIPTOR, false);
+    }
+
+    /**
+     * Compiles the remaining iterations of a for loop whose bounds have
+     * already been evaluated, taking the next counter value and the end
+     * bound as arguments ({@code run(int[] frame, int from, int end)}).
+     *
+     * @param loop the resolved loop
+     * @return a program finishing the loop */
+    public CompiledProgram compileLoopTail(ForStatement loop) {
+        begin(3);
+        int counter = nextLocal++;
+        int end = nextLocal++;
+        maxLocals = Math.max(maxLocals, nextLocal);
+        code.iload(1);
+        code.istore(counter);
+        code.iload(2);
+        code.istore(end);
+        forLoop(loop, counter, end);
+        return finish(TAIL_DESCRIPTOR, false);
+    }
+
+    private void begin(int parameterLocals) {
+        pool = new ConstantPool();
+        code = new Bytecode();
+        variableCount = symbols.size();
+        firstVariableLocal = parameterLocals;
+        divisorLocal = firstVariableLocal + variableCount;
+        nextLocal = maxLocals = divisorLocal + 1;
+    }
+
+    private CompiledProgram finish(String descriptor, boolean withMain) {
+        storeVariables(code);
+        code.op(Bytecode.RETURN, 0);
+        if (code.length() > MAX_BRANCH)
+            throw new IllegalStateException("Program too large to compile to a single JVM method ("
+                    + code.length() + " bytes)");
+        return new CompiledProgram(assemble(descriptor, withMain), CLASS_NAME.replace('/', '.'), descriptor, variableCount);
+    }
+
+    private void block(StatementList list) {
+        if (list == null) return;
+        for (Statement stmt : list.getStatements()) stmt.accept(this);
+    }
+
+    // ==== Statements ====
+
+    @Override
+    public Void visit(AssignmentStatement stmt) {
+        stmt.getExpression().accept(this);
+        code.istore(local(stmt.getSlot()));
+        return null;
+    }
+
+    @Override
+    public Void visit(DisplayStatement stmt) {
+        code.iload(local(stmt.getSlot()));
+        code.op(Bytecode.INVOKESTATIC, -1, pool.methodRef("kylang/statements/DisplayStatement", "print", "(I)V"));
+        return null;
+    }
+
+    @Override
+    public Void visit(InputStatement stmt) {
+        code.ldc(pool.string(stmt.getId()));
+        code.op(Bytecode.INVOKESTATIC, 0,
+                pool.methodRef("kylang/statements/InputStatement", "readValue", "(Ljava/lang/String;)I"));
+        code.istore(local(stmt.getSlot()));
+        return null;
+    }
+
+    @Override
+    public Void visit(IfStatement stmt) {
+        Bytecode.Label next = new Bytecode.Label();
+        branch(stmt.getCondition(), false, next);
+        block(stmt.getThenBlock());
+        if (stmt.getElifChain() == null && stmt.getElseBlock() == null) {
+            code.bind(next);
+            return null;
+        }
+        Bytecode.Label end = new Bytecode.Label();
+        code.jump(Bytecode.GOTO, 0, end);
+        code.bind(next);
+        if (stmt.getElifChain() != null) stmt.getElifChain().accept(this); // same precedence as IfStatement.execute
+        else block(stmt.getElseBlock());
+        code.bind(end);
+        return null;
+    }
+
+    @Override
+    public Void visit(WhileStatement stmt) {
+        Bytecode.Label top = new Bytecode.Label();
+        Bytecode.Label test = new Bytecode.Label();
+        code.jump(Bytecode.GOTO, 0, test);
+        code.bind(top);
+        block(stmt.getBody());
+        code.bind(test);
+        branch(stmt.getCondition(), true, top);
+        return null;
+    }
+
+    @Override
+    public Void visit(ForStatement stmt) {
+        int counter = nextLocal++;
+        int end = nextLocal++;
+        maxLocals = Math.max(maxLocals, nextLocal);
+        stmt.getStartExpr().accept(this); // bounds are evaluated once, start first
+        code.istore(counter);
+        stmt.getEndExpr().accept(this);
+        code.istore(end);
+        forLoop(stmt, counter, end);
+        nextLocal -= 2;
+        return null;
+    }
+
+    @Override
+    public Void visit(SpawnStatement stmt) { // compiled code runs sequentially: the block runs in place
+        block(stmt.getBody());
+        return null;
+    }
+
+    @Override
+    public Void visit(JoinStatement stmt) { return null; }
+
+    /** Emits the loop itself, given locals already holding the counter and end bound. */
+    private void forLoop(ForStatement stmt, int counter, int end) {
+        Bytecode.Label top = new Bytecode.Label();
+        Bytecode.Label exit = new Bytecode.Label();
+        code.iload(counter);
+        code.iload(end);
+        code.jump(Bytecode.IF_ICMPEQ + relop(RelationalOperator.GT), 2, exit);
+        code.bind(top);
+        code.iload(counter);
+        code.istore(local(stmt.getSlot()));
+        block(stmt.getBody());
+        code.iinc(counter, 1);                 // wraps exactly like the interpreter's i++
+        code.iload(counter);
+        code.iload(end);
+        code.jump(Bytecode.IF_ICMPEQ + relop(RelationalOperator.LE), 2, top);
+        code.bind(exit);
+    }
+
+    // ==== Expressions: each visit leaves one int on the operand stack ====
+
+    @Override
+    public Void visit(BinaryExpressionNode node) {
+        node.getLeft().accept(this);
+        node.getRight().accept(this);
+        code.op(node.getOperator() == ArithmeticOperator.ADD ? Bytecode.IADD : Bytecode.ISUB, -1);
+        return null;
+    }
+
+    @Override
+    public Void visit(UnaryExpressionNode node) { return node.getTerm().accept(this); }
+
+    @Override
+    public Void visit(BinaryTermNode node) {
+        node.getLeft().accept(this);
+        node.getRight().accept(this);
+        if (node.getOperator() == ArithmeticOperator.MULTIPLY) code.op(Bytecode.IMUL, -1);
+        else divide(node);
+        return null;
+    }
+
+    @Override
+    public Void visit(UnaryTermNode node) { return node.getFactor().accept(this); }
+
+    @Override
+    public Void visit(IdentifierFactorNode node) {
+        code.iload(local(node.getSlot()));
+        return null;
+    }
+
+    @Override
+    public Void visit(NumberFactorNode node) {
+        if (node.isInRange()) {
+            code.pushInt(pool, node.getValue());
+        } else { // Integer.parseInt of the literal: throws when run, as in the tree, and still types as an int
+            code.ldc(pool.string(node.getIntLit().getLEXEME()));
+            code.op(Bytecode.INVOKESTATIC, 0, pool.methodRef("java/lang/Integer", "parseInt", "(Ljava/lang/String;)I"));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visit(ParenFactorNode node) { return node.getExpr().accept(this); }
+
+    @Override
+    public Void visit(MinusFactorNode node) {
+        node.getExpr().accept(this);
+        code.op(Bytecode.INEG, 0);
+        return null;
+    }
+
+    @Override
+    public Void visit(RelationalExpressionNode node) {
+        throw new IllegalStateException("Relational expressions are compiled as branches");
+    }
+
+    // ==== Helpers ====
+
+    /** JVM local holding a variable slot (local 0 is the frame array, then any parameters). */
+    private int local(int slot) { return firstVariableLocal + slot; }
+
+    /**
+     * Divides the two ints on the stack. A divisor that is not a non-zero
+     * literal, and was not proven non-zero by range analysis, is checked
+     * first and raises the interpreter's exception. */
+    private void divide(BinaryTermNode node) {
+        Integer constant = NodeShapes.literal(node.getRight());
+        if ((constant == null || constant == 0) && !node.isDivisorNonZero()) {
+            Bytecode.Label ok = new Bytecode.Label();
+            code.istore(divisorLocal);
+            code.iload(divisorLocal);
+            code.jump(Bytecode.IFEQ + 1, 1, ok);       // ifne ok
+            code.op(Bytecode.NEW, 1, pool.classRef("java/lang/ArithmeticException"));
+            code.op(Bytecode.DUP, 1);
+            code.ldc(pool.string("divide by zero"));
+            code.op(Bytecode.INVOKESPECIAL, -2,
+                    pool.methodRef("java/lang/ArithmeticException", "<init>", "(Ljava/lang/String;)V"));
+            code.op(Bytecode.ATHROW, -1);
+            code.bind(ok);
+            code.iload(divisorLocal);
+        }
+        code.op(Bytecode.IDIV, -1);
+    }
+
+    /** Compiles a condition into a compare-and-branch taken when it equals {@code jumpIf}. */
+    private void branch(BooleanExpressionNode condition, boolean jumpIf, Bytecode.Label target) {
+        RelationalExpressionNode rel = (RelationalExpressionNode) condition;
+        int relop = relop(rel.getOperator());
+        if (!jumpIf) relop ^= 1; // EQ/NE, LT/GE, GT/LE are adjacent pairs
+        rel.getLeft().accept(this);
+        Integer constant = NodeShapes.literal(rel.getRight());
+        if (constant != null && constant == 0) {
+            code.jump(Bytecode.IFEQ + relop, 1, target);
+        } else {
+            rel.getRight().accept(this);
+            code.jump(Bytecode.IF_ICMPEQ + relop, 2, target);
+        }
+    }
+
+    /** Offset of the operator's branch from if_icmpeq (or ifeq): EQ, NE, LT, GE, GT, LE. */
+    private static int relop(RelationalOperator operator) {
+        return switch (operator) {
+            case EQ -> 0;
+            case NE -> 1;
+            case LT -> 2;
+            case GE -> 3;
+            case GT -> 4;
+            case LE -> 5;
+        };
+    }
+
+
+    private void loadVariables(Bytecode to) {
+        for (int slot = 0; slot < variableCount; slot++) {
+            to.aload(0);
+            to.pushInt(pool, slot);
+            to.op(Bytecode.IALOAD, -1);
+            to.istore(local(slot));
+        }
+        for (int local = divisorLocal; local < maxLocals; local++) { // every local is an int before the first label
+            to.op(Bytecode.ICONST_0, 1);
+            to.istore(local);
+        }
+    }
+
+    private void storeVariables(Bytecode to) {
+        for (int slot = 0; slot < variableCount; slot++) {
+            to.aload(0);
+            to.pushInt(pool, slot);
+            to.iload(local(slot));
+            to.op(Bytecode.IASTORE, -3);
+        }
+    }
+
+    // ==== Class file assembly ====
+
+    private byte[] assemble(String descriptor, boolean withMain) {
+        Bytecode prologue = new Bytecode();
+        loadVariables(prologue);
+        byte[] body = code.toByteArray();
+        int shift = prologue.length();
+
+        int thisClass = pool.classRef(CLASS_NAME);
+        int superClass = pool.classRef("java/lang/Object");
+        int codeName = pool.utf8("Code");
+        int frameName = pool.utf8("StackMapTable");
+        int frameArray = pool.classRef("[I");
+        int runName = pool.utf8("run");
+        int runDescriptor = pool.utf8(descriptor);
+        int mainName = 0, mainDescriptor = 0;
+        Bytecode main = new Bytecode(); // main(String[]): run(new int[variableCount])
+        if (withMain) {
+            mainName = pool.utf8("main");
+            mainDescriptor = pool.utf8("([Ljava/lang/String;)V");
+            main.pushInt(pool, variableCount);
+            main.op(Bytecode.NEWARRAY, 0);
+            main.u1(10); // T_INT
+            main.op(Bytecode.INVOKESTATIC, -1, pool.methodRef(CLASS_NAME, "run", RUN_DESCRIPTOR));
+            main.op(Bytecode.RETURN, 0);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(52);                       // Java 8 class file format
+            out.writeShort(pool.count());
+            out.write(pool.toByteArray());
+            out.writeShort(0x0001 | 0x0010 | 0x0020); // public final super
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0);                        // interfaces
+            out.writeShort(0);                        // fields
+            out.writeShort(withMain ? 2 : 1);         // methods
+
+            byte[] frames = stackMapTable(code.targets(), shift, frameArray);
+            byte[] runCode = new byte[shift + body.length];
+            System.arraycopy(prologue.toByteArray(), 0, runCode, 0, shift);
+            System.arraycopy(body, 0, runCode, shift, body.length);
+            method(out, runName, runDescriptor, codeName, frameName,
+                    Math.max(code.maxStack(), prologue.maxStack()), maxLocals, runCode, frames);
+            if (withMain)
+                method(out, mainName, mainDescriptor, codeName, frameName, main.maxStack(), 1, main.toByteArray(), null);
+
+            out.writeShort(0);                        // class attributes
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void method(DataOutputStream out, int name, int descriptor, int codeName, int frameName,
+                               int maxStack, int maxLocals, byte[] code, byte[] frames) throws IOException {
+        out.writeShort(0x0001 | 0x0008); // public static
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1);               // one attribute: Code
+        out.writeShort(codeName);
+        int attributes = (frames != null) ? 2 + 6 + frames.length : 2;
+        out.writeInt(2 + 2 + 4 + code.length + 2 + attributes);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0);               // exception table
+        if (frames == null) {
+            out.writeShort(0);
+            return;
+        }
+        out.writeShort(1);
+        out.writeShort(frameName);
+        out.writeInt(frames.length);
+        out.write(frames);
+    }
+
+    /**
+     * Writes one full frame per jump target: the int[] frame in local 0,
+     * ints in every other local, and ints on the operand stack. */
+    private byte[] stackMapTable(List<Bytecode.Label> targets, int shift, int frameArray) throws IOException {
+        TreeMap<Integer, Integer> stackAt = new TreeMap<>(); // offset -> operand stack depth
+        for (Bytecode.Label label : targets) stackAt.put(label.offset, label.stack);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeShort(stackAt.size());
+        int previous = -1;
+        for (Map.Entry<Integer, Integer> entry : stackAt.entrySet()) {
+            int stack = entry.getValue();
+            int at = entry.getKey() + shift;
+            out.writeByte(255);                         // full_frame
+            out.writeShort(at - previous - 1);
+            previous = at;
+            out.writeShort(maxLocals);
+            out.writeByte(7);                           // Object_variable_info
+            out.writeShort(frameArray);
+            for (int local = 1; local < maxLocals; local++) out.writeByte(1); // Integer_variable_info
+            out.writeShort(stack);
+            for (int i = 0; i < stack; i++) out.writeByte(1);
+        }
+        return bytes.toByteArray();
+    }
+}
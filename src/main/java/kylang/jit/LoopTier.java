@@ -0,0 +1,101 @@
+// Kyran Day, 10/17/2026.
+package kylang.jit;
+import kylang.memory.Memory;
+import kylang.memory.SymbolTable;
+import kylang.statements.ForStatement;
+import kylang.statements.Statement;
+import kylang.statements.WhileStatement;
+
+/**
+ * LoopTier
+ * ------------------------------------------------------------
+ * Per-loop state for tiered execution. The interpreter reports each
+ * back-edge of a {@link WhileStatement} or {@link ForStatement}; once the
+ * count passes the threshold the loop is compiled with {@link JitCompiler}
+ * and the interpreter hands the rest of the loop to the compiled code at
+ * the loop head (on-stack replacement), working on the same live
+ * {@link Memory} frame. Later executions of the loop start compiled. */
+public final class LoopTier {
+
+    private final Statement loop;
+    private final SymbolTable symbols;
+    private final TierStats stats;
+    private final int threshold;
+    private int backEdges;
+    private CompiledProgram compiled;
+    private boolean failed; // compilation was attempted and failed, keep interpreting
+
+    /**
+     * @param loop the while or for statement this tier belongs to
+     * @param symbols the symbol table the program was resolved against
+     * @param threshold back-edges before the loop is compiled
+     * @param stats the counters shared by every loop of the program */
+    public LoopTier(Statement loop, SymbolTable symbols, int threshold, TierStats stats) {
+        this.loop = loop;
+        this.symbols = symbols;
+        this.threshold = threshold;
+        this.stats = stats;
+    }
+
+    /**
+     * Counts one interpreted back-edge, compiling the loop when it becomes hot.
+     *
+     * @return true if the loop is now compiled and should continue in compiled code */
+    public boolean backEdge() {
+        if (failed) return false;
+        stats.backEdges++;
+        if (++backEdges < threshold) return false;
+        return promote();
+    }
+
+    /** @return true once the loop has compiled code */
+    public boolean isCompiled() { return compiled != null; }
+
+    /**
+     * Runs a compiled while loop from its loop head.
+     *
+     * @param memory the live memory environment */
+    public void run(Memory memory) {
+        long start = System.nanoTime();
+        try {
+            compiled.run(memory);
+        } finally {
+            stats.compiledNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Runs the remaining iterations of a compiled for loop.
+     *
+     * @param memory the live memory environment
+     * @param from the next value of the loop counter
+     * @param end the loop's end bound */
+    public void run(Memory memory, int from, int end) {
+        long start = System.nanoTime();
+        try {
+            compiled.run(memory, from, end);
+        } finally {
+            stats.compiledNanos += System.nanoTime() - start;
+        }
+    }
+
+    private boolean promote() {
+        long start = System.nanoTime();
+        try {
+            JitCompiler compiler = new JitCompiler(symbols);
+            compiled = (loop instanceof ForStatement)
+                    ? compiler.compileLoopTail((ForStatement) loop)
+                    : compiler.compileLoop((WhileStatement) loop);
+            compiled.define();
+            stats.promotions++;
+            return true;
+        } catch (RuntimeException e) { // e.g. loop too large for one method: stay in the interpreter
+            compiled = null;
+            failed = true;
+            stats.compileFailures++;
+            return false;
+        } finally {
+            stats.compileNanos += System.nanoTime() - start;
+        }
+    }
+}
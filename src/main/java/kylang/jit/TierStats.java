@@ -0,0 +1,45 @@
+// Kyran Day, 10/17/2026.
+package kylang.jit;
+
+/**
+ * TierStats
+ * ------------------------------------------------------------
+ * Counters for tiered execution: how many interpreted back-edges were
+ * taken, how many loops were promoted to compiled code, and how the
+ * run time splits between the interpreter, the compiler and compiled
+ * code. Used to tune the promotion threshold. */
+public final class TierStats {
+
+    long backEdges;      // interpreted loop iterations counted towards promotion
+    long promotions;     // loops compiled and entered mid-run
+    long compileFailures;
+    long compileNanos;   // time spent generating and defining classes
+    long compiledNanos;  // time spent inside compiled loops
+
+    public long getBackEdges() { return backEdges; }
+    public long getPromotions() { return promotions; }
+    public long getCompileFailures() { return compileFailures; }
+    public long getCompileNanos() { return compileNanos; }
+    public long getCompiledNanos() { return compiledNanos; }
+
+    /**
+     * Time left for the interpreter, given the wall time of the whole run.
+     *
+     * @param totalNanos the total execution time
+     * @return nanoseconds spent interpreting */
+    public long getInterpretedNanos(long totalNanos) {
+        return Math.max(0, totalNanos - compileNanos - compiledNanos);
+    }
+
+    /**
+     * Formats the counters as a one-line report.
+     *
+     * @param totalNanos the total execution time
+     * @return the report line */
+    public String report(long totalNanos) {
+        return String.format("tiers: %d promotions (%d failed), %d interpreted back-edges; "
+                        + "interpreter %.1f ms, compiler %.1f ms, compiled %.1f ms",
+                promotions, compileFailures, backEdges, getInterpretedNanos(totalNanos) / 1e6,
+                compileNanos / 1e6, compiledNanos / 1e6);
+    }
+}
@@ -0,0 +1,54 @@
+// Kyran Day, 10/17/2026.
+package kylang.jit;
+import kylang.memory.SymbolTable;
+import kylang.statements.ForStatement;
+import kylang.statements.WhileStatement;
+import kylang.tree_nodes.StatementList;
+import kylang.tree_nodes.TreeWalker;
+
+/**
+ * TieredCompilation
+ * ------------------------------------------------------------
+ * Prepares a resolved program for tiered execution by attaching a
+ * {@link LoopTier} to every while and for loop. The program then runs in
+ * the tree interpreter, and only loops that actually get hot pay for
+ * compilation. */
+public final class TieredCompilation extends TreeWalker {
+
+    /** Back-edges a loop takes in the interpreter before it is compiled. */
+    public static final int DEFAULT_THRESHOLD = 10_000;
+
+    private final SymbolTable symbols;
+    private final int threshold;
+    private final TierStats stats = new TierStats();
+
+    /**
+     * @param symbols the symbol table the program was resolved against
+     * @param threshold back-edges before a loop is promoted */
+    public TieredCompilation(SymbolTable symbols, int threshold) {
+        this.symbols = symbols;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Attaches a tier to every loop in the program.
+     *
+     * @param program the resolved program
+     * @return the counters the tiers report to */
+    public TierStats install(StatementList program) {
+        walk(program);
+        return stats;
+    }
+
+    @Override
+    public Void visit(WhileStatement stmt) {
+        stmt.setTier(new LoopTier(stmt, symbols, threshold, stats));
+        return super.visit(stmt);
+    }
+
+    @Override
+    public Void visit(ForStatement stmt) {
+        stmt.setTier(new LoopTier(stmt, symbols, threshold, stats));
+        return super.visit(stmt);
+    }
+}
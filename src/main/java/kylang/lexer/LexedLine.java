@@ -0,0 +1,35 @@
+// Kyran Day, 10/17/2026.
+package kylang.lexer;
+import kylang.tree_nodes.Token;
+
+/**
+ * LexedLine
+ * ------------------------------------------------------------
+ * The tokens of one source line, always ending with the EOL token,
+ * together with the line's indentation level (tabs, or four spaces
+ * per level) and whether the line is blank. The parser consumes these
+ * instead of lexing raw text. */
+public final class LexedLine {
+
+    private final Token[] tokens;
+    private final int indent;
+    private final boolean blank;
+
+    public LexedLine(Token[] tokens, int indent, boolean blank) {
+        this.tokens = tokens;
+        this.indent = indent;
+        this.blank = blank;
+    }
+
+    /** @return the tokens of this line; the last one is always EOL */
+    public Token[] getTokens() { return tokens; }
+
+    /** @return the indentation level of this line */
+    public int getIndent() { return indent; }
+
+    /** @return true if the line holds nothing but whitespace */
+    public boolean isBlank() { return blank; }
+
+    /** @return the type of the first token (EOL for an empty line) */
+    public Token.Type firstType() { return tokens[0].getType(); }
+}
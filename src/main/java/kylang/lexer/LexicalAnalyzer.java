@@ -9,7 +9,9 @@ import java.util.List;
  * ------------------------------------------------------------
  * Splits source lines into lexemes and assigns each one a token type.
  * Handles keywords, identifiers, integer literals, operators, and
- * special symbols like parentheses and the assignment operator. */
+ * special symbols like parentheses and the assignment operator.
+ * The interpreter lexes with {@link SourceScanner}; this line-at-a-time
+ * lexer remains for single-line use and as the benchmark baseline. */
 public class LexicalAnalyzer {
 
     private int index = 0; // The last token queried
@@ -116,7 +118,8 @@ public class LexicalAnalyzer {
                 String lower = word.toLowerCase();
                 if (lower.equals("let") || lower.equals("display") || lower.equals("input")
                     || lower.equals("if") || lower.equals("elif") || lower.equals("else")
-                    || lower.equals("while") || lower.equals("for") || lower.equals("in")) {
+                    || lower.equals("while") || lower.equals("for") || lower.equals("in")
+                    || lower.equals("parallel") || lower.equals("spawn") || lower.equals("join")) {
                     lexemes.add(lower);
                 } else {
                     lexemes.add(word);  // Identifiers keep original spelling, typing is case-insensitive later
@@ -157,7 +160,8 @@ public class LexicalAnalyzer {
             || lex.contentEquals("display") || lex.contentEquals("let") || lex.contentEquals(":=")
             || lex.contentEquals("input") || lex.contentEquals("if") || lex.contentEquals("elif")
             || lex.contentEquals("else") || lex.contentEquals("while") || lex.contentEquals("for")
-            || lex.contentEquals("in") || lex.contentEquals("<") || lex.contentEquals("<=") || lex.contentEquals(">")
+            || lex.contentEquals("in") || lex.contentEquals("parallel") || lex.contentEquals("spawn")
+            || lex.contentEquals("join") || lex.contentEquals("<") || lex.contentEquals("<=") || lex.contentEquals(">")
             || lex.contentEquals(">=") || lex.contentEquals("=") || lex.contentEquals("/=") || lex.contentEquals("..")
             || lex.matches("(?i)[a-z][a-z0-9_]*") || lex.matches("\\d+")
         );
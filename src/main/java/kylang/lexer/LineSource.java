@@ -0,0 +1,30 @@
+// Kyran Day, 10/17/2026.
+package kylang.lexer;
+import java.util.List;
+
+/**
+ * LineSource
+ * ------------------------------------------------------------
+ * Where the parser gets its lexed lines from: an in-memory list, or a
+ * reader lexed lazily as the parser asks for each line. */
+public interface LineSource {
+
+    /**
+     * @param index the line index (0-based)
+     * @return the lexed line, or null past the end of the program */
+    LexedLine line(int index);
+
+    /**
+     * Tells the source that no line before {@code index} will be asked for
+     * again, so a streaming source can drop them.
+     *
+     * @param index the first line still needed */
+    default void release(int index) {}
+
+    /**
+     * @param lines already lexed lines
+     * @return a source over them */
+    static LineSource of(List<LexedLine> lines) {
+        return index -> index < lines.size() ? lines.get(index) : null;
+    }
+}
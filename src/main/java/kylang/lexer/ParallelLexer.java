@@ -0,0 +1,105 @@
+// Kyran Day, 10/17/2026.
+package kylang.lexer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * ParallelLexer
+ * ------------------------------------------------------------
+ * Lexes a whole source buffer on a ForkJoin pool. Lexing is line-local,
+ * so the buffer is cut into chunks that start at line starts; a first
+ * parallel pass counts each chunk's lines, so that every chunk knows its
+ * first row, and a second pass runs one {@link SourceScanner} per chunk.
+ * The per-chunk results are joined in order, so the parser sees exactly
+ * what a sequential scan would give, including which error is reported
+ * first. Buffers below the threshold are scanned sequentially. */
+public final class ParallelLexer {
+
+    /** Buffers shorter than this many characters are lexed on the calling thread. */
+    public static final int DEFAULT_THRESHOLD = 1 << 20;
+    private static final int MIN_CHUNK = 1 << 16;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    /** Lexes on the common pool with the default threshold. */
+    public ParallelLexer() {
+        this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param pool the pool to lex on
+     * @param threshold buffers shorter than this many characters are lexed sequentially */
+    public ParallelLexer(ForkJoinPool pool, int threshold) {
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    /**
+     * @param source the program text
+     * @return one lexed line per source line
+     * @throws IllegalArgumentException on a character or lexeme the language does not allow */
+    public List<LexedLine> lex(char[] source) {
+        int chunks = Math.min(pool.getParallelism() * 4, source.length / MIN_CHUNK);
+        if (source.length < threshold || chunks < 2 || pool.getParallelism() < 2) return new SourceScanner(source).scan();
+
+        int[] starts = new int[chunks + 1];
+        for (int k = 1; k < chunks; k++) {
+            int nominal = (int) ((long) source.length * k / chunks);
+            starts[k] = lineStartAtOrAfter(source, Math.max(starts[k - 1], nominal));
+        }
+        starts[chunks] = source.length;
+
+        List<Callable<Integer>> counts = new ArrayList<>();
+        for (int k = 0; k < chunks; k++) {
+            int from = starts[k], to = starts[k + 1];
+            counts.add(() -> countLines(source, from, to));
+        }
+        int[] firstRows = new int[chunks];
+        List<Future<Integer>> counted = pool.invokeAll(counts);
+        for (int k = 1; k < chunks; k++) firstRows[k] = firstRows[k - 1] + join(counted.get(k - 1));
+
+        List<Callable<List<LexedLine>>> scans = new ArrayList<>();
+        for (int k = 0; k < chunks; k++) {
+            int from = starts[k], to = starts[k + 1], row = firstRows[k];
+            scans.add(() -> new SourceScanner(source, from, to - from, row).scan());
+        }
+        ArrayList<LexedLine> lines = new ArrayList<>();
+        for (Future<List<LexedLine>> chunk : pool.invokeAll(scans)) lines.addAll(join(chunk)); // in order: first error wins
+        return lines;
+    }
+
+    /** @return the first line start at or after {@code index} (a \r\n pair is never split) */
+    private static int lineStartAtOrAfter(char[] s, int index) {
+        int i = index;
+        while (i < s.length && i > 0 && !(s[i - 1] == '\n' || (s[i - 1] == '\r' && s[i] != '\n'))) i++;
+        return i;
+    }
+
+    /** @return the number of lines in {@code s[from..to)}, which starts at a line start */
+    private static int countLines(char[] s, int from, int to) {
+        int lines = 0;
+        for (int i = from; i < to; i++) {
+            char c = s[i];
+            if (c == '\n' || (c == '\r' && (i + 1 >= s.length || s[i + 1] != '\n'))) lines++;
+        }
+        if (to > from && to == s.length && s[to - 1] != '\n' && s[to - 1] != '\r') lines++; // unterminated last line
+        return lines;
+    }
+
+    private static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
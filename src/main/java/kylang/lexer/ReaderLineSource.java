@@ -0,0 +1,57 @@
+// Kyran Day, 10/17/2026.
+package kylang.lexer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+
+/**
+ * ReaderLineSource
+ * ------------------------------------------------------------
+ * Reads and lexes lines from a {@link Reader} only when the parser asks
+ * for them. Lines the parser has released are dropped, so a streaming
+ * run only holds the lines of the statement being parsed (plus the one
+ * line of lookahead a block or if/elif/else chain needs to see where it
+ * ends). */
+public final class ReaderLineSource implements LineSource {
+
+    private final BufferedReader reader;
+    private final SourceScanner scanner = new SourceScanner(new char[0]);
+    private final ArrayList<LexedLine> window = new ArrayList<>(); // lines first .. first + size - 1
+    private int first;     // index of the oldest line still held
+    private boolean ended; // the reader is exhausted
+
+    /**
+     * @param reader the program text; read lazily and never closed here */
+    public ReaderLineSource(Reader reader) {
+        this.reader = (reader instanceof BufferedReader) ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    /**
+     * @throws UncheckedIOException if reading fails
+     * @throws IllegalArgumentException if a line has an invalid lexeme */
+    @Override
+    public LexedLine line(int index) {
+        if (index < first) throw new IllegalStateException("Line " + index + " was already released");
+        while (!ended && index >= first + window.size()) {
+            String text;
+            try {
+                text = reader.readLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (text == null) ended = true;
+            else window.add(scanner.scanLine(text, first + window.size()));
+        }
+        return (index < first + window.size()) ? window.get(index - first) : null;
+    }
+
+    @Override
+    public void release(int index) {
+        int drop = Math.min(index - first, window.size());
+        if (drop <= 0) return;
+        window.subList(0, drop).clear();
+        first += drop;
+    }
+}
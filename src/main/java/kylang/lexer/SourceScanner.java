@@ -0,0 +1,271 @@
+// Kyran Day, 10/17/2026.
+package kylang.lexer;
+import java.util.ArrayList;
+import java.util.List;
+import kylang.tree_nodes.Token;
+
+/**
+ * SourceScanner
+ * ------------------------------------------------------------
+ * Hand-built DFA scanner over a whole source buffer. Walks the
+ * {@code char[]} once, tracking line and column itself, and produces one
+ * {@link LexedLine} per source line. There are no regular expressions
+ * and no per-lexeme substrings: operators and keywords map to shared
+ * constant lexemes (keywords are recognized with a small trie on length
+ * and first letter, case-insensitively), and identifiers and integer
+ * literals are interned straight from the buffer, so each distinct
+ * spelling allocates a String only once. Each token's type comes from the
+ * state the scanner ended in, so tokens are never classified twice. Lines end at \n, \r or \r\n,
+ * as with {@code BufferedReader.readLine}. */
+public final class SourceScanner {
+
+    private char[] src;
+    private int limit;
+    private final int firstRow;
+    private int pos;
+    private final Interner names = new Interner();
+
+    /**
+     * Scans a whole source buffer.
+     *
+     * @param source the program text */
+    public SourceScanner(char[] source) {
+        this(source, 0, source.length, 0);
+    }
+
+    /**
+     * Scans a line-aligned region of a source buffer.
+     *
+     * @param source the program text
+     * @param offset the first character of the region (start of a line)
+     * @param length the number of characters in the region
+     * @param firstRow the line index of the region's first line */
+    public SourceScanner(char[] source, int offset, int length, int firstRow) {
+        this.src = source;
+        this.pos = offset;
+        this.limit = offset + length;
+        this.firstRow = firstRow;
+    }
+
+    /**
+     * Convenience for already split lines, e.g. from {@code Parser.parse(ArrayList)}.
+     *
+     * @param lines the source lines
+     * @return one lexed line per source line */
+    public static List<LexedLine> scanLines(List<String> lines) {
+        StringBuilder sb = new StringBuilder();
+        for (String line : lines) sb.append(line).append('\n');
+        char[] source = new char[sb.length()];
+        sb.getChars(0, sb.length(), source, 0);
+        return new SourceScanner(source).scan();
+    }
+
+    /**
+     * Scans one line of text on its own, sharing this scanner's interned
+     * spellings; used when lines arrive one at a time.
+     *
+     * @param text the line, without its terminator
+     * @param row the line index
+     * @return the lexed line
+     * @throws IllegalArgumentException on a character or lexeme the language does not allow */
+    public LexedLine scanLine(String text, int row) {
+        src = text.toCharArray();
+        pos = 0;
+        limit = src.length;
+        return scanLine(row, new ArrayList<>());
+    }
+
+    /**
+     * Scans every line of the region.
+     *
+     * @return one lexed line per source line
+     * @throws IllegalArgumentException on a character or lexeme the language does not allow */
+    public List<LexedLine> scan() {
+        ArrayList<LexedLine> lines = new ArrayList<>();
+        ArrayList<Token> tokens = new ArrayList<>();
+        int row = firstRow;
+        while (pos < limit) {
+            lines.add(scanLine(row++, tokens));
+        }
+        return lines;
+    }
+
+    // ==== The DFA ====
+
+    private LexedLine scanLine(int row, ArrayList<Token> tokens) {
+        final char[] s = src;
+        final int lineStart = pos;
+        tokens.clear();
+
+        // Indentation: tabs, and every fourth space, up to the first other character
+        int indent = 0, spaces = 0, i = pos;
+        while (i < limit && (s[i] == '\t' || s[i] == ' ')) {
+            if (s[i] == '\t') indent++;
+            else if (++spaces == 4) { indent++; spaces = 0; }
+            i++;
+        }
+        boolean blank = true;
+
+        while (i < limit) {
+            char c = s[i];
+            if (c == '\n' || c == '\r') break;
+            if (c <= ' ') { i++; continue; }
+            blank = false;
+            int start = i;
+            int column = start - lineStart;
+            char next = (i + 1 < limit) ? s[i + 1] : '\0';
+            String lexeme;
+            Token.Type type;
+            switch (c) {
+                case '+': lexeme = "+"; type = Token.Type.ADD; i++; break;
+                case '-': lexeme = "-"; type = Token.Type.SUBTRACT; i++; break;
+                case '*': lexeme = "*"; type = Token.Type.MULTI; i++; break;
+                case '(': lexeme = "("; type = Token.Type.LEFT_PAREN; i++; break;
+                case ')': lexeme = ")"; type = Token.Type.RIGHT_PAREN; i++; break;
+                case ';': lexeme = ";"; type = Token.Type.EOL; i++; break;
+                case ':':
+                    if (next == '=') { lexeme = ":="; type = Token.Type.ASSIGN; i += 2; }
+                    else { lexeme = ":"; type = Token.Type.COLON; i++; }
+                    break;
+                case '<':
+                    if (next == '=') { lexeme = "<="; type = Token.Type.LE; i += 2; }
+                    else { lexeme = "<"; type = Token.Type.LT; i++; }
+                    break;
+                case '>':
+                    if (next == '=') { lexeme = ">="; type = Token.Type.GE; i += 2; }
+                    else { lexeme = ">"; type = Token.Type.GT; i++; }
+                    break;
+                case '/':
+                    if (next == '=') { lexeme = "/="; type = Token.Type.NE; i += 2; }
+                    else { lexeme = "/"; type = Token.Type.DIVIDE; i++; }
+                    break;
+                case '=':
+                    if (next == '=') throw invalid("==", row, column);
+                    lexeme = "="; type = Token.Type.EQ; i++;
+                    break;
+                case '.':
+                    if (next != '.') throw invalid(".", row, column);
+                    lexeme = ".."; type = Token.Type.RANGE; i += 2;
+                    break;
+                default:
+                    if (c >= '0' && c <= '9') {      // int lit: one or more digits
+                        while (i < limit && s[i] >= '0' && s[i] <= '9') i++;
+                        lexeme = names.intern(s, start, i - start);
+                        type = Token.Type.INT_LIT;
+                    } else if (isLetter(c)) {        // identifier / keyword: letter, then letters, digits, _
+                        i++;
+                        while (i < limit && (isLetter(s[i]) || (s[i] >= '0' && s[i] <= '9') || s[i] == '_')) i++;
+                        type = keyword(s, start, i - start);
+                        if (type != null) lexeme = SPELLING[type.ordinal()];
+                        else { // identifiers keep their original spelling
+                            lexeme = names.intern(s, start, i - start);
+                            type = Token.Type.IDENTIFIER;
+                        }
+                    } else {
+                        throw invalid(String.valueOf(c), row, column);
+                    }
+            }
+            tokens.add(new Token(row, column, lexeme, type));
+        }
+        tokens.add(new Token(row, i - lineStart, ";", Token.Type.EOL)); // end of line
+
+        // Consume the line terminator: \n, \r or \r\n
+        if (i < limit) {
+            if (s[i] == '\r' && i + 1 < limit && s[i + 1] == '\n') i += 2;
+            else i++;
+        }
+        pos = i;
+        return new LexedLine(tokens.toArray(new Token[0]), indent, blank);
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    /** Canonical lower-case spelling of each keyword type. */
+    private static final String[] SPELLING = new String[Token.Type.values().length];
+    static {
+        for (Token.Type type : new Token.Type[] { Token.Type.LET, Token.Type.DISPLAY, Token.Type.INPUT, Token.Type.IF,
+                Token.Type.ELIF, Token.Type.ELSE, Token.Type.WHILE, Token.Type.FOR, Token.Type.IN, Token.Type.PARALLEL,
+                Token.Type.SPAWN, Token.Type.JOIN }) {
+            SPELLING[type.ordinal()] = type.name().toLowerCase();
+        }
+    }
+
+    /**
+     * Keyword trie: dispatch on length, then first letter, then compare the
+     * rest case-insensitively. Returns the keyword's token type, or null
+     * for an identifier. */
+    private static Token.Type keyword(char[] s, int start, int length) {
+        char first = (char) (s[start] | 0x20); // ASCII letters only reach here
+        Token.Type candidate;
+        switch (length) {
+            case 2: candidate = (first == 'i') ? ((s[start + 1] | 0x20) == 'f' ? Token.Type.IF : Token.Type.IN) : null; break;
+            case 3: candidate = (first == 'l') ? Token.Type.LET : (first == 'f') ? Token.Type.FOR : null; break;
+            case 4: candidate = (first == 'e') ? ((s[start + 2] | 0x20) == 'i' ? Token.Type.ELIF : Token.Type.ELSE)
+                    : (first == 'j') ? Token.Type.JOIN : null; break;
+            case 5: candidate = (first == 'i') ? Token.Type.INPUT : (first == 'w') ? Token.Type.WHILE
+                    : (first == 's') ? Token.Type.SPAWN : null; break;
+            case 7: candidate = (first == 'd') ? Token.Type.DISPLAY : null; break;
+            case 8: candidate = (first == 'p') ? Token.Type.PARALLEL : null; break;
+            default: return null;
+        }
+        if (candidate == null) return null;
+        String spelling = SPELLING[candidate.ordinal()];
+        for (int k = 1; k < length; k++) {
+            char c = s[start + k];
+            if (c == '_' || (c >= '0' && c <= '9') || (c | 0x20) != spelling.charAt(k)) return null;
+        }
+        return candidate;
+    }
+
+    private static IllegalArgumentException invalid(String lexeme, int row, int column) {
+        return new IllegalArgumentException("Invalid lexeme \"" + lexeme + "\" at line " + row + ", column " + column);
+    }
+
+    /**
+     * Open-addressing table of the identifier and literal spellings seen so
+     * far, looked up directly from the buffer. Hashes match
+     * {@code String.hashCode}, so interned lexemes also switch quickly. */
+    private static final class Interner {
+        private String[] table = new String[256];
+        private int[] hashes = new int[256];
+        private int size;
+
+        String intern(char[] s, int start, int length) {
+            int hash = 0;
+            for (int k = start; k < start + length; k++) hash = 31 * hash + s[k];
+            int mask = table.length - 1;
+            int index = (hash ^ (hash >>> 16)) & mask;
+            for (String entry; (entry = table[index]) != null; index = (index + 1) & mask) {
+                if (hashes[index] == hash && matches(entry, s, start, length)) return entry;
+            }
+            String value = new String(s, start, length);
+            table[index] = value;
+            hashes[index] = hash;
+            if (++size * 2 > table.length) grow();
+            return value;
+        }
+
+        private static boolean matches(String entry, char[] s, int start, int length) {
+            if (entry.length() != length) return false;
+            for (int k = 0; k < length; k++) if (entry.charAt(k) != s[start + k]) return false;
+            return true;
+        }
+
+        private void grow() {
+            String[] oldTable = table;
+            int[] oldHashes = hashes;
+            table = new String[oldTable.length * 2];
+            hashes = new int[oldTable.length * 2];
+            int mask = table.length - 1;
+            for (int k = 0; k < oldTable.length; k++) {
+                if (oldTable[k] == null) continue;
+                int index = (oldHashes[k] ^ (oldHashes[k] >>> 16)) & mask;
+                while (table[index] != null) index = (index + 1) & mask;
+                table[index] = oldTable[k];
+                hashes[index] = oldHashes[k];
+            }
+        }
+    }
+}
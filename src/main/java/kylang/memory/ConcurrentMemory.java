@@ -0,0 +1,92 @@
+// Kyran Day, 10/17/2026.
+package kylang.memory;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ConcurrentMemory
+ * ------------------------------------------------------------
+ * Memory that spawned blocks and parallel loops share across threads.
+ * Each variable is a lock-free cell: an atomic int plus a
+ * {@link LongAdder}, and its value is the int plus the adder's sum, wrapped
+ * to 32 bits. Accumulations ({@link #add}) go to the adder, which stripes
+ * updates from different threads over separate cells, so counters and
+ * sums many threads update at once neither lose updates nor contend.
+ * A {@link #put} stores the new value minus the sum it has seen, so an
+ * add racing with it is kept rather than overwritten.
+ *
+ * The cells are sized for a resolved program when the memory is created,
+ * and compiled code, which reads and writes a plain frame, cannot run
+ * on this memory. */
+public final class ConcurrentMemory extends Memory {
+
+    private final AtomicIntegerArray values;
+    private final LongAdder[] sums;
+
+    /**
+     * Creates a concurrent memory for every slot of a resolved program.
+     *
+     * @param symbols the symbol table the program was resolved against */
+    public ConcurrentMemory(SymbolTable symbols) {
+        super(symbols);
+        values = new AtomicIntegerArray(symbols.size());
+        sums = new LongAdder[symbols.size()];
+        for (int slot = 0; slot < sums.length; slot++) sums[slot] = new LongAdder();
+    }
+
+    @Override
+    public int get(String id) {
+        int slot = getSymbols().lookup(id);
+        return (slot >= 0 && slot < sums.length) ? get(slot) : 0;
+    }
+
+    @Override
+    public void put(String id, int value) {
+        int slot = getSymbols().slotOf(id);
+        ensureCapacity();
+        put(slot, value);
+    }
+
+    @Override
+    public int get(int slot) {
+        return values.get(slot) + (int) sums[slot].sum();
+    }
+
+    @Override
+    public void put(int slot, int value) {
+        values.set(slot, value - (int) sums[slot].sum());
+    }
+
+    @Override
+    public void add(int slot, int delta) {
+        sums[slot].add(delta);
+    }
+
+    @Override
+    public boolean isConcurrent() { return true; }
+
+    @Override
+    public boolean hasFrame() { return false; }
+
+    /** @return a plain, single-threaded memory holding a snapshot of this one's values */
+    @Override
+    public Memory copy() {
+        Memory copy = new Memory(getSymbols());
+        for (int slot = 0; slot < sums.length; slot++) copy.put(slot, get(slot));
+        copy.context = context;
+        return copy;
+    }
+
+    /** @throws IllegalStateException if slots were resolved after this memory was created */
+    @Override
+    public void ensureCapacity() {
+        if (getSymbols().size() > sums.length)
+            throw new IllegalStateException("concurrent memory cannot grow past the " + sums.length + " slots it was created with");
+    }
+
+    /** @throws UnsupportedOperationException always: there is no plain frame to share */
+    @Override
+    public int[] getFrame() {
+        throw new UnsupportedOperationException("compiled code cannot run on concurrent memory");
+    }
+}
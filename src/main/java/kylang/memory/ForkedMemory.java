@@ -0,0 +1,91 @@
+// Kyran Day, 10/17/2026.
+package kylang.memory;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * ForkedMemory
+ * ------------------------------------------------------------
+ * A memory forked from a {@link MemorySnapshot}: it starts with the
+ * snapshot's page table, and copies a page the first time it writes to
+ * it, so it costs the table plus the pages it changed. There is no flat
+ * frame to hand to compiled code; forks run on the tree interpreter. */
+final class ForkedMemory extends Memory {
+
+    private static final int PAGE = MemorySnapshot.PAGE, PAGE_SHIFT = MemorySnapshot.PAGE_SHIFT, PAGE_MASK = MemorySnapshot.PAGE_MASK;
+
+    private int[][] pages;
+    private final BitSet owned = new BitSet(); // pages this memory has copied, and so may write
+
+    ForkedMemory(SymbolTable symbols, int[][] pages) {
+        super(symbols, new int[0]);
+        this.pages = pages;
+    }
+
+    @Override
+    public int get(String id) {
+        int slot = getSymbols().lookup(id);
+        return (slot >= 0 && slot < pages.length << PAGE_SHIFT) ? get(slot) : 0;
+    }
+
+    @Override
+    public void put(String id, int value) {
+        int slot = getSymbols().slotOf(id);
+        ensureCapacity();
+        put(slot, value);
+    }
+
+    @Override
+    public int get(int slot) {
+        int[] page = pages[slot >>> PAGE_SHIFT];
+        return (page != null) ? page[slot & PAGE_MASK] : 0;
+    }
+
+    @Override
+    public void put(int slot, int value) {
+        writable(slot >>> PAGE_SHIFT)[slot & PAGE_MASK] = value;
+    }
+
+    @Override
+    public void add(int slot, int delta) {
+        writable(slot >>> PAGE_SHIFT)[slot & PAGE_MASK] += delta;
+    }
+
+    /** @return the page, copied first if it is still shared */
+    private int[] writable(int p) {
+        if (!owned.get(p)) {
+            pages[p] = (pages[p] != null) ? pages[p].clone() : new int[PAGE];
+            owned.set(p);
+        }
+        return pages[p];
+    }
+
+    /** @return a snapshot sharing this memory's pages, which it will copy again before writing to them */
+    @Override
+    public MemorySnapshot snapshot() {
+        owned.clear();
+        return new MemorySnapshot(getSymbols(), pages.clone());
+    }
+
+    @Override
+    public Memory copy() {
+        Memory copy = snapshot().fork();
+        copy.context = context;
+        return copy;
+    }
+
+    @Override
+    public void ensureCapacity() {
+        int needed = (getSymbols().size() + PAGE_MASK) >>> PAGE_SHIFT;
+        if (pages.length < needed) pages = Arrays.copyOf(pages, Math.max(needed, pages.length * 2));
+    }
+
+    @Override
+    public boolean hasFrame() { return false; }
+
+    /** @throws UnsupportedOperationException always: the values are spread over shared pages */
+    @Override
+    public int[] getFrame() {
+        throw new UnsupportedOperationException("compiled code cannot run on a forked memory");
+    }
+}
@@ -1,22 +1,67 @@
 // Kyran Day, 12/07/2025.
 package kylang.memory;
-import java.util.Hashtable;
+import java.util.Arrays;
+import kylang.runtime.ExecutionContext;
 /**
  * TreeNodes.Memory
  * ------------------------------------------------------------
  * Provides a shared memory space for variable storage.
+ * Variables live in a flat {@code int[]} frame indexed by the slots
+ * a {@link SymbolTable} assigns at resolution time, so reads and writes
+ * from resolved nodes are plain array accesses. Unassigned variables read as 0.
+ * The memory also leads to the {@link ExecutionContext} of its run, which
+ * copies share.
  */
 public class Memory {
 
-    private final Hashtable<String, Integer> table = new Hashtable<>(); // Hash table mem, string as key to map to ints
+    private final SymbolTable symbols; // name -> slot mapping shared with the resolver
+    private int[] frame;               // one int per slot, zero-initialized
+    ExecutionContext context;          // the run's I/O; the standard streams until one is attached
+
+    /** Creates a memory environment with its own, initially empty, symbol table. */
+    public Memory() {
+        this(new SymbolTable());
+    }
+
+    /**
+     * Creates a memory environment sized for every slot of a resolved program.
+     *
+     * @param symbols the symbol table the program was resolved against */
+    public Memory(SymbolTable symbols) {
+        this.symbols = symbols;
+        this.frame = new int[symbols.size()];
+    }
+
+    Memory(SymbolTable symbols, int[] frame) {
+        this.symbols = symbols;
+        this.frame = frame;
+    }
+
+    /** @return a memory over the same symbols, starting from a copy of this one's values */
+    public Memory copy() {
+        Memory copy = new Memory(symbols, frame.clone());
+        copy.context = context;
+        return copy;
+    }
+
+    /**
+     * Freezes the current values, e.g. once a program has run up to its
+     * first input, so that many runs can {@link MemorySnapshot#fork fork}
+     * from there. Later changes to this memory do not show in the snapshot.
+     *
+     * @return the snapshot */
+    public MemorySnapshot snapshot() {
+        return MemorySnapshot.of(this);
+    }
+
     /**
      * Retrieves the integer value of a variable from memory.
      *
      * @param id the variable name
      * @return the stored integer value, or 0 if not found */
     public int get(String id) {
-        Integer value = table.get(id.toLowerCase());
-        return (value != null) ? value : 0;
+        int slot = symbols.lookup(id);
+        return (slot >= 0 && slot < frame.length) ? frame[slot] : 0;
     }
 
     /**
@@ -25,6 +70,65 @@ public class Memory {
      * @param id  the variable name
      * @param value the integer value to associate with the variable */
     public void put(String id, int value) {
-        table.put(id.toLowerCase(), value);
+        int slot = symbols.slotOf(id);
+        ensureCapacity();
+        frame[slot] = value;
+    }
+
+    /**
+     * Retrieves the value stored in a resolved slot.
+     *
+     * @param slot the slot assigned by the {@link SymbolTable}
+     * @return the stored integer value (0 if never assigned) */
+    public int get(int slot) {
+        return frame[slot];
     }
+
+    /**
+     * Stores a value into a resolved slot.
+     *
+     * @param slot the slot assigned by the {@link SymbolTable}
+     * @param value the integer value to store */
+    public void put(int slot, int value) {
+        frame[slot] = value;
+    }
+
+    /**
+     * Adds to the value in a resolved slot, as {@code let x := x + e} does.
+     *
+     * @param slot the slot assigned by the {@link SymbolTable}
+     * @param delta the amount to add (wrapping around like int addition) */
+    public void add(int slot, int delta) {
+        frame[slot] += delta;
+    }
+
+    /** @return true if other threads may use this memory at the same time, so spawned blocks and parallel loops may run concurrently */
+    public boolean isConcurrent() { return false; }
+
+    /** @return true if {@link #getFrame} exposes the variables, so the flat interpreter and compiled code can run on it */
+    public boolean hasFrame() { return true; }
+
+    /** Grows the frame to cover slots resolved after this memory was created. */
+    public void ensureCapacity() {
+        if (frame.length < symbols.size())
+            frame = Arrays.copyOf(frame, Math.max(symbols.size(), frame.length * 2));
+    }
+
+    public SymbolTable getSymbols() { return symbols; }
+
+    /** @return the context of the run this memory belongs to */
+    public ExecutionContext getContext() {
+        if (context == null) ExecutionContext.standard(this);
+        return context;
+    }
+
+    /** Attaches the memory to a run; called by {@link ExecutionContext}'s constructor. */
+    public void setContext(ExecutionContext context) { this.context = context; }
+
+    /**
+     * Exposes the live frame for compiled code that reads and writes
+     * variables in bulk. The array is replaced when the frame grows,
+     * so callers must not hold on to it across {@link #ensureCapacity()}.
+     * Only valid if {@link #hasFrame()}. */
+    public int[] getFrame() { return frame; }
 }
@@ -0,0 +1,56 @@
+// Kyran Day, 10/17/2026.
+package kylang.memory;
+
+/**
+ * MemorySnapshot
+ * ------------------------------------------------------------
+ * The frozen values of a {@link Memory}, taken by {@link Memory#snapshot},
+ * from which any number of independent memories can be forked. The
+ * values are kept in fixed-size pages that forks share until they write
+ * to them, so a snapshot costs one copy of the values and each fork only
+ * as much as the pages it changes. */
+public final class MemorySnapshot {
+
+    /** Slots per page: a fork's first write to a page copies these many values. */
+    static final int PAGE_SHIFT = 5, PAGE = 1 << PAGE_SHIFT, PAGE_MASK = PAGE - 1;
+
+    private final SymbolTable symbols;
+    private final int[][] pages; // never written; a null page holds zeros
+
+    MemorySnapshot(SymbolTable symbols, int[][] pages) {
+        this.symbols = symbols;
+        this.pages = pages;
+    }
+
+    /** Copies a memory's values into pages, leaving out the pages that are all zero. */
+    static MemorySnapshot of(Memory memory) {
+        int slots = memory.getSymbols().size();
+        int[][] pages = new int[(slots + PAGE_MASK) >>> PAGE_SHIFT][];
+        for (int p = 0; p < pages.length; p++) {
+            int[] page = null;
+            for (int i = 0, slot = p << PAGE_SHIFT; i < PAGE && slot < slots; i++, slot++) {
+                int value = memory.get(slot);
+                if (value == 0) continue;
+                if (page == null) page = new int[PAGE];
+                page[i] = value;
+            }
+            pages[p] = page;
+        }
+        return new MemorySnapshot(memory.getSymbols(), pages);
+    }
+
+    public SymbolTable getSymbols() { return symbols; }
+
+    /**
+     * Starts a memory from the snapshot's values. Forks are independent
+     * of each other and of the memory the snapshot was taken from, and
+     * each may run on its own thread.
+     *
+     * @return a copy-on-write memory holding the snapshot's values */
+    public Memory fork() {
+        return new ForkedMemory(symbols, pages.clone());
+    }
+
+    /** @return the number of pages, which is also the pages a fork that writes everywhere would copy */
+    public int pageCount() { return pages.length; }
+}
@@ -0,0 +1,49 @@
+// Kyran Day, 10/17/2026.
+package kylang.memory;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * SymbolTable
+ * ------------------------------------------------------------
+ * Maps canonical (lower-case) variable names to dense integer slots.
+ * Slots index directly into a {@link Memory} frame, so names are only
+ * canonicalized and hashed once, when the program is resolved. */
+public class SymbolTable {
+
+    private final HashMap<String, Integer> slots = new HashMap<>(); // canonical name -> slot
+    private final ArrayList<String> names = new ArrayList<>();      // slot -> canonical name
+
+    /**
+     * Returns the slot for a variable, assigning the next free slot on first use.
+     *
+     * @param id the variable name (any case)
+     * @return the slot index for the variable */
+    public int slotOf(String id) {
+        String name = canonical(id);
+        Integer slot = slots.get(name);
+        if (slot != null) return slot;
+        slots.put(name, names.size());
+        names.add(name);
+        return names.size() - 1;
+    }
+
+    /**
+     * Looks up the slot of a variable without assigning one.
+     *
+     * @param id the variable name (any case)
+     * @return the slot index, or -1 if the variable has never been resolved */
+    public int lookup(String id) {
+        Integer slot = slots.get(canonical(id));
+        return (slot != null) ? slot : -1;
+    }
+
+    /** @return the canonical name stored in the given slot */
+    public String nameOf(int slot) { return names.get(slot); }
+
+    /** @return the number of slots assigned so far */
+    public int size() { return names.size(); }
+
+    /** Variable names are case-insensitive, the lower-case spelling is canonical. */
+    public static String canonical(String id) { return id.toLowerCase(); }
+}
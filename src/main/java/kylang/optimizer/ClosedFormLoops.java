@@ -0,0 +1,184 @@
+// Kyran Day, 10/17/2026.
+package kylang.optimizer;
+import java.util.BitSet;
+import java.util.List;
+import kylang.statements.*;
+import kylang.tree_nodes.*;
+
+/**
+ * ClosedFormLoops
+ * ------------------------------------------------------------
+ * Replaces counted loops whose bodies only do arithmetic on the counter
+ * with a {@link ClosedFormLoop}, which computes the final values in O(1).
+ * Recognized loops are {@code for i in a .. b} and
+ * {@code while i < n} ({@code <=}, or {@code >}/{@code >=} counting down)
+ * whose body updates the counter exactly once, with {@code let i := i + 1}
+ * (or {@code - 1}), and where {@code n} reads nothing the body writes.
+ * Every other body statement must assign a distinct variable, either
+ * <ul>
+ *   <li>{@code let y := y + T}, {@code y - T}, {@code a + y - b} and the like, where {@code T}
+ *       is linear in the counter (no product of two counter-dependent
+ *       values, no division of one), or</li>
+ *   <li>{@code let u := T} for any {@code T} that cannot throw,</li>
+ * </ul>
+ * where {@code T} reads no variable the body assigns other than the
+ * counter. Such a body has no effect but those final values.
+ *
+ * The replacement presents the original loop to visitors, so this pass
+ * runs last. */
+final class ClosedFormLoops extends TreeRewriter {
+
+    int collapsed;
+
+    void run(StatementList program) {
+        block(program);
+    }
+
+    @Override
+    public Object visit(ForStatement stmt) {
+        super.visit(stmt);
+        Statement replacement = collapse(stmt, stmt.getSlot(), stmt.getStartExpr(), stmt.getEndExpr(), 1, true,
+                stmt.getBody(), -1);
+        if (replacement == null) return stmt;
+        collapsed++;
+        return replacement;
+    }
+
+    /** @return true if this pass would replace the loop, as it stands, by its closed form */
+    static boolean collapses(ForStatement stmt) {
+        return collapse(stmt, stmt.getSlot(), stmt.getStartExpr(), stmt.getEndExpr(), 1, true, stmt.getBody(), -1) != null;
+    }
+
+    @Override
+    public Object visit(WhileStatement stmt) {
+        super.visit(stmt);
+        if (!(stmt.getCondition() instanceof RelationalExpressionNode)) return stmt;
+        RelationalExpressionNode rel = (RelationalExpressionNode) stmt.getCondition();
+        RelationalOperator relop = rel.getOperator();
+        IdentifierFactorNode counter = NodeShapes.variable(rel.getLeft());
+        ExpressionNode bound = rel.getRight();
+        if (counter == null) { // n > i: mirror
+            counter = NodeShapes.variable(rel.getRight());
+            bound = rel.getLeft();
+            relop = relop.mirror();
+        }
+        if (counter == null) return stmt;
+        int step;
+        if (relop == RelationalOperator.LT || relop == RelationalOperator.LE) step = 1;
+        else if (relop == RelationalOperator.GT || relop == RelationalOperator.GE) step = -1;
+        else return stmt;
+
+        List<Statement> body = stmt.getBody().getStatements();
+        int update = -1; // index of the counter update
+        for (int k = 0; k < body.size(); k++) {
+            if (body.get(k) instanceof AssignmentStatement && ((AssignmentStatement) body.get(k)).getSlot() == counter.getSlot()) {
+                if (update >= 0 || !isStep((AssignmentStatement) body.get(k), counter.getSlot(), step)) return stmt;
+                update = k;
+            }
+        }
+        if (update < 0) return stmt;
+        boolean inclusive = relop == RelationalOperator.LE || relop == RelationalOperator.GE;
+        Statement replacement = collapse(stmt, counter.getSlot(), null, bound, step, inclusive, stmt.getBody(), update);
+        if (replacement == null) return stmt;
+        collapsed++;
+        return replacement;
+    }
+
+    /** @return true for {@code let i := i + step}, in any of the shapes {@code i + 1}, {@code 1 + i}, {@code i - 1} */
+    private static boolean isStep(AssignmentStatement stmt, int slot, int step) {
+        if (!(stmt.getExpression() instanceof BinaryExpressionNode)) return false;
+        BinaryExpressionNode sum = (BinaryExpressionNode) stmt.getExpression();
+        boolean subtract = sum.getOperator() == ArithmeticOperator.SUBTRACT;
+        IdentifierFactorNode left = NodeShapes.variable(sum.getLeft()), right = NodeShapes.variable(sum.getRight());
+        Integer constant;
+        if (left != null && left.getSlot() == slot) constant = NodeShapes.literal(sum.getRight());
+        else if (!subtract && right != null && right.getSlot() == slot) constant = NodeShapes.literal(sum.getLeft());
+        else return false;
+        return constant != null && (subtract ? -(long) constant : constant) == step;
+    }
+
+    /**
+     * @param update the index of the while counter's update in the body, or -1 for a for loop
+     * @return the closed form of the loop, or null if its body does not qualify */
+    private static Statement collapse(Statement loop, int counter, ExpressionNode start, ExpressionNode bound, int step,
+                               boolean inclusive, StatementList block, int update) {
+        List<Statement> body = block.getStatements();
+        int n = body.size() - (update >= 0 ? 1 : 0);
+        if (n == 0) return null;
+        BitSet written = Nodes.assigned(block);
+        if (start == null && Nodes.reads(bound).intersects(written)) return null;
+        written.clear(counter);
+
+        int[] targets = new int[n], kinds = new int[n], offsets = new int[n];
+        ExpressionNode[] terms = new ExpressionNode[n];
+        BitSet seen = new BitSet();
+        int j = 0;
+        for (int k = 0; k < body.size(); k++) {
+            if (k == update) continue;
+            if (!(body.get(k) instanceof AssignmentStatement)) return null;
+            AssignmentStatement stmt = (AssignmentStatement) body.get(k);
+            int target = stmt.getSlot();
+            if (target == counter || seen.get(target)) return null;
+            seen.set(target);
+
+            ExpressionNode term = accumulated(stmt);
+            int kind;
+            if (term != null) {
+                kind = ClosedFormLoop.ADD;
+                if (Nodes.reads(term).intersects(written) || !isLinear(term, counter)) return null;
+            } else {
+                term = stmt.getExpression();
+                kind = ClosedFormLoop.LAST;
+                if (Nodes.reads(term).intersects(written) || Nodes.mayTrap(term)) return null;
+            }
+            targets[j] = target;
+            kinds[j] = kind;
+            terms[j] = term;
+            offsets[j] = (update >= 0 && k > update) ? step : 0;
+            j++;
+        }
+        return new ClosedFormLoop(loop, counter, start, bound, step, inclusive, targets, kinds, terms, offsets);
+    }
+
+    /**
+     * @return {@code T} such that the statement is {@code let y := y + T}: its
+     *         expression with the {@code y} added at the top level replaced by 0
+     *         ({@code y + a - b} gives {@code 0 + a - b}, {@code a + y} gives {@code a}), or null */
+    private static ExpressionNode accumulated(AssignmentStatement stmt) {
+        return withoutTarget(stmt.getExpression(), stmt.getSlot());
+    }
+
+    /** @return the expression with the {@code y} added at its top level replaced by 0, or null if there is none */
+    static ExpressionNode withoutTarget(ExpressionNode node, int slot) {
+        if (isVariable(node, slot)) return Nodes.numberExpression(0, null);
+        if (!(node instanceof BinaryExpressionNode)) return null;
+        BinaryExpressionNode sum = (BinaryExpressionNode) node;
+        if (sum.getOperator() == ArithmeticOperator.ADD && isVariable(sum.getRight(), slot)) return sum.getLeft();
+        ExpressionNode left = withoutTarget(sum.getLeft(), slot);
+        return (left != null) ? new BinaryExpressionNode(left, sum.getOp(), sum.getRight()) : null;
+    }
+
+    private static boolean isVariable(Object node, int slot) {
+        IdentifierFactorNode variable = NodeShapes.variable(node);
+        return variable != null && variable.getSlot() == slot;
+    }
+
+    /** @return true if the node is affine in the counter: no product of two counter-dependent values, no division of one */
+    private static boolean isLinear(Object node, int counter) {
+        if (node instanceof UnaryExpressionNode) return isLinear(((UnaryExpressionNode) node).getTerm(), counter);
+        if (node instanceof UnaryTermNode) return isLinear(((UnaryTermNode) node).getFactor(), counter);
+        if (node instanceof ParenFactorNode) return isLinear(((ParenFactorNode) node).getExpr(), counter);
+        if (node instanceof MinusFactorNode) return isLinear(((MinusFactorNode) node).getExpr(), counter);
+        if (node instanceof BinaryExpressionNode) {
+            BinaryExpressionNode sum = (BinaryExpressionNode) node;
+            return isLinear(sum.getLeft(), counter) && isLinear(sum.getRight(), counter);
+        }
+        if (node instanceof BinaryTermNode) {
+            BinaryTermNode product = (BinaryTermNode) node;
+            boolean left = Nodes.reads(product.getLeft()).get(counter), right = Nodes.reads(product.getRight()).get(counter);
+            if (product.getOperator() == ArithmeticOperator.DIVIDE) return !left && !right;
+            return !(left && right) && isLinear(product.getLeft(), counter) && isLinear(product.getRight(), counter);
+        }
+        return true; // literals and variables
+    }
+}
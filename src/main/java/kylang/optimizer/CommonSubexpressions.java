@@ -0,0 +1,210 @@
+// Kyran Day, 10/17/2026.
+package kylang.optimizer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import kylang.memory.SymbolTable;
+import kylang.statements.*;
+import kylang.tree_nodes.*;
+
+/**
+ * CommonSubexpressions
+ * ------------------------------------------------------------
+ * Local value numbering over each straight-line run of assignments
+ * (displays and inputs may sit in between; any other statement ends the
+ * run). A computation is numbered by its structure ({@link Nodes#key}),
+ * and its value stays available until something it reads is assigned.
+ * Within that window, the first evaluation of a computation that occurs
+ * more than once is kept in a variable and the others read it:
+ * <ul>
+ *   <li>{@code let x := e} keeps {@code e} in {@code x} itself, until
+ *       {@code x} is assigned again, so a later {@code e} becomes {@code x};</li>
+ *   <li>otherwise a compiler temporary {@code _cseN} is assigned just
+ *       before the statement of the first occurrence.</li>
+ * </ul>
+ * So {@code (a + b) * (a + b) - (a + b)} evaluates {@code a + b} once.
+ * An expression always evaluates all its operands, so computing one of
+ * them first can at most change which division by zero fails first;
+ * statements with a literal too large for an int are left alone. */
+final class CommonSubexpressions extends TreeRewriter {
+
+    int reused;
+    private final SymbolTable symbols;
+
+    /** A computation's value between two writes to what it reads. */
+    private static final class Value {
+        final BitSet reads;
+        int occurrences;
+        int keeper = -1;                // the program variable holding it, or -1
+        AssignmentStatement keptBy;     // the assignment whose whole expression is its first occurrence
+        IdentifierFactorNode holder;    // while rewriting: what later occurrences read
+
+        Value(BitSet reads) { this.reads = reads; }
+    }
+
+    private final IdentityHashMap<Object, Value> values = new IdentityHashMap<>(); // occurrence -> value
+    private HashMap<String, Value> available;  // counting: the values computed so far in the run, by key
+    private ArrayList<Statement> out;          // rewriting: the block being rebuilt
+
+    CommonSubexpressions(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    void run(StatementList program) {
+        block(program);
+    }
+
+    @Override
+    protected void block(StatementList list) {
+        if (list == null) return;
+        List<Statement> statements = list.getStatements();
+        for (Statement stmt : statements) if (!(stmt instanceof AssignmentStatement)) stmt.accept(this); // nested blocks
+
+        available = new HashMap<>();
+        values.clear();
+        for (Statement stmt : statements) {
+            if (stmt instanceof AssignmentStatement) count((AssignmentStatement) stmt);
+            else if (stmt instanceof InputStatement) kill(((InputStatement) stmt).getSlot());
+            else if (!(stmt instanceof DisplayStatement)) available.clear();
+        }
+
+        out = new ArrayList<>(statements.size());
+        for (Statement stmt : statements) {
+            if (stmt instanceof AssignmentStatement) {
+                AssignmentStatement assignment = (AssignmentStatement) stmt;
+                Value value = values.get(operator(assignment.getExpression()));
+                assignment.setExpression(expression(assignment.getExpression())); // may add temporaries to out
+                if (value != null && value.keptBy == assignment) {
+                    value.holder = Nodes.variable(assignment.getId(), assignment.getSlot(), null);
+                }
+            }
+            out.add(stmt);
+        }
+        if (out.size() > statements.size()) list.setStatements(out);
+        out = null;
+    }
+
+    // ==== Counting ====
+
+    private void count(AssignmentStatement stmt) {
+        int slot = stmt.getSlot();
+        if (hasOutOfRangeLiteral(stmt.getExpression())) {
+            kill(slot);
+            return;
+        }
+        stmt.getExpression().accept(counter);
+        kill(slot);
+        Value value = values.get(operator(stmt.getExpression()));
+        if (value != null && value.occurrences == 1 && !value.reads.get(slot)) { // x now holds the value
+            value.keeper = slot;
+            value.keptBy = stmt;
+        }
+    }
+
+    /** Counts occurrences in evaluation order; a repeated occurrence will not evaluate its operands. */
+    private final TreeWalker counter = new TreeWalker() {
+        @Override
+        public Void visit(BinaryExpressionNode node) { return first(node) ? super.visit(node) : null; }
+
+        @Override
+        public Void visit(BinaryTermNode node) { return first(node) ? super.visit(node) : null; }
+
+        @Override
+        public Void visit(MinusFactorNode node) { return first(node) ? super.visit(node) : null; }
+    };
+
+    /** @return true if this is the first occurrence of the node's value */
+    private boolean first(Object node) {
+        if (NodeShapes.literal(node) != null) return false; // -5
+        String key = Nodes.key(node);
+        Value value = available.get(key);
+        if (value == null) {
+            value = new Value(Nodes.reads(node));
+            available.put(key, value);
+        }
+        values.put(node, value);
+        return ++value.occurrences == 1;
+    }
+
+    /** Forgets the values that read a slot, or are kept in it, when it is assigned. */
+    private void kill(int slot) {
+        available.values().removeIf(value -> value.reads.get(slot) || value.keeper == slot);
+    }
+
+    /** @return the operator node at the top of an expression, below any wrappers, or null */
+    private static Object operator(Object node) {
+        while (true) {
+            if (node instanceof UnaryExpressionNode) node = ((UnaryExpressionNode) node).getTerm();
+            else if (node instanceof UnaryTermNode) node = ((UnaryTermNode) node).getFactor();
+            else if (node instanceof ParenFactorNode) node = ((ParenFactorNode) node).getExpr();
+            else return node;
+        }
+    }
+
+    private static boolean hasOutOfRangeLiteral(ExpressionNode expr) {
+        boolean[] found = new boolean[1];
+        expr.accept(new TreeWalker() {
+            @Override
+            public Void visit(NumberFactorNode node) {
+                found[0] |= !node.isInRange();
+                return null;
+            }
+        });
+        return found[0];
+    }
+
+    // ==== Rewriting ====
+
+    @Override
+    public Object visit(BinaryExpressionNode node) {
+        IdentifierFactorNode holder = reuse(node);
+        if (holder != null) return new UnaryExpressionNode(new UnaryTermNode(holder));
+        ExpressionNode rebuilt = (ExpressionNode) super.visit(node);
+        holder = keep(node, rebuilt);
+        return (holder != null) ? new UnaryExpressionNode(new UnaryTermNode(holder)) : rebuilt;
+    }
+
+    @Override
+    public Object visit(BinaryTermNode node) {
+        IdentifierFactorNode holder = reuse(node);
+        if (holder != null) return new UnaryTermNode(holder);
+        TermNode rebuilt = (TermNode) super.visit(node);
+        holder = keep(node, rebuilt);
+        return (holder != null) ? new UnaryTermNode(holder) : rebuilt;
+    }
+
+    @Override
+    public Object visit(MinusFactorNode node) {
+        IdentifierFactorNode holder = reuse(node);
+        if (holder != null) return holder;
+        FactorNode rebuilt = (FactorNode) super.visit(node);
+        holder = keep(node, rebuilt);
+        return (holder != null) ? holder : rebuilt;
+    }
+
+    /** @return the variable holding an occurrence's value, if it was computed before */
+    private IdentifierFactorNode reuse(Object node) {
+        Value value = values.get(node);
+        if (value == null || value.holder == null) return null;
+        reused++;
+        return value.holder;
+    }
+
+    /** @return a new temporary holding the value of a repeated computation's first occurrence, or null */
+    private IdentifierFactorNode keep(Object node, Object rebuilt) {
+        Value value = values.get(node);
+        if (value == null || value.occurrences < 2 || value.keptBy != null || out == null) return null;
+        String name = Nodes.temp(symbols, "_cse");
+        int slot = symbols.lookup(name);
+        out.add(Nodes.assign(name, slot, asExpression(rebuilt)));
+        value.holder = Nodes.variable(name, slot, null);
+        return value.holder;
+    }
+
+    private static ExpressionNode asExpression(Object node) {
+        if (node instanceof ExpressionNode) return (ExpressionNode) node;
+        return new UnaryExpressionNode(new UnaryTermNode((FactorNode) node));
+    }
+}
@@ -0,0 +1,86 @@
+// Kyran Day, 10/17/2026.
+package kylang.optimizer;
+import kylang.tree_nodes.*;
+
+/**
+ * ConstantFolding
+ * ------------------------------------------------------------
+ * Replaces every arithmetic subtree whose operands are literals with the
+ * literal it evaluates to, with the same 32-bit wraparound as at run time,
+ * and drops parentheses around a single factor. Identities that cannot
+ * change the result ({@code x + 0}, {@code x * 1}, {@code x / 1}, and
+ * {@code x * 0} when {@code x} cannot throw) are simplified too.
+ * A division whose divisor folds to 0 is left in place, so it still
+ * throws "divide by zero" when, and only if, it runs. */
+class ConstantFolding extends TreeRewriter {
+
+    int folded; // expressions replaced by a literal or simplified
+
+    @Override
+    public Object visit(BinaryExpressionNode node) {
+        Object rewritten = super.visit(node);
+        if (!(rewritten instanceof BinaryExpressionNode)) return rewritten;
+        BinaryExpressionNode sum = (BinaryExpressionNode) rewritten;
+        ArithmeticOperator op = sum.getOperator();
+        Integer left = NodeShapes.literal(sum.getLeft()), right = NodeShapes.literal(sum.getRight());
+        if (left != null && right != null) {
+            folded++;
+            return Nodes.numberExpression(op.apply(left, right), sum.getOp());
+        }
+        if (right != null && right == 0) { // x + 0, x - 0
+            folded++;
+            return sum.getLeft();
+        }
+        if (left != null && left == 0 && op == ArithmeticOperator.ADD) { // 0 + x
+            folded++;
+            return sum.getRight();
+        }
+        return sum;
+    }
+
+    @Override
+    public Object visit(BinaryTermNode node) {
+        Object rewritten = super.visit(node);
+        if (!(rewritten instanceof BinaryTermNode)) return rewritten;
+        BinaryTermNode product = (BinaryTermNode) rewritten;
+        boolean multiply = product.getOperator() == ArithmeticOperator.MULTIPLY;
+        Integer left = NodeShapes.literal(product.getLeft()), right = NodeShapes.literal(product.getRight());
+        if (left != null && right != null && (multiply || right != 0)) { // x / 0 must still throw when it runs
+            folded++;
+            return Nodes.numberTerm(product.getOperator().apply(left, right), product.getOp());
+        }
+        if (right != null && right == 1) { // x * 1, x / 1
+            folded++;
+            return product.getLeft();
+        }
+        if (multiply && left != null && left == 1) { // 1 * x
+            folded++;
+            return new UnaryTermNode(product.getRight());
+        }
+        if (multiply && ((right != null && right == 0 && !Nodes.mayTrap(product.getLeft()))
+                || (left != null && left == 0 && !Nodes.mayTrap(product.getRight())))) { // x * 0
+            folded++;
+            return Nodes.numberTerm(0, product.getOp());
+        }
+        return product;
+    }
+
+    @Override
+    public Object visit(ParenFactorNode node) {
+        ParenFactorNode paren = (ParenFactorNode) super.visit(node);
+        if (paren.getExpr() instanceof UnaryExpressionNode
+                && ((UnaryExpressionNode) paren.getExpr()).getTerm() instanceof UnaryTermNode) { // ( factor )
+            return ((UnaryTermNode) ((UnaryExpressionNode) paren.getExpr()).getTerm()).getFactor();
+        }
+        return paren;
+    }
+
+    @Override
+    public Object visit(MinusFactorNode node) {
+        MinusFactorNode minus = (MinusFactorNode) super.visit(node);
+        Integer value = NodeShapes.literal(minus.getExpr());
+        if (value == null) return minus;
+        folded++;
+        return Nodes.number(-value, minus.getMinus());
+    }
+}
@@ -0,0 +1,142 @@
+// Kyran Day, 10/17/2026.
+package kylang.optimizer;
+import java.util.Arrays;
+import java.util.BitSet;
+import kylang.statements.*;
+import kylang.tree_nodes.*;
+
+/**
+ * ConstantPropagation
+ * ------------------------------------------------------------
+ * Folds constants while tracking, through the program in execution order,
+ * which variables hold a known value. A read of such a variable becomes a
+ * literal, so whole expressions and conditions fold. Every variable starts
+ * at 0, as in a fresh memory. Input makes a variable unknown; a branch
+ * keeps only the values both paths agree on; a loop makes everything its
+ * body writes unknown, both inside the loop and after it.
+ *
+ * An if whose condition is decided is replaced by the branch that runs
+ * (following the same rules as {@link IfStatement#execute}), a while
+ * whose condition is false on entry is removed, and so is a for loop
+ * whose literal bounds give it no iterations. */
+final class ConstantPropagation extends ConstantFolding {
+
+    int propagated, pruned;
+    private final int slots;
+    private int[] value;
+    private boolean[] known;
+
+    /**
+     * @param slots the number of slots in the program's symbol table */
+    ConstantPropagation(int slots) {
+        this.slots = slots;
+    }
+
+    void run(StatementList program) {
+        value = new int[slots];
+        known = new boolean[slots];
+        Arrays.fill(known, true); // all zero
+        block(program);
+    }
+
+    // ==== Statements ====
+
+    @Override
+    public Object visit(AssignmentStatement stmt) {
+        super.visit(stmt);
+        Integer constant = NodeShapes.literal(stmt.getExpression());
+        known[stmt.getSlot()] = constant != null;
+        if (constant != null) value[stmt.getSlot()] = constant;
+        return stmt;
+    }
+
+    @Override
+    public Object visit(InputStatement stmt) {
+        known[stmt.getSlot()] = false;
+        return stmt;
+    }
+
+    @Override
+    public Object visit(IfStatement stmt) {
+        stmt.setCondition(condition(stmt.getCondition()));
+        Boolean decided = decide(stmt.getCondition());
+        if (decided != null) {
+            pruned++;
+            if (decided) {
+                block(stmt.getThenBlock());
+                return stmt.getThenBlock();
+            }
+            if (stmt.getElifChain() != null) return stmt.getElifChain().accept(this);
+            block(stmt.getElseBlock());
+            return stmt.getElseBlock();
+        }
+
+        int[] entryValue = value.clone();
+        boolean[] entryKnown = known.clone();
+        block(stmt.getThenBlock());
+        int[] thenValue = value;
+        boolean[] thenKnown = known;
+        value = entryValue;
+        known = entryKnown;
+        if (stmt.getElifChain() != null) setRest(stmt, stmt.getElifChain().accept(this));
+        else block(stmt.getElseBlock());
+        for (int slot = 0; slot < slots; slot++) // keep what both paths agree on
+            known[slot] &= thenKnown[slot] && thenValue[slot] == value[slot];
+        return stmt;
+    }
+
+    @Override
+    public Object visit(WhileStatement stmt) {
+        boolean[] entryKnown = known.clone();
+        forget(Nodes.assigned(stmt.getBody()));
+        stmt.setCondition(condition(stmt.getCondition()));
+        if (Boolean.FALSE.equals(decide(stmt.getCondition()))) { // false even without what the body writes
+            known = entryKnown;
+            pruned++;
+            return null;
+        }
+        boolean[] headKnown = known.clone();
+        block(stmt.getBody());
+        known = headKnown;
+        return stmt;
+    }
+
+    @Override
+    public Object visit(ForStatement stmt) {
+        stmt.setStartExpr(expression(stmt.getStartExpr()));
+        stmt.setEndExpr(expression(stmt.getEndExpr()));
+        Integer start = NodeShapes.literal(stmt.getStartExpr()), end = NodeShapes.literal(stmt.getEndExpr());
+        if (start != null && end != null && start > end) { // never iterates, and never sets the loop variable
+            pruned++;
+            return null;
+        }
+        BitSet written = Nodes.assigned(stmt.getBody());
+        written.set(stmt.getSlot());
+        forget(written);
+        boolean[] headKnown = known.clone();
+        block(stmt.getBody());
+        known = headKnown;
+        return stmt;
+    }
+
+    // ==== Expressions ====
+
+    @Override
+    public Object visit(IdentifierFactorNode node) {
+        if (!known[node.getSlot()]) return node;
+        propagated++;
+        return Nodes.number(value[node.getSlot()], node.getIdentifier());
+    }
+
+    private void forget(BitSet written) {
+        for (int slot = written.nextSetBit(0); slot >= 0; slot = written.nextSetBit(slot + 1)) known[slot] = false;
+    }
+
+    /** @return the value of a condition whose operands are literals, or null */
+    private static Boolean decide(BooleanExpressionNode condition) {
+        if (!(condition instanceof RelationalExpressionNode)) return null;
+        RelationalExpressionNode rel = (RelationalExpressionNode) condition;
+        Integer left = NodeShapes.literal(rel.getLeft()), right = NodeShapes.literal(rel.getRight());
+        return (left != null && right != null) ? rel.getOperator().test(left, right) : null;
+    }
+}
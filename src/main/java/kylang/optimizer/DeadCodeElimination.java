@@ -0,0 +1,157 @@
+// Kyran Day, 10/17/2026.
+package kylang.optimizer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import kylang.statements.*;
+import kylang.tree_nodes.*;
+
+/**
+ * DeadCodeElimination
+ * ------------------------------------------------------------
+ * Removes assignments whose value is never displayed, using a backwards
+ * liveness analysis: a variable is live at a point if some path from there
+ * displays it before assigning it again. {@code display} is the only place
+ * a value is observed; {@code input} is kept, since reading a value is a
+ * side effect, and makes its target dead before it.
+ * <ul>
+ *   <li>An assignment to a variable that is dead after it is removed,
+ *       unless its expression could throw.</li>
+ *   <li>An {@code if} left with nothing in any branch is removed, unless a
+ *       condition could throw.</li>
+ *   <li>A {@code for} left with an empty body is removed when its loop
+ *       variable is dead after it, its bounds cannot throw, and its end is
+ *       a literal below the int maximum (a loop up to the maximum never
+ *       ends).</li>
+ * </ul>
+ * An empty {@code while} is kept: it either does nothing or never ends.
+ * Loop bodies are analyzed to a fixed point, since what one iteration
+ * reads may be assigned by the previous one. */
+final class DeadCodeElimination {
+
+    int removed;
+
+    void run(StatementList program) {
+        live(program, new BitSet(), true);
+    }
+
+    /**
+     * @param block the block
+     * @param liveOut the slots live after it
+     * @param rewrite whether to remove dead statements, or only compute liveness
+     * @return the slots live before it */
+    private BitSet live(StatementList block, BitSet liveOut, boolean rewrite) {
+        BitSet live = (BitSet) liveOut.clone();
+        List<Statement> statements = block.getStatements();
+        boolean[] dead = new boolean[statements.size()];
+        int deadCount = 0;
+        for (int k = statements.size() - 1; k >= 0; k--) {
+            if (!statement(statements.get(k), live, rewrite)) {
+                dead[k] = true;
+                deadCount++;
+            }
+        }
+        if (rewrite && deadCount > 0) {
+            ArrayList<Statement> kept = new ArrayList<>(statements.size() - deadCount);
+            for (int k = 0; k < statements.size(); k++) if (!dead[k]) kept.add(statements.get(k));
+            block.setStatements(kept);
+            removed += deadCount;
+        }
+        return live;
+    }
+
+    /**
+     * Moves {@code live} from after a statement to before it.
+     *
+     * @return false if the statement has no effect and can be removed (live is then unchanged) */
+    private boolean statement(Statement stmt, BitSet live, boolean rewrite) {
+        if (stmt instanceof AssignmentStatement) {
+            AssignmentStatement assignment = (AssignmentStatement) stmt;
+            if (!live.get(assignment.getSlot()) && !Nodes.mayTrap(assignment.getExpression())) return false;
+            live.clear(assignment.getSlot());
+            live.or(Nodes.reads(assignment.getExpression()));
+            return true;
+        }
+        if (stmt instanceof DisplayStatement) {
+            live.set(((DisplayStatement) stmt).getSlot());
+            return true;
+        }
+        if (stmt instanceof InputStatement) {
+            live.clear(((InputStatement) stmt).getSlot());
+            return true;
+        }
+        if (stmt instanceof IfStatement) return ifStatement((IfStatement) stmt, live, rewrite);
+        if (stmt instanceof WhileStatement) {
+            whileStatement((WhileStatement) stmt, live, rewrite);
+            return true;
+        }
+        if (stmt instanceof ForStatement) return forStatement((ForStatement) stmt, live, rewrite);
+        live.or(Nodes.reads(stmt));
+        return true;
+    }
+
+    private boolean ifStatement(IfStatement stmt, BitSet live, boolean rewrite) {
+        BitSet liveOut = (BitSet) live.clone();
+        live.clear();
+        live.or(live(stmt.getThenBlock(), liveOut, rewrite));
+        boolean empty = stmt.getThenBlock().getStatements().isEmpty();
+        if (stmt.getElifChain() != null) { // the else block only runs without an elif
+            BitSet rest = (BitSet) liveOut.clone();
+            if (!ifStatement(stmt.getElifChain(), rest, rewrite) && rewrite) {
+                stmt.setElifChain(null);
+                stmt.setElseBlock(null);
+            } else {
+                empty = false;
+            }
+            live.or(rest);
+        } else if (stmt.getElseBlock() != null) {
+            live.or(live(stmt.getElseBlock(), liveOut, rewrite));
+            empty &= stmt.getElseBlock().getStatements().isEmpty();
+        } else {
+            live.or(liveOut);
+        }
+        if (rewrite && empty && !Nodes.mayTrap(stmt.getCondition())) {
+            live.clear();
+            live.or(liveOut);
+            return false;
+        }
+        live.or(Nodes.reads(stmt.getCondition()));
+        return true;
+    }
+
+    private void whileStatement(WhileStatement stmt, BitSet live, boolean rewrite) {
+        live.or(Nodes.reads(stmt.getCondition())); // live before each test of the condition
+        while (true) {
+            BitSet next = live(stmt.getBody(), live, false);
+            next.or(live);
+            if (next.equals(live)) break;
+            live.or(next);
+        }
+        if (rewrite) live(stmt.getBody(), live, true);
+    }
+
+    private boolean forStatement(ForStatement stmt, BitSet live, boolean rewrite) {
+        int slot = stmt.getSlot();
+        BitSet liveOut = (BitSet) live.clone();
+        while (true) { // live before each iteration's assignment of the loop variable
+            BitSet next = live(stmt.getBody(), live, false);
+            next.clear(slot);
+            next.or(live);
+            if (next.equals(live)) break;
+            live.or(next);
+        }
+        if (rewrite) {
+            live(stmt.getBody(), live, true);
+            Integer end = NodeShapes.literal(stmt.getEndExpr());
+            if (stmt.getBody().getStatements().isEmpty() && !liveOut.get(slot) && end != null
+                    && end != Integer.MAX_VALUE && !Nodes.mayTrap(stmt.getStartExpr())) {
+                live.clear();
+                live.or(liveOut);
+                return false;
+            }
+        }
+        live.or(Nodes.reads(stmt.getStartExpr()));
+        live.or(Nodes.reads(stmt.getEndExpr()));
+        return true;
+    }
+}
@@ -0,0 +1,260 @@
+// Kyran Day, 10/17/2026.
+package kylang.optimizer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import kylang.statements.*;
+import kylang.tree_nodes.*;
+
+/**
+ * LoopDependences
+ * ------------------------------------------------------------
+ * Classifies every variable of a {@code for} loop by how its iterations
+ * use it:
+ * <ul>
+ *   <li>{@link #SHARED}: only read by the body (or not used at all);</li>
+ *   <li>{@link #INDEX}: the loop variable, which the body must not assign;</li>
+ *   <li>{@link #PRIVATE}: assigned in every iteration before any read, so
+ *       no iteration sees another's value;</li>
+ *   <li>{@link #SUM} / {@link #PRODUCT}: only ever updated by
+ *       {@code let s := s + e} and {@code s - e} (or only by {@code s * e}),
+ *       where {@code e} reads no reduction, and read nowhere else;</li>
+ *   <li>{@link #CONFLICT}: anything else the body writes, which carries a
+ *       value from one iteration to the next.</li>
+ * </ul>
+ * The iterations are independent if nothing conflicts, the body neither
+ * displays nor reads input, and, when the body can throw, it has no loop
+ * that might not end (so a failing iteration cannot hide behind an
+ * earlier one that runs forever). Min and max reductions need an
+ * {@code if} in the body, which the grammar does not allow in loops.
+ * A {@code parallel for} uses the same classes to decide which variables
+ * each chunk keeps to itself. */
+public final class LoopDependences {
+
+    public static final int SHARED = 0, INDEX = 1, PRIVATE = 2, SUM = 3, PRODUCT = 4, CONFLICT = 5;
+
+    private final int[] kinds;
+    private final boolean independent;
+
+    /**
+     * @param loop the loop
+     * @param slots the number of slots in the program */
+    public LoopDependences(ForStatement loop, int slots) {
+        kinds = new int[slots];
+        StatementList body = loop.getBody();
+        BitSet written = Nodes.assigned(body);
+        int[] readCounts = new int[slots];
+        List<List<AssignmentStatement>> updates = new ArrayList<>();
+        for (int slot = 0; slot < slots; slot++) updates.add(new ArrayList<>());
+        BitSet otherWrites = new BitSet(); // nested loop variables
+        boolean[] io = new boolean[1];
+        new TreeWalker() {
+            @Override
+            public Void visit(AssignmentStatement stmt) {
+                updates.get(stmt.getSlot()).add(stmt);
+                return super.visit(stmt);
+            }
+
+            @Override
+            public Void visit(ForStatement stmt) {
+                otherWrites.set(stmt.getSlot());
+                return super.visit(stmt);
+            }
+
+            @Override
+            public Void visit(DisplayStatement stmt) {
+                io[0] = true;
+                return null;
+            }
+
+            @Override
+            public Void visit(InputStatement stmt) {
+                io[0] = true;
+                return null;
+            }
+
+            @Override
+            public Void visit(IdentifierFactorNode node) {
+                readCounts[node.getSlot()]++;
+                return null;
+            }
+        }.walk(body);
+
+        kinds[loop.getSlot()] = INDEX;
+        BitSet reductions = new BitSet();
+        for (int slot = written.nextSetBit(0); slot >= 0; slot = written.nextSetBit(slot + 1)) {
+            if (slot == loop.getSlot()) {
+                kinds[slot] = CONFLICT;
+                continue;
+            }
+            int kind = otherWrites.get(slot) ? PRIVATE : reduction(updates.get(slot), slot, readCounts[slot]);
+            kinds[slot] = kind;
+            if (kind != PRIVATE) reductions.set(slot);
+        }
+        for (int slot = reductions.nextSetBit(0); slot >= 0; slot = reductions.nextSetBit(slot + 1)) {
+            for (AssignmentStatement update : updates.get(slot)) { // partial results differ from the sequential ones
+                BitSet read = Nodes.reads(update.getExpression());
+                read.and(reductions);
+                read.clear(slot);
+                for (int other = read.nextSetBit(0); other >= 0; other = read.nextSetBit(other + 1)) kinds[other] = CONFLICT;
+            }
+        }
+        BitSet privates = new BitSet();
+        for (int slot = 0; slot < slots; slot++) if (kinds[slot] == PRIVATE) privates.set(slot);
+        BitSet defined = new BitSet();
+        defined.set(loop.getSlot());
+        boolean ordered = assignedBeforeRead(body, defined, privates);
+        for (int slot = privates.nextSetBit(0); slot >= 0; slot = privates.nextSetBit(slot + 1)) // else its final value
+            if (!ordered || !defined.get(slot)) kinds[slot] = CONFLICT;                          // may come from any chunk
+
+        boolean conflict = false;
+        for (int kind : kinds) conflict |= kind == CONFLICT;
+        independent = !conflict && !io[0] && !(mayTrap(body) && mayNotEnd(body));
+    }
+
+    /** @return how the variable is used */
+    public int kind(int slot) { return kinds[slot]; }
+
+    /** @return the slots of one kind, in increasing order */
+    public int[] slots(int kind) {
+        int n = 0;
+        for (int k : kinds) if (k == kind) n++;
+        int[] slots = new int[n];
+        for (int slot = 0, j = 0; slot < kinds.length; slot++) if (kinds[slot] == kind) slots[j++] = slot;
+        return slots;
+    }
+
+    /** @return true if the iterations can run in any order, each on its own copy of memory */
+    public boolean isIndependent() { return independent; }
+
+    /**
+     * @param updates every assignment to the slot in the body
+     * @param reads how many times the body reads it
+     * @return SUM or PRODUCT if each update combines the slot with a value that does not read it, else PRIVATE */
+    private static int reduction(List<AssignmentStatement> updates, int slot, int reads) {
+        if (updates.size() != reads) return PRIVATE; // read somewhere other than its own updates
+        int kind = -1;
+        for (AssignmentStatement update : updates) {
+            int k = reductionKind(update.getExpression(), slot);
+            if (k < 0 || (kind >= 0 && k != kind)) return PRIVATE;
+            kind = k;
+        }
+        return kind;
+    }
+
+    /** @return SUM for {@code s + e}, {@code e + s}, {@code s + a - b} and the like; PRODUCT for {@code s * e}, {@code e * s}; else -1 */
+    private static int reductionKind(ExpressionNode expr, int slot) {
+        ExpressionNode added = ClosedFormLoops.withoutTarget(expr, slot);
+        if (added != null) return Nodes.reads(added).get(slot) ? -1 : SUM;
+        if (expr instanceof UnaryExpressionNode && ((UnaryExpressionNode) expr).getTerm() instanceof BinaryTermNode) {
+            BinaryTermNode product = (BinaryTermNode) ((UnaryExpressionNode) expr).getTerm();
+            if (product.getOperator() != ArithmeticOperator.MULTIPLY) return -1;
+            if (isSlot(product.getLeft(), slot) && !Nodes.reads(product.getRight()).get(slot)) return PRODUCT;
+            if (isSlot(product.getRight(), slot) && !Nodes.reads(product.getLeft()).get(slot)) return PRODUCT;
+        }
+        return -1;
+    }
+
+    private static boolean isSlot(Object node, int slot) {
+        IdentifierFactorNode variable = NodeShapes.variable(node);
+        return variable != null && variable.getSlot() == slot;
+    }
+
+    /**
+     * Walks a block in execution order, adding to {@code defined} the
+     * slots it assigns on every path.
+     *
+     * @return false if some statement may read a private slot that is not yet assigned in this iteration */
+    private static boolean assignedBeforeRead(StatementList block, BitSet defined, BitSet privates) {
+        if (block == null) return true;
+        for (Statement stmt : block.getStatements()) {
+            if (stmt instanceof ClosedFormLoop) stmt = ((ClosedFormLoop) stmt).getOriginal();
+            if (stmt instanceof AssignmentStatement) {
+                AssignmentStatement assignment = (AssignmentStatement) stmt;
+                if (!readsOnly(assignment.getExpression(), defined, privates)) return false;
+                defined.set(assignment.getSlot());
+            } else if (stmt instanceof ForStatement) {
+                ForStatement loop = (ForStatement) stmt;
+                if (!readsOnly(loop.getStartExpr(), defined, privates) || !readsOnly(loop.getEndExpr(), defined, privates))
+                    return false;
+                BitSet inner = (BitSet) defined.clone();
+                inner.set(loop.getSlot());
+                if (!assignedBeforeRead(loop.getBody(), inner, privates)) return false;
+                Integer start = NodeShapes.literal(loop.getStartExpr()), end = NodeShapes.literal(loop.getEndExpr());
+                if (start != null && end != null && start <= end) defined.or(inner); // runs at least once
+            } else if (stmt instanceof WhileStatement) {
+                WhileStatement loop = (WhileStatement) stmt;
+                if (!readsOnly(loop.getCondition(), defined, privates)) return false;
+                if (!assignedBeforeRead(loop.getBody(), (BitSet) defined.clone(), privates)) return false;
+            } else if (stmt instanceof IfStatement) {
+                for (IfStatement branch = (IfStatement) stmt; branch != null; branch = branch.getElifChain()) {
+                    if (!readsOnly(branch.getCondition(), defined, privates)) return false;
+                    if (!assignedBeforeRead(branch.getThenBlock(), (BitSet) defined.clone(), privates)) return false;
+                    if (!assignedBeforeRead(branch.getElseBlock(), (BitSet) defined.clone(), privates)) return false;
+                }
+            } else if (!readsOnly(stmt, defined, privates)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** @return true if every private slot the node reads is defined */
+    private static boolean readsOnly(Object node, BitSet defined, BitSet privates) {
+        BitSet read = Nodes.reads(node);
+        read.and(privates);
+        read.andNot(defined);
+        return read.isEmpty();
+    }
+
+    /** @return true if some expression, condition or bound in the block could throw */
+    private static boolean mayTrap(StatementList block) {
+        boolean[] found = new boolean[1];
+        new TreeWalker() {
+            @Override
+            public Void visit(AssignmentStatement stmt) {
+                found[0] |= Nodes.mayTrap(stmt.getExpression());
+                return null;
+            }
+
+            @Override
+            public Void visit(IfStatement stmt) {
+                found[0] |= Nodes.mayTrap(stmt.getCondition());
+                return super.visit(stmt);
+            }
+
+            @Override
+            public Void visit(WhileStatement stmt) {
+                found[0] |= Nodes.mayTrap(stmt.getCondition());
+                return super.visit(stmt);
+            }
+
+            @Override
+            public Void visit(ForStatement stmt) {
+                found[0] |= Nodes.mayTrap(stmt.getStartExpr()) || Nodes.mayTrap(stmt.getEndExpr());
+                return super.visit(stmt);
+            }
+        }.walk(block);
+        return found[0];
+    }
+
+    /** @return true if the block has a while loop, or a for loop without a literal end below the int maximum */
+    private static boolean mayNotEnd(StatementList block) {
+        boolean[] found = new boolean[1];
+        new TreeWalker() {
+            @Override
+            public Void visit(WhileStatement stmt) {
+                found[0] = true;
+                return null;
+            }
+
+            @Override
+            public Void visit(ForStatement stmt) {
+                Integer end = NodeShapes.literal(stmt.getEndExpr());
+                found[0] |= end == null || end == Integer.MAX_VALUE;
+                return super.visit(stmt);
+            }
+        }.walk(block);
+        return found[0];
+    }
+}
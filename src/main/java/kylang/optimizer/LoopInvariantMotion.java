@@ -0,0 +1,244 @@
+// Kyran Day, 10/17/2026.
+package kylang.optimizer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import kylang.memory.SymbolTable;
+import kylang.statements.*;
+import kylang.tree_nodes.*;
+
+/**
+ * LoopInvariantMotion
+ * ------------------------------------------------------------
+ * Moves work that gives the same result on every iteration out of while
+ * and for loops, into a pre-header that runs once just before the loop.
+ * Inner loops are handled first, so work can move out several levels.
+ * <ul>
+ *   <li>An invariant assignment {@code let x := e} at the top level of the
+ *       body moves out when {@code e} reads nothing the loop writes, it is
+ *       the loop's only write of {@code x}, and nothing in the loop reads
+ *       {@code x} before it. Since the loop may run zero times, such a
+ *       pre-header is guarded by the loop's own entry test
+ *       ({@code if cond} or {@code if start <= end}) unless the bounds are
+ *       literals that guarantee an iteration.</li>
+ *   <li>Any other computation that reads nothing the loop writes is
+ *       evaluated once into a compiler temporary {@code _licmN}; identical
+ *       computations share one temporary.</li>
+ * </ul>
+ * Nothing that could throw is moved (a division by a value not known to
+ * be non-zero, or an out-of-range literal), so a loop that never runs
+ * never fails, and the order of display and input is unchanged. */
+final class LoopInvariantMotion extends TreeRewriter {
+
+    int hoistedExpressions, hoistedAssignments;
+    private final SymbolTable symbols;
+
+    // State of the loop currently being rewritten
+    private BitSet written;
+    private ArrayList<Statement> temps;
+    private HashMap<String, IdentifierFactorNode> tempsByKey;
+
+    LoopInvariantMotion(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    void run(StatementList program) {
+        block(program);
+    }
+
+    @Override
+    public Object visit(WhileStatement stmt) {
+        block(stmt.getBody()); // inner loops first
+        BooleanExpressionNode entryTest = Nodes.mayTrap(stmt.getCondition()) ? null : stmt.getCondition();
+        ArrayList<Statement> moved = (entryTest != null)
+                ? moveAssignments(stmt.getBody(), Nodes.reads(entryTest), new BitSet()) : new ArrayList<>();
+        beginLoop(stmt.getBody());
+        stmt.setCondition(hoist(stmt.getCondition()));
+        hoistBody(stmt.getBody());
+        return preheader(stmt, moved, entryTest, false);
+    }
+
+    @Override
+    public Object visit(ForStatement stmt) {
+        block(stmt.getBody());
+        BitSet boundsRead = Nodes.reads(stmt.getStartExpr());
+        boundsRead.or(Nodes.reads(stmt.getEndExpr()));
+        BitSet loopVariable = new BitSet();
+        loopVariable.set(stmt.getSlot()); // written before every iteration
+        boundsRead.or(loopVariable);
+
+        Integer start = NodeShapes.literal(stmt.getStartExpr()), end = NodeShapes.literal(stmt.getEndExpr());
+        boolean runs = start != null && end != null && start <= end;
+        BooleanExpressionNode entryTest = null;
+        if (!Nodes.mayTrap(stmt.getStartExpr()) && !Nodes.mayTrap(stmt.getEndExpr())) {
+            entryTest = new RelationalExpressionNode(stmt.getStartExpr(),
+                    new Token(0, 0, "<=", Token.Type.LE), stmt.getEndExpr());
+        }
+        ArrayList<Statement> moved = (runs || entryTest != null)
+                ? moveAssignments(stmt.getBody(), boundsRead, loopVariable) : new ArrayList<>();
+        beginLoop(stmt.getBody());
+        written.set(stmt.getSlot());
+        hoistBody(stmt.getBody());
+        return preheader(stmt, moved, entryTest, runs);
+    }
+
+    /**
+     * Removes the invariant assignments that may run before the loop from
+     * the top level of its body, in order.
+     *
+     * @param body the loop body
+     * @param readFirst slots read before each iteration (the condition or the bounds)
+     * @param loopWritten slots the loop itself writes (the loop variable)
+     * @return the removed assignments */
+    private ArrayList<Statement> moveAssignments(StatementList body, BitSet readFirst, BitSet loopWritten) {
+        List<Statement> statements = body.getStatements();
+        ArrayList<BitSet> writes = new ArrayList<>();
+        for (Statement stmt : statements) writes.add(Nodes.assigned(asBlock(stmt)));
+
+        ArrayList<Statement> moved = new ArrayList<>();
+        ArrayList<Statement> kept = new ArrayList<>();
+        BitSet readBefore = (BitSet) readFirst.clone();
+        BitSet loopWrites = (BitSet) loopWritten.clone();
+        for (BitSet w : writes) loopWrites.or(w);
+        for (int k = 0; k < statements.size(); k++) {
+            Statement stmt = statements.get(k);
+            if (stmt instanceof AssignmentStatement) {
+                AssignmentStatement assignment = (AssignmentStatement) stmt;
+                int slot = assignment.getSlot();
+                ExpressionNode value = assignment.getExpression();
+                if (!readBefore.get(slot) && !Nodes.reads(value).intersects(loopWrites) && !Nodes.mayTrap(value)
+                        && writtenOnlyBy(k, slot, writes)) {
+                    moved.add(stmt);
+                    loopWrites.clear(slot); // from now on x holds the same value throughout the loop
+                    writes.set(k, new BitSet());
+                    hoistedAssignments++;
+                    continue;
+                }
+            }
+            kept.add(stmt);
+            readBefore.or(Nodes.reads(stmt));
+        }
+        if (!moved.isEmpty()) body.setStatements(kept);
+        return moved;
+    }
+
+    private static boolean writtenOnlyBy(int index, int slot, List<BitSet> writes) {
+        for (int k = 0; k < writes.size(); k++) if (k != index && writes.get(k).get(slot)) return false;
+        return true;
+    }
+
+    private void beginLoop(StatementList body) {
+        written = Nodes.assigned(body);
+        temps = new ArrayList<>();
+        tempsByKey = new HashMap<>();
+    }
+
+    /** Replaces the invariant computations in the body's expressions (nested loops included) by temporaries. */
+    private void hoistBody(StatementList body) {
+        new TreeRewriter() {
+            @Override
+            public Object visit(AssignmentStatement stmt) {
+                stmt.setExpression(hoist(stmt.getExpression()));
+                return stmt;
+            }
+
+            @Override
+            public Object visit(IfStatement stmt) {
+                stmt.setCondition(hoist(stmt.getCondition()));
+                return super.visit(stmt);
+            }
+
+            @Override
+            public Object visit(WhileStatement stmt) {
+                stmt.setCondition(hoist(stmt.getCondition()));
+                block(stmt.getBody());
+                return stmt;
+            }
+
+            @Override
+            public Object visit(ForStatement stmt) {
+                stmt.setStartExpr(hoist(stmt.getStartExpr()));
+                stmt.setEndExpr(hoist(stmt.getEndExpr()));
+                block(stmt.getBody());
+                return stmt;
+            }
+
+            // Keep the conditions of the statements above from being rewritten twice
+            @Override
+            public Object visit(RelationalExpressionNode node) { return node; }
+        }.block(body);
+    }
+
+    private BooleanExpressionNode hoist(BooleanExpressionNode condition) { return (BooleanExpressionNode) condition.accept(hoister); }
+
+    private ExpressionNode hoist(ExpressionNode expression) { return (ExpressionNode) expression.accept(hoister); }
+
+    /** Replaces each maximal invariant computation by a read of its temporary. */
+    private final TreeRewriter hoister = new TreeRewriter() {
+        @Override
+        public Object visit(BinaryExpressionNode node) {
+            IdentifierFactorNode temp = temp(node);
+            return (temp != null) ? new UnaryExpressionNode(new UnaryTermNode(temp)) : super.visit(node);
+        }
+
+        @Override
+        public Object visit(BinaryTermNode node) {
+            IdentifierFactorNode temp = temp(node);
+            return (temp != null) ? new UnaryTermNode(temp) : super.visit(node);
+        }
+
+        @Override
+        public Object visit(ParenFactorNode node) {
+            IdentifierFactorNode temp = temp(node);
+            return (temp != null) ? temp : super.visit(node);
+        }
+
+        @Override
+        public Object visit(MinusFactorNode node) {
+            IdentifierFactorNode temp = temp(node);
+            return (temp != null) ? temp : super.visit(node);
+        }
+    };
+
+    /** @return the temporary holding an invariant computation, created on first use, or null if the node varies */
+    private IdentifierFactorNode temp(Object node) {
+        if (!Nodes.isComputation(node) || Nodes.mayTrap(node) || Nodes.reads(node).intersects(written)) return null;
+        String key = Nodes.key(node);
+        IdentifierFactorNode temp = tempsByKey.get(key);
+        if (temp == null) {
+            String name = Nodes.temp(symbols, "_licm");
+            int slot = symbols.lookup(name);
+            temp = Nodes.variable(name, slot, null);
+            temps.add(Nodes.assign(name, slot, asExpression(node)));
+            tempsByKey.put(key, temp);
+        }
+        hoistedExpressions++;
+        return temp;
+    }
+
+    private static ExpressionNode asExpression(Object node) {
+        if (node instanceof ExpressionNode) return (ExpressionNode) node;
+        return new UnaryExpressionNode(new UnaryTermNode((FactorNode) node));
+    }
+
+    /**
+     * @param loop the rewritten loop
+     * @param moved the assignments moved out of it
+     * @param entryTest a test that is true exactly when the loop runs at least once, or null
+     * @param runs whether the loop is known to run at least once
+     * @return the loop preceded by its pre-header */
+    private Object preheader(Statement loop, ArrayList<Statement> moved, BooleanExpressionNode entryTest, boolean runs) {
+        if (moved.isEmpty() && temps.isEmpty()) return loop;
+        StatementList result = new StatementList();
+        if (!moved.isEmpty()) {
+            StatementList guarded = new StatementList();
+            guarded.setStatements(moved);
+            if (runs) result.getStatements().addAll(moved);
+            else result.addStatement(new IfStatement(entryTest, guarded, null, null));
+        }
+        for (Statement temp : temps) result.addStatement(temp); // after the moved assignments they may read
+        result.addStatement(loop);
+        return result;
+    }
+}
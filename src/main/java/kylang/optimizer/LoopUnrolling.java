@@ -0,0 +1,141 @@
+// Kyran Day, 10/17/2026.
+package kylang.optimizer;
+import kylang.memory.SymbolTable;
+import kylang.statements.*;
+import kylang.tree_nodes.*;
+
+/**
+ * LoopUnrolling
+ * ------------------------------------------------------------
+ * Unrolls {@code for} loops whose bounds are literals, innermost first.
+ * <ul>
+ *   <li>A loop of at most {@link #FULL_TRIPS} iterations is replaced by
+ *       one copy of its body per iteration, each preceded by
+ *       {@code let i := v}; in the copies, reads of {@code i} become the
+ *       literal {@code v}.</li>
+ *   <li>A longer loop is unrolled by the configured factor {@code F}:
+ *       a loop over a temporary {@code _unrollN} runs {@code F} copies
+ *       of the body per iteration, setting {@code i} before each, and the
+ *       iterations left over are unrolled fully after it.</li>
+ * </ul>
+ * Reads of {@code i} keep reading the variable when the body assigns it.
+ * A partial unroll is skipped when the body assigns {@code i} or when
+ * {@link ClosedFormLoops} can replace the whole loop, and neither kind
+ * lets the program grow by more than {@link #MAX_STATEMENTS} statements.
+ * A loop ending at the int maximum never ends, and is left alone, and so
+ * is a {@code parallel for}, whose iterations are meant to run at once.
+ *
+ * The {@code let i := v} a copy does not need are left to
+ * {@link DeadCodeElimination}, and folding the substituted literals to
+ * {@link ConstantPropagation}, run again afterwards. */
+final class LoopUnrolling extends TreeRewriter {
+
+    /** Loops with at most this many iterations are unrolled fully. */
+    static final int FULL_TRIPS = 16;
+    /** The most statements an unrolled loop may add. */
+    static final int MAX_STATEMENTS = 256;
+
+    int unrolled, unrolledFully;
+    private final SymbolTable symbols;
+    private final int factor;
+
+    /**
+     * @param factor the body copies per iteration of a partially unrolled loop; below 2, only full unrolling is done */
+    LoopUnrolling(SymbolTable symbols, int factor) {
+        this.symbols = symbols;
+        this.factor = factor;
+    }
+
+    void run(StatementList program) {
+        block(program);
+    }
+
+    @Override
+    public Object visit(ForStatement stmt) {
+        super.visit(stmt); // inner loops first
+        if (stmt instanceof ParallelForStatement) return stmt;
+        Integer start = NodeShapes.literal(stmt.getStartExpr()), end = NodeShapes.literal(stmt.getEndExpr());
+        if (start == null || end == null || start > end || end == Integer.MAX_VALUE) return stmt;
+        long trips = (long) end - start + 1;
+        int size = size(stmt.getBody());
+        if (trips <= FULL_TRIPS && trips * size <= MAX_STATEMENTS) {
+            unrolledFully++;
+            return full(stmt, start, end);
+        }
+        if (factor < 2 || trips < 2L * factor || (long) factor * size > MAX_STATEMENTS
+                || Nodes.assigned(stmt.getBody()).get(stmt.getSlot()) || ClosedFormLoops.collapses(stmt)) return stmt;
+        unrolled++;
+        return partial(stmt, start, trips);
+    }
+
+    /** @return the iterations {@code from .. to} of a loop, each as {@code let i := v} and a body copy */
+    private StatementList full(ForStatement stmt, int from, int to) {
+        StatementList out = new StatementList();
+        boolean substitute = !Nodes.assigned(stmt.getBody()).get(stmt.getSlot());
+        for (long v = from; v <= to; v++) {
+            out.addStatement(setCounter(stmt, Nodes.numberExpression((int) v, null)));
+            TreeCopier copier = new TreeCopier(substitute ? stmt.getSlot() : -1, (int) v);
+            out.getStatements().addAll(copier.copy(stmt.getBody()).getStatements());
+        }
+        return out;
+    }
+
+    /**
+     * {@code for i in a .. b} with {@code n} iterations becomes
+     * <pre>
+     * for _unrollN in 0 .. n / F - 1:
+     *     let i := a + F * _unrollN
+     *     body
+     *     let i := i + 1
+     *     body                         (F copies in all)
+     * let i := b - n % F + 1
+     * body [i := b - n % F + 1]        (n % F fully unrolled iterations)
+     * </pre>
+     * {@code F * _unrollN} may wrap, but {@code i} ends up the true value,
+     * which is within the bounds. */
+    private StatementList partial(ForStatement stmt, int start, long trips) {
+        String name = Nodes.temp(symbols, "_unroll");
+        int slot = symbols.lookup(name);
+        int counter = stmt.getSlot();
+        StatementList body = new StatementList();
+        ExpressionNode base = new BinaryExpressionNode(Nodes.numberExpression(start, null), token("+", Token.Type.ADD),
+                new BinaryTermNode(Nodes.numberTerm(factor, null), token("*", Token.Type.MULTI), Nodes.variable(name, slot, null)));
+        for (int k = 0; k < factor; k++) {
+            body.addStatement(setCounter(stmt, (k == 0) ? base : new BinaryExpressionNode(
+                    new UnaryExpressionNode(new UnaryTermNode(Nodes.variable(stmt.getLoopVariable(), counter, null))),
+                    token("+", Token.Type.ADD), Nodes.numberTerm(1, null))));
+            body.getStatements().addAll(new TreeCopier(-1, 0).copy(stmt.getBody()).getStatements());
+        }
+        ForStatement loop = new ForStatement(name, Nodes.numberExpression(0, null),
+                Nodes.numberExpression((int) (trips / factor - 1), null), body);
+        loop.setSlot(slot);
+
+        StatementList out = new StatementList();
+        out.addStatement(loop);
+        long remainder = trips % factor;
+        if (remainder > 0) {
+            long first = start + trips - remainder;
+            out.getStatements().addAll(full(stmt, (int) first, (int) (first + remainder - 1)).getStatements());
+        }
+        return out;
+    }
+
+    private static AssignmentStatement setCounter(ForStatement stmt, ExpressionNode value) {
+        return Nodes.assign(stmt.getLoopVariable(), stmt.getSlot(), value);
+    }
+
+    private static Token token(String lexeme, Token.Type type) { return new Token(0, 0, lexeme, type); }
+
+    /** @return the number of statements in a block, nested blocks included */
+    private static int size(StatementList block) {
+        int[] count = new int[1];
+        new TreeWalker() {
+            @Override
+            public void walk(StatementList list) {
+                if (list != null) count[0] += list.getStatements().size();
+                super.walk(list);
+            }
+        }.walk(block);
+        return count[0];
+    }
+}
@@ -0,0 +1,192 @@
+// Kyran Day, 10/17/2026.
+package kylang.optimizer;
+import java.util.BitSet;
+import kylang.memory.SymbolTable;
+import kylang.statements.*;
+import kylang.tree_nodes.*;
+
+/**
+ * Nodes
+ * ------------------------------------------------------------
+ * Node factories and small queries shared by the optimization passes. */
+final class Nodes {
+
+    private Nodes() {}
+
+    // ==== Literals ====
+
+    /** @return a literal factor for {@code value}, positioned at {@code at} (which may be null) */
+    static FactorNode number(int value, Token at) {
+        int row = (at != null) ? at.getRow() : 0, column = (at != null) ? at.getCOLUMN() : 0;
+        return new NumberFactorNode(new Token(row, column, Integer.toString(value), Token.Type.INT_LIT));
+    }
+
+    static TermNode numberTerm(int value, Token at) { return new UnaryTermNode(number(value, at)); }
+
+    static ExpressionNode numberExpression(int value, Token at) { return new UnaryExpressionNode(numberTerm(value, at)); }
+
+    /** @return a bare variable reference to a resolved slot */
+    static IdentifierFactorNode variable(String name, int slot, Token at) {
+        int row = (at != null) ? at.getRow() : 0, column = (at != null) ? at.getCOLUMN() : 0;
+        IdentifierFactorNode node = new IdentifierFactorNode(new Token(row, column, name, Token.Type.IDENTIFIER));
+        node.setSlot(slot);
+        return node;
+    }
+
+    /**
+     * Creates a compiler temporary, named so that it cannot clash with a
+     * program variable (identifiers cannot start with an underscore).
+     *
+     * @return the new temporary's name; its slot is {@code symbols.lookup(name)} */
+    static String temp(SymbolTable symbols, String prefix) {
+        int n = 0;
+        while (symbols.lookup(prefix + n) >= 0) n++;
+        String name = prefix + n;
+        symbols.slotOf(name);
+        return name;
+    }
+
+    /** @return {@code let name := value}, bound to the name's slot */
+    static AssignmentStatement assign(String name, int slot, ExpressionNode value) {
+        AssignmentStatement stmt = new AssignmentStatement(name, value);
+        stmt.setSlot(slot);
+        return stmt;
+    }
+
+    /** @return a term of the given expression, parenthesized unless it already is one */
+    static TermNode asTerm(ExpressionNode node) {
+        if (node instanceof TermNode) return (TermNode) node;
+        return new UnaryTermNode(new ParenFactorNode(new Token(0, 0, "(", Token.Type.LEFT_PAREN), node,
+                new Token(0, 0, ")", Token.Type.RIGHT_PAREN)));
+    }
+
+    // ==== Queries ====
+
+    /**
+     * @param node an expression, term, factor or condition
+     * @return true if evaluating it could throw: a division by something
+     *         not known to be non-zero (a literal, or proven by range
+     *         analysis), or a literal too large for an int */
+    static boolean mayTrap(Object node) {
+        if (node instanceof UnaryExpressionNode) return mayTrap(((UnaryExpressionNode) node).getTerm());
+        if (node instanceof UnaryTermNode) return mayTrap(((UnaryTermNode) node).getFactor());
+        if (node instanceof ParenFactorNode) return mayTrap(((ParenFactorNode) node).getExpr());
+        if (node instanceof MinusFactorNode) return mayTrap(((MinusFactorNode) node).getExpr());
+        if (node instanceof NumberFactorNode) return !((NumberFactorNode) node).isInRange();
+        if (node instanceof BinaryExpressionNode) {
+            BinaryExpressionNode sum = (BinaryExpressionNode) node;
+            return mayTrap(sum.getLeft()) || mayTrap(sum.getRight());
+        }
+        if (node instanceof BinaryTermNode) {
+            BinaryTermNode product = (BinaryTermNode) node;
+            if (product.getOperator() == ArithmeticOperator.DIVIDE && !product.isDivisorNonZero()) {
+                Integer divisor = NodeShapes.literal(product.getRight());
+                if (divisor == null || divisor == 0) return true;
+            }
+            return mayTrap(product.getLeft()) || mayTrap(product.getRight());
+        }
+        if (node instanceof RelationalExpressionNode) {
+            RelationalExpressionNode rel = (RelationalExpressionNode) node;
+            return mayTrap(rel.getLeft()) || mayTrap(rel.getRight());
+        }
+        return false; // identifiers
+    }
+
+    /** @return true if the node is a computation: it contains an arithmetic operator or a minus sign */
+    static boolean isComputation(Object node) {
+        return NodeShapes.literal(node) == null && NodeShapes.variable(node) == null;
+    }
+
+    /**
+     * @param node an expression, term, factor or condition
+     * @return a string that is equal for structurally equal computations,
+     *         ignoring parentheses (e.g. {@code (a+b)} and {@code a + b}) */
+    static String key(Object node) {
+        StringBuilder sb = new StringBuilder();
+        key(node, sb);
+        return sb.toString();
+    }
+
+    private static void key(Object node, StringBuilder sb) {
+        if (node instanceof UnaryExpressionNode) key(((UnaryExpressionNode) node).getTerm(), sb);
+        else if (node instanceof UnaryTermNode) key(((UnaryTermNode) node).getFactor(), sb);
+        else if (node instanceof ParenFactorNode) key(((ParenFactorNode) node).getExpr(), sb);
+        else if (node instanceof IdentifierFactorNode) sb.append('$').append(((IdentifierFactorNode) node).getSlot());
+        else if (node instanceof NumberFactorNode) sb.append(((NumberFactorNode) node).getIntLit().getLEXEME());
+        else if (node instanceof MinusFactorNode) {
+            sb.append("-(");
+            key(((MinusFactorNode) node).getExpr(), sb);
+            sb.append(')');
+        } else if (node instanceof BinaryExpressionNode) {
+            BinaryExpressionNode sum = (BinaryExpressionNode) node;
+            binary(sum.getLeft(), sum.getOperator().ordinal(), sum.getRight(), sb);
+        } else if (node instanceof BinaryTermNode) {
+            BinaryTermNode product = (BinaryTermNode) node;
+            binary(product.getLeft(), product.getOperator().ordinal(), product.getRight(), sb);
+        } else if (node instanceof RelationalExpressionNode) {
+            RelationalExpressionNode rel = (RelationalExpressionNode) node;
+            binary(rel.getLeft(), 4 + rel.getOperator().ordinal(), rel.getRight(), sb);
+        }
+    }
+
+    private static void binary(Object left, int op, Object right, StringBuilder sb) {
+        sb.append('(');
+        key(left, sb);
+        sb.append("+-*/<LGgE!".charAt(op));
+        key(right, sb);
+        sb.append(')');
+    }
+
+    /**
+     * @param node a statement, block, expression or condition
+     * @return the slots it may read, displays included */
+    static BitSet reads(Object node) {
+        BitSet slots = new BitSet();
+        TreeWalker walker = new TreeWalker() {
+            @Override
+            public Void visit(IdentifierFactorNode node) {
+                slots.set(node.getSlot());
+                return null;
+            }
+
+            @Override
+            public Void visit(DisplayStatement stmt) {
+                slots.set(stmt.getSlot());
+                return null;
+            }
+        };
+        if (node instanceof StatementList) walker.walk((StatementList) node);
+        else if (node instanceof Statement) ((Statement) node).accept(walker);
+        else if (node instanceof ExpressionNode) ((ExpressionNode) node).accept(walker);
+        else if (node instanceof TermNode) ((TermNode) node).accept(walker);
+        else if (node instanceof FactorNode) ((FactorNode) node).accept(walker);
+        else if (node instanceof BooleanExpressionNode) ((BooleanExpressionNode) node).accept(walker);
+        return slots;
+    }
+
+    /** @return the slots a block may write: assignment and input targets and loop variables, nested blocks included */
+    static BitSet assigned(StatementList block) {
+        BitSet slots = new BitSet();
+        new TreeWalker() {
+            @Override
+            public Void visit(AssignmentStatement stmt) {
+                slots.set(stmt.getSlot());
+                return null;
+            }
+
+            @Override
+            public Void visit(InputStatement stmt) {
+                slots.set(stmt.getSlot());
+                return null;
+            }
+
+            @Override
+            public Void visit(ForStatement stmt) {
+                slots.set(stmt.getSlot());
+                walk(stmt.getBody());
+                return null;
+            }
+        }.walk(block);
+        return slots;
+    }
+}
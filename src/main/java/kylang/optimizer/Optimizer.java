@@ -0,0 +1,149 @@
+// Kyran Day, 10/17/2026.
+package kylang.optimizer;
+import java.util.BitSet;
+import kylang.memory.SymbolTable;
+import kylang.tree_nodes.StatementList;
+import kylang.worker.WorkerPool;
+
+/**
+ * Optimizer
+ * ------------------------------------------------------------
+ * Runs the optimization passes over a resolved program, in place, between
+ * {@code Resolver} and {@code Fusion}. The optimized tree runs on every
+ * tree-based engine (interpreter, VM, JIT, tiered) with exactly the output
+ * of the original, including where a divide-by-zero stops it. Enabled
+ * with {@code -O}. */
+public final class Optimizer {
+
+    /** Body copies per iteration when a long counted loop is unrolled. */
+    public static final int DEFAULT_UNROLL_FACTOR = 4;
+    /** Iterations a for loop must run before its independent iterations are split across cores. */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 10_000;
+
+    private final SymbolTable symbols;
+    private final int unrollFactor;
+    private final int parallelThreshold;
+    private final WorkerPool workers;
+    private ValueRange[] ranges;
+    private BitSet wraps;
+    private int folded, propagated, pruned, unrolledFully, unrolled, hoistedExpressions, hoistedAssignments, reused, proven, decided, removed, collapsed, parallelized, reduced;
+
+    /**
+     * @param symbols the symbol table the program was resolved against */
+    public Optimizer(SymbolTable symbols) {
+        this(symbols, DEFAULT_UNROLL_FACTOR, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * @param symbols the symbol table the program was resolved against
+     * @param unrollFactor body copies per iteration when a long counted loop is unrolled; 1 only unrolls short loops fully, 0 turns unrolling off
+     * @param parallelThreshold iterations a for loop must run before it is split across cores; 0 keeps every loop
+     *                          sequential (the split only happens on the tree interpreter) */
+    public Optimizer(SymbolTable symbols, int unrollFactor, int parallelThreshold) {
+        this(symbols, unrollFactor, parallelThreshold, null);
+    }
+
+    /**
+     * @param symbols the symbol table the program was resolved against
+     * @param unrollFactor body copies per iteration when a long counted loop is unrolled; 1 only unrolls short loops fully, 0 turns unrolling off
+     * @param parallelThreshold iterations a for loop must run before it is split; 0 keeps every loop sequential
+     * @param workers worker processes to split loops across instead of this process's cores, or null */
+    public Optimizer(SymbolTable symbols, int unrollFactor, int parallelThreshold, WorkerPool workers) {
+        this.symbols = symbols;
+        this.unrollFactor = unrollFactor;
+        this.parallelThreshold = parallelThreshold;
+        this.workers = workers;
+    }
+
+    /**
+     * Optimizes a program in place.
+     *
+     * @param program the resolved program
+     * @return the same program */
+    public StatementList optimize(StatementList program) {
+        propagate(program);
+
+        if (unrollFactor > 0) {
+            LoopUnrolling unrolling = new LoopUnrolling(symbols, unrollFactor);
+            unrolling.run(program);
+            unrolledFully += unrolling.unrolledFully;
+            unrolled += unrolling.unrolled;
+            if (unrolling.unrolledFully + unrolling.unrolled > 0) propagate(program); // fold the substituted counters
+        }
+
+        LoopInvariantMotion invariants = new LoopInvariantMotion(symbols);
+        invariants.run(program);
+        hoistedExpressions += invariants.hoistedExpressions;
+        hoistedAssignments += invariants.hoistedAssignments;
+
+        CommonSubexpressions subexpressions = new CommonSubexpressions(symbols);
+        subexpressions.run(program);
+        reused += subexpressions.reused;
+
+        RangeAnalysis rangeAnalysis = new RangeAnalysis(symbols.size()); // after the passes that move code out of loops
+        rangeAnalysis.run(program);
+        proven += rangeAnalysis.proven;
+        decided += rangeAnalysis.decided;
+        ranges = rangeAnalysis.ranges;
+        wraps = rangeAnalysis.wraps;
+
+        DeadCodeElimination deadCode = new DeadCodeElimination();
+        deadCode.run(program);
+        removed += deadCode.removed;
+
+        ClosedFormLoops closedForms = new ClosedFormLoops(); // its nodes show visitors the original loop
+        closedForms.run(program);
+        collapsed += closedForms.collapsed;
+
+        if (parallelThreshold > 0) {
+            ParallelLoops parallel = new ParallelLoops(symbols, parallelThreshold, workers); // its nodes show visitors the original loop
+            parallel.run(program);
+            parallelized += parallel.parallelized;
+        }
+
+        StrengthReduction strength = new StrengthReduction(); // after closed forms, which read the terms it replaces
+        strength.run(program);
+        reduced += strength.reduced;
+        return program;
+    }
+
+    private void propagate(StatementList program) {
+        ConstantPropagation constants = new ConstantPropagation(symbols.size());
+        constants.run(program);
+        folded += constants.folded;
+        propagated += constants.propagated;
+        pruned += constants.pruned;
+    }
+
+    private String exact() {
+        if (ranges == null) return "0 of 0";
+        return (ranges.length - wraps.cardinality()) + " of " + ranges.length;
+    }
+
+    /**
+     * @param slot a variable slot of the optimized program
+     * @return every value the variable can hold while the program runs */
+    public ValueRange range(int slot) {
+        return (ranges != null && slot < ranges.length) ? ranges[slot] : ValueRange.FULL;
+    }
+
+    /**
+     * @param slot a variable slot of the optimized program
+     * @return true if the variable may be assigned a result that wrapped
+     *         around, i.e. one that would need more than 32 bits to hold exactly */
+    public boolean mayWrap(int slot) {
+        return wraps == null || slot >= ranges.length || wraps.get(slot);
+    }
+
+    /** @return a one-line summary of what the passes did */
+    public String report() {
+        return "[opt] folded " + folded + " expressions, propagated " + propagated + " constants, pruned "
+                + pruned + " branches and loops, unrolled " + unrolledFully + " loops fully and " + unrolled
+                + " partially, hoisted " + hoistedExpressions + " expressions and "
+                + hoistedAssignments + " assignments out of loops, reused " + reused + " common subexpressions, proved "
+                + proven + " divisors non-zero, decided " + decided + " conditions, " + exact() + " variables never wrap, removed "
+                + removed + " dead statements, collapsed " + collapsed + " loops to closed form, parallelized " + parallelized
+                + " loops, strength-reduced "
+                + reduced + " multiplies and divides";
+    }
+}
@@ -0,0 +1,64 @@
+// Kyran Day, 10/17/2026.
+package kylang.optimizer;
+import kylang.flat.FlatLowering;
+import kylang.memory.SymbolTable;
+import kylang.statements.*;
+import kylang.tree_nodes.*;
+import kylang.worker.WorkerPool;
+
+/**
+ * ParallelLoops
+ * ------------------------------------------------------------
+ * Replaces each outermost {@code for} loop whose iterations are
+ * independent ({@link LoopDependences}) with a {@link ParallelForLoop},
+ * which splits loops of at least {@code threshold} iterations across the
+ * cores. Loops inside a parallel loop stay sequential, and so do those
+ * in a {@code parallel for}, which already runs on every core. A loop
+ * with literal bounds and fewer iterations is left as it is. Given a
+ * {@link WorkerPool}, the loops are split across its processes instead,
+ * and each carries its body lowered to flat form and encoded.
+ *
+ * The replacement presents the original loop to visitors, so only the
+ * passes that rewrite it in place run after this one. */
+final class ParallelLoops extends TreeRewriter {
+
+    int parallelized;
+    private final SymbolTable symbols;
+    private final int threshold;
+    private final WorkerPool workers;
+
+    /**
+     * @param symbols the symbol table the program was resolved against
+     * @param threshold the fewest iterations a loop must run to be split
+     * @param workers the worker processes to split loops across, or null for the cores */
+    ParallelLoops(SymbolTable symbols, int threshold, WorkerPool workers) {
+        this.symbols = symbols;
+        this.threshold = threshold;
+        this.workers = workers;
+    }
+
+    void run(StatementList program) {
+        block(program);
+    }
+
+    @Override
+    public Object visit(ForStatement stmt) {
+        if (stmt instanceof ParallelForStatement) return stmt;
+        Integer start = NodeShapes.literal(stmt.getStartExpr()), end = NodeShapes.literal(stmt.getEndExpr());
+        boolean tooShort = start != null && end != null && (long) end - start + 1 < threshold;
+        LoopDependences dependences = new LoopDependences(stmt, symbols.size());
+        if (tooShort || stmt.getBody().getStatements().isEmpty() || !dependences.isIndependent()) return super.visit(stmt);
+
+        int[] sums = dependences.slots(LoopDependences.SUM), products = dependences.slots(LoopDependences.PRODUCT);
+        int[] reductions = new int[sums.length + products.length], kinds = new int[reductions.length];
+        for (int k = 0; k < reductions.length; k++) {
+            reductions[k] = (k < sums.length) ? sums[k] : products[k - sums.length];
+            kinds[k] = (k < sums.length) ? ParallelForLoop.SUM : ParallelForLoop.PRODUCT;
+        }
+        parallelized++;
+        int[] privates = dependences.slots(LoopDependences.PRIVATE);
+        if (workers == null) return new ParallelForLoop(stmt, reductions, kinds, privates, threshold);
+        byte[] body = FlatLowering.lower(stmt.getBody()).encode(symbols); // before fusion and strength reduction rewrite it
+        return new ParallelForLoop(stmt, reductions, kinds, privates, threshold, workers, body);
+    }
+}
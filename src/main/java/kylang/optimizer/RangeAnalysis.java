@@ -0,0 +1,320 @@
+// Kyran Day, 10/17/2026.
+package kylang.optimizer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.UnaryOperator;
+import kylang.statements.*;
+import kylang.tree_nodes.*;
+
+/**
+ * RangeAnalysis
+ * ------------------------------------------------------------
+ * Computes, through the program in execution order, a {@link ValueRange}
+ * for every variable: all start at 0, input makes a variable unknown,
+ * conditions narrow the variables they compare on each branch, and loops
+ * are iterated to a fixed point (widening bounds that keep growing, then
+ * narrowing once). A for loop's variable lies between its bounds inside
+ * the body. With the ranges it
+ * <ul>
+ *   <li>marks each division whose divisor can never be 0 where it is
+ *       evaluated ({@link BinaryTermNode#isDivisorNonZero}), so it cannot
+ *       throw: engines skip the zero check and later passes may remove or
+ *       reorder it;</li>
+ *   <li>prunes an if whose condition is always true or always false, a
+ *       while whose condition is false on entry, and a for loop whose
+ *       bounds give it no iterations, unless the test itself could throw;</li>
+ *   <li>records every value each variable can take, and which variables
+ *       may be assigned a result that wrapped around the int range.</li>
+ * </ul>
+ * A mark holds only where the division is, so passes that move code into
+ * a loop pre-header run before this one. */
+final class RangeAnalysis extends TreeRewriter {
+
+    int proven, decided;
+    final ValueRange[] ranges; // every value each variable takes, over the whole run
+    final BitSet wraps = new BitSet(); // variables that may hold a wrapped-around result
+
+    private final int slots;
+    private ValueRange[] state;  // the range of each slot at this point, or null where it is unreachable
+    private boolean rewrite = true; // false while a loop is iterated to its fixed point
+    private boolean overflowed; // set when an evaluated operation may leave the int range
+
+    /**
+     * @param slots the number of slots in the program's symbol table */
+    RangeAnalysis(int slots) {
+        this.slots = slots;
+        this.ranges = new ValueRange[slots];
+    }
+
+    void run(StatementList program) {
+        state = new ValueRange[slots];
+        Arrays.fill(state, ValueRange.ZERO);
+        Arrays.fill(ranges, ValueRange.ZERO);
+        block(program);
+    }
+
+    // ==== Statements ====
+
+    @Override
+    public Object visit(AssignmentStatement stmt) {
+        if (state == null) return stmt;
+        overflowed = false;
+        ValueRange value = range(stmt.getExpression());
+        if (value == null) { // always throws
+            state = null;
+            return stmt;
+        }
+        assign(stmt.getSlot(), value, overflowed);
+        return stmt;
+    }
+
+    @Override
+    public Object visit(InputStatement stmt) {
+        if (state != null) assign(stmt.getSlot(), ValueRange.FULL, false);
+        return stmt;
+    }
+
+    @Override
+    public Object visit(IfStatement stmt) {
+        if (state == null) return stmt;
+        ValueRange[] whenTrue = refine(state, stmt.getCondition(), true);
+        ValueRange[] whenFalse = refine(state, stmt.getCondition(), false);
+        if (rewrite && (whenTrue == null) != (whenFalse == null) && !Nodes.mayTrap(stmt.getCondition())) {
+            decided++;
+            if (whenFalse == null) {
+                state = whenTrue;
+                block(stmt.getThenBlock());
+                return stmt.getThenBlock();
+            }
+            state = whenFalse;
+            if (stmt.getElifChain() != null) return stmt.getElifChain().accept(this);
+            block(stmt.getElseBlock());
+            return stmt.getElseBlock();
+        }
+        state = whenTrue;
+        block(stmt.getThenBlock());
+        ValueRange[] thenOut = state;
+        state = whenFalse;
+        if (stmt.getElifChain() != null) setRest(stmt, stmt.getElifChain().accept(this));
+        else block(stmt.getElseBlock());
+        state = join(thenOut, state);
+        return stmt;
+    }
+
+    @Override
+    public Object visit(WhileStatement stmt) {
+        if (state == null) return stmt;
+        ValueRange[] entry = state;
+        BooleanExpressionNode condition = stmt.getCondition();
+        boolean outer = rewrite;
+        rewrite = false; // the entry test is only one of the condition's evaluations: nothing is marked
+        boolean runs = refine(entry, condition, true) != null, skips = refine(entry, condition, false) != null;
+        rewrite = outer;
+        if (rewrite && !runs && skips && !Nodes.mayTrap(condition)) {
+            decided++;
+            return null;
+        }
+
+        ValueRange[] head = fixedPoint(entry, stmt.getBody(), h -> refine(h, condition, true));
+        if (rewrite) {
+            state = refine(head, condition, true);
+            block(stmt.getBody());
+        }
+        state = refine(head, condition, false);
+        return stmt;
+    }
+
+    @Override
+    public Object visit(ForStatement stmt) {
+        if (state == null) return stmt;
+        overflowed = false;
+        ValueRange start = range(stmt.getStartExpr()), end = range(stmt.getEndExpr());
+        if (start == null || end == null) {
+            state = null;
+            return stmt;
+        }
+        ValueRange counter = (end.getHigh() == Integer.MAX_VALUE)
+                ? ValueRange.FULL // i <= MAX always holds: the counter wraps around
+                : ValueRange.of(start.getLow(), end.getHigh());
+        if (counter == null) { // never iterates, and never sets the loop variable
+            if (rewrite && !Nodes.mayTrap(stmt.getStartExpr()) && !Nodes.mayTrap(stmt.getEndExpr())) {
+                decided++;
+                return null;
+            }
+            return stmt;
+        }
+
+        int slot = stmt.getSlot();
+        ValueRange[] head = fixedPoint(state, stmt.getBody(), h -> {
+            ValueRange[] s = h.clone();
+            s[slot] = counter;
+            return s;
+        });
+        if (rewrite) {
+            state = head.clone();
+            state[slot] = counter;
+            block(stmt.getBody());
+            ranges[slot] = ranges[slot].join(counter);
+            if (end.getHigh() == Integer.MAX_VALUE) wraps.set(slot);
+        }
+        state = head.clone();
+        return stmt;
+    }
+
+    /**
+     * Iterates a loop body until the state at the loop head stops changing,
+     * without rewriting anything.
+     *
+     * @param bodyEntry the state the body starts from, given the state at the loop head
+     * @return the state at the loop head, covering every iteration */
+    private ValueRange[] fixedPoint(ValueRange[] entry, StatementList body, UnaryOperator<ValueRange[]> bodyEntry) {
+        boolean outer = rewrite;
+        rewrite = false;
+        ValueRange[] head = entry;
+        for (int k = 0; ; k++) {
+            ValueRange[] next = join(entry, after(body, head, bodyEntry));
+            if (k >= 2) next = widen(head, next);
+            if (Arrays.equals(next, head)) break;
+            head = next;
+        }
+        head = join(entry, after(body, head, bodyEntry)); // narrow once: bounds widened too far come back
+        rewrite = outer;
+        return head;
+    }
+
+    private ValueRange[] after(StatementList body, ValueRange[] head, UnaryOperator<ValueRange[]> bodyEntry) {
+        state = bodyEntry.apply(head);
+        block(body);
+        return state;
+    }
+
+    private void assign(int slot, ValueRange value, boolean wrapped) {
+        state[slot] = value;
+        if (rewrite) {
+            ranges[slot] = ranges[slot].join(value);
+            if (wrapped) wraps.set(slot);
+        }
+    }
+
+    // ==== States ====
+
+    private ValueRange[] join(ValueRange[] a, ValueRange[] b) {
+        if (a == null) return (b == null) ? null : b.clone();
+        if (b == null) return a.clone();
+        ValueRange[] joined = new ValueRange[slots];
+        for (int slot = 0; slot < slots; slot++) joined[slot] = a[slot].join(b[slot]);
+        return joined;
+    }
+
+    private ValueRange[] widen(ValueRange[] previous, ValueRange[] next) {
+        if (previous == null || next == null) return next;
+        for (int slot = 0; slot < slots; slot++) next[slot] = next[slot].widen(previous[slot]);
+        return next;
+    }
+
+    /**
+     * @return a copy of {@code s} narrowed by the condition having the value
+     *         {@code truth}, or null if it cannot (or the test always throws) */
+    private ValueRange[] refine(ValueRange[] s, BooleanExpressionNode condition, boolean truth) {
+        if (s == null) return null;
+        if (!(condition instanceof RelationalExpressionNode)) return s.clone();
+        RelationalExpressionNode rel = (RelationalExpressionNode) condition;
+        ValueRange[] saved = state;
+        state = s;
+        ValueRange left = range(rel.getLeft()), right = range(rel.getRight());
+        state = saved;
+        if (left == null || right == null) return null;
+
+        RelationalOperator relop = truth ? rel.getOperator() : rel.getOperator().negate();
+        if (!possible(relop, left, right)) return null;
+        ValueRange[] refined = s.clone();
+        IdentifierFactorNode variable = NodeShapes.variable(rel.getLeft());
+        if (variable != null) {
+            refined[variable.getSlot()] = narrow(refined[variable.getSlot()], relop, right);
+            if (refined[variable.getSlot()] == null) return null;
+        }
+        variable = NodeShapes.variable(rel.getRight());
+        if (variable != null) {
+            refined[variable.getSlot()] = narrow(refined[variable.getSlot()], relop.mirror(), left);
+            if (refined[variable.getSlot()] == null) return null;
+        }
+        return refined;
+    }
+
+    /** @return false if {@code l relop r} holds for no values in the ranges */
+    private static boolean possible(RelationalOperator relop, ValueRange l, ValueRange r) {
+        switch (relop) {
+            case LT: return l.getLow() < r.getHigh();
+            case LE: return l.getLow() <= r.getHigh();
+            case GT: return l.getHigh() > r.getLow();
+            case GE: return l.getHigh() >= r.getLow();
+            case EQ: return l.meet(r) != null;
+            default: return !(l.getLow() == l.getHigh() && r.getLow() == r.getHigh() && l.getLow() == r.getLow());
+        }
+    }
+
+    /** @return the values of {@code x} for which {@code x relop r} can hold, or null */
+    private static ValueRange narrow(ValueRange x, RelationalOperator relop, ValueRange r) {
+        ValueRange bound;
+        switch (relop) {
+            case LT: bound = ValueRange.of(Integer.MIN_VALUE, (long) r.getHigh() - 1); break;
+            case LE: bound = ValueRange.of(Integer.MIN_VALUE, r.getHigh()); break;
+            case GT: bound = ValueRange.of((long) r.getLow() + 1, Integer.MAX_VALUE); break;
+            case GE: bound = ValueRange.of(r.getLow(), Integer.MAX_VALUE); break;
+            case EQ: bound = r; break;
+            default: // NE: only a single excluded value at an end of x narrows it
+                if (r.getLow() != r.getHigh()) return x;
+                if (x.getLow() == r.getLow()) return ValueRange.of((long) x.getLow() + 1, x.getHigh());
+                if (x.getHigh() == r.getLow()) return ValueRange.of(x.getLow(), (long) x.getHigh() - 1);
+                return x;
+        }
+        return (bound == null) ? null : x.meet(bound);
+    }
+
+    // ==== Expressions ====
+
+    /**
+     * @param node an expression, term or factor, evaluated in the current state
+     * @return its range, or null if evaluating it always throws */
+    private ValueRange range(Object node) {
+        if (node instanceof UnaryExpressionNode) return range(((UnaryExpressionNode) node).getTerm());
+        if (node instanceof UnaryTermNode) return range(((UnaryTermNode) node).getFactor());
+        if (node instanceof ParenFactorNode) return range(((ParenFactorNode) node).getExpr());
+        if (node instanceof IdentifierFactorNode) return state[((IdentifierFactorNode) node).getSlot()];
+        if (node instanceof NumberFactorNode) {
+            NumberFactorNode number = (NumberFactorNode) node;
+            return number.isInRange() ? ValueRange.exactly(number.getValue()) : null;
+        }
+        if (node instanceof MinusFactorNode) {
+            ValueRange operand = range(((MinusFactorNode) node).getExpr());
+            return (operand == null) ? null : result(operand.negate());
+        }
+        if (node instanceof BinaryExpressionNode) {
+            BinaryExpressionNode sum = (BinaryExpressionNode) node;
+            ValueRange l = range(sum.getLeft()), r = range(sum.getRight());
+            if (l == null || r == null) return null;
+            return result(sum.getOperator() == ArithmeticOperator.ADD ? l.add(r) : l.subtract(r));
+        }
+        if (node instanceof BinaryTermNode) {
+            BinaryTermNode product = (BinaryTermNode) node;
+            ValueRange l = range(product.getLeft()), r = range(product.getRight());
+            if (l == null || r == null) return null;
+            if (product.getOperator() == ArithmeticOperator.MULTIPLY) return result(l.multiply(r));
+            if (rewrite && !r.contains(0) && !product.isDivisorNonZero()) {
+                product.markDivisorNonZero();
+                proven++;
+            }
+            long[] quotient = l.divide(r);
+            return (quotient == null) ? null : result(quotient);
+        }
+        return ValueRange.FULL;
+    }
+
+    private ValueRange result(long[] bounds) {
+        if (ValueRange.overflows(bounds[0], bounds[1])) {
+            overflowed = true;
+            return ValueRange.FULL;
+        }
+        return ValueRange.of(bounds[0], bounds[1]);
+    }
+}
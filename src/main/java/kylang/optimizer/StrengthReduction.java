@@ -0,0 +1,45 @@
+// Kyran Day, 10/17/2026.
+package kylang.optimizer;
+import kylang.tree_nodes.*;
+
+/**
+ * StrengthReduction
+ * ------------------------------------------------------------
+ * Replaces each multiplication or division by a literal with a node that
+ * does the cheaper operation directly: {@link MultiplyByConstantNode}
+ * (a shift for powers of two) and {@link DivideByConstantNode} (a shift
+ * or multiply-high, no zero check). A division by the literal 0 is kept
+ * so it still fails at run time. The new nodes present the original term
+ * to visitors, so this pass runs last, and only the tree interpreter
+ * uses them: the VM and JIT compile the original terms (HotSpot already
+ * strength-reduces the JIT's divisions by constants). */
+final class StrengthReduction extends TreeRewriter {
+
+    int reduced;
+
+    void run(StatementList program) {
+        block(program);
+    }
+
+    @Override
+    public Object visit(BinaryTermNode node) {
+        TermNode left = term(node.getLeft());
+        FactorNode right = factor(node.getRight());
+        BinaryTermNode original = (left == node.getLeft() && right == node.getRight())
+                ? node : new BinaryTermNode(left, node.getOp(), right);
+        Integer constant = NodeShapes.literal(right);
+        if (node.getOperator() == ArithmeticOperator.DIVIDE) {
+            if (constant == null || constant == 0) return original;
+            reduced++;
+            return new DivideByConstantNode(original, left, constant);
+        }
+        Integer leftConstant = NodeShapes.literal(left);
+        if (constant == null && leftConstant != null) { // k * x
+            reduced++;
+            return new MultiplyByConstantNode(original, new UnaryTermNode(right), leftConstant);
+        }
+        if (constant == null) return original;
+        reduced++;
+        return new MultiplyByConstantNode(original, left, constant);
+    }
+}
@@ -0,0 +1,127 @@
+// Kyran Day, 10/17/2026.
+package kylang.optimizer;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import kylang.statements.*;
+import kylang.tree_nodes.*;
+
+/**
+ * TreeCopier
+ * ------------------------------------------------------------
+ * Deep-copies statements, building a new node for every node visited, so
+ * that passes which update or mark nodes in place never see one node at
+ * two places. Reads of one slot can be replaced by a literal while
+ * copying. The spawns a copier copies wait on copies of their joins. */
+final class TreeCopier extends TreeRewriter {
+
+    private final int slot;
+    private final int value;
+    private final Map<JoinStatement, JoinStatement> joins = new IdentityHashMap<>();
+
+    /**
+     * @param slot the slot whose reads become {@code value}, or -1 to copy as is
+     * @param value the literal value */
+    TreeCopier(int slot, int value) {
+        this.slot = slot;
+        this.value = value;
+    }
+
+    /** @return a copy of a block, or null for a null block */
+    StatementList copy(StatementList block) {
+        if (block == null) return null;
+        StatementList copy = new StatementList();
+        for (Statement stmt : block.getStatements()) copy.addStatement((Statement) stmt.accept(this));
+        return copy;
+    }
+
+    // ==== Statements ====
+
+    @Override
+    public Object visit(AssignmentStatement stmt) {
+        return Nodes.assign(stmt.getId(), stmt.getSlot(), expression(stmt.getExpression()));
+    }
+
+    @Override
+    public Object visit(DisplayStatement stmt) {
+        DisplayStatement copy = new DisplayStatement(stmt.getId());
+        copy.setSlot(stmt.getSlot());
+        return copy;
+    }
+
+    @Override
+    public Object visit(InputStatement stmt) {
+        InputStatement copy = new InputStatement(stmt.getId());
+        copy.setSlot(stmt.getSlot());
+        return copy;
+    }
+
+    @Override
+    public Object visit(IfStatement stmt) {
+        IfStatement elif = (stmt.getElifChain() != null) ? (IfStatement) stmt.getElifChain().accept(this) : null;
+        return new IfStatement(condition(stmt.getCondition()), copy(stmt.getThenBlock()), elif, copy(stmt.getElseBlock()));
+    }
+
+    @Override
+    public Object visit(WhileStatement stmt) {
+        return new WhileStatement(condition(stmt.getCondition()), copy(stmt.getBody()));
+    }
+
+    @Override
+    public Object visit(ForStatement stmt) {
+        ForStatement copy = (stmt instanceof ParallelForStatement)
+                ? new ParallelForStatement(stmt.getLoopVariable(), expression(stmt.getStartExpr()),
+                        expression(stmt.getEndExpr()), copy(stmt.getBody()))
+                : new ForStatement(stmt.getLoopVariable(), expression(stmt.getStartExpr()),
+                        expression(stmt.getEndExpr()), copy(stmt.getBody()));
+        copy.setSlot(stmt.getSlot());
+        return copy;
+    }
+
+    @Override
+    public Object visit(SpawnStatement stmt) {
+        return new SpawnStatement(copy(stmt.getBody()), (JoinStatement) visit(stmt.getJoin()));
+    }
+
+    @Override
+    public Object visit(JoinStatement stmt) { return joins.computeIfAbsent(stmt, join -> new JoinStatement()); }
+
+    // ==== Expressions ====
+
+    @Override
+    public Object visit(BinaryExpressionNode node) {
+        return new BinaryExpressionNode(expression(node.getLeft()), node.getOp(), term(node.getRight()));
+    }
+
+    @Override
+    public Object visit(UnaryExpressionNode node) { return new UnaryExpressionNode(term(node.getTerm())); }
+
+    @Override
+    public Object visit(BinaryTermNode node) {
+        return new BinaryTermNode(term(node.getLeft()), node.getOp(), factor(node.getRight()));
+    }
+
+    @Override
+    public Object visit(UnaryTermNode node) { return new UnaryTermNode(factor(node.getFactor())); }
+
+    @Override
+    public Object visit(IdentifierFactorNode node) {
+        if (node.getSlot() == slot) return Nodes.number(value, node.getIdentifier());
+        return Nodes.variable(node.getName(), node.getSlot(), node.getIdentifier());
+    }
+
+    @Override
+    public Object visit(NumberFactorNode node) { return new NumberFactorNode(node.getIntLit()); }
+
+    @Override
+    public Object visit(ParenFactorNode node) {
+        return new ParenFactorNode(node.getLparen(), expression(node.getExpr()), node.getRparen());
+    }
+
+    @Override
+    public Object visit(MinusFactorNode node) { return new MinusFactorNode(node.getMinus(), expression(node.getExpr())); }
+
+    @Override
+    public Object visit(RelationalExpressionNode node) {
+        return new RelationalExpressionNode(expression(node.getLeft()), node.getRelop(), expression(node.getRight()));
+    }
+}
@@ -0,0 +1,170 @@
+// Kyran Day, 10/17/2026.
+package kylang.optimizer;
+import java.util.ArrayList;
+import kylang.statements.*;
+import kylang.tree_nodes.*;
+
+/**
+ * TreeRewriter
+ * ------------------------------------------------------------
+ * Base class for optimization passes that transform the tree. Expression
+ * visits return the replacement node, of the same kind as the one visited
+ * (expression, term, factor or condition); a node is only rebuilt when one
+ * of its children changed. Statement visits return what should stand in
+ * the statement's place: the statement itself, a {@link StatementList} to
+ * splice in, or null to remove it. Statements are updated in place.
+ *
+ * Passes run after the {@code Resolver} and before {@code Fusion}, so
+ * every node they see is a plain grammar node with resolved slots. */
+public abstract class TreeRewriter implements NodeVisitor<Object> {
+
+    /** Rewrites every statement of a block in place; a null block is ignored. */
+    protected void block(StatementList list) {
+        if (list == null) return;
+        ArrayList<Statement> rewritten = new ArrayList<>(list.getStatements().size());
+        boolean changed = false;
+        for (Statement stmt : list.getStatements()) {
+            if (stmt instanceof ClosedFormLoop) { // visits would reach (and return) the loop it stands in for
+                rewritten.add(stmt);
+                continue;
+            }
+            Object result = stmt.accept(this);
+            if (stmt instanceof ParallelForLoop && result == ((ParallelForLoop) stmt).getOriginal()) result = stmt; // updated in place
+            if (result != stmt) changed = true;
+            splice(result, rewritten);
+        }
+        if (changed) list.setStatements(rewritten);
+    }
+
+    /** Adds a statement visit's result (statement, block or null) to a statement list. */
+    protected static void splice(Object result, ArrayList<Statement> out) {
+        if (result instanceof Statement) out.add((Statement) result);
+        else if (result instanceof StatementList) out.addAll(((StatementList) result).getStatements());
+    }
+
+    /** @return a statement visit's result as a block, or null if it removed the statement */
+    protected static StatementList asBlock(Object result) {
+        if (result == null || result instanceof StatementList) return (StatementList) result;
+        StatementList list = new StatementList();
+        list.addStatement((Statement) result);
+        return list;
+    }
+
+    /** Installs the rewritten elif chain of an if statement, which may have become a plain block. */
+    protected static void setRest(IfStatement stmt, Object rest) {
+        if (rest instanceof IfStatement) {
+            stmt.setElifChain((IfStatement) rest);
+        } else { // the chain was decided: what it runs becomes the else block
+            stmt.setElifChain(null);
+            stmt.setElseBlock(asBlock(rest));
+        }
+    }
+
+    protected ExpressionNode expression(ExpressionNode node) { return (ExpressionNode) node.accept(this); }
+    protected TermNode term(TermNode node) { return (TermNode) node.accept(this); }
+    protected FactorNode factor(FactorNode node) { return (FactorNode) node.accept(this); }
+    protected BooleanExpressionNode condition(BooleanExpressionNode node) { return (BooleanExpressionNode) node.accept(this); }
+
+    // ==== Statements ====
+
+    @Override
+    public Object visit(AssignmentStatement stmt) {
+        stmt.setExpression(expression(stmt.getExpression()));
+        return stmt;
+    }
+
+    @Override
+    public Object visit(DisplayStatement stmt) { return stmt; }
+
+    @Override
+    public Object visit(InputStatement stmt) { return stmt; }
+
+    @Override
+    public Object visit(IfStatement stmt) {
+        stmt.setCondition(condition(stmt.getCondition()));
+        block(stmt.getThenBlock());
+        if (stmt.getElifChain() != null) setRest(stmt, stmt.getElifChain().accept(this));
+        else block(stmt.getElseBlock());
+        return stmt;
+    }
+
+    @Override
+    public Object visit(WhileStatement stmt) {
+        stmt.setCondition(condition(stmt.getCondition()));
+        block(stmt.getBody());
+        return stmt;
+    }
+
+    @Override
+    public Object visit(ForStatement stmt) {
+        stmt.setStartExpr(expression(stmt.getStartExpr()));
+        stmt.setEndExpr(expression(stmt.getEndExpr()));
+        block(stmt.getBody());
+        return stmt;
+    }
+
+    @Override
+    public Object visit(SpawnStatement stmt) {
+        block(stmt.getBody());
+        return stmt;
+    }
+
+    @Override
+    public Object visit(JoinStatement stmt) { return stmt; }
+
+    // ==== Expressions ====
+
+    @Override
+    public Object visit(BinaryExpressionNode node) {
+        ExpressionNode left = expression(node.getLeft());
+        TermNode right = term(node.getRight());
+        if (left == node.getLeft() && right == node.getRight()) return node;
+        return new BinaryExpressionNode(left, node.getOp(), right);
+    }
+
+    @Override
+    public Object visit(UnaryExpressionNode node) {
+        TermNode term = term(node.getTerm());
+        return (term == node.getTerm()) ? node : new UnaryExpressionNode(term);
+    }
+
+    @Override
+    public Object visit(BinaryTermNode node) {
+        TermNode left = term(node.getLeft());
+        FactorNode right = factor(node.getRight());
+        if (left == node.getLeft() && right == node.getRight()) return node;
+        return new BinaryTermNode(left, node.getOp(), right);
+    }
+
+    @Override
+    public Object visit(UnaryTermNode node) {
+        FactorNode factor = factor(node.getFactor());
+        return (factor == node.getFactor()) ? node : new UnaryTermNode(factor);
+    }
+
+    @Override
+    public Object visit(IdentifierFactorNode node) { return node; }
+
+    @Override
+    public Object visit(NumberFactorNode node) { return node; }
+
+    @Override
+    public Object visit(ParenFactorNode node) {
+        ExpressionNode expr = expression(node.getExpr());
+        return (expr == node.getExpr()) ? node : new ParenFactorNode(node.getLparen(), expr, node.getRparen());
+    }
+
+    @Override
+    public Object visit(MinusFactorNode node) {
+        ExpressionNode expr = expression(node.getExpr());
+        return (expr == node.getExpr()) ? node : new MinusFactorNode(node.getMinus(), expr);
+    }
+
+    @Override
+    public Object visit(RelationalExpressionNode node) {
+        ExpressionNode left = expression(node.getLeft());
+        ExpressionNode right = expression(node.getRight());
+        if (left == node.getLeft() && right == node.getRight()) return node;
+        return new RelationalExpressionNode(left, node.getRelop(), right);
+    }
+}
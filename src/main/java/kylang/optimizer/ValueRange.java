@@ -0,0 +1,120 @@
+// Kyran Day, 10/17/2026.
+package kylang.optimizer;
+
+/**
+ * ValueRange
+ * ------------------------------------------------------------
+ * A closed interval of int values, {@code [low, high]}, as computed by
+ * range analysis. Arithmetic on ranges works on the mathematical values;
+ * an operation whose result may leave the int range returns
+ * {@link #FULL}, since the int result may then wrap around to anything,
+ * and callers check {@link #overflows} to record that. */
+public final class ValueRange {
+
+    public static final ValueRange FULL = new ValueRange(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    public static final ValueRange ZERO = new ValueRange(0, 0);
+
+    private final long low, high;
+
+    private ValueRange(long low, long high) {
+        this.low = low;
+        this.high = high;
+    }
+
+    /** @return the range {@code [low, high]}, clamped to int; null if it is empty */
+    static ValueRange of(long low, long high) {
+        low = Math.max(low, Integer.MIN_VALUE);
+        high = Math.min(high, Integer.MAX_VALUE);
+        return (low > high) ? null : new ValueRange(low, high);
+    }
+
+    static ValueRange exactly(int value) { return new ValueRange(value, value); }
+
+    public int getLow() { return (int) low; }
+    public int getHigh() { return (int) high; }
+
+    public boolean contains(long value) { return low <= value && value <= high; }
+
+    /** @return true if every value fits in {@code bits} bits, as a signed number */
+    public boolean fitsIn(int bits) {
+        long limit = 1L << (bits - 1);
+        return -limit <= low && high < limit;
+    }
+
+    /** @return true if a mathematical result {@code [low, high]} has values outside the int range */
+    static boolean overflows(long low, long high) {
+        return low < Integer.MIN_VALUE || high > Integer.MAX_VALUE;
+    }
+
+    // ==== Lattice ====
+
+    ValueRange join(ValueRange other) {
+        if (other == null) return this;
+        if (other.low >= low && other.high <= high) return this;
+        return new ValueRange(Math.min(low, other.low), Math.max(high, other.high));
+    }
+
+    static ValueRange join(ValueRange a, ValueRange b) { return (a == null) ? b : a.join(b); }
+
+    /**
+     * @return {@code previous}, with each bound this range goes beyond pushed to
+     *         the int limit; never narrower than {@code previous}, so that
+     *         repeated widening reaches a fixed point */
+    ValueRange widen(ValueRange previous) {
+        if (previous == null) return this;
+        long l = (low < previous.low) ? Integer.MIN_VALUE : previous.low;
+        long h = (high > previous.high) ? Integer.MAX_VALUE : previous.high;
+        return (l == low && h == high) ? this : new ValueRange(l, h);
+    }
+
+    /** @return the values in both ranges, or null if there are none */
+    ValueRange meet(ValueRange other) { return of(Math.max(low, other.low), Math.min(high, other.high)); }
+
+    // ==== Arithmetic, on mathematical values ====
+
+    long[] add(ValueRange other) { return new long[] { low + other.low, high + other.high }; }
+
+    long[] subtract(ValueRange other) { return new long[] { low - other.high, high - other.low }; }
+
+    long[] negate() { return new long[] { -high, -low }; }
+
+    long[] multiply(ValueRange other) {
+        return hull(low * other.low, low * other.high, high * other.low, high * other.high);
+    }
+
+    /**
+     * Truncating division, over the divisor's non-zero values.
+     *
+     * @return the quotient's bounds, or null if the divisor can only be 0 */
+    long[] divide(ValueRange other) {
+        long[] result = null;
+        if (other.low < 0) result = merge(result, quotients(Math.min(other.high, -1), other.low)); // negative divisors
+        if (other.high > 0) result = merge(result, quotients(Math.max(other.low, 1), other.high)); // positive divisors
+        return result;
+    }
+
+    /** Truncating division is monotonic in each operand while the divisor keeps its sign, so the corners bound it. */
+    private long[] quotients(long divisorLow, long divisorHigh) {
+        return hull(low / divisorLow, low / divisorHigh, high / divisorLow, high / divisorHigh);
+    }
+
+    private static long[] hull(long a, long b, long c, long d) {
+        return new long[] { Math.min(Math.min(a, b), Math.min(c, d)), Math.max(Math.max(a, b), Math.max(c, d)) };
+    }
+
+    private static long[] merge(long[] a, long[] b) {
+        if (a == null) return b;
+        return new long[] { Math.min(a[0], b[0]), Math.max(a[1], b[1]) };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ValueRange && ((ValueRange) o).low == low && ((ValueRange) o).high == high;
+    }
+
+    @Override
+    public int hashCode() { return Long.hashCode(low * 31 + high); }
+
+    @Override
+    public String toString() { return "[" + low + ", " + high + "]"; }
+}
@@ -0,0 +1,105 @@
+// Kyran Day, 10/17/2026.
+package kylang.parser;
+import java.util.List;
+import kylang.statements.*;
+import kylang.tree_nodes.*;
+
+/**
+ * Fusion
+ * ------------------------------------------------------------
+ * Pattern-matching pass run after the {@link Resolver}. Replaces the most
+ * common statement shapes with fused nodes that do the minimum work per
+ * execution, instead of walking a four to five level expression chain:
+ * <ul>
+ *   <li>{@code let x := x + k}, {@code x - k}, {@code k + x} become an {@link IncrementStatement}</li>
+ *   <li>{@code let x := x + y}, {@code y + x}, {@code x - y} become an {@link AccumulateStatement}</li>
+ *   <li>{@code x relop k} (or {@code k relop x}) conditions become a {@link CompareToConstantNode}</li>
+ * </ul>
+ * Fused nodes present the node they replaced to every visitor, so later
+ * passes and compilers are unaffected. The pass is skipped with
+ * {@code --no-fuse} to compare results. */
+public final class Fusion extends TreeWalker {
+
+    private int fused; // number of nodes replaced
+
+    /**
+     * Fuses every matching statement and condition of a resolved program in place.
+     *
+     * @param program the resolved program
+     * @return the number of nodes that were replaced */
+    public int fuse(StatementList program) {
+        walk(program);
+        return fused;
+    }
+
+    @Override
+    public void walk(StatementList list) {
+        if (list == null) return;
+        List<Statement> statements = list.getStatements();
+        for (int i = 0; i < statements.size(); i++) {
+            Statement stmt = statements.get(i);
+            stmt.accept(this); // fuse nested blocks first
+            if (stmt instanceof AssignmentStatement) {
+                Statement replacement = fuse((AssignmentStatement) stmt);
+                if (replacement != null) {
+                    list.replaceStatement(i, replacement);
+                    fused++;
+                }
+            }
+        }
+    }
+
+    @Override
+    public Void visit(IfStatement stmt) {
+        stmt.setCondition(fuse(stmt.getCondition()));
+        return super.visit(stmt);
+    }
+
+    @Override
+    public Void visit(WhileStatement stmt) {
+        stmt.setCondition(fuse(stmt.getCondition()));
+        return super.visit(stmt);
+    }
+
+    /** Returns the fused equivalent of an assignment, or null if it has no special shape. */
+    private static Statement fuse(AssignmentStatement stmt) {
+        if (!(stmt.getExpression() instanceof BinaryExpressionNode)) return null;
+        BinaryExpressionNode sum = (BinaryExpressionNode) stmt.getExpression();
+        boolean subtract = sum.getOperator() == ArithmeticOperator.SUBTRACT;
+        int slot = stmt.getSlot();
+
+        IdentifierFactorNode left = NodeShapes.variable(sum.getLeft());
+        if (left != null && left.getSlot() == slot) { // x + k, x - k, x + y, x - y
+            Integer constant = NodeShapes.literal(sum.getRight());
+            if (constant != null) return new IncrementStatement(stmt, slot, subtract ? -constant : constant);
+            IdentifierFactorNode right = NodeShapes.variable(sum.getRight());
+            if (right != null) return new AccumulateStatement(stmt, slot, right.getSlot(), subtract);
+            return null;
+        }
+        IdentifierFactorNode right = NodeShapes.variable(sum.getRight());
+        if (!subtract && right != null && right.getSlot() == slot) { // k + x, y + x
+            Integer constant = NodeShapes.literal(sum.getLeft());
+            if (constant != null) return new IncrementStatement(stmt, slot, constant);
+            if (left != null) return new AccumulateStatement(stmt, slot, left.getSlot(), false);
+        }
+        return null;
+    }
+
+    /** Returns the fused equivalent of a condition, or the condition itself. */
+    private BooleanExpressionNode fuse(BooleanExpressionNode condition) {
+        if (!(condition instanceof RelationalExpressionNode)) return condition;
+        RelationalExpressionNode rel = (RelationalExpressionNode) condition;
+        RelationalOperator relop = rel.getOperator();
+
+        IdentifierFactorNode variable = NodeShapes.variable(rel.getLeft());
+        Integer constant = NodeShapes.literal(rel.getRight());
+        if (variable == null || constant == null) { // k relop x: mirror the operator
+            variable = NodeShapes.variable(rel.getRight());
+            constant = NodeShapes.literal(rel.getLeft());
+            relop = relop.mirror();
+        }
+        if (variable == null || constant == null) return condition;
+        fused++;
+        return new CompareToConstantNode(rel, variable.getSlot(), relop, constant);
+    }
+}
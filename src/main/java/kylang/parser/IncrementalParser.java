@@ -0,0 +1,158 @@
+// Kyran Day, 10/17/2026.
+package kylang.parser;
+import java.util.ArrayList;
+import java.util.List;
+import kylang.lexer.LexedLine;
+import kylang.lexer.LineSource;
+import kylang.lexer.SourceScanner;
+import kylang.memory.SymbolTable;
+import kylang.statements.Statement;
+import kylang.tree_nodes.StatementList;
+
+/**
+ * IncrementalParser
+ * ------------------------------------------------------------
+ * Keeps a parsed program in memory as a run of top-level statements, each
+ * with the line range it was parsed from, and brings it up to date with
+ * a new version of the source text. Only the edited lines are re-lexed,
+ * and only the top-level statements whose lines (including the one line
+ * of lookahead that ends a block or if/elif/else chain) touch the edit
+ * are re-parsed. Parsing stops as soon as it reaches a statement boundary
+ * past the edit that was also a boundary before: top-level parsing from a
+ * line depends only on the lines after it, so everything from there on
+ * is reused. An update that fails to lex or parse leaves the previous
+ * program in place. */
+public final class IncrementalParser {
+
+    /** A top-level statement parsed from lines [from, to); {@code to} is the first line it did not consume. */
+    private static final class Unit {
+        final int from, to;
+        final Statement statement;
+
+        Unit(int from, int to, Statement statement) {
+            this.from = from;
+            this.to = to;
+            this.statement = statement;
+        }
+    }
+
+    private final SymbolTable symbols;
+    private final Resolver resolver;
+    private final Fusion fusion; // null when fusion is off
+    private final SourceScanner scanner = new SourceScanner(new char[0]);
+    private List<String> text = new ArrayList<>();
+    private ArrayList<LexedLine> lexed = new ArrayList<>();
+    private ArrayList<Unit> units = new ArrayList<>();
+    private int linesLexed, statementsParsed; // work done by the last update
+
+    /**
+     * @param symbols the symbol table statements are resolved against
+     * @param fuse whether to fuse statements for the tree interpreter */
+    public IncrementalParser(SymbolTable symbols, boolean fuse) {
+        this.symbols = symbols;
+        this.resolver = new Resolver(symbols);
+        this.fusion = fuse ? new Fusion() : null;
+    }
+
+    /**
+     * Brings the program up to date with new source text.
+     *
+     * @param newText the source lines
+     * @throws RuntimeException on a lex or parse error; the previous program is kept */
+    public void update(List<String> newText) {
+        int oldSize = text.size(), newSize = newText.size();
+        int prefix = 0;
+        while (prefix < oldSize && prefix < newSize && text.get(prefix).equals(newText.get(prefix))) prefix++;
+        int suffix = 0;
+        while (suffix < oldSize - prefix && suffix < newSize - prefix
+                && text.get(oldSize - 1 - suffix).equals(newText.get(newSize - 1 - suffix))) suffix++;
+        linesLexed = statementsParsed = 0;
+        if (prefix == oldSize && prefix == newSize) return; // unchanged
+
+        final int delta = newSize - oldSize;
+        final int editEnd = newSize - suffix; // new lines [prefix, editEnd) replace old lines [prefix, oldSize - suffix)
+
+        ArrayList<LexedLine> lines = new ArrayList<>(newSize);
+        lines.addAll(lexed.subList(0, prefix));
+        for (int i = prefix; i < editEnd; i++) lines.add(lex(newText, i));
+        lines.addAll(lexed.subList(oldSize - suffix, oldSize)); // unchanged text; rows are refreshed if re-parsed
+
+        // Reused lines hold stale rows once lines above them were added or removed; re-lex those the parser reads
+        int[] relexed = { editEnd - prefix };
+        LineSource source = index -> {
+            if (index >= newSize) return null;
+            LexedLine line = lines.get(index);
+            if (line.getTokens()[0].getRow() != index) {
+                line = lex(newText, index);
+                lines.set(index, line);
+                relexed[0]++;
+            }
+            return line;
+        };
+
+        int first = 0; // first statement whose lines or lookahead reach the edit
+        while (first < units.size() && units.get(first).to < prefix) first++;
+        int start = (first > 0) ? units.get(first - 1).to : 0;
+
+        Parser parser = new Parser();
+        parser.begin(source, start);
+        ArrayList<Unit> reparsed = new ArrayList<>();
+        int resume = units.size(); // first old statement to reuse after the re-parsed ones
+        int old = first;
+        while (true) {
+            int from = parser.position();
+            if (from >= editEnd) { // past the edit: stop at a boundary the old program also had
+                while (old < units.size() && units.get(old).from < from - delta) old++;
+                if (old < units.size() && units.get(old).from == from - delta) {
+                    resume = old;
+                    break;
+                }
+            }
+            Statement stmt = parser.next();
+            if (stmt == null) break;
+            reparsed.add(new Unit(from, parser.position(), prepare(stmt)));
+        }
+
+        ArrayList<Unit> updated = new ArrayList<>(units.size() + reparsed.size());
+        updated.addAll(units.subList(0, first));
+        updated.addAll(reparsed);
+        for (int k = resume; k < units.size(); k++) {
+            Unit unit = units.get(k);
+            updated.add(delta == 0 ? unit : new Unit(unit.from + delta, unit.to + delta, unit.statement));
+        }
+        text = new ArrayList<>(newText);
+        lexed = lines;
+        units = updated;
+        linesLexed = relexed[0];
+        statementsParsed = reparsed.size();
+    }
+
+    /** @return the current program, one top-level statement per entry */
+    public StatementList getProgram() {
+        StatementList program = new StatementList();
+        for (Unit unit : units) program.addStatement(unit.statement);
+        return program;
+    }
+
+    public SymbolTable getSymbols() { return symbols; }
+
+    /** @return a one-line summary of the work the last update did */
+    public String describe() {
+        return "re-lexed " + linesLexed + " of " + text.size() + " lines, re-parsed "
+                + statementsParsed + " of " + units.size() + " statements";
+    }
+
+    private LexedLine lex(List<String> source, int row) {
+        return scanner.scanLine(source.get(row), row);
+    }
+
+    /** Resolves and, if enabled, fuses a freshly parsed top-level statement. */
+    private Statement prepare(Statement stmt) {
+        resolver.resolve(stmt);
+        if (fusion == null) return stmt;
+        StatementList single = new StatementList();
+        single.addStatement(stmt);
+        fusion.fuse(single); // may replace the statement itself
+        return single.getStatements().get(0);
+    }
+}
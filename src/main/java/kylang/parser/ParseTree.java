@@ -15,7 +15,10 @@ public final class ParseTree {
         this.program = program;
     }
 
+    public StatementList getProgram() { return program; }
+
     public void execute(Memory memory) {
+        memory.ensureCapacity(); // cover any slots resolved after the memory was created
         program.execute(memory);
     } // pass memory reference along the tree
 }
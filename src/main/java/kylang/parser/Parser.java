@@ -1,22 +1,30 @@
 // Kyran Day, 11/12/2025.
 package kylang.parser;
 import kylang.tree_nodes.*;
+import kylang.tree_nodes.Token.Type;
 import kylang.statements.*;
-import kylang.lexer.LexicalAnalyzer;
+import kylang.lexer.LexedLine;
+import kylang.lexer.LineSource;
+import kylang.lexer.SourceScanner;
 import java.util.ArrayList;
+import java.util.List;
 /**
  * Parser
  * ------------------------------------------------------------
  * Implements a recursive-descent parser for a simplified language
  * supporting assignment, input, display statements with integer arithmetic
- * expressions, boolean expressions, and control flow (if/elif/else, while, for).
- * Builds parse trees (does not execute). */
+ * expressions, boolean expressions, control flow (if/elif/else, while, for),
+ * and parallel loops and spawned blocks (parallel for, spawn/join).
+ * Builds parse trees (does not execute). Consumes lines already lexed by
+ * {@link SourceScanner}, so it never looks at raw text itself. */
 public final class Parser {
 
-    private final LexicalAnalyzer lexer = new LexicalAnalyzer();
-    private ArrayList<String> programLines;
+    private LineSource programLines;
     private int currentLineIndex;
+    private Token[] lineTokens; // tokens of the line being parsed
+    private int tokenIndex;
     private Token current;  // Single token param used across the code
+    private JoinStatement pendingJoin; // waited on by the spawns so far in the block being parsed
 
     /**
      * Parses a program (list of lines) and builds a parse tree.
@@ -26,60 +34,119 @@ public final class Parser {
      * @return StatementList representing the program
      */
     public StatementList parse(ArrayList<String> programLines) {
+        return parse(SourceScanner.scanLines(programLines));
+    }
+
+    /**
+     * Parses a program that has already been lexed, one entry per source line.
+     *
+     * @param programLines the lexed source lines to parse
+     * @return StatementList representing the program
+     */
+    public StatementList parse(List<LexedLine> programLines) {
+        return parse(LineSource.of(programLines));
+    }
 
-        this.programLines = programLines;
-        this.currentLineIndex = 0;
+    /**
+     * Parses a whole program from a line source.
+     *
+     * @param source the lexed lines to parse
+     * @return StatementList representing the program
+     */
+    public StatementList parse(LineSource source) {
+        begin(source);
         StatementList stmtList = new StatementList();
-        
-        while (currentLineIndex < programLines.size()) {
+        for (Statement stmt = next(); stmt != null; stmt = next()) stmtList.addStatement(stmt);
+        return stmtList;
+    }
+
+    /**
+     * Starts parsing a program one top-level statement at a time; see {@link #next()}.
+     *
+     * @param source the lexed lines to parse
+     */
+    public void begin(LineSource source) {
+        begin(source, 0);
+    }
+
+    /**
+     * Starts parsing top-level statements at a given line, e.g. to re-parse
+     * part of an edited program. Top-level parsing from a line depends only
+     * on that line and the ones after it.
+     *
+     * @param source the lexed lines to parse
+     * @param firstLine the index of the line to start at
+     */
+    public void begin(LineSource source, int firstLine) {
+        this.programLines = source;
+        this.currentLineIndex = firstLine;
+        this.pendingJoin = null;
+    }
 
-            String line = programLines.get(currentLineIndex);
+    /** @return the index of the first line not yet consumed by {@link #next()} */
+    public int position() { return currentLineIndex; }
+
+    /**
+     * Parses the next top-level statement, asking the source for no more
+     * lines than it needs: a block or an if/elif/else chain reads one line
+     * past its end to see that it has ended. Lines before that are
+     * released once the statement is complete.
+     *
+     * @return the next top-level statement, or null at the end of the program
+     */
+    public Statement next() {
+        LexedLine line;
+        while ((line = programLines.line(currentLineIndex)) != null) {
     
-            if (line.trim().isEmpty()) { // Skip empty lines
+            if (line.isBlank()) { // Skip empty lines
                 currentLineIndex++;
                 continue;
             }
             
-            int indentLevel = countLeadingTabs(line); // Check for indentation (tabs at start)
+            int indentLevel = line.getIndent(); // Check for indentation (tabs at start)
             
             // Process statements at base level (indent level 0)
             if (indentLevel == 0) {
                 int lineBeforeStatement = currentLineIndex;
-                lexer.analyze(line.trim(), currentLineIndex);
-                this.current = lexer.getToken(); // seed token
+                startLine(line); // seed token
                 Statement stmt = statement(0); // build statement node
-                stmtList.addStatement(stmt);
                 
                 // Check if this was a control statement that already advanced the line index
                 // Control statements (if/while/for) consume the colon and then advance to the block
                 // If currentLineIndex hasn't advanced, it's a simple statement that needs EOL
                 if (currentLineIndex == lineBeforeStatement) {
-                    match("EOL"); // after a statement, expect EOL for the line
+                    match(Type.EOL); // after a statement, expect EOL for the line
                     currentLineIndex++;
                 }
                 // Otherwise, the control statement already advanced currentLineIndex past the block
+                programLines.release(currentLineIndex);
+                return stmt;
             } else {
                 // This shouldn't happen at top level - indented statements belong in blocks
                 throw new RuntimeException("Unexpected indentation at line " + (currentLineIndex + 1));
             }
         }
-        
-        return stmtList;
+        if (pendingJoin != null) throw error("spawn without a join at the end of the program");
+        return null;
     }
 
     // ====== RD parser methods ======
     /**
      * Parses a single statement and returns a Statement node.
-     * Grammar: Statement ::= Assn_Stmt | Display_Stmt | Input_Stmt | If_Stmt | While_Stmt | For_Stmt */
+     * Grammar: Statement ::= Assn_Stmt | Display_Stmt | Input_Stmt | If_Stmt | While_Stmt | For_Stmt
+     *                       | Parallel_For_Stmt | Spawn_Stmt | Join_Stmt */
     private Statement statement(int currentIndentLevel) {
         if (current == null) throw error("Expected a statement, found <null>");
         return switch (current.getType()) {
-            case "LET" -> assnStmt();
-            case "DISPLAY" -> displayStmt();
-            case "INPUT" -> inputStmt();
-            case "IF" -> ifStmt();
-            case "WHILE" -> whileStmt(++currentIndentLevel);
-            case "FOR" -> forStmt(++currentIndentLevel);
+            case LET -> assnStmt();
+            case DISPLAY -> displayStmt();
+            case INPUT -> inputStmt();
+            case IF -> ifStmt();
+            case WHILE -> whileStmt(++currentIndentLevel);
+            case FOR -> forStmt(++currentIndentLevel);
+            case PARALLEL -> parallelForStmt(++currentIndentLevel);
+            case SPAWN -> spawnStmt(++currentIndentLevel);
+            case JOIN -> joinStmt();
             default -> throw error("Expected statement, found: "+current.getType()+" at line "+current.getRow());
         };
     }
@@ -88,9 +155,9 @@ public final class Parser {
      * Parses an assignment statement and returns an AssignmentStatement node.
      * Grammar: Assn_Stmt ::= let Id ":=" Arithmetic_Expression */
     private AssignmentStatement assnStmt() {
-        match("LET");
-        String id = match("IDENTIFIER").getLEXEME();
-        match("ASSIGN"); // found ":="
+        match(Type.LET);
+        String id = match(Type.IDENTIFIER).getLEXEME();
+        match(Type.ASSIGN); // found ":="
         ExpressionNode expr = arithmeticExpression();
         return new AssignmentStatement(id, expr);
     }
@@ -99,8 +166,8 @@ public final class Parser {
      * Parses a display statement and returns a DisplayStatement node.
      * Grammar: Display_Stmt ::= "display" Id */
     private DisplayStatement displayStmt() {
-        match("DISPLAY");
-        String id = match("IDENTIFIER").getLEXEME();
+        match(Type.DISPLAY);
+        String id = match(Type.IDENTIFIER).getLEXEME();
         return new DisplayStatement(id);
     }
 
@@ -108,8 +175,8 @@ public final class Parser {
      * Parses an input statement and returns an InputStatement node.
      * Grammar: Input_Stmt ::= "input" Id */
     private InputStatement inputStmt() {
-        match("INPUT");
-        String id = match("IDENTIFIER").getLEXEME();
+        match(Type.INPUT);
+        String id = match(Type.IDENTIFIER).getLEXEME();
         return new InputStatement(id);
     }
 
@@ -134,8 +201,8 @@ public final class Parser {
     private ExpressionNode expressionPrime(ExpressionNode acc) { // <Expression'> ::= ("+" <Term> <Expression'>) | ("-" <Term> <Expression'>)
         boolean done = false;
         while (current != null && !done) {
-            String type = current.getType();
-            if ("ADD".contentEquals(type) || "SUBTRACT".contentEquals(type)) {
+            Type type = current.getType();
+            if (type == Type.ADD || type == Type.SUBTRACT) {
                 Token op = current;                     // terminal token stays as field
                 match(type);                            // consume + or -
 
@@ -168,8 +235,8 @@ public final class Parser {
     private TermNode termPrime(TermNode acc) {// <Term'> ::= ("*" <Factor> <Term'>) | ("/" <Factor> <Term'>)
         boolean done = false;
         while (current != null && !done ) {
-            String type = current.getType();
-            if ("MULTI".contentEquals(type) || "DIVIDE".contentEquals(type)) {
+            Type type = current.getType();
+            if (type == Type.MULTI || type == Type.DIVIDE) {
                 Token op = current;
                 match(type);             // consume * or /
 
@@ -191,24 +258,24 @@ public final class Parser {
         if (current == null) throw error("Expected factor, found <null>");
 
         switch (current.getType()) {
-            case "LEFT_PAREN": {
-                Token lp = current; match("LEFT_PAREN");
+            case LEFT_PAREN: {
+                Token lp = current; match(Type.LEFT_PAREN);
                 ExpressionNode inner = arithmeticExpression();
-                Token rp = match("RIGHT_PAREN");
+                Token rp = match(Type.RIGHT_PAREN);
                 return new ParenFactorNode(lp, inner, rp);
             }
-            case "SUBTRACT": {
-                Token minus = current; match("SUBTRACT");
+            case SUBTRACT: {
+                Token minus = current; match(Type.SUBTRACT);
                 ExpressionNode inner = arithmeticExpression();
                 return new MinusFactorNode(minus, inner);
             }
-            case "INT_LIT": {
+            case INT_LIT: {
                 Token lit = current; number();
                 return new NumberFactorNode(lit);
             }
-            case "IDENTIFIER": {
+            case IDENTIFIER: {
                 Token idToken = current;
-                match("IDENTIFIER");
+                match(Type.IDENTIFIER);
                 return new IdentifierFactorNode(idToken);
             }
             default:
@@ -221,7 +288,7 @@ public final class Parser {
      *
      * Consumes a numeric literal token.
      * Delegates to match for token validation. */
-    private void number() { match("INT_LIT"); } // <Number> ::= INT_LIT
+    private void number() { match(Type.INT_LIT); } // <Number> ::= INT_LIT
 
     /**
      * Parses a boolean expression.
@@ -231,9 +298,9 @@ public final class Parser {
         Token relop = current;
         
         // Check if it's a relational operator
-        String relopType = relop.getType();
-        if (!relopType.equals("LT") && !relopType.equals("LE") && !relopType.equals("GT")
-            && !relopType.equals("GE") && !relopType.equals("EQ") && !relopType.equals("NE")) {
+        Type relopType = relop.getType();
+        if (relopType != Type.LT && relopType != Type.LE && relopType != Type.GT
+            && relopType != Type.GE && relopType != Type.EQ && relopType != Type.NE) {
             throw error("Expected relational operator, found: " + relopType);
         }
         
@@ -246,9 +313,9 @@ public final class Parser {
      * Parses an if statement with optional elif and else clauses.
      * Grammar: if <boolean_expression> : <EOL> <statement_block> <remaining_if> */
     private IfStatement ifStmt() {
-        match("IF");
+        match(Type.IF);
         BooleanExpressionNode condition = booleanExpression();
-        match("COLON");
+        match(Type.COLON);
         // EOL is implicit (next line)
         currentLineIndex++;
         StatementList thenBlock = statementBlock(1); // expect indent level 1
@@ -258,30 +325,28 @@ public final class Parser {
         StatementList elseBlock = null;
         boolean inBlock = true;
         
-        while (currentLineIndex < programLines.size() && inBlock) { // Check for elif or else (should be at indent level 0)
-            String line = programLines.get(currentLineIndex);
-            if (line.trim().isEmpty()) { // Skip empty lines
+        LexedLine line;
+        while (inBlock && (line = programLines.line(currentLineIndex)) != null) { // Check for elif or else (should be at indent level 0)
+            if (line.isBlank()) { // Skip empty lines
                 currentLineIndex++;
                 continue;
             }
             
-            int indentLevel = countLeadingTabs(line);
-            String trimmed = line.trim();
+            int indentLevel = line.getIndent();
+            Type first = line.firstType();
             
-            if (indentLevel == 0 && trimmed.startsWith("elif ")) {
-                lexer.analyze(trimmed, currentLineIndex);
-                current = lexer.getToken();
-                match("ELIF");
+            if (indentLevel == 0 && first == Type.ELIF) {
+                startLine(line);
+                match(Type.ELIF);
                 BooleanExpressionNode elifCondition = booleanExpression();
-                match("COLON");
+                match(Type.COLON);
                 currentLineIndex++;
                 StatementList elifBlock = statementBlock(1);
                 elifChain = new IfStatement(elifCondition, elifBlock, elifChain, null);
-            } else if (indentLevel == 0 && trimmed.startsWith("else")) {
-                lexer.analyze(trimmed, currentLineIndex);
-                current = lexer.getToken();
-                match("ELSE");
-                match("COLON");
+            } else if (indentLevel == 0 && first == Type.ELSE) {
+                startLine(line);
+                match(Type.ELSE);
+                match(Type.COLON);
                 currentLineIndex++;
                 elseBlock = statementBlock(1);
                 inBlock = false;
@@ -297,9 +362,9 @@ public final class Parser {
      * Parses a while statement.
      * Grammar: while <boolean_expression> : <EOL> <statement_block> */
     private WhileStatement whileStmt(int currentIndentLevel) {
-        match("WHILE");
+        match(Type.WHILE);
         BooleanExpressionNode condition = booleanExpression();
-        match("COLON");
+        match(Type.COLON);
         currentLineIndex++;
         StatementList body = statementBlock(currentIndentLevel);
         return new WhileStatement(condition, body);
@@ -309,17 +374,49 @@ public final class Parser {
      * Parses a for statement.
      * Grammar: for <id> in <arithmetic_expression> .. <arithmetic_expression> : <EOL> <statement_block> */
     private ForStatement forStmt(int expectedIndentLevel) {
-        match("FOR");
-        String loopVar = match("IDENTIFIER").getLEXEME();
-        match("IN");
+        match(Type.FOR);
+        String loopVar = match(Type.IDENTIFIER).getLEXEME();
+        match(Type.IN);
         ExpressionNode startExpr = arithmeticExpression();
-        match("RANGE"); // ".."
+        match(Type.RANGE); // ".."
         ExpressionNode endExpr = arithmeticExpression();
-        match("COLON");
+        match(Type.COLON);
         currentLineIndex++;
         StatementList body = statementBlock(expectedIndentLevel); // expect indent level 1
         return new ForStatement(loopVar, startExpr, endExpr, body);
     }
+
+    /**
+     * Parses a parallel for statement.
+     * Grammar: parallel for <id> in <arithmetic_expression> .. <arithmetic_expression> : <EOL> <statement_block> */
+    private ParallelForStatement parallelForStmt(int expectedIndentLevel) {
+        match(Type.PARALLEL);
+        ForStatement loop = forStmt(expectedIndentLevel);
+        return new ParallelForStatement(loop.getLoopVariable(), loop.getStartExpr(), loop.getEndExpr(), loop.getBody());
+    }
+
+    /**
+     * Parses a spawn statement; the next join in the same block waits for it.
+     * Grammar: spawn : <EOL> <statement_block> */
+    private SpawnStatement spawnStmt(int expectedIndentLevel) {
+        match(Type.SPAWN);
+        match(Type.COLON);
+        currentLineIndex++;
+        StatementList body = statementBlock(expectedIndentLevel);
+        if (pendingJoin == null) pendingJoin = new JoinStatement();
+        return new SpawnStatement(body, pendingJoin);
+    }
+
+    /**
+     * Parses a join statement, which waits for the spawns before it in its block.
+     * Grammar: join */
+    private JoinStatement joinStmt() {
+        if (pendingJoin == null) throw error("join without a spawn before it in the same block");
+        match(Type.JOIN);
+        JoinStatement join = pendingJoin;
+        pendingJoin = null;
+        return join;
+    }
     
     /**
      * Parses a statement block.
@@ -327,54 +424,64 @@ public final class Parser {
      * @param currentIndentLevel the expected indentation level (number of tabs) */
     private StatementList statementBlock(int currentIndentLevel) {
         StatementList block = new StatementList();
+        JoinStatement outerJoin = pendingJoin; // spawns are joined within their own block
+        pendingJoin = null;
         int startLineIndex = currentLineIndex;
         boolean inBlock = true;
         
-        while (currentLineIndex < programLines.size() && inBlock) {
-            String line = programLines.get(currentLineIndex);
+        LexedLine line;
+        while (inBlock && (line = programLines.line(currentLineIndex)) != null) {
             
-            if (line.trim().isEmpty()) { // Skip empty lines
+            if (line.isBlank()) { // Skip empty lines
                 currentLineIndex++;
                 continue;
             }
-            int indentLevel = countLeadingTabs(line);
+            int indentLevel = line.getIndent();
 
             if (indentLevel < currentIndentLevel) inBlock = false; // Dedent - end of block
             else if (indentLevel > currentIndentLevel) { // More indented - error (shouldn't skip levels)
                 throw new RuntimeException("Unexpected indentation level at line " + (currentLineIndex + 1) 
                     + ". Expected " + currentIndentLevel + " tabs, found " + indentLevel);
             } else { // Correct indentation level - parse statement
-                lexer.analyze(line.trim(), currentLineIndex);
-                current = lexer.getToken();
+                int lineBeforeStatement = currentLineIndex;
+                startLine(line);
                 Statement stmt = statement(currentIndentLevel);
                 // For the future, here current is null when attempting to move on to a LOWER indent level (breaking out of an inner nested block)
                 block.addStatement(stmt);
-                match("EOL");
+                if (currentLineIndex > lineBeforeStatement && endsOnNextLine(stmt)) continue; // already at the line after its block
+                match(Type.EOL);
                 currentLineIndex++;
             }
         }
+        if (pendingJoin != null) throw error("spawn without a join in the same block");
+        pendingJoin = outerJoin;
         return block;
     }
 
     // ==== Helpers ====
 
     /**
-     * Counts the number of leading tab characters in a line.
-     * Also counts spaces (4 spaces = 1 indent level for compatibility). */
-    private int countLeadingTabs(String line) {
-        int count = 0;
-        int spaceCount = 0;
-        for (int i = 0; i < line.length(); i++) {
-            if (line.charAt(i) == '\t') count++;
-            else if (line.charAt(i) == ' ') {
-                spaceCount++; // treat 4 spaces as equivalent to 1 tab (kept getting a bug from spaces, .txt file treated tab as 4 spaces)
-                if (spaceCount >= 4) {
-                    count++;
-                    spaceCount = 0;
-                }
-            } else i = line.length(); // stop counting
-        }
-        return count;
+     * Whether a statement that read a nested block leaves the block loop on
+     * the line after that block. The older compound statements (if, while,
+     * for) are followed by a skipped line inside a block, which programs
+     * written for this parser already account for; a spawned block and a
+     * parallel for are not, so that a join or any other statement can
+     * follow them directly. */
+    private static boolean endsOnNextLine(Statement stmt) {
+        return stmt instanceof SpawnStatement || stmt instanceof ParallelForStatement;
+    }
+
+    /** Points the token cursor at the start of a lexed line. */
+    private void startLine(LexedLine line) {
+        lineTokens = line.getTokens();
+        tokenIndex = 0;
+        current = nextToken();
+    }
+
+    /** @return the next token of the current line; past the end this keeps returning its EOL token */
+    private Token nextToken() {
+        if (tokenIndex >= lineTokens.length) return lineTokens[lineTokens.length - 1];
+        return lineTokens[tokenIndex++];
     }
     
     /**
@@ -384,13 +491,13 @@ public final class Parser {
      *
      * @param expectedType the token type expected at this point
      * @return the consumed Token (useful for node construction) */
-    private Token match(String expectedType) {
+    private Token match(Type expectedType) {
         if (current == null) throw error("Unexpected end of input; expected "+expectedType);
-        if (!current.getType().contentEquals(expectedType))
+        if (current.getType() != expectedType)
             throw error("Expected "+expectedType+" but found "+current.getType()+" at line "+current.getRow()+", column "+current.getCOLUMN()+".");
 
         Token parsed = current;
-        current = lexer.getToken(); // advance
+        current = nextToken(); // advance
         return parsed;
     }
 
@@ -0,0 +1,82 @@
+// Kyran Day, 10/17/2026.
+package kylang.parser;
+import kylang.memory.SymbolTable;
+import kylang.statements.*;
+import kylang.tree_nodes.*;
+
+/**
+ * Resolver
+ * ------------------------------------------------------------
+ * Resolution pass run after {@link Parser#parse}. Canonicalizes every
+ * identifier once and binds each variable reference, assignment target
+ * and loop variable to its {@link SymbolTable} slot, so execution never
+ * hashes a name. Resolving a tree again is harmless (slots are stable). */
+public final class Resolver extends TreeWalker {
+
+    private final SymbolTable symbols;
+
+    /** Creates a resolver with a fresh symbol table. */
+    public Resolver() {
+        this(new SymbolTable());
+    }
+
+    /**
+     * Creates a resolver that adds to an existing symbol table,
+     * e.g. when more statements are resolved against a live memory.
+     *
+     * @param symbols the symbol table to assign slots from */
+    public Resolver(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    /**
+     * Resolves every variable in the program.
+     *
+     * @param program the parsed statement list
+     * @return the symbol table holding the assigned slots */
+    public SymbolTable resolve(StatementList program) {
+        walk(program);
+        return symbols;
+    }
+
+    /**
+     * Resolves a single statement (and everything nested inside it).
+     *
+     * @param stmt the statement to resolve
+     * @return the symbol table holding the assigned slots */
+    public SymbolTable resolve(Statement stmt) {
+        stmt.accept(this);
+        return symbols;
+    }
+
+    @Override
+    public Void visit(AssignmentStatement stmt) {
+        super.visit(stmt);
+        stmt.setSlot(symbols.slotOf(stmt.getId()));
+        return null;
+    }
+
+    @Override
+    public Void visit(DisplayStatement stmt) {
+        stmt.setSlot(symbols.slotOf(stmt.getId()));
+        return null;
+    }
+
+    @Override
+    public Void visit(InputStatement stmt) {
+        stmt.setSlot(symbols.slotOf(stmt.getId()));
+        return null;
+    }
+
+    @Override
+    public Void visit(ForStatement stmt) {
+        stmt.setSlot(symbols.slotOf(stmt.getLoopVariable()));
+        return super.visit(stmt);
+    }
+
+    @Override
+    public Void visit(IdentifierFactorNode node) {
+        node.setSlot(symbols.slotOf(node.getName()));
+        return null;
+    }
+}
@@ -0,0 +1,377 @@
+// Kyran Day, 10/17/2026.
+package kylang.runtime;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import kylang.lexer.SourceScanner;
+import kylang.memory.Memory;
+import kylang.memory.MemorySnapshot;
+import kylang.memory.SymbolTable;
+import kylang.optimizer.Optimizer;
+import kylang.parser.Fusion;
+import kylang.parser.ParseTree;
+import kylang.parser.Parser;
+import kylang.parser.Resolver;
+import kylang.statements.InputStatement;
+import kylang.statements.Statement;
+import kylang.tree_nodes.StatementList;
+import kylang.tree_nodes.TreeWalker;
+
+/**
+ * BatchRunner
+ * ------------------------------------------------------------
+ * Runs many independent scripts in one JVM, each on the tree interpreter
+ * in an {@link ExecutionContext} of its own: its input is read from a
+ * file (or is empty) and its output is collected in memory. Scripts run
+ * on virtual threads where the JVM has them (Java 21 and later), else on
+ * a pool of one platform thread per core, and at most {@code concurrency}
+ * of them at once. A script that fails (a parse error, divide by zero, bad or
+ * missing input) only fails its own result. {@link #fork} runs one
+ * script on many input sets the same way, sharing the work before its
+ * first input.
+ *
+ * Each script runs single-threaded: its {@code parallel for} loops and
+ * spawned blocks run sequentially, and -O splits no loops, since the
+ * batch already keeps every core busy. */
+public final class BatchRunner {
+
+    /** Scripts run at once unless told otherwise. */
+    public static final int DEFAULT_CONCURRENCY = 256;
+
+    private final int concurrency;
+    private final boolean optimize;
+    private final boolean fuse;
+
+    /**
+     * @param concurrency the most scripts to run at once
+     * @param optimize whether to run the optimizer over each script
+     * @param fuse whether to fuse common statement shapes */
+    public BatchRunner(int concurrency, boolean optimize, boolean fuse) {
+        if (concurrency < 1) throw new IllegalArgumentException("Concurrency must be at least 1, not " + concurrency);
+        this.concurrency = concurrency;
+        this.optimize = optimize;
+        this.fuse = fuse;
+    }
+
+    /**
+     * Lists the scripts of a batch. A directory holds them as {@code .ky}
+     * or {@code .txt} files, run in name order, each reading the {@code .in}
+     * file of the same name if there is one. A manifest names one script
+     * per line, optionally followed by its input file; paths are relative
+     * to the manifest, and blank lines and lines starting with {@code #}
+     * are skipped.
+     *
+     * @param path a directory or manifest file
+     * @return the scripts, in order
+     * @throws IOException if the directory or manifest cannot be read */
+    public static List<Script> scripts(Path path) throws IOException {
+        List<Script> scripts = new ArrayList<>();
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> files = Files.list(path)) {
+                for (Path file : (Iterable<Path>) files.sorted()::iterator) {
+                    String name = file.getFileName().toString();
+                    if (!Files.isRegularFile(file) || !(name.endsWith(".ky") || name.endsWith(".txt"))) continue;
+                    Path input = file.resolveSibling(name.substring(0, name.lastIndexOf('.')) + ".in");
+                    scripts.add(new Script(name, file, Files.isRegularFile(input) ? input : null));
+                }
+            }
+            return scripts;
+        }
+        Path base = path.toAbsolutePath().getParent();
+        for (String line : Files.readAllLines(path)) {
+            String[] fields = line.trim().split("\\s+");
+            if (fields[0].isEmpty() || fields[0].startsWith("#")) continue;
+            if (fields.length > 2) throw new IOException("Expected a script and at most one input file, found \"" + line.trim() + "\"");
+            scripts.add(new Script(fields[0], base.resolve(fields[0]), (fields.length > 1) ? base.resolve(fields[1]) : null));
+        }
+        return scripts;
+    }
+
+    /**
+     * Runs the scripts and waits for all of them.
+     *
+     * @param scripts the scripts
+     * @return their results, in the same order, and how long the batch took */
+    public Report run(List<Script> scripts) {
+        return run(scripts.size(), index -> scripts.get(index).name, index -> run(scripts.get(index)), null);
+    }
+
+    /**
+     * Runs one script once for each set of inputs, doing the work before
+     * its first input only once. The top-level statements up to the first
+     * one that reads input run on their own, their output is kept, and the
+     * memory is {@link Memory#snapshot snapshotted}. Each input set then
+     * runs the remaining statements on a {@link MemorySnapshot#fork fork}
+     * of that memory, which copies only the pages of variables it changes,
+     * and its output starts with the kept output. If the shared part
+     * fails, every run fails the same way.
+     *
+     * @param source the script file
+     * @param inputs the input sets by name, each the text its input statements read, one value per line
+     * @return one result per input set, in the same order
+     * @throws IOException if the script cannot be read */
+    public Report fork(Path source, Map<String, String> inputs) throws IOException {
+        String text = Files.readString(source);
+        long start = System.nanoTime();
+        StatementList rest = new StatementList();
+        StringBuilder shared = new StringBuilder();
+        MemorySnapshot snapshot = null;
+        Throwable failure = null;
+        int split = 0, total = 0;
+        try {
+            StatementList program = new Parser().parse(new SourceScanner(text.toCharArray()).scan());
+            SymbolTable symbols = new Resolver().resolve(program);
+            prepare(program, symbols);
+            List<Statement> statements = program.getStatements();
+            total = statements.size();
+            while (split < total && !readsInput(statements.get(split))) split++;
+            StatementList prefix = new StatementList();
+            prefix.setStatements(statements.subList(0, split));
+            rest.setStatements(statements.subList(split, total));
+
+            Memory memory = new Memory(symbols);
+            new ExecutionContext(memory, InputSource.of(""), OutputSink.of(shared));
+            new ParseTree(prefix).execute(memory);
+            snapshot = memory.snapshot();
+        } catch (RuntimeException | StackOverflowError e) {
+            failure = e;
+        }
+        long sharedNanos = System.nanoTime() - start;
+
+        List<String> names = new ArrayList<>(inputs.keySet());
+        Throwable sharedFailure = failure;
+        MemorySnapshot prefixState = snapshot;
+        return run(names.size(), names::get, index -> {
+            String name = names.get(index);
+            if (sharedFailure != null) return new Result(name, shared.toString(), sharedFailure, 0);
+            StringBuilder output = new StringBuilder(shared);
+            long begin = System.nanoTime();
+            try {
+                Memory fork = prefixState.fork();
+                new ExecutionContext(fork, InputSource.of(inputs.get(name)), OutputSink.of(output));
+                new ParseTree(rest).execute(fork);
+                return new Result(name, output.toString(), null, System.nanoTime() - begin);
+            } catch (RuntimeException | StackOverflowError e) {
+                return new Result(name, output.toString(), e, System.nanoTime() - begin);
+            }
+        }, String.format("shared %d of %d statements, run once in %.1f ms", split, total, sharedNanos / 1e6));
+    }
+
+    /**
+     * Reads the input sets for {@link #fork}. A directory holds one set per
+     * {@code .in} file, in name order; in any other file, each non-blank
+     * line is a set of values separated by spaces, tabs or commas.
+     *
+     * @param path a directory or file
+     * @return the input sets by name (the file name, or {@code line <n>})
+     * @throws IOException if the directory or file cannot be read */
+    public static Map<String, String> inputs(Path path) throws IOException {
+        Map<String, String> inputs = new LinkedHashMap<>();
+        if (Files.isDirectory(path)) {
+            try (Stream<Path> files = Files.list(path)) {
+                for (Path file : (Iterable<Path>) files.sorted()::iterator)
+                    if (Files.isRegularFile(file) && file.toString().endsWith(".in"))
+                        inputs.put(file.getFileName().toString(), Files.readString(file));
+            }
+            return inputs;
+        }
+        List<String> lines = Files.readAllLines(path);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (!line.isEmpty()) inputs.put("line " + (i + 1), String.join("\n", line.split("[\\s,]+")) + "\n");
+        }
+        return inputs;
+    }
+
+    /**
+     * Runs {@code count} tasks, at most {@code concurrency} at once, and
+     * waits for all of them. A task that throws gets a failed result.
+     *
+     * @param names the name of each task's result */
+    private Report run(int count, IntFunction<String> names, IntFunction<Result> task, String shared) {
+        Result[] results = new Result[count];
+        Semaphore slots = new Semaphore(concurrency);
+        ExecutorService virtual = virtualThreads();
+        int threads = (virtual != null) ? concurrency : Math.min(concurrency, Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = (virtual != null) ? virtual : Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < results.length; i++) {
+                slots.acquireUninterruptibly(); // bounds the scripts in flight, and their memory
+                int index = i;
+                executor.execute(() -> {
+                    try {
+                        results[index] = task.apply(index);
+                    } catch (Throwable e) {
+                        results[index] = new Result(names.apply(index), "", e, 0);
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+        }
+        slots.acquireUninterruptibly(concurrency); // every script has finished
+        long wallNanos = System.nanoTime() - start;
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return new Report(Arrays.asList(results), wallNanos, virtual != null, threads, shared);
+    }
+
+    /** Runs one script in a context of its own. */
+    private Result run(Script script) {
+        StringBuilder output = new StringBuilder();
+        long start = System.nanoTime();
+        try {
+            String source = Files.readString(script.source);
+            InputSource input = InputSource.of((script.input != null) ? Files.readString(script.input) : "");
+            StatementList program = new Parser().parse(new SourceScanner(source.toCharArray()).scan());
+            SymbolTable symbols = new Resolver().resolve(program);
+            prepare(program, symbols);
+            Memory memory = new Memory(symbols);
+            new ExecutionContext(memory, input, OutputSink.of(output));
+            new ParseTree(program).execute(memory);
+            return new Result(script.name, output.toString(), null, System.nanoTime() - start);
+        } catch (IOException | RuntimeException | StackOverflowError e) {
+            return new Result(script.name, output.toString(), e, System.nanoTime() - start);
+        }
+    }
+
+    /** Optimizes and fuses a resolved script, as configured. */
+    private void prepare(StatementList program, SymbolTable symbols) {
+        if (optimize) new Optimizer(symbols, Optimizer.DEFAULT_UNROLL_FACTOR, 0).optimize(program);
+        if (fuse) new Fusion().fuse(program);
+    }
+
+    /** @return true if the statement reads input anywhere inside it */
+    private static boolean readsInput(Statement stmt) {
+        boolean[] found = new boolean[1];
+        stmt.accept(new TreeWalker() {
+            @Override
+            public Void visit(InputStatement input) {
+                found[0] = true;
+                return null;
+            }
+        });
+        return found[0];
+    }
+
+    /** @return an executor starting a virtual thread per task, or null before Java 21 */
+    private static ExecutorService virtualThreads() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /** A script to run, and the file its input is read from (null for none). */
+    public static final class Script {
+
+        private final String name;
+        private final Path source;
+        private final Path input;
+
+        /**
+         * @param name the name its result is reported under
+         * @param source the script file
+         * @param input its input file, or null for no input */
+        public Script(String name, Path source, Path input) {
+            this.name = name;
+            this.source = source;
+            this.input = input;
+        }
+
+        public String getName() { return name; }
+        public Path getSource() { return source; }
+        public Path getInput() { return input; }
+    }
+
+    /** What one script displayed, and how it ended. */
+    public static final class Result {
+
+        private final String name;
+        private final String output;
+        private final Throwable failure;
+        private final long nanos;
+
+        Result(String name, String output, Throwable failure, long nanos) {
+            this.name = name;
+            this.output = output;
+            this.failure = failure;
+            this.nanos = nanos;
+        }
+
+        public String getName() { return name; }
+        /** @return everything the script displayed and prompted, up to where it stopped */
+        public String getOutput() { return output; }
+        /** @return what stopped the script, or null if it ran to the end */
+        public Throwable getFailure() { return failure; }
+        public boolean isOk() { return failure == null; }
+        /** @return how long the script took, from reading it to its end */
+        public long getNanos() { return nanos; }
+    }
+
+    /** The results of a batch, in script order, with its throughput. */
+    public static final class Report {
+
+        private final List<Result> results;
+        private final long wallNanos;
+        private final boolean virtualThreads;
+        private final int threads;
+        private final String shared; // what the runs of a fork shared, or null
+
+        Report(List<Result> results, long wallNanos, boolean virtualThreads, int threads, String shared) {
+            this.results = Collections.unmodifiableList(results);
+            this.wallNanos = wallNanos;
+            this.virtualThreads = virtualThreads;
+            this.threads = threads;
+            this.shared = shared;
+        }
+
+        public List<Result> getResults() { return results; }
+        public long getWallNanos() { return wallNanos; }
+        public boolean usedVirtualThreads() { return virtualThreads; }
+
+        /** @return how many scripts (or runs of a fork) failed */
+        public int failed() {
+            int failed = 0;
+            for (Result result : results) if (!result.isOk()) failed++;
+            return failed;
+        }
+
+        /** @return scripts finished per second of wall-clock time */
+        public double throughput() {
+            return results.size() / Math.max(wallNanos / 1e9, 1e-9);
+        }
+
+        /** @return a one-line summary: scripts, failures, time, throughput and how they ran */
+        @Override
+        public String toString() {
+            long busyNanos = 0;
+            for (Result result : results) busyNanos += result.nanos;
+            String unit = (shared != null) ? "run" : "script";
+            return String.format("[batch] %d %ss, %d failed, in %.1f ms: %.1f %ss/s, %.2f ms per %s, "
+                            + "%.1fx overlap, on %s (at most %d at once)",
+                    results.size(), unit, failed(), wallNanos / 1e6, throughput(), unit,
+                    results.isEmpty() ? 0.0 : busyNanos / 1e6 / results.size(), unit, busyNanos / (double) Math.max(wallNanos, 1),
+                    virtualThreads ? "virtual threads" : "platform threads", threads) + ((shared != null) ? "; " + shared : "");
+        }
+    }
+}
@@ -0,0 +1,216 @@
+// Kyran Day, 10/17/2026.
+package kylang.runtime;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * BufferedOutputSink
+ * ------------------------------------------------------------
+ * An output sink that formats each displayed value straight into a
+ * reusable byte buffer and writes the buffer when it fills, before a
+ * prompt, and on {@link #flush}. With a ring of buffers, a background
+ * thread does the writing. Whoever runs the program flushes the sink at
+ * the end, including when the program fails. */
+public final class BufferedOutputSink implements OutputSink, AutoCloseable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    public static final int DEFAULT_RING_SIZE = 4;
+
+    private static final byte[] MIN_VALUE = Integer.toString(Integer.MIN_VALUE).getBytes(Charset.defaultCharset());
+    private static final ByteBuffer END = ByteBuffer.allocate(0); // tells the writer to stop
+
+    private final WritableByteChannel channel;
+    private final byte[] newline = System.lineSeparator().getBytes(Charset.defaultCharset());
+    private ByteBuffer buffer;
+    private final Writer writer; // null when this thread writes
+
+    /**
+     * @param async true to write on a background thread behind a ring of buffers
+     * @return a sink on the process's stdout; closing it leaves stdout open */
+    public static BufferedOutputSink stdout(boolean async) {
+        return new BufferedOutputSink(new FileOutputStream(FileDescriptor.out).getChannel(), DEFAULT_BUFFER_SIZE,
+                async ? DEFAULT_RING_SIZE : 0);
+    }
+
+    /**
+     * @param channel where the output is written; never closed by the sink
+     * @param bufferSize the bytes held before a write
+     * @param ringSize the buffers shared with a background writer, or 0 to write on the calling thread */
+    public BufferedOutputSink(WritableByteChannel channel, int bufferSize, int ringSize) {
+        if (bufferSize < 64) throw new IllegalArgumentException("An output buffer needs at least 64 bytes, not " + bufferSize);
+        if (ringSize < 0 || ringSize == 1) throw new IllegalArgumentException("A ring needs at least 2 buffers, not " + ringSize);
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.writer = (ringSize > 0) ? new Writer(ringSize, bufferSize) : null;
+    }
+
+    @Override
+    public synchronized void display(int value) {
+        if (buffer.remaining() < 11 + newline.length) drain(); // "-2147483648" is the longest
+        byte[] bytes = buffer.array();
+        int pos = buffer.position();
+        if (value == Integer.MIN_VALUE) { // has no positive counterpart
+            System.arraycopy(MIN_VALUE, 0, bytes, pos, MIN_VALUE.length);
+            pos += MIN_VALUE.length;
+        } else {
+            if (value < 0) {
+                bytes[pos++] = '-';
+                value = -value;
+            }
+            int end = pos + digits(value);
+            for (int p = end; value >= 10; ) { // last digit first
+                int quotient = value / 10;
+                bytes[--p] = (byte) ('0' + value - quotient * 10);
+                value = quotient;
+            }
+            bytes[pos] = (byte) ('0' + value);
+            pos = end;
+        }
+        for (byte b : newline) bytes[pos++] = b;
+        buffer.position(pos);
+    }
+
+    @Override
+    public synchronized void prompt(String text) {
+        byte[] bytes = text.getBytes(Charset.defaultCharset());
+        if (buffer.remaining() < bytes.length) flush();
+        if (buffer.remaining() < bytes.length) write(ByteBuffer.wrap(bytes)); // longer than the whole buffer; nothing is queued
+        else buffer.put(bytes);
+        flush(); // the prompt shows before the input is read
+    }
+
+    /**
+     * Writes everything displayed so far and, with a background writer,
+     * waits until it has.
+     *
+     * @throws UncheckedIOException if the channel could not be written */
+    @Override
+    public synchronized void flush() {
+        drain();
+        if (writer != null) writer.await();
+    }
+
+    /** Flushes, then stops the background writer, if any. The channel stays open. */
+    @Override
+    public synchronized void close() {
+        try {
+            flush();
+        } finally {
+            if (writer != null) writer.stop();
+        }
+    }
+
+    /** Hands the buffer to the writer, or writes it, and starts an empty one. */
+    private void drain() {
+        if (buffer.position() == 0) return;
+        buffer.flip();
+        if (writer != null) {
+            buffer = writer.swap(buffer);
+        } else {
+            write(buffer);
+            buffer.clear();
+        }
+    }
+
+    private void write(ByteBuffer bytes) {
+        try {
+            while (bytes.hasRemaining()) channel.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** @return the number of decimal digits of a non-negative value */
+    private static int digits(int value) {
+        int digits = 1;
+        for (long bound = 10; bound <= value; bound *= 10) digits++;
+        return digits;
+    }
+
+    /** The background thread and the ring of buffers it shares with the sink. */
+    private final class Writer implements Runnable {
+
+        private final BlockingQueue<ByteBuffer> full;
+        private final BlockingQueue<ByteBuffer> free;
+        private final Thread thread;
+        private long submitted, written; // buffers handed over and buffers written, guarded by this
+        private IOException failure;
+
+        Writer(int ringSize, int bufferSize) {
+            full = new ArrayBlockingQueue<>(ringSize + 1); // room for END behind a full ring
+            free = new ArrayBlockingQueue<>(ringSize);
+            for (int b = 1; b < ringSize; b++) free.add(ByteBuffer.allocate(bufferSize)); // the sink holds the last one
+            thread = new Thread(this, "kylang-output");
+            thread.setDaemon(true); // a program that forgets to flush still ends
+            thread.start();
+        }
+
+        /** @return an empty buffer to fill next, waiting for one if the whole ring is being written */
+        ByteBuffer swap(ByteBuffer filled) {
+            synchronized (this) {
+                if (failure != null) throw new UncheckedIOException(failure);
+                submitted++;
+            }
+            try {
+                full.put(filled);
+                return free.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while writing output", e);
+            }
+        }
+
+        /** Waits until every buffer handed over has been written. */
+        synchronized void await() {
+            boolean interrupted = false;
+            while (written < submitted && failure == null) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+            if (failure != null) throw new UncheckedIOException(failure);
+        }
+
+        void stop() {
+            full.add(END);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (ByteBuffer next = full.take(); next != END; next = full.take()) {
+                    try {
+                        while (next.hasRemaining()) channel.write(next);
+                    } catch (IOException e) {
+                        synchronized (this) {
+                            if (failure == null) failure = e;
+                        }
+                    }
+                    next.clear();
+                    free.add(next);
+                    synchronized (this) {
+                        written++;
+                        notifyAll();
+                    }
+                }
+            } catch (InterruptedException e) {
+                // nothing more will be written
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+// Kyran Day, 10/17/2026.
+package kylang.runtime;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+import kylang.memory.Memory;
+
+/**
+ * ExecutionContext
+ * ------------------------------------------------------------
+ * Everything one run of a program owns: its {@link Memory}, the
+ * {@link InputSource} its {@code input} statements read and the
+ * {@link OutputSink} its {@code display} statements write. Creating a
+ * context attaches it to the memory, and every engine reaches it from
+ * there, so runs with contexts of their own share no state and can run
+ * at the same time. A memory never given a context uses the standard
+ * streams ({@link #standard}).
+ *
+ * Compiled code, which only has the memory's frame, reaches the context
+ * through the thread it runs on ({@link #current}). */
+public final class ExecutionContext {
+
+    private static final ThreadLocal<ExecutionContext> CURRENT = new ThreadLocal<>();
+    private static final ExecutionContext STANDARD = standard(new Memory());
+
+    private final Memory memory;
+    private final InputSource input;
+    private final OutputSink output;
+    private final boolean exitOnBadInput; // the command line's behavior; other runs fail instead
+
+    /**
+     * Creates a context and attaches it to its memory. Input that is not
+     * an integer, or missing, makes the {@code input} statement throw.
+     *
+     * @param memory the run's memory
+     * @param input where its input statements read
+     * @param output where its display statements and prompts go */
+    public ExecutionContext(Memory memory, InputSource input, OutputSink output) {
+        this(memory, input, output, false);
+    }
+
+    private ExecutionContext(Memory memory, InputSource input, OutputSink output, boolean exitOnBadInput) {
+        this.memory = memory;
+        this.input = input;
+        this.output = output;
+        this.exitOnBadInput = exitOnBadInput;
+        memory.setContext(this);
+    }
+
+    /**
+     * Creates a context on stdin and stdout that, like the command line
+     * always has, ends the process on input that is not an integer.
+     *
+     * @param memory the run's memory
+     * @return the context, attached to the memory */
+    public static ExecutionContext standard(Memory memory) {
+        return standard(memory, OutputSink.standard());
+    }
+
+    /**
+     * Creates a context on stdin and the given output that ends the
+     * process on input that is not an integer, flushing the output first.
+     *
+     * @param memory the run's memory
+     * @param output where its display statements and prompts go, such as a {@link BufferedOutputSink} on stdout
+     * @return the context, attached to the memory */
+    public static ExecutionContext standard(Memory memory, OutputSink output) {
+        return new ExecutionContext(memory, InputSource.standard(), output, true);
+    }
+
+    public Memory getMemory() { return memory; }
+    public InputSource getInput() { return input; }
+    public OutputSink getOutput() { return output; }
+
+    /**
+     * Writes one displayed value.
+     *
+     * @param value the value to display */
+    public void display(int value) {
+        output.display(value);
+    }
+
+    /**
+     * Prompts for and reads one integer value for a variable.
+     *
+     * @param id the variable name shown in the prompt
+     * @return the value read
+     * @throws NoSuchElementException if the input has ended
+     * @throws InputMismatchException if the line is not an integer */
+    public int readValue(String id) {
+        output.prompt("Enter value for " + id + ": ");
+        String line = input.readLine();
+        if (line == null) throw new NoSuchElementException("No line found");
+        try {
+            return Integer.parseInt(line.trim());
+        } catch (NumberFormatException e) {
+            if (!exitOnBadInput) throw new InputMismatchException("Invalid integer input for " + id + ": \"" + line.trim() + "\"");
+            output.flush(); // exiting skips the caller's flush
+            System.err.println("Invalid integer input. Program terminated.");
+            System.exit(1);
+            return 0;
+        }
+    }
+
+    /** @return the context of the compiled code running on this thread, or the standard streams' */
+    public static ExecutionContext current() {
+        ExecutionContext context = CURRENT.get();
+        return (context != null) ? context : STANDARD;
+    }
+
+    /**
+     * Makes a context the current one on this thread, for compiled code.
+     *
+     * @param context the context, or null for none
+     * @return the context that was current before, to restore afterwards */
+    public static ExecutionContext makeCurrent(ExecutionContext context) {
+        ExecutionContext previous = CURRENT.get();
+        if (context != null) CURRENT.set(context);
+        else CURRENT.remove();
+        return previous;
+    }
+}
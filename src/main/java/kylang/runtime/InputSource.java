@@ -0,0 +1,43 @@
+// Kyran Day, 10/17/2026.
+package kylang.runtime;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+
+/**
+ * InputSource
+ * ------------------------------------------------------------
+ * Where one execution's {@code input} statements read their lines. A
+ * source may be shared by blocks running at the same time, so
+ * implementations hand each line to exactly one caller. */
+public interface InputSource {
+
+    /** @return the next line of input, or null at the end */
+    String readLine();
+
+    /** @return the process's stdin, shared by every execution that uses it */
+    static InputSource standard() { return StandardStreams.INPUT; }
+
+    /**
+     * @param reader the lines to read
+     * @return a source reading them in order */
+    static InputSource of(BufferedReader reader) {
+        return () -> {
+            synchronized (reader) {
+                try {
+                    return reader.readLine();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * @param text the whole input, one value per line
+     * @return a source reading its lines in order */
+    static InputSource of(String text) {
+        return of(new BufferedReader(new StringReader(text)));
+    }
+}
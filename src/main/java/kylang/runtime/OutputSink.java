@@ -0,0 +1,45 @@
+// Kyran Day, 10/17/2026.
+package kylang.runtime;
+
+/**
+ * OutputSink
+ * ------------------------------------------------------------
+ * Where one execution's {@code display} statements and input prompts go.
+ * Blocks running at the same time may write to the same sink, so each
+ * call writes its whole line or prompt at once. */
+public interface OutputSink {
+
+    /** Writes one displayed value on a line of its own. */
+    void display(int value);
+
+    /** Writes an input prompt, without ending the line. */
+    void prompt(String text);
+
+    /** Makes everything written so far visible; a no-op for sinks that do not buffer. */
+    default void flush() {}
+
+    /** @return the process's stdout, as {@code System.out} is when each value is written */
+    static OutputSink standard() { return StandardStreams.OUTPUT; }
+
+    /**
+     * @param text the buffer to append to
+     * @return a sink that collects the output in memory */
+    static OutputSink of(StringBuilder text) {
+        String newline = System.lineSeparator();
+        return new OutputSink() {
+            @Override
+            public void display(int value) {
+                synchronized (text) {
+                    text.append(value).append(newline);
+                }
+            }
+
+            @Override
+            public void prompt(String prompt) {
+                synchronized (text) {
+                    text.append(prompt);
+                }
+            }
+        };
+    }
+}
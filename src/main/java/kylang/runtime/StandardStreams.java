@@ -0,0 +1,35 @@
+// Kyran Day, 10/17/2026.
+package kylang.runtime;
+import java.util.Scanner;
+
+/**
+ * StandardStreams
+ * ------------------------------------------------------------
+ * The process-wide input source and output sink on stdin and stdout.
+ * There is one of each, because buffering stdin in two places would
+ * split its lines between them. */
+final class StandardStreams {
+
+    private StandardStreams() {}
+
+    static final InputSource INPUT = new InputSource() {
+        private Scanner in; // created on first read, so a program without input never touches stdin
+
+        @Override
+        public synchronized String readLine() {
+            if (in == null) in = new Scanner(System.in);
+            return in.hasNextLine() ? in.nextLine() : null;
+        }
+    };
+
+    static final OutputSink OUTPUT = new OutputSink() {
+        @Override
+        public void display(int value) { System.out.println(value); }
+
+        @Override
+        public void prompt(String text) { System.out.print(text); }
+
+        @Override
+        public void flush() { System.out.flush(); }
+    };
+}
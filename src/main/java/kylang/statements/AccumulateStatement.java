@@ -0,0 +1,40 @@
+// Kyran Day, 10/17/2026.
+package kylang.statements;
+import kylang.memory.Memory;
+import kylang.tree_nodes.NodeVisitor;
+
+/**
+ * Fused form of {@code let x := x + y} (or {@code y + x}, or {@code x - y})
+ * for two variables: two slot reads and one write, with no expression
+ * tree to walk. Produced by {@code kylang.parser.Fusion}; visitors see the
+ * assignment it replaces. */
+public final class AccumulateStatement extends Statement {
+
+    private final AssignmentStatement original;
+    private final int slot;
+    private final int source;
+    private final boolean subtract;
+
+    /**
+     * @param original the assignment this statement replaces
+     * @param slot the resolved slot of the accumulator
+     * @param source the resolved slot of the variable added to it
+     * @param subtract true for {@code x - y} */
+    public AccumulateStatement(AssignmentStatement original, int slot, int source, boolean subtract) {
+        this.original = original;
+        this.slot = slot;
+        this.source = source;
+        this.subtract = subtract;
+    }
+
+    public AssignmentStatement getOriginal() { return original; }
+
+    @Override
+    public void execute(Memory memory) {
+        int value = memory.get(source);
+        memory.add(slot, subtract ? -value : value);
+    }
+
+    @Override
+    public <R> R accept(NodeVisitor<R> visitor) { return original.accept(visitor); }
+}
@@ -1,6 +1,8 @@
 // Kyran Day, 12/07/2025
 package kylang.statements;
 import kylang.tree_nodes.ExpressionNode;
+import kylang.tree_nodes.NodeShapes;
+import kylang.tree_nodes.NodeVisitor;
 import kylang.memory.Memory;
 
 /**
@@ -9,11 +11,15 @@ import kylang.memory.Memory;
  * This class handles the execution of assignment operations, where a variable
  * is assigned the value of an evaluated expression. The assignment statement
  * evaluates an expression and stores the resulting integer value in memory
- * under the specified variable identifier. */
+ * under the specified variable identifier. An accumulation such as
+ * {@code let x := x + e} instead adds {@code e} to the variable, which
+ * is the same thing on one thread and atomic on a concurrent memory. */
 public class AssignmentStatement extends Statement {
 
     private String id;
     private ExpressionNode expression;
+    private ExpressionNode increment; // what the expression adds to id, if it is an accumulation
+    private int slot = -1; // memory slot of id, assigned by the resolver
 
     /**
      * Constructs an AssignmentStatement with a variable identifier and expression.
@@ -22,8 +28,19 @@ public class AssignmentStatement extends Statement {
      * @param expression the expression node to evaluate */
     public AssignmentStatement(String id, ExpressionNode expression) {
         this.id = id;
+        setExpression(expression);
+    }
+
+    public String getId() { return id; }
+    public ExpressionNode getExpression() { return expression; }
+    public void setExpression(ExpressionNode expression) {
         this.expression = expression;
+        this.increment = NodeShapes.increment(expression, id);
     }
+    /** @return true if the statement only adds to its variable, see {@link NodeShapes#increment} */
+    public boolean isAccumulation() { return increment != null; }
+    public int getSlot() { return slot; }
+    public void setSlot(int slot) { this.slot = slot; }
 
     /**
      * Executes the assignment statement by evaluating the expression and storing
@@ -31,7 +48,14 @@ public class AssignmentStatement extends Statement {
      *
      * @param memory the memory object where the variable value will be stored */
     public void execute(Memory memory) {
+        if (increment != null) {
+            memory.add(slot, increment.evaluate(memory));
+            return;
+        }
         int value = expression.evaluate(memory);
-        memory.put(id, value);
+        memory.put(slot, value);
     }
+
+    @Override
+    public <R> R accept(NodeVisitor<R> visitor) { return visitor.visit(this); }
 }
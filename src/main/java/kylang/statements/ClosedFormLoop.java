@@ -0,0 +1,104 @@
+// Kyran Day, 10/17/2026.
+package kylang.statements;
+import kylang.memory.Memory;
+import kylang.tree_nodes.ExpressionNode;
+import kylang.tree_nodes.NodeVisitor;
+
+/**
+ * Closed form of a counted loop whose body only accumulates values that
+ * are linear in the counter ({@code let y := y + i}, {@code let s := s - 2 * i + k})
+ * and assigns values computed from the counter ({@code let u := i * 3}).
+ * Produced by {@code kylang.optimizer.ClosedFormLoops}; visitors see the
+ * loop it replaces, which also runs unchanged when the closed form does
+ * not apply (a loop whose counter would wrap around instead of ending).
+ *
+ * The counter takes the values {@code first, first + step, ...} for
+ * {@code count} iterations. A linear term {@code T} has, mod 2^32,
+ * {@code T(first + t * step) = T(first) + t * (T(first + step) - T(first))},
+ * so its sum over the loop is {@code count * T0 + slope * count * (count - 1) / 2},
+ * computed in long arithmetic whose low 32 bits are exactly the int
+ * wraparound result of adding one iteration at a time. */
+public final class ClosedFormLoop extends Statement {
+
+    /** What a body statement does with its term. */
+    public static final int ADD = 0, LAST = 1;
+
+    private final Statement original;
+    private final int counter;
+    private final ExpressionNode start;  // for loops: the first counter value; null for while loops
+    private final ExpressionNode bound;  // for loops: the end value; while loops: the bound the counter is compared to
+    private final int step;              // +1 or -1
+    private final boolean inclusive;     // while loops: whether the bound itself is reached
+    private final int[] targets, kinds, offsets;
+    private final ExpressionNode[] terms;
+
+    /**
+     * @param original the loop this statement replaces
+     * @param counter the slot of the loop variable or while counter
+     * @param start the for loop's start expression, or null for a while loop
+     * @param bound the for loop's end expression, or the while loop's bound
+     * @param step the counter step, +1 or -1 (always +1 for a for loop)
+     * @param inclusive for a while loop, whether it runs while the counter equals the bound
+     * @param targets the slot each body statement assigns, in body order
+     * @param kinds {@link #ADD} or {@link #LAST} for each statement
+     * @param terms the term each statement adds or assigns; reads no target
+     * @param offsets 0, or {@code step} for statements after the while counter's update */
+    public ClosedFormLoop(Statement original, int counter, ExpressionNode start, ExpressionNode bound, int step,
+                          boolean inclusive, int[] targets, int[] kinds, ExpressionNode[] terms, int[] offsets) {
+        this.original = original;
+        this.counter = counter;
+        this.start = start;
+        this.bound = bound;
+        this.step = step;
+        this.inclusive = inclusive;
+        this.targets = targets;
+        this.kinds = kinds;
+        this.terms = terms;
+        this.offsets = offsets;
+    }
+
+    public Statement getOriginal() { return original; }
+
+    @Override
+    public void execute(Memory memory) {
+        long first, count;
+        if (start != null) { // for: start .. end
+            first = start.evaluate(memory);
+            int end = bound.evaluate(memory);
+            if (end == Integer.MAX_VALUE) {
+                original.execute(memory); // i <= end always holds: the loop only ends by accident, if at all
+                return;
+            }
+            count = (long) end - first + 1;
+        } else { // while counter < bound (or <=, >, >=)
+            first = memory.get(counter);
+            long limit = bound.evaluate(memory);
+            if (inclusive && limit == (step > 0 ? Integer.MAX_VALUE : Integer.MIN_VALUE)) {
+                original.execute(memory); // the counter wraps around: the loop only ends by accident, if at all
+                return;
+            }
+            count = (limit - first) * step + (inclusive ? 1 : 0);
+        }
+        if (count <= 0) return;
+
+        long pairs = (count % 2 == 0) ? (count / 2) * (count - 1) : count * ((count - 1) / 2); // count*(count-1)/2, low bits exact
+        for (int k = 0; k < terms.length; k++) {
+            long base = first + offsets[k];
+            if (kinds[k] == LAST) {
+                memory.put(counter, (int) (base + (count - 1) * step));
+                memory.put(targets[k], terms[k].evaluate(memory));
+                continue;
+            }
+            memory.put(counter, (int) base);
+            int t0 = terms[k].evaluate(memory);
+            memory.put(counter, (int) (base + step));
+            int slope = terms[k].evaluate(memory) - t0;
+            int sum = (int) (count * t0 + pairs * slope);
+            memory.add(targets[k], sum);
+        }
+        memory.put(counter, (int) (start != null ? first + count - 1 : first + count * step));
+    }
+
+    @Override
+    public <R> R accept(NodeVisitor<R> visitor) { return original.accept(visitor); }
+}
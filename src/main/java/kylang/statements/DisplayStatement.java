@@ -1,6 +1,8 @@
 // Kyran Day, 12/07/2025
 package kylang.statements;
 import kylang.memory.Memory;
+import kylang.runtime.ExecutionContext;
+import kylang.tree_nodes.NodeVisitor;
 
 /**
  * The DisplayStatement class represents a statement that displays
@@ -13,12 +15,30 @@ import kylang.memory.Memory;
 public class DisplayStatement extends Statement {
 
     private String id;
+    private int slot = -1; // memory slot of id, assigned by the resolver
 
     public DisplayStatement(String id) {
         this.id = id;
     }
 
+    public String getId() { return id; }
+    public int getSlot() { return slot; }
+    public void setSlot(int slot) { this.slot = slot; }
+
     public void execute(Memory memory) {
-        System.out.println(memory.get(id));
+        memory.getContext().display(memory.get(slot));
+    }
+
+    /**
+     * Writes one displayed value to the current thread's context, for
+     * compiled code; the other engines go through their memory's context,
+     * so output is identical regardless of how the program runs.
+     *
+     * @param value the value to display */
+    public static void print(int value) {
+        ExecutionContext.current().display(value);
     }
+
+    @Override
+    public <R> R accept(NodeVisitor<R> visitor) { return visitor.visit(this); }
 }
@@ -3,6 +3,8 @@ package kylang.statements;
 import kylang.tree_nodes.ExpressionNode;
 import kylang.memory.Memory;
 import kylang.tree_nodes.StatementList;
+import kylang.tree_nodes.NodeVisitor;
+import kylang.jit.LoopTier;
 
 /**
  * Represents a for loop statement.
@@ -13,6 +15,8 @@ public class ForStatement extends Statement {
     private ExpressionNode startExpr;
     private ExpressionNode endExpr;
     private StatementList body;
+    private int slot = -1; // memory slot of the loop variable, assigned by the resolver
+    private LoopTier tier; // set only in tiered mode
     
     public ForStatement(String loopVariable, ExpressionNode startExpr, ExpressionNode endExpr, StatementList body) {
         this.loopVariable = loopVariable;
@@ -20,22 +24,54 @@ public class ForStatement extends Statement {
         this.endExpr = endExpr;
         this.body = body;
     }
+
+    public String getLoopVariable() { return loopVariable; }
+    public ExpressionNode getStartExpr() { return startExpr; }
+    public void setStartExpr(ExpressionNode startExpr) { this.startExpr = startExpr; }
+    public ExpressionNode getEndExpr() { return endExpr; }
+    public void setEndExpr(ExpressionNode endExpr) { this.endExpr = endExpr; }
+    public StatementList getBody() { return body; }
+    public int getSlot() { return slot; }
+    public void setSlot(int slot) { this.slot = slot; }
+    public void setTier(LoopTier tier) { this.tier = tier; }
     
     /**
      * Executes the for-loop:
      * Evaluates the start and end expressions, then iterates from start to end (inclusive).
      * On each iteration the loop variable is bound in the provided memory and the loop body is executed.
+     * In tiered mode each back-edge is counted, and a hot loop finishes its
+     * remaining iterations in compiled code.
      *
      * @param memory the execution memory/state used to evaluate expressions and store the loop variable
      */
     @Override
     public void execute(Memory memory) {
-        int start = startExpr.evaluate(memory);
-        int end = endExpr.evaluate(memory);
-        
+        iterate(memory, startExpr.evaluate(memory), endExpr.evaluate(memory));
+    }
+
+    /**
+     * Runs the loop with its bounds already evaluated.
+     *
+     * @param memory the execution memory
+     * @param start the first value of the loop variable
+     * @param end the last value of the loop variable */
+    public void iterate(Memory memory, int start, int end) {
+        LoopTier tier = memory.hasFrame() ? this.tier : null; // compiled code needs a plain frame
+        if (tier != null && tier.isCompiled()) {
+            tier.run(memory, start, end);
+            return;
+        }
+
         for (int i = start; i <= end; i++) {
-            memory.put(loopVariable, i);
+            memory.put(slot, i);
             body.execute(memory);
+            if (tier != null && tier.backEdge()) { // promoted: continue with the next counter value
+                tier.run(memory, i + 1, end);
+                return;
+            }
         }
     }
+
+    @Override
+    public <R> R accept(NodeVisitor<R> visitor) { return visitor.visit(this); }
 }
@@ -3,6 +3,7 @@ package kylang.statements;
 import kylang.tree_nodes.BooleanExpressionNode;
 import kylang.memory.Memory;
 import kylang.tree_nodes.StatementList;
+import kylang.tree_nodes.NodeVisitor;
 
 /**
  * Represents an if statement with optional elif and else clauses.
@@ -23,6 +24,14 @@ public class IfStatement extends Statement {
         this.elifChain = elifChain;
         this.elseBlock = elseBlock;
     }
+
+    public BooleanExpressionNode getCondition() { return condition; }
+    public void setCondition(BooleanExpressionNode condition) { this.condition = condition; }
+    public StatementList getThenBlock() { return thenBlock; }
+    public IfStatement getElifChain() { return elifChain; }
+    public void setElifChain(IfStatement elifChain) { this.elifChain = elifChain; }
+    public StatementList getElseBlock() { return elseBlock; }
+    public void setElseBlock(StatementList elseBlock) { this.elseBlock = elseBlock; }
     
     /** Execute this conditional statement using the provided memory.
      *
@@ -38,4 +47,7 @@ public class IfStatement extends Statement {
         else if (elifChain != null) elifChain.execute(memory);
         else if (elseBlock != null) elseBlock.execute(memory);
     }
+
+    @Override
+    public <R> R accept(NodeVisitor<R> visitor) { return visitor.visit(this); }
 }
@@ -0,0 +1,36 @@
+// Kyran Day, 10/17/2026.
+package kylang.statements;
+import kylang.memory.Memory;
+import kylang.tree_nodes.NodeVisitor;
+
+/**
+ * Fused form of {@code let x := x + k} and {@code let x := x - k} for a
+ * literal {@code k}: one read and one write of the same slot, with no
+ * expression tree to walk. Produced by {@code kylang.parser.Fusion};
+ * visitors see the assignment it replaces. */
+public final class IncrementStatement extends Statement {
+
+    private final AssignmentStatement original;
+    private final int slot;
+    private final int delta;
+
+    /**
+     * @param original the assignment this statement replaces
+     * @param slot the resolved slot of the variable
+     * @param delta the amount to add (negated for subtraction) */
+    public IncrementStatement(AssignmentStatement original, int slot, int delta) {
+        this.original = original;
+        this.slot = slot;
+        this.delta = delta;
+    }
+
+    public AssignmentStatement getOriginal() { return original; }
+
+    @Override
+    public void execute(Memory memory) {
+        memory.add(slot, delta);
+    }
+
+    @Override
+    public <R> R accept(NodeVisitor<R> visitor) { return original.accept(visitor); }
+}
@@ -1,7 +1,8 @@
 // Kyran Day, 12/07/2025
 package kylang.statements;
-import java.util.Scanner;
 import kylang.memory.Memory;
+import kylang.runtime.ExecutionContext;
+import kylang.tree_nodes.NodeVisitor;
 
 /**
  * The InputStatement class represents an executable statement that prompts the user
@@ -12,21 +13,31 @@ import kylang.memory.Memory;
 public class InputStatement extends Statement {
 
     private String id;
-    private static final Scanner in = new Scanner(System.in);
+    private int slot = -1; // memory slot of id, assigned by the resolver
 
     public InputStatement(String id) {
         this.id = id;
     }
 
+    public String getId() { return id; }
+    public int getSlot() { return slot; }
+    public void setSlot(int slot) { this.slot = slot; }
+
     public void execute(Memory memory) {
-        System.out.print("Enter value for " + id + ": ");
-        String inputStr = in.nextLine().trim();
-        try {
-            int value = Integer.parseInt(inputStr);
-            memory.put(id, value);
-        } catch (NumberFormatException e) {
-            System.err.println("Invalid integer input. Program terminated.");
-            System.exit(1);
-        }
+        memory.put(slot, memory.getContext().readValue(id));
+    }
+
+    /**
+     * Prompts for and reads one integer value for a variable from the
+     * current thread's context, for compiled code; the other engines go
+     * through their memory's context, so input behaves identically.
+     *
+     * @param id the variable name shown in the prompt
+     * @return the value entered by the user */
+    public static int readValue(String id) {
+        return ExecutionContext.current().readValue(id);
     }
+
+    @Override
+    public <R> R accept(NodeVisitor<R> visitor) { return visitor.visit(this); }
 }
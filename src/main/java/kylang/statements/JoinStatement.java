@@ -0,0 +1,21 @@
+// Kyran Day, 10/17/2026.
+package kylang.statements;
+import kylang.memory.Memory;
+import kylang.tree_nodes.NodeVisitor;
+import kylang.tree_nodes.StatementList;
+
+/**
+ * Waits for the blocks the {@link SpawnStatement}s before it in the same
+ * block started. If any of them failed, the first failure (in spawn
+ * order) is thrown here, once all of them have finished. The waiting is
+ * done by the enclosing {@link StatementList}, which keeps the spawned
+ * blocks of each of its executions; on its own a join does nothing.
+ * Grammar: Join_Stmt ::= "join" */
+public final class JoinStatement extends Statement {
+
+    @Override
+    public void execute(Memory memory) {}
+
+    @Override
+    public <R> R accept(NodeVisitor<R> visitor) { return visitor.visit(this); }
+}
@@ -0,0 +1,156 @@
+// Kyran Day, 10/17/2026.
+package kylang.statements;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import kylang.memory.Memory;
+import kylang.tree_nodes.NodeVisitor;
+import kylang.worker.WorkerPool;
+
+/**
+ * A for loop whose iterations are independent apart from sums and
+ * products, split into contiguous chunks on the common {@link ForkJoinPool}
+ * or, given a {@link WorkerPool}, across its worker processes. Produced by
+ * {@code kylang.optimizer.ParallelLoops}; visitors see the loop it
+ * replaces, which also runs unchanged below the threshold.
+ *
+ * Each chunk starts its reductions from 0 or 1, and they are combined in
+ * chunk order afterwards; private variables come from the last chunk. If
+ * a chunk throws, or the workers cannot run it, the loop runs again
+ * sequentially from the unchanged memory. */
+public final class ParallelForLoop extends Statement {
+
+    /** How a reduction variable combines its chunks' results. */
+    public static final int SUM = 0, PRODUCT = 1;
+
+    private final ForStatement original;
+    private final int[] reductions, kinds;
+    private final int[] privates;
+    private final int threshold;
+    private final WorkerPool workers;
+    private final byte[] body;
+
+    /**
+     * @param original the loop this statement replaces
+     * @param reductions the slots the body only adds to or only multiplies into
+     * @param kinds {@link #SUM} or {@link #PRODUCT} for each reduction
+     * @param privates the other slots the body writes, each assigned before it is read in every iteration
+     * @param threshold the fewest iterations worth splitting */
+    public ParallelForLoop(ForStatement original, int[] reductions, int[] kinds, int[] privates, int threshold) {
+        this(original, reductions, kinds, privates, threshold, null, null);
+    }
+
+    /**
+     * @param original the loop this statement replaces
+     * @param reductions the slots the body only adds to or only multiplies into
+     * @param kinds {@link #SUM} or {@link #PRODUCT} for each reduction
+     * @param privates the other slots the body writes, each assigned before it is read in every iteration
+     * @param threshold the fewest iterations worth splitting
+     * @param workers the worker processes to run the chunks on, or null for this process's cores
+     * @param body the loop body as an encoded {@code FlatProgram}, if there are workers */
+    public ParallelForLoop(ForStatement original, int[] reductions, int[] kinds, int[] privates, int threshold,
+                           WorkerPool workers, byte[] body) {
+        this.original = original;
+        this.reductions = reductions;
+        this.kinds = kinds;
+        this.privates = privates;
+        this.threshold = threshold;
+        this.workers = workers;
+        this.body = body;
+    }
+
+    public ForStatement getOriginal() { return original; }
+
+    @Override
+    public void execute(Memory memory) {
+        int start = original.getStartExpr().evaluate(memory);
+        int end = original.getEndExpr().evaluate(memory);
+        long trips = (long) end - start + 1;
+        int parallelism = (workers != null) ? workers.size() : ForkJoinPool.getCommonPoolParallelism();
+        if (trips < threshold || (parallelism < 2 && workers == null) || end == Integer.MAX_VALUE) { // a loop up to the maximum never ends
+            original.iterate(memory, start, end);
+            return;
+        }
+
+        int chunks = (int) Math.min(parallelism, trips);
+        Memory[] copies = (workers != null) ? distribute(memory, start, trips, chunks) : split(memory, start, trips, chunks);
+        if (copies == null) { // a chunk threw, or the workers failed: run it here, failing where the loop would
+            original.iterate(memory, start, end);
+            return;
+        }
+
+        for (int r = 0; r < reductions.length; r++) {
+            int slot = reductions[r], total = (kinds[r] == PRODUCT) ? memory.get(slot) : 0;
+            for (Memory copy : copies) total = (kinds[r] == PRODUCT) ? total * copy.get(slot) : total + copy.get(slot);
+            if (kinds[r] == PRODUCT) memory.put(slot, total);
+            else memory.add(slot, total); // atomic if spawned blocks add to it too
+        }
+        for (int slot : privates) memory.put(slot, copies[chunks - 1].get(slot));
+        memory.put(original.getSlot(), end);
+    }
+
+    /** @return each chunk's memory after running it on its own copy on the fork/join pool, or null if one threw */
+    private Memory[] split(Memory memory, int start, long trips, int chunks) {
+        AtomicBoolean failed = new AtomicBoolean(); // stops the other chunks once one throws
+        Memory[] copies = new Memory[chunks];
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[chunks];
+        for (int c = 0; c < chunks; c++) {
+            Memory copy = memory.copy();
+            for (int r = 0; r < reductions.length; r++) copy.put(reductions[r], identity(r));
+            long first = start + trips * c / chunks, last = start + trips * (c + 1) / chunks - 1;
+            copies[c] = copy;
+            tasks[c] = ForkJoinTask.adapt(() -> run(copy, first, last, failed));
+        }
+        try {
+            ForkJoinTask.invokeAll(tasks);
+        } catch (RuntimeException e) {
+            return null;
+        }
+        return copies;
+    }
+
+    /** @return each chunk's reduction and private values after running it in a worker process, or null if one threw or the workers failed */
+    private Memory[] distribute(Memory memory, int start, long trips, int chunks) {
+        int slots = memory.getSymbols().size();
+        int[] frame = new int[slots], firsts = new int[chunks], lasts = new int[chunks], identities = new int[reductions.length];
+        for (int slot = 0; slot < slots; slot++) frame[slot] = memory.get(slot);
+        for (int r = 0; r < reductions.length; r++) identities[r] = identity(r);
+        for (int c = 0; c < chunks; c++) {
+            firsts[c] = (int) (start + trips * c / chunks);
+            lasts[c] = (int) (start + trips * (c + 1) / chunks - 1);
+        }
+        int[][] results;
+        try {
+            results = workers.run(body, frame, original.getSlot(), firsts, lasts, reductions, identities, privates);
+        } catch (IOException e) { // the pool has reported it
+            return null;
+        }
+        if (results == null) return null;
+        Memory[] copies = new Memory[chunks];
+        for (int c = 0; c < chunks; c++) {
+            copies[c] = new Memory(memory.getSymbols());
+            for (int r = 0; r < reductions.length; r++) copies[c].put(reductions[r], results[c][r]);
+            for (int p = 0; p < privates.length; p++) copies[c].put(privates[p], results[c][reductions.length + p]);
+        }
+        return copies;
+    }
+
+    private int identity(int reduction) { return (kinds[reduction] == PRODUCT) ? 1 : 0; }
+
+    private void run(Memory memory, long first, long last, AtomicBoolean failed) {
+        int slot = original.getSlot();
+        try {
+            for (long i = first; i <= last && !failed.get(); i++) {
+                memory.put(slot, (int) i);
+                original.getBody().execute(memory);
+            }
+        } catch (RuntimeException e) {
+            failed.set(true);
+            throw e;
+        }
+    }
+
+    @Override
+    public <R> R accept(NodeVisitor<R> visitor) { return original.accept(visitor); }
+}
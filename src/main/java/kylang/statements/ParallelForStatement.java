@@ -0,0 +1,163 @@
+// Kyran Day, 10/17/2026.
+package kylang.statements;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import kylang.memory.Memory;
+import kylang.optimizer.LoopDependences;
+import kylang.runtime.ExecutionContext;
+import kylang.tree_nodes.ExpressionNode;
+import kylang.tree_nodes.StatementList;
+
+/**
+ * A for loop whose iterations the program declares independent, run as
+ * contiguous chunks of the counter range on the {@link ForkJoinPool} it
+ * is started from (or the common pool), one chunk per thread.
+ * Grammar: Parallel_For_Stmt ::= "parallel" For_Stmt
+ *
+ * Variables are classified by {@link LoopDependences}: private ones end
+ * with the last iteration's value, accumulations add atomically to the
+ * shared memory, and products are multiplied in from each chunk. A body
+ * that carries any other value between iterations, or reads input, runs
+ * as the sequential loop, as does any loop on a memory that is not
+ * concurrent. If an iteration fails, the other chunks stop and the loop
+ * throws that failure. */
+public final class ParallelForStatement extends ForStatement {
+
+    public ParallelForStatement(String loopVariable, ExpressionNode startExpr, ExpressionNode endExpr, StatementList body) {
+        super(loopVariable, startExpr, endExpr, body);
+    }
+
+    @Override
+    public void execute(Memory memory) {
+        if (!memory.isConcurrent()) {
+            super.execute(memory);
+            return;
+        }
+        int start = getStartExpr().evaluate(memory);
+        int end = getEndExpr().evaluate(memory);
+        if (start > end) return;
+        int slots = memory.getSymbols().size();
+        LoopDependences dependences = new LoopDependences(this, slots);
+        if (end == Integer.MAX_VALUE || !isSplittable(dependences, slots)) { // a loop up to the maximum never ends
+            iterate(memory, start, end);
+            return;
+        }
+
+        long trips = (long) end - start + 1;
+        ForkJoinPool pool = ForkJoinTask.inForkJoinPool() ? ForkJoinTask.getPool() : ForkJoinPool.commonPool();
+        int chunks = (int) Math.min(pool.getParallelism(), trips);
+        boolean[] privates = new boolean[slots];
+        for (int slot = 0; slot < slots; slot++) {
+            int kind = dependences.kind(slot);
+            privates[slot] = kind == LoopDependences.INDEX || kind == LoopDependences.PRIVATE || kind == LoopDependences.PRODUCT;
+        }
+        int[] products = dependences.slots(LoopDependences.PRODUCT);
+        AtomicBoolean failed = new AtomicBoolean(); // stops the other chunks once one throws
+        PrivateMemory[] views = new PrivateMemory[chunks];
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[chunks];
+        for (int c = 0; c < chunks; c++) {
+            PrivateMemory view = new PrivateMemory(memory, privates, products);
+            long first = start + trips * c / chunks, last = start + trips * (c + 1) / chunks - 1;
+            views[c] = view;
+            tasks[c] = ForkJoinTask.adapt(() -> run(view, first, last, failed));
+        }
+        try {
+            ForkJoinTask.invokeAll(tasks);
+        } catch (RuntimeException e) {
+            for (ForkJoinTask<?> task : tasks) task.quietlyJoin(); // no chunk may still be writing
+            throw SpawnedTasks.thrown(e);
+        }
+        for (int slot : products) {
+            int product = memory.get(slot);
+            for (PrivateMemory view : views) product *= view.get(slot);
+            privates[slot] = false;
+            memory.put(slot, product);
+        }
+        for (int slot = 0; slot < slots; slot++) if (privates[slot]) memory.put(slot, views[chunks - 1].get(slot));
+    }
+
+    /** @return true if every variable the body writes is private, an accumulation or a product */
+    private static boolean isSplittable(LoopDependences dependences, int slots) {
+        for (int slot = 0; slot < slots; slot++) {
+            int kind = dependences.kind(slot);
+            if (kind < 0 || kind == LoopDependences.CONFLICT) return false; // input, or a value carried between iterations
+        }
+        return true;
+    }
+
+    private void run(Memory memory, long first, long last, AtomicBoolean failed) {
+        try {
+            for (long i = first; i <= last && !failed.get(); i++) {
+                memory.put(getSlot(), (int) i);
+                getBody().execute(memory);
+            }
+        } catch (RuntimeException e) {
+            failed.set(true);
+            throw e;
+        }
+    }
+
+    /** A chunk's view of the memory: its private slots in a frame of its own, products starting from 1, the rest shared. */
+    private static final class PrivateMemory extends Memory {
+
+        private final Memory shared;
+        private final boolean[] privates;
+
+        PrivateMemory(Memory shared, boolean[] privates, int[] products) {
+            super(shared.getSymbols());
+            this.shared = shared;
+            this.privates = privates;
+            for (int slot = 0; slot < privates.length; slot++) if (privates[slot]) super.put(slot, shared.get(slot));
+            for (int slot : products) super.put(slot, 1);
+        }
+
+        @Override
+        public int get(String id) {
+            int slot = getSymbols().lookup(id);
+            return (slot >= 0) ? get(slot) : 0;
+        }
+
+        @Override
+        public void put(String id, int value) { put(getSymbols().slotOf(id), value); }
+
+        @Override
+        public int get(int slot) { return isPrivate(slot) ? super.get(slot) : shared.get(slot); }
+
+        @Override
+        public void put(int slot, int value) {
+            if (isPrivate(slot)) super.put(slot, value);
+            else shared.put(slot, value);
+        }
+
+        @Override
+        public void add(int slot, int delta) {
+            if (isPrivate(slot)) super.add(slot, delta);
+            else shared.add(slot, delta);
+        }
+
+        @Override
+        public boolean isConcurrent() { return true; }
+
+        @Override
+        public ExecutionContext getContext() { return shared.getContext(); }
+
+        @Override
+        public Memory copy() {
+            Memory copy = shared.copy();
+            for (int slot = 0; slot < privates.length; slot++) if (privates[slot]) copy.put(slot, super.get(slot));
+            return copy;
+        }
+
+        @Override
+        public boolean hasFrame() { return false; }
+
+        /** @throws UnsupportedOperationException always: the values are split between two memories */
+        @Override
+        public int[] getFrame() {
+            throw new UnsupportedOperationException("compiled code cannot run on a parallel loop's memory");
+        }
+
+        private boolean isPrivate(int slot) { return slot < privates.length && privates[slot]; }
+    }
+}
@@ -0,0 +1,50 @@
+// Kyran Day, 10/17/2026.
+package kylang.statements;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import kylang.memory.Memory;
+import kylang.tree_nodes.NodeVisitor;
+import kylang.tree_nodes.StatementList;
+
+/**
+ * Starts its block on the {@link ForkJoinPool} and goes on at once; the
+ * next {@code join} in the same block waits for it. The block shares every
+ * variable with the code that spawned it, so until the join a variable the
+ * block assigns should only be read by that block, except for
+ * accumulations ({@code let s := s + e}), which are atomic. The enclosing
+ * {@link StatementList} starts it, on a concurrent memory; anywhere else
+ * the block simply runs in place.
+ * Grammar: Spawn_Stmt ::= "spawn" ":" EOL Statement_Block */
+public final class SpawnStatement extends Statement {
+
+    private final StatementList body;
+    private final JoinStatement join;
+
+    /**
+     * @param body the block to run
+     * @param join the statement that waits for it */
+    public SpawnStatement(StatementList body, JoinStatement join) {
+        this.body = body;
+        this.join = join;
+    }
+
+    public StatementList getBody() { return body; }
+    public JoinStatement getJoin() { return join; }
+
+    @Override
+    public void execute(Memory memory) {
+        body.execute(memory);
+    }
+
+    /**
+     * Starts the block on the current pool, or the common one.
+     *
+     * @param memory a concurrent memory
+     * @param spawned the blocks the next join of this execution waits for */
+    public void start(Memory memory, SpawnedTasks spawned) {
+        spawned.add(ForkJoinTask.adapt(() -> body.execute(memory)).fork());
+    }
+
+    @Override
+    public <R> R accept(NodeVisitor<R> visitor) { return visitor.visit(this); }
+}
@@ -0,0 +1,44 @@
+// Kyran Day, 10/17/2026.
+package kylang.statements;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * The blocks one execution of a statement block has spawned and not yet
+ * joined. Each execution keeps its own, so the tree holds no run-time
+ * state and blocks running the same code at once never wait for, or see
+ * the failures of, each other's spawns. */
+public final class SpawnedTasks {
+
+    private final ArrayList<ForkJoinTask<?>> tasks = new ArrayList<>();
+
+    /** Registers a running spawned block. */
+    void add(ForkJoinTask<?> task) { tasks.add(task); }
+
+    /**
+     * Waits for every block spawned so far. If any failed, the first
+     * failure in spawn order is thrown once all of them have finished. */
+    public void join() {
+        RuntimeException failure = null;
+        for (ForkJoinTask<?> task : tasks) {
+            try {
+                task.join();
+            } catch (RuntimeException e) {
+                if (failure == null) failure = thrown(e);
+            }
+        }
+        tasks.clear();
+        if (failure != null) throw failure;
+    }
+
+    /** Waits for every block spawned so far, ignoring their failures; for when the spawning block itself failed. */
+    public void abandon() {
+        for (ForkJoinTask<?> task : tasks) task.quietlyJoin();
+        tasks.clear();
+    }
+
+    /** @return the exception a block threw, which joining from another thread wraps in a copy of itself */
+    static RuntimeException thrown(RuntimeException e) {
+        return (e.getCause() != null && e.getCause().getClass() == e.getClass()) ? (RuntimeException) e.getCause() : e;
+    }
+}
@@ -1,6 +1,7 @@
 // Kyran Day, 12/07/2025
 package kylang.statements;
 import kylang.memory.Memory;
+import kylang.tree_nodes.NodeVisitor;
 /**
  * The Statement class serves as a blueprint for creating executable statements.
  * It is an abstract class that defines the structure for specific types of statements
@@ -11,4 +12,6 @@ public abstract class Statement {
     Statement() {}
 
     public abstract void execute(Memory memory);
+
+    public abstract <R> R accept(NodeVisitor<R> visitor);
 }
@@ -3,6 +3,8 @@ package kylang.statements;
 import kylang.tree_nodes.BooleanExpressionNode;
 import kylang.memory.Memory;
 import kylang.tree_nodes.StatementList;
+import kylang.tree_nodes.NodeVisitor;
+import kylang.jit.LoopTier;
 
 /**
  * Represents a while loop statement.
@@ -11,14 +13,44 @@ public class WhileStatement extends Statement {
     
     private BooleanExpressionNode condition;
     private StatementList body;
+    private LoopTier tier; // set only in tiered mode
     
     public WhileStatement(BooleanExpressionNode condition, StatementList body) {
         this.condition = condition;
         this.body = body;
     }
+
+    public BooleanExpressionNode getCondition() { return condition; }
+    public void setCondition(BooleanExpressionNode condition) { this.condition = condition; }
+    public StatementList getBody() { return body; }
+    public void setTier(LoopTier tier) { this.tier = tier; }
     
+    /**
+     * Executes the loop. In tiered mode every back-edge is counted, and once
+     * the loop is hot the remaining iterations continue in compiled code
+     * from the loop head, on the same memory.
+     *
+     * @param memory the execution memory/state */
     @Override
     public void execute(Memory memory) {
-        while (condition.evaluate(memory)) body.execute(memory);
+        LoopTier tier = memory.hasFrame() ? this.tier : null; // compiled code needs a plain frame
+        if (tier == null) {
+            while (condition.evaluate(memory)) body.execute(memory);
+            return;
+        }
+        if (tier.isCompiled()) {
+            tier.run(memory);
+            return;
+        }
+        while (condition.evaluate(memory)) {
+            body.execute(memory);
+            if (tier.backEdge()) { // promoted: the compiled loop re-tests the condition
+                tier.run(memory);
+                return;
+            }
+        }
     }
+
+    @Override
+    public <R> R accept(NodeVisitor<R> visitor) { return visitor.visit(this); }
 }
@@ -0,0 +1,38 @@
+// Kyran Day, 10/17/2026.
+package kylang.tree_nodes;
+
+/**
+ * The four integer arithmetic operators. Binary nodes decide theirs
+ * once, from the operator token, so evaluation never looks at a token. */
+public enum ArithmeticOperator {
+    ADD, SUBTRACT, MULTIPLY, DIVIDE;
+
+    /**
+     * @param type the operator token type
+     * @return the operator it stands for
+     * @throws IllegalStateException if the token is not an arithmetic operator */
+    public static ArithmeticOperator of(Token.Type type) {
+        return switch (type) {
+            case ADD -> ADD;
+            case SUBTRACT -> SUBTRACT;
+            case MULTI -> MULTIPLY;
+            case DIVIDE -> DIVIDE;
+            default -> throw new IllegalStateException("Bad arithmetic token: " + type);
+        };
+    }
+
+    /** Applies the operator with 32-bit wraparound; division by zero throws. */
+    public int apply(int left, int right) {
+        switch (this) {
+            case ADD: return left + right;
+            case SUBTRACT: return left - right;
+            case MULTIPLY: return left * right;
+            default:
+                if (right == 0) throw new ArithmeticException("divide by zero");
+                return left / right;
+        }
+    }
+
+    /** @return true for + and * */
+    public boolean isCommutative() { return this == ADD || this == MULTIPLY; }
+}
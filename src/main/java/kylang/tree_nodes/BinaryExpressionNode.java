@@ -9,22 +9,29 @@ public final class BinaryExpressionNode extends ExpressionNode {
     final ExpressionNode left; // child non-terminal
     final Token op;            // terminal: ADD or SUBTRACT
     final TermNode right;      // child non-terminal
+    private final boolean subtract; // decided once from the token
 
     public BinaryExpressionNode(ExpressionNode left, Token op, TermNode right) {
         this.left = left;
         this.op = op;
         this.right = right;
+        this.subtract = op.getType() == Token.Type.SUBTRACT;
+        if (!subtract && op.getType() != Token.Type.ADD) throw new IllegalStateException("Bad +/− token: " + op.getType());
     }
 
+    public ExpressionNode getLeft() { return left; }
+    public Token getOp() { return op; }
+    public TermNode getRight() { return right; }
+    public ArithmeticOperator getOperator() { return subtract ? ArithmeticOperator.SUBTRACT : ArithmeticOperator.ADD; }
+
     @Override
     public int evaluate(Memory memory) {
         // post-order: evaluate children, then combine
         int L = left.evaluate(memory);
         int R = right.evaluate(memory);
-        return switch (op.getType()) {
-            case "ADD" -> L + R;
-            case "SUBTRACT" -> L - R;
-            default -> throw new IllegalStateException("Bad +/− token: " + op.getType());
-        };
+        return subtract ? L - R : L + R;
     }
+
+    @Override
+    public <R> R accept(NodeVisitor<R> visitor) { return visitor.visit(this); }
 }
@@ -10,24 +10,35 @@ public final class BinaryTermNode extends TermNode {
     final TermNode left;   // child non-terminal
     final Token op;        // terminal: MULTI or DIVIDE
     final FactorNode right;// child non-terminal
+    private final boolean divide; // decided once from the token
+    private boolean divisorNonZero; // proven by range analysis: this division cannot throw
 
     public BinaryTermNode(TermNode left, Token op, FactorNode right) {
         this.left = left;
         this.op = op;
         this.right = right;
+        this.divide = op.getType() == Token.Type.DIVIDE;
+        if (!divide && op.getType() != Token.Type.MULTI) throw new IllegalStateException("Bad */ token: " + op.getType());
     }
 
+    public TermNode getLeft() { return left; }
+    public Token getOp() { return op; }
+    public FactorNode getRight() { return right; }
+    public ArithmeticOperator getOperator() { return divide ? ArithmeticOperator.DIVIDE : ArithmeticOperator.MULTIPLY; }
+
+    /** @return true if the divisor was proven never to be 0 where this division is evaluated */
+    public boolean isDivisorNonZero() { return divisorNonZero; }
+    public void markDivisorNonZero() { divisorNonZero = true; }
+
     @Override
     public int evaluate(Memory memory) {
         int L = left.evaluate(memory);
         int R = right.evaluate(memory);
-        return switch (op.getType()) {
-            case "MULTI" -> L * R;
-            case "DIVIDE" -> {
-                if (R == 0) throw new ArithmeticException("divide by zero");
-                yield L / R;
-            }
-            default -> throw new IllegalStateException("Bad */ token: " + op.getType());
-        };
+        if (!divide) return L * R;
+        if (R == 0) throw new ArithmeticException("divide by zero");
+        return L / R;
     }
+
+    @Override
+    public <R> R accept(NodeVisitor<R> visitor) { return visitor.visit(this); }
 }
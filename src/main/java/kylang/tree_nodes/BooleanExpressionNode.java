@@ -6,4 +6,7 @@ import kylang.memory.Memory;
 /**
  * Abstract base for all boolean expression nodes.
  * Boolean expressions evaluate to a boolean value. */
-public abstract class BooleanExpressionNode { public abstract boolean evaluate(Memory memory); }
+public abstract class BooleanExpressionNode {
+    public abstract boolean evaluate(Memory memory);
+    public abstract <R> R accept(NodeVisitor<R> visitor);
+}
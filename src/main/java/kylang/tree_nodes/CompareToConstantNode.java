@@ -0,0 +1,39 @@
+// Kyran Day, 10/17/2026.
+package kylang.tree_nodes;
+
+import kylang.memory.Memory;
+
+/**
+ * Fused form of a relational test between one variable and a literal,
+ * e.g. {@code while z < 10}: a single slot read and compare instead of
+ * two expression chains. Produced by {@code kylang.parser.Fusion};
+ * visitors see the relational expression it replaces. */
+public final class CompareToConstantNode extends BooleanExpressionNode {
+
+    private final RelationalExpressionNode original;
+    private final int slot;
+    private final RelationalOperator relop;
+    private final int constant;
+
+    /**
+     * @param original the relational expression this node replaces
+     * @param slot the resolved slot of the variable
+     * @param relop the relational operator, with the variable on the left
+     * @param constant the literal on the right */
+    public CompareToConstantNode(RelationalExpressionNode original, int slot, RelationalOperator relop, int constant) {
+        this.original = original;
+        this.slot = slot;
+        this.relop = relop;
+        this.constant = constant;
+    }
+
+    public RelationalExpressionNode getOriginal() { return original; }
+
+    @Override
+    public boolean evaluate(Memory memory) {
+        return relop.test(memory.get(slot), constant);
+    }
+
+    @Override
+    public <R> R accept(NodeVisitor<R> visitor) { return original.accept(visitor); }
+}
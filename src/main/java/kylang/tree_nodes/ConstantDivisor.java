@@ -0,0 +1,90 @@
+// Kyran Day, 10/17/2026.
+package kylang.tree_nodes;
+
+/**
+ * ConstantDivisor
+ * ------------------------------------------------------------
+ * Division by a fixed non-zero int without a hardware divide, with
+ * exactly the result of Java's {@code x / divisor} (rounding toward
+ * zero, {@code MIN_VALUE / -1 == MIN_VALUE}).
+ * <ul>
+ *   <li>A power of two {@code 2^k} is an arithmetic shift, after adding
+ *       {@code 2^k - 1} to a negative dividend so it rounds toward zero.</li>
+ *   <li>Any other divisor is a multiply-high by a precomputed magic
+ *       number followed by a shift (Hacker's Delight, 10-1).</li>
+ *   <li>1, -1 and {@code MIN_VALUE} are divided normally.</li>
+ * </ul>
+ * A negative power of two divides by its magnitude and negates. */
+public final class ConstantDivisor {
+
+    private static final int PLAIN = 0, SHIFT = 1, MAGIC = 2;
+
+    private final int divisor;
+    private final int kind;
+    private final int magic;   // MAGIC: the multiplier
+    private final int shift;   // SHIFT, MAGIC: the final right shift
+    private final int addend;  // MAGIC: +1, -1 or 0 times the dividend, added to the high product
+    private final boolean negate; // SHIFT: the divisor is negative
+
+    /**
+     * @param divisor the divisor, not 0 */
+    public ConstantDivisor(int divisor) {
+        if (divisor == 0) throw new IllegalArgumentException("divisor is 0");
+        this.divisor = divisor;
+        long magnitude = Math.abs((long) divisor);
+        if (magnitude == 1 || divisor == Integer.MIN_VALUE) {
+            kind = PLAIN;
+            magic = shift = addend = 0;
+            negate = false;
+        } else if ((magnitude & (magnitude - 1)) == 0) {
+            kind = SHIFT;
+            shift = Long.numberOfTrailingZeros(magnitude);
+            negate = divisor < 0;
+            magic = addend = 0;
+        } else {
+            kind = MAGIC;
+            negate = false;
+            // Find the smallest p >= 32 for which 2^p / |divisor| rounded up is exact for every int dividend
+            long twoTo31 = 1L << 31;
+            long t = twoTo31 + (divisor < 0 ? 1 : 0);
+            long anc = t - 1 - t % magnitude; // |nc|, the largest dividend with remainder |divisor| - 1
+            int p = 31;
+            long q1 = twoTo31 / anc, r1 = twoTo31 - q1 * anc;
+            long q2 = twoTo31 / magnitude, r2 = twoTo31 - q2 * magnitude;
+            long delta;
+            do {
+                p++;
+                q1 *= 2;
+                r1 *= 2;
+                if (r1 >= anc) { q1++; r1 -= anc; }
+                q2 *= 2;
+                r2 *= 2;
+                if (r2 >= magnitude) { q2++; r2 -= magnitude; }
+                delta = magnitude - r2;
+            } while (q1 < delta || (q1 == delta && r1 == 0));
+            int m = (int) (q2 + 1);
+            magic = (divisor < 0) ? -m : m;
+            shift = p - 32;
+            addend = (divisor > 0 && magic < 0) ? 1 : (divisor < 0 && magic > 0) ? -1 : 0;
+        }
+    }
+
+    public int getDivisor() { return divisor; }
+
+    /** @return {@code dividend / divisor} */
+    public int divide(int dividend) {
+        switch (kind) {
+            case SHIFT: {
+                int q = (dividend + ((dividend >> 31) >>> (32 - shift))) >> shift;
+                return negate ? -q : q;
+            }
+            case MAGIC: {
+                int q = (int) ((dividend * (long) magic) >> 32) + addend * dividend;
+                q >>= shift;
+                return q + (q >>> 31);
+            }
+            default:
+                return dividend / divisor;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+// Kyran Day, 10/17/2026.
+package kylang.tree_nodes;
+
+import kylang.memory.Memory;
+
+/**
+ * Strength-reduced form of {@code t / k} for a non-zero literal {@code k}:
+ * a shift or multiply-high by a {@link ConstantDivisor} instead of a
+ * hardware divide, with no zero check and no visit to the literal.
+ * Produced by {@code kylang.optimizer.StrengthReduction}; visitors see
+ * the term it replaces. */
+public final class DivideByConstantNode extends TermNode {
+
+    private final BinaryTermNode original;
+    private final TermNode dividend;
+    private final ConstantDivisor divisor;
+
+    /**
+     * @param original the division this node replaces
+     * @param dividend its left operand
+     * @param divisor its literal right operand, not 0 */
+    public DivideByConstantNode(BinaryTermNode original, TermNode dividend, int divisor) {
+        this.original = original;
+        this.dividend = dividend;
+        this.divisor = new ConstantDivisor(divisor);
+    }
+
+    public BinaryTermNode getOriginal() { return original; }
+
+    @Override
+    public int evaluate(Memory memory) {
+        return divisor.divide(dividend.evaluate(memory));
+    }
+
+    @Override
+    public <R> R accept(NodeVisitor<R> visitor) { return original.accept(visitor); }
+}
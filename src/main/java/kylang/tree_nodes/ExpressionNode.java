@@ -5,4 +5,7 @@ import kylang.memory.Memory;
 
 /** Abstract base for all expression nodes.
  * Serves as the root type of the parse tree. */
-public abstract class ExpressionNode { public abstract int evaluate(Memory memory); }
+public abstract class ExpressionNode {
+    public abstract int evaluate(Memory memory);
+    public abstract <R> R accept(NodeVisitor<R> visitor);
+}
@@ -7,4 +7,7 @@ import kylang.memory.Memory;
  * Abstract base for all factor nodes.
  * Factors are the leaves of the expression hierarchy.
  */
-public abstract class FactorNode { abstract int evaluate(Memory memory); }
+public abstract class FactorNode {
+    abstract int evaluate(Memory memory);
+    public abstract <R> R accept(NodeVisitor<R> visitor);
+}
@@ -8,13 +8,22 @@ import kylang.memory.Memory;
  * Grammar: Factor ::= Id */
 public final class IdentifierFactorNode extends FactorNode {
     final Token identifier;  // terminal: IDENTIFIER
+    private int slot = -1;   // memory slot, assigned by the resolver
 
     public IdentifierFactorNode(Token identifier) {
         this.identifier = identifier;
     }
 
+    public Token getIdentifier() { return identifier; }
+    public String getName() { return identifier.getLEXEME(); }
+    public int getSlot() { return slot; }
+    public void setSlot(int slot) { this.slot = slot; }
+
     @Override
     int evaluate(Memory memory) {
-        return memory.get(identifier.getLEXEME());
+        return memory.get(slot);
     }
+
+    @Override
+    public <R> R accept(NodeVisitor<R> visitor) { return visitor.visit(this); }
 }
@@ -14,7 +14,13 @@ public final class MinusFactorNode extends FactorNode {
         this.expr = expr;
     }
 
+    public Token getMinus() { return minus; }
+    public ExpressionNode getExpr() { return expr; }
+
     @Override
     public int evaluate(Memory memory) { return -expr.evaluate(memory); }
+
+    @Override
+    public <R> R accept(NodeVisitor<R> visitor) { return visitor.visit(this); }
 }
 
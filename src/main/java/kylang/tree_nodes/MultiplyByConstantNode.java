@@ -0,0 +1,40 @@
+// Kyran Day, 10/17/2026.
+package kylang.tree_nodes;
+
+import kylang.memory.Memory;
+
+/**
+ * Strength-reduced form of {@code t * k} for a literal {@code k}: a shift
+ * when {@code k} is a power of two, otherwise a multiply by a constant
+ * field, without a visit to the literal. Produced by
+ * {@code kylang.optimizer.StrengthReduction}; visitors see the term it
+ * replaces. */
+public final class MultiplyByConstantNode extends TermNode {
+
+    private final BinaryTermNode original;
+    private final TermNode factor;
+    private final int constant;
+    private final int shift; // log2 of the constant, or -1 if it is not a power of two
+
+    /**
+     * @param original the multiplication this node replaces
+     * @param factor its left operand
+     * @param constant its literal right operand */
+    public MultiplyByConstantNode(BinaryTermNode original, TermNode factor, int constant) {
+        this.original = original;
+        this.factor = factor;
+        this.constant = constant;
+        this.shift = (constant > 0 && (constant & (constant - 1)) == 0) ? Integer.numberOfTrailingZeros(constant) : -1;
+    }
+
+    public BinaryTermNode getOriginal() { return original; }
+
+    @Override
+    public int evaluate(Memory memory) {
+        int value = factor.evaluate(memory);
+        return (shift >= 0) ? value << shift : value * constant;
+    }
+
+    @Override
+    public <R> R accept(NodeVisitor<R> visitor) { return original.accept(visitor); }
+}
@@ -0,0 +1,76 @@
+// Kyran Day, 10/17/2026.
+package kylang.tree_nodes;
+import kylang.memory.SymbolTable;
+
+/**
+ * Helpers that see through the grammar's wrapper nodes (unary expressions,
+ * unary terms and parentheses) to recognize the simplest expression shapes:
+ * a bare literal or a bare variable, and accumulations. Used by the passes
+ * and compilers that special-case those operands. */
+public final class NodeShapes {
+
+    private NodeShapes() {}
+
+    /**
+     * Returns the constant value of a node that is only a literal, possibly
+     * wrapped in unary terms, parentheses or minus signs.
+     *
+     * @param node an expression, term or factor node
+     * @return the literal's value, or null if the node is not a literal */
+    public static Integer literal(Object node) {
+        if (node instanceof UnaryExpressionNode) return literal(((UnaryExpressionNode) node).getTerm());
+        if (node instanceof UnaryTermNode) return literal(((UnaryTermNode) node).getFactor());
+        if (node instanceof ParenFactorNode) return literal(((ParenFactorNode) node).getExpr());
+        if (node instanceof NumberFactorNode) { // an out-of-range literal is not a constant: it throws when evaluated
+            NumberFactorNode number = (NumberFactorNode) node;
+            return number.isInRange() ? number.getValue() : null;
+        }
+        if (node instanceof MinusFactorNode) {
+            Integer inner = literal(((MinusFactorNode) node).getExpr());
+            return (inner != null) ? -inner : null;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the identifier of a node that is only a variable reference,
+     * possibly wrapped in unary terms or parentheses.
+     *
+     * @param node an expression, term or factor node
+     * @return the identifier node, or null if the node is not a bare variable */
+    public static IdentifierFactorNode variable(Object node) {
+        if (node instanceof UnaryExpressionNode) return variable(((UnaryExpressionNode) node).getTerm());
+        if (node instanceof UnaryTermNode) return variable(((UnaryTermNode) node).getFactor());
+        if (node instanceof ParenFactorNode) return variable(((ParenFactorNode) node).getExpr());
+        if (node instanceof IdentifierFactorNode) return (IdentifierFactorNode) node;
+        return null;
+    }
+
+    /**
+     * Returns what an accumulation of a variable adds to it: {@code e} for
+     * {@code x + e} and {@code e + x}, {@code -e} for {@code x - e},
+     * {@code a - b} for {@code x + a - b} and the like, and 0 for {@code x}
+     * itself (what {@code x + 0} folds to).
+     *
+     * @param expr the expression assigned to the variable
+     * @param name the variable's identifier, in any case
+     * @return the added expression, or null if the expression does not add to the variable */
+    public static ExpressionNode increment(ExpressionNode expr, String name) {
+        if (isNamed(expr, name))
+            return new UnaryExpressionNode(new UnaryTermNode(new NumberFactorNode(new Token(0, 0, "0", Token.Type.INT_LIT))));
+        if (!(expr instanceof BinaryExpressionNode)) return null;
+        BinaryExpressionNode sum = (BinaryExpressionNode) expr;
+        boolean subtract = sum.getOperator() == ArithmeticOperator.SUBTRACT;
+        if (isNamed(sum.getLeft(), name)) return new UnaryExpressionNode(subtract
+                ? new UnaryTermNode(new MinusFactorNode(sum.getOp(), new UnaryExpressionNode(sum.getRight())))
+                : sum.getRight());
+        if (!subtract && isNamed(sum.getRight(), name)) return sum.getLeft();
+        ExpressionNode rest = increment(sum.getLeft(), name);
+        return (rest != null) ? new BinaryExpressionNode(rest, sum.getOp(), sum.getRight()) : null;
+    }
+
+    private static boolean isNamed(Object node, String name) { // before resolution, so by name; names ignore case
+        IdentifierFactorNode variable = variable(node);
+        return variable != null && SymbolTable.canonical(variable.getName()).equals(SymbolTable.canonical(name));
+    }
+}
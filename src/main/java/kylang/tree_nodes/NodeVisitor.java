@@ -0,0 +1,39 @@
+// Kyran Day, 10/17/2026.
+package kylang.tree_nodes;
+
+import kylang.statements.*;
+
+/**
+ * Visitor over every statement and expression node of the parse tree.
+ * Passes that run between {@code Parser.parse} and execution (resolution,
+ * optimization, lowering to other engines) implement this interface instead
+ * of adding one more method to every node class.
+ *
+ * @param <R> the result type produced for each visited node */
+public interface NodeVisitor<R> {
+
+    // Statements
+    R visit(AssignmentStatement stmt);
+    R visit(DisplayStatement stmt);
+    R visit(InputStatement stmt);
+    R visit(IfStatement stmt);
+    R visit(WhileStatement stmt);
+    R visit(ForStatement stmt);
+    R visit(SpawnStatement stmt);
+    R visit(JoinStatement stmt);
+
+    // Arithmetic expressions
+    R visit(BinaryExpressionNode node);
+    R visit(UnaryExpressionNode node);
+    R visit(BinaryTermNode node);
+    R visit(UnaryTermNode node);
+
+    // Factors
+    R visit(IdentifierFactorNode node);
+    R visit(NumberFactorNode node);
+    R visit(ParenFactorNode node);
+    R visit(MinusFactorNode node);
+
+    // Boolean expressions
+    R visit(RelationalExpressionNode node);
+}
@@ -7,11 +7,29 @@ import kylang.memory.Memory;
  * Grammar: Number ::= INT_LIT */
 public final class NumberFactorNode extends FactorNode {
     final Token intLit;          // terminal: INT_LIT
+    private final int value;     // parsed once; 0 with inRange false if it does not fit an int
+    private final boolean inRange;
 
     public NumberFactorNode(Token intLit) {
         this.intLit = intLit;
+        int parsed = 0;
+        boolean fits = true;
+        try {
+            parsed = Integer.parseInt(intLit.getLEXEME());
+        } catch (NumberFormatException e) {
+            fits = false; // reported when the literal is first used, as before
+        }
+        this.value = parsed;
+        this.inRange = fits;
     }
 
+    public Token getIntLit() { return intLit; }
+    public boolean isInRange() { return inRange; }
+    public int getValue() { return inRange ? value : Integer.parseInt(intLit.getLEXEME()); }
+
+    @Override
+    public int evaluate(Memory memory) { return inRange ? value : Integer.parseInt(intLit.getLEXEME()); }
+
     @Override
-    public int evaluate(Memory memory) { return Integer.parseInt(intLit.getLEXEME()); }
+    public <R> R accept(NodeVisitor<R> visitor) { return visitor.visit(this); }
 }
@@ -16,6 +16,13 @@ public final class ParenFactorNode extends FactorNode {
         this.rparen = rparen;
     }
 
+    public Token getLparen() { return lparen; }
+    public ExpressionNode getExpr() { return expr; }
+    public Token getRparen() { return rparen; }
+
     @Override
     public int evaluate(Memory memory) { return expr.evaluate(memory); }
+
+    @Override
+    public <R> R accept(NodeVisitor<R> visitor) { return visitor.visit(this); }
 }
@@ -11,27 +11,27 @@ public final class RelationalExpressionNode extends BooleanExpressionNode {
     final ExpressionNode left;  // left arithmetic expression
     final Token relop;          // relational operator token
     final ExpressionNode right; // right arithmetic expression
+    private final RelationalOperator operator; // decided once from the token
 
     public RelationalExpressionNode(ExpressionNode left, Token relop, ExpressionNode right) {
         this.left = left;
         this.relop = relop;
         this.right = right;
+        this.operator = RelationalOperator.of(relop.getType());
     }
 
+    public ExpressionNode getLeft() { return left; }
+    public Token getRelop() { return relop; }
+    public ExpressionNode getRight() { return right; }
+    public RelationalOperator getOperator() { return operator; }
+
     @Override
     public boolean evaluate(Memory memory) {
         int leftVal = left.evaluate(memory);
         int rightVal = right.evaluate(memory);
-        
-        return switch (relop.getType()) {
-            case "LT" -> leftVal < rightVal;
-            case "LE" -> leftVal <= rightVal;
-            case "GT" -> leftVal > rightVal;
-            case "GE" -> leftVal >= rightVal;
-            case "EQ" -> leftVal == rightVal;
-            case "NE" -> leftVal != rightVal;
-           // case "EQUAL" -> leftVal == rightVal;
-            default -> throw new IllegalStateException("Bad relational operator: " + relop.getType());
-        };
+        return operator.test(leftVal, rightVal);
     }
+
+    @Override
+    public <R> R accept(NodeVisitor<R> visitor) { return visitor.visit(this); }
 }
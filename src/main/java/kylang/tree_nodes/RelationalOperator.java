@@ -0,0 +1,59 @@
+// Kyran Day, 10/17/2026.
+package kylang.tree_nodes;
+
+/**
+ * The six relational operators, decided once when a relational
+ * expression is built. */
+public enum RelationalOperator {
+    LT, LE, GT, GE, EQ, NE;
+
+    /**
+     * @param type the operator token type
+     * @return the operator it stands for
+     * @throws IllegalStateException if the token is not a relational operator */
+    public static RelationalOperator of(Token.Type type) {
+        return switch (type) {
+            case LT -> LT;
+            case LE -> LE;
+            case GT -> GT;
+            case GE -> GE;
+            case EQ -> EQ;
+            case NE -> NE;
+            default -> throw new IllegalStateException("Bad relational operator: " + type);
+        };
+    }
+
+    public boolean test(int left, int right) {
+        switch (this) {
+            case LT: return left < right;
+            case LE: return left <= right;
+            case GT: return left > right;
+            case GE: return left >= right;
+            case EQ: return left == right;
+            default: return left != right;
+        }
+    }
+
+    /** @return the operator that gives the same answer with the operands swapped */
+    public RelationalOperator mirror() {
+        return switch (this) {
+            case LT -> GT;
+            case LE -> GE;
+            case GT -> LT;
+            case GE -> LE;
+            default -> this;
+        };
+    }
+
+    /** @return the operator that gives the opposite answer */
+    public RelationalOperator negate() {
+        return switch (this) {
+            case LT -> GE;
+            case LE -> GT;
+            case GT -> LE;
+            case GE -> LT;
+            case EQ -> NE;
+            case NE -> EQ;
+        };
+    }
+}
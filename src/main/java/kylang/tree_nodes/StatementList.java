@@ -1,8 +1,12 @@
 // Kyran Day, 12/07/2025.
 package kylang.tree_nodes;
 import kylang.memory.Memory;
+import kylang.statements.JoinStatement;
+import kylang.statements.SpawnStatement;
+import kylang.statements.SpawnedTasks;
 import kylang.statements.Statement;
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Represents a list of statements (the program start symbol).
@@ -19,9 +23,40 @@ public class StatementList {
         statements.add(stmt);
     }
 
+    public List<Statement> getStatements() { return statements; }
+
+    /** Replaces the statement at a position, e.g. with a specialized equivalent. */
+    public void replaceStatement(int index, Statement stmt) {
+        statements.set(index, stmt);
+    }
+
+    /** Replaces every statement, e.g. after a pass removed or inserted some. */
+    public void setStatements(List<Statement> replacement) {
+        statements.clear();
+        statements.addAll(replacement);
+    }
+
+    /**
+     * Runs the statements in order. On a concurrent memory a spawned block
+     * starts on the pool and a join waits for the blocks spawned before it
+     * in this execution; if a statement fails first, those are waited for
+     * before the failure goes on. */
     public void execute(Memory memory) {
-        for (Statement stmt : statements) {
-            stmt.execute(memory);
+        SpawnedTasks spawned = null; // per execution: the tree itself holds no run-time state
+        try {
+            for (Statement stmt : statements) {
+                if (stmt instanceof SpawnStatement && memory.isConcurrent()) {
+                    if (spawned == null) spawned = new SpawnedTasks();
+                    ((SpawnStatement) stmt).start(memory, spawned);
+                } else if (stmt instanceof JoinStatement) {
+                    if (spawned != null) spawned.join();
+                } else {
+                    stmt.execute(memory);
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            if (spawned != null) spawned.abandon(); // none may still be writing
+            throw e;
         }
     }
 }
@@ -3,21 +3,19 @@ package kylang.tree_nodes;
 /** Represents a token in a lexical analysis process.
  * A token stores its position (row, column), the lexeme string,
  * and a token type (determined from the lexeme).
- * The {@code TreeNodes.Token} class encapsulates its enum {@code type} for
- * better modularity, restricting external code from directly
- * manipulating token categories. */
+ * The parser and tree nodes dispatch on the public {@link Type} enum
+ * rather than comparing type names. */
 public class Token {
 
     private final int ROW, COLUMN;
     private final String LEXEME;
 
-    /** Enum representing all possible token types.
-     *  Fully encapsulated within this class. */
-    private enum type {
+    /** Enum representing all possible token types. */
+    public enum Type {
         ADD, SUBTRACT, MULTI, DIVIDE, LEFT_PAREN, RIGHT_PAREN, INT_LIT, IDENTIFIER, UNDEF, DISPLAY, LET, ASSIGN,
-        INPUT, IF, ELIF, ELSE, WHILE, FOR, IN, COLON, LT, LE, GT, GE, EQ, NE, INDENT, DEDENT, RANGE, EOL
+        INPUT, IF, ELIF, ELSE, WHILE, FOR, IN, PARALLEL, SPAWN, JOIN, COLON, LT, LE, GT, GE, EQ, NE, INDENT, DEDENT, RANGE, EOL
     }
-    private final type TYPE;
+    private final Type TYPE;
 
     /** Constructs a {@code TreeNodes.Token} with the given position and lexeme.
      * Performs error checking to ensure the lexeme is valid and
@@ -37,15 +35,33 @@ public class Token {
             throw new IllegalArgumentException("Lexeme cannot be blank");
         if (row < 0 || column < 0)
             throw new IllegalArgumentException("Negative row or col in TreeNodes.Token constructor");
-        if (stringToType(lexeme) == type.UNDEF)
+        Type mapped = stringToType(lexeme);
+        if (mapped == Type.UNDEF)
             throw new IllegalArgumentException("LEXEME \"" + lexeme + "\" cannot be mapped to a valid TYPE at row "
                     + row + ", col " + column);
         LEXEME = lexeme;
-        TYPE = stringToType(lexeme);
+        TYPE = mapped;
+    }
+
+    /** Constructs a {@code Token} whose type the caller has already decided,
+     * e.g. the source scanner, which knows it from the state it ended in.
+     *
+     * @param row     the row number where the token was found (must be non-negative)
+     * @param column  the column number where the token was found (must be non-negative)
+     * @param lexeme  the raw string representation of the token
+     * @param type    the token type of the lexeme
+     * @throws IllegalArgumentException if row or column are negative */
+    public Token(int row, int column, String lexeme, Type type) {
+        if (row < 0 || column < 0)
+            throw new IllegalArgumentException("Negative row or col in TreeNodes.Token constructor");
+        ROW = row;
+        COLUMN = column;
+        LEXEME = lexeme;
+        TYPE = type;
     }
 
     // Public accessors:
-    public String getType() { return TYPE.toString(); }
+    public Type getType() { return TYPE; }
     public int getRow() { return ROW; }
     public int getCOLUMN() { return COLUMN; }
     public String getLEXEME() { return LEXEME; }
@@ -58,44 +74,66 @@ public class Token {
     }
 
     // Private helper methods:
-    /** Converts a given lexeme string into its corresponding {@code type}.
+    /** Converts a given lexeme string into its corresponding {@code Type}.
      * Recognizes operators, parentheses, semicolon, integer literals, identifiers,
      * assignment operators, input keyword, let keyword, display keyword, and new control flow keywords.
      *
      * @param lexeme the string to convert
-     * @return the corresponding {@code type}, or {@code UNDEF} if no match */
-    private static type stringToType(String lexeme) {
+     * @return the corresponding {@code Type}, or {@code UNDEF} if no match */
+    private static Type stringToType(String lexeme) {
         return switch (lexeme) {
-            case "+" -> type.ADD;
-            case "-" -> type.SUBTRACT;
-            case "*" -> type.MULTI;
-            case "/" -> type.DIVIDE;
-            case "(" -> type.LEFT_PAREN;
-            case ")" -> type.RIGHT_PAREN;
-            case ";" -> type.EOL;
-            case ":" -> type.COLON;
-            case "display" -> type.DISPLAY;
-            case "let" -> type.LET;
-            case ":=" -> type.ASSIGN;
-            case "input" -> type.INPUT;
-            case "if" -> type.IF;
-            case "elif" -> type.ELIF;
-            case "else" -> type.ELSE;
-            case "while" -> type.WHILE;
-            case "for" -> type.FOR;
-            case "in" -> type.IN;
-            case "<" -> type.LT;
-            case "<=" -> type.LE;
-            case ">" -> type.GT;
-            case ">=" -> type.GE;
-            case "=" -> type.EQ;
-            case "/=" -> type.NE;
-            case ".." -> type.RANGE;
+            case "+" -> Type.ADD;
+            case "-" -> Type.SUBTRACT;
+            case "*" -> Type.MULTI;
+            case "/" -> Type.DIVIDE;
+            case "(" -> Type.LEFT_PAREN;
+            case ")" -> Type.RIGHT_PAREN;
+            case ";" -> Type.EOL;
+            case ":" -> Type.COLON;
+            case "display" -> Type.DISPLAY;
+            case "let" -> Type.LET;
+            case ":=" -> Type.ASSIGN;
+            case "input" -> Type.INPUT;
+            case "if" -> Type.IF;
+            case "elif" -> Type.ELIF;
+            case "else" -> Type.ELSE;
+            case "while" -> Type.WHILE;
+            case "for" -> Type.FOR;
+            case "in" -> Type.IN;
+            case "parallel" -> Type.PARALLEL;
+            case "spawn" -> Type.SPAWN;
+            case "join" -> Type.JOIN;
+            case "<" -> Type.LT;
+            case "<=" -> Type.LE;
+            case ">" -> Type.GT;
+            case ">=" -> Type.GE;
+            case "=" -> Type.EQ;
+            case "/=" -> Type.NE;
+            case ".." -> Type.RANGE;
             default -> { // Check if lexeme is an integer literal, identifier, or undefined
-                if (lexeme.matches("\\d+")) yield type.INT_LIT;
-                else if (lexeme.matches("(?i)[a-z][a-z0-9_]*")) yield type.IDENTIFIER;
-                else yield type.UNDEF; // Otherwise, undefined
+                if (isIntLiteral(lexeme)) yield Type.INT_LIT;
+                else if (isIdentifier(lexeme)) yield Type.IDENTIFIER;
+                else yield Type.UNDEF; // Otherwise, undefined
             }
         };
     }
+
+    /** @return true if the lexeme is one or more ASCII digits ({@code \d+}) */
+    private static boolean isIntLiteral(String lexeme) {
+        for (int i = 0; i < lexeme.length(); i++) {
+            char c = lexeme.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return !lexeme.isEmpty();
+    }
+
+    /** @return true if the lexeme is a letter followed by letters, digits or underscores ({@code (?i)[a-z][a-z0-9_]*}) */
+    private static boolean isIdentifier(String lexeme) {
+        for (int i = 0; i < lexeme.length(); i++) {
+            char c = lexeme.charAt(i);
+            boolean letter = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+            if (!letter && (i == 0 || c != '_' && (c < '0' || c > '9'))) return false;
+        }
+        return !lexeme.isEmpty();
+    }
 }
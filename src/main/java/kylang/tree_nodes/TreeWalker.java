@@ -0,0 +1,99 @@
+// Kyran Day, 10/17/2026.
+package kylang.tree_nodes;
+
+import kylang.statements.*;
+
+/**
+ * Base class for passes that walk the whole tree without producing a value.
+ * Every visit simply descends into the node's children, so a pass only
+ * overrides the nodes it cares about (calling {@code super} to keep walking). */
+public abstract class TreeWalker implements NodeVisitor<Void> {
+
+    /** Visits every statement of a block; a null block is ignored. */
+    public void walk(StatementList list) {
+        if (list == null) return;
+        for (Statement stmt : list.getStatements()) stmt.accept(this);
+    }
+
+    // ==== Statements ====
+
+    @Override
+    public Void visit(AssignmentStatement stmt) { return stmt.getExpression().accept(this); }
+
+    @Override
+    public Void visit(DisplayStatement stmt) { return null; }
+
+    @Override
+    public Void visit(InputStatement stmt) { return null; }
+
+    @Override
+    public Void visit(IfStatement stmt) {
+        stmt.getCondition().accept(this);
+        walk(stmt.getThenBlock());
+        if (stmt.getElifChain() != null) stmt.getElifChain().accept(this);
+        walk(stmt.getElseBlock());
+        return null;
+    }
+
+    @Override
+    public Void visit(WhileStatement stmt) {
+        stmt.getCondition().accept(this);
+        walk(stmt.getBody());
+        return null;
+    }
+
+    @Override
+    public Void visit(ForStatement stmt) {
+        stmt.getStartExpr().accept(this);
+        stmt.getEndExpr().accept(this);
+        walk(stmt.getBody());
+        return null;
+    }
+
+    @Override
+    public Void visit(SpawnStatement stmt) {
+        walk(stmt.getBody());
+        return null;
+    }
+
+    @Override
+    public Void visit(JoinStatement stmt) { return null; }
+
+    // ==== Expressions ====
+
+    @Override
+    public Void visit(BinaryExpressionNode node) {
+        node.getLeft().accept(this);
+        return node.getRight().accept(this);
+    }
+
+    @Override
+    public Void visit(UnaryExpressionNode node) { return node.getTerm().accept(this); }
+
+    @Override
+    public Void visit(BinaryTermNode node) {
+        node.getLeft().accept(this);
+        return node.getRight().accept(this);
+    }
+
+    @Override
+    public Void visit(UnaryTermNode node) { return node.getFactor().accept(this); }
+
+    @Override
+    public Void visit(IdentifierFactorNode node) { return null; }
+
+    @Override
+    public Void visit(NumberFactorNode node) { return null; }
+
+    @Override
+    public Void visit(ParenFactorNode node) { return node.getExpr().accept(this); }
+
+    @Override
+    public Void visit(MinusFactorNode node) { return node.getExpr().accept(this); }
+
+    @Override
+    public Void visit(RelationalExpressionNode node) {
+        node.getLeft().accept(this);
+        return node.getRight().accept(this);
+    }
+}
@@ -14,9 +14,14 @@ public final class UnaryExpressionNode extends ExpressionNode {
         this.term = term;
     }
 
+    public TermNode getTerm() { return term; }
+
     @Override
     public int evaluate(Memory memory) {
         // post-order, child first
         return term.evaluate(memory);
     }
+
+    @Override
+    public <R> R accept(NodeVisitor<R> visitor) { return visitor.visit(this); }
 }
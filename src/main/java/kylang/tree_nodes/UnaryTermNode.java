@@ -14,8 +14,13 @@ public final class UnaryTermNode extends TermNode {
         this.factor = factor;
     }
 
+    public FactorNode getFactor() { return factor; }
+
     @Override
     public int evaluate(Memory memory) {
         return factor.evaluate(memory);
     }
+
+    @Override
+    public <R> R accept(NodeVisitor<R> visitor) { return visitor.visit(this); }
 }
@@ -0,0 +1,38 @@
+// Kyran Day, 10/17/2026.
+package kylang.vm;
+
+/**
+ * Chunk
+ * ------------------------------------------------------------
+ * A compiled program for the register VM: a flat instruction array,
+ * the strings it references (variable names for input prompts and the
+ * text of literals too large for an int), and the register
+ * file layout (variable slots first, then temporaries). */
+public final class Chunk {
+
+    final int[] code;
+    final String[] names;
+    final int variableCount;
+    final int registerCount;
+
+    Chunk(int[] code, String[] names, int variableCount, int registerCount) {
+        this.code = code;
+        this.names = names;
+        this.variableCount = variableCount;
+        this.registerCount = registerCount;
+    }
+
+    /** @return the number of instructions in this chunk */
+    public int length() { return code.length / Op.WIDTH; }
+
+    /** Lists the instructions, one per line, for debugging. */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int pc = 0; pc < code.length; pc += Op.WIDTH) {
+            sb.append(String.format("%5d  %-8s %d, %d, %d%n",
+                    pc, Op.name(code[pc]), code[pc + 1], code[pc + 2], code[pc + 3]));
+        }
+        return sb.toString();
+    }
+}
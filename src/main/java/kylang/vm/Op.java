@@ -0,0 +1,59 @@
+// Kyran Day, 10/17/2026.
+package kylang.vm;
+
+/**
+ * Op
+ * ------------------------------------------------------------
+ * Opcodes of the register VM. Every instruction is four ints wide:
+ * {@code op, a, b, c}. Registers below the chunk's variable count are
+ * the program's variable slots; the rest are compiler temporaries.
+ * Jump targets are absolute offsets into the code array. */
+final class Op {
+
+    private Op() {}
+
+    static final int HALT    = 0;  // stop
+    static final int CONST   = 1;  // r[a] = b
+    static final int MOVE    = 2;  // r[a] = r[b]
+    static final int ADD     = 3;  // r[a] = r[b] + r[c]
+    static final int SUB     = 4;  // r[a] = r[b] - r[c]
+    static final int MUL     = 5;  // r[a] = r[b] * r[c]
+    static final int DIV     = 6;  // r[a] = r[b] / r[c], divide by zero check
+    static final int ADDI    = 7;  // r[a] = r[b] + c
+    static final int SUBI    = 8;  // r[a] = r[b] - c
+    static final int MULI    = 9;  // r[a] = r[b] * c
+    static final int DIVI    = 10; // r[a] = r[b] / c, c is a non-zero constant
+    static final int NEG     = 11; // r[a] = -r[b]
+    static final int JMP     = 12; // goto c
+
+    // Compare-and-branch, register/register: if (r[a] relop r[b]) goto c
+    static final int JLT     = 13;
+    static final int JLE     = 14;
+    static final int JGT     = 15;
+    static final int JGE     = 16;
+    static final int JEQ     = 17;
+    static final int JNE     = 18;
+
+    // Compare-and-branch, register/constant: if (r[a] relop b) goto c
+    static final int JLTI    = 19;
+    static final int JLEI    = 20;
+    static final int JGTI    = 21;
+    static final int JGEI    = 22;
+    static final int JEQI    = 23;
+    static final int JNEI    = 24;
+
+    static final int FORLOOP = 25; // r[a]++; if (r[a] <= r[b]) goto c
+    static final int DISPLAY = 26; // print r[a]
+    static final int INPUT   = 27; // r[a] = read value for names[b]
+    static final int BIGCONST = 28; // r[a] = names[b] parsed as an int, which throws: the literal does not fit
+
+    static final int WIDTH   = 4;  // ints per instruction
+
+    private static final String[] NAMES = {
+        "HALT", "CONST", "MOVE", "ADD", "SUB", "MUL", "DIV", "ADDI", "SUBI", "MULI", "DIVI", "NEG", "JMP",
+        "JLT", "JLE", "JGT", "JGE", "JEQ", "JNE", "JLTI", "JLEI", "JGTI", "JGEI", "JEQI", "JNEI",
+        "FORLOOP", "DISPLAY", "INPUT", "BIGCONST"
+    };
+
+    static String name(int op) { return NAMES[op]; }
+}
@@ -0,0 +1,73 @@
+// Kyran Day, 10/17/2026.
+package kylang.vm;
+import kylang.memory.Memory;
+import kylang.runtime.ExecutionContext;
+
+/**
+ * VirtualMachine
+ * ------------------------------------------------------------
+ * Executes a {@link Chunk} in a single dispatch loop over its
+ * instruction array. Variable registers are loaded from the
+ * {@link Memory} frame on entry and written back on exit, so the
+ * memory ends in the same state the tree interpreter leaves it in. */
+public final class VirtualMachine {
+
+    /**
+     * Runs a compiled chunk against a memory environment.
+     *
+     * @param chunk the compiled program
+     * @param memory the memory holding the program's variables */
+    public void run(Chunk chunk, Memory memory) {
+        memory.ensureCapacity();
+        final int[] code = chunk.code;
+        final int[] r = new int[chunk.registerCount];
+        final ExecutionContext context = memory.getContext();
+        for (int slot = 0; slot < chunk.variableCount; slot++) r[slot] = memory.get(slot);
+
+        int pc = 0;
+        try {
+            for (;;) {
+                switch (code[pc]) {
+                    case Op.HALT: return;
+                    case Op.CONST: r[code[pc + 1]] = code[pc + 2]; pc += Op.WIDTH; break;
+                    case Op.MOVE: r[code[pc + 1]] = r[code[pc + 2]]; pc += Op.WIDTH; break;
+                    case Op.ADD: r[code[pc + 1]] = r[code[pc + 2]] + r[code[pc + 3]]; pc += Op.WIDTH; break;
+                    case Op.SUB: r[code[pc + 1]] = r[code[pc + 2]] - r[code[pc + 3]]; pc += Op.WIDTH; break;
+                    case Op.MUL: r[code[pc + 1]] = r[code[pc + 2]] * r[code[pc + 3]]; pc += Op.WIDTH; break;
+                    case Op.DIV: {
+                        int divisor = r[code[pc + 3]];
+                        if (divisor == 0) throw new ArithmeticException("divide by zero");
+                        r[code[pc + 1]] = r[code[pc + 2]] / divisor;
+                        pc += Op.WIDTH;
+                        break;
+                    }
+                    case Op.ADDI: r[code[pc + 1]] = r[code[pc + 2]] + code[pc + 3]; pc += Op.WIDTH; break;
+                    case Op.SUBI: r[code[pc + 1]] = r[code[pc + 2]] - code[pc + 3]; pc += Op.WIDTH; break;
+                    case Op.MULI: r[code[pc + 1]] = r[code[pc + 2]] * code[pc + 3]; pc += Op.WIDTH; break;
+                    case Op.DIVI: r[code[pc + 1]] = r[code[pc + 2]] / code[pc + 3]; pc += Op.WIDTH; break;
+                    case Op.NEG: r[code[pc + 1]] = -r[code[pc + 2]]; pc += Op.WIDTH; break;
+                    case Op.JMP: pc = code[pc + 3]; break;
+                    case Op.JLT: pc = (r[code[pc + 1]] < r[code[pc + 2]]) ? code[pc + 3] : pc + Op.WIDTH; break;
+                    case Op.JLE: pc = (r[code[pc + 1]] <= r[code[pc + 2]]) ? code[pc + 3] : pc + Op.WIDTH; break;
+                    case Op.JGT: pc = (r[code[pc + 1]] > r[code[pc + 2]]) ? code[pc + 3] : pc + Op.WIDTH; break;
+                    case Op.JGE: pc = (r[code[pc + 1]] >= r[code[pc + 2]]) ? code[pc + 3] : pc + Op.WIDTH; break;
+                    case Op.JEQ: pc = (r[code[pc + 1]] == r[code[pc + 2]]) ? code[pc + 3] : pc + Op.WIDTH; break;
+                    case Op.JNE: pc = (r[code[pc + 1]] != r[code[pc + 2]]) ? code[pc + 3] : pc + Op.WIDTH; break;
+                    case Op.JLTI: pc = (r[code[pc + 1]] < code[pc + 2]) ? code[pc + 3] : pc + Op.WIDTH; break;
+                    case Op.JLEI: pc = (r[code[pc + 1]] <= code[pc + 2]) ? code[pc + 3] : pc + Op.WIDTH; break;
+                    case Op.JGTI: pc = (r[code[pc + 1]] > code[pc + 2]) ? code[pc + 3] : pc + Op.WIDTH; break;
+                    case Op.JGEI: pc = (r[code[pc + 1]] >= code[pc + 2]) ? code[pc + 3] : pc + Op.WIDTH; break;
+                    case Op.JEQI: pc = (r[code[pc + 1]] == code[pc + 2]) ? code[pc + 3] : pc + Op.WIDTH; break;
+                    case Op.JNEI: pc = (r[code[pc + 1]] != code[pc + 2]) ? code[pc + 3] : pc + Op.WIDTH; break;
+                    case Op.FORLOOP: pc = (++r[code[pc + 1]] <= r[code[pc + 2]]) ? code[pc + 3] : pc + Op.WIDTH; break;
+                    case Op.DISPLAY: context.display(r[code[pc + 1]]); pc += Op.WIDTH; break;
+                    case Op.INPUT: r[code[pc + 1]] = context.readValue(chunk.names[code[pc + 2]]); pc += Op.WIDTH; break;
+                    case Op.BIGCONST: r[code[pc + 1]] = Integer.parseInt(chunk.names[code[pc + 2]]); pc += Op.WIDTH; break;
+                    default: throw new IllegalStateException("Bad opcode " + code[pc] + " at " + pc);
+                }
+            }
+        } finally {
+            for (int slot = 0; slot < chunk.variableCount; slot++) memory.put(slot, r[slot]);
+        }
+    }
+}
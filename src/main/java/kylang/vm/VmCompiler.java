@@ -0,0 +1,282 @@
+// Kyran Day, 10/17/2026.
+package kylang.vm;
+import java.util.ArrayList;
+import java.util.Arrays;
+import kylang.memory.SymbolTable;
+import kylang.statements.*;
+import kylang.tree_nodes.*;
+
+/**
+ * VmCompiler
+ * ------------------------------------------------------------
+ * Compiles a resolved {@link StatementList} into a register-based
+ * {@link Chunk}. Variables live in the registers matching their memory
+ * slots, so simple operands need no moves; intermediate values use
+ * temporaries allocated above them in stack order. Wrapper nodes
+ * (unary terms, parentheses) produce no code at all, and operations
+ * with a literal right operand use the immediate instruction forms.
+ * Control flow compiles to compare-and-branch jumps. */
+public final class VmCompiler implements NodeVisitor<Integer> {
+
+    private final SymbolTable symbols;
+    private int[] code = new int[64];
+    private int size;
+    private final ArrayList<String> names = new ArrayList<>();
+    private int nextRegister;  // next free temporary
+    private int maxRegister;   // high-water mark of the register file
+    private int dest = -1;     // requested destination register for the next expression, or -1
+
+    /**
+     * @param symbols the symbol table the program was resolved against */
+    public VmCompiler(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    /**
+     * Compiles a whole program.
+     *
+     * @param program the resolved statement list
+     * @return the compiled chunk, ending in {@code HALT} */
+    public Chunk compile(StatementList program) {
+        size = 0;
+        names.clear();
+        nextRegister = maxRegister = symbols.size();
+        block(program);
+        emit(Op.HALT, 0, 0, 0);
+        return new Chunk(Arrays.copyOf(code, size), names.toArray(new String[0]), symbols.size(), maxRegister);
+    }
+
+    private void block(StatementList list) {
+        if (list == null) return;
+        for (Statement stmt : list.getStatements()) {
+            int mark = nextRegister;
+            stmt.accept(this);
+            nextRegister = mark; // temporaries die at the end of each statement
+        }
+    }
+
+    // ==== Statements ====
+
+    @Override
+    public Integer visit(AssignmentStatement stmt) {
+        expression(stmt.getExpression(), stmt.getSlot());
+        return null;
+    }
+
+    @Override
+    public Integer visit(DisplayStatement stmt) {
+        emit(Op.DISPLAY, stmt.getSlot(), 0, 0);
+        return null;
+    }
+
+    @Override
+    public Integer visit(InputStatement stmt) {
+        names.add(stmt.getId());
+        emit(Op.INPUT, stmt.getSlot(), names.size() - 1, 0);
+        return null;
+    }
+
+    @Override
+    public Integer visit(IfStatement stmt) {
+        int toNext = branch(stmt.getCondition(), false);
+        block(stmt.getThenBlock());
+        if (stmt.getElifChain() == null && stmt.getElseBlock() == null) {
+            patch(toNext, size);
+            return null;
+        }
+        int toEnd = emit(Op.JMP, 0, 0, 0);
+        patch(toNext, size);
+        if (stmt.getElifChain() != null) stmt.getElifChain().accept(this); // same precedence as IfStatement.execute
+        else block(stmt.getElseBlock());
+        patch(toEnd, size);
+        return null;
+    }
+
+    @Override
+    public Integer visit(WhileStatement stmt) {
+        int toTest = emit(Op.JMP, 0, 0, 0);
+        int top = size;
+        block(stmt.getBody());
+        patch(toTest, size);
+        patch(branch(stmt.getCondition(), true), top);
+        return null;
+    }
+
+    @Override
+    public Integer visit(ForStatement stmt) {
+        int counter = temp();
+        int end = temp();
+        expression(stmt.getStartExpr(), counter); // both bounds are copied, evaluated once, start first
+        expression(stmt.getEndExpr(), end);
+        int toExit = emit(Op.JGT, counter, end, 0);
+        int top = size;
+        emit(Op.MOVE, stmt.getSlot(), counter, 0);
+        block(stmt.getBody());
+        emit(Op.FORLOOP, counter, end, top);
+        patch(toExit, size);
+        return null;
+    }
+
+    @Override
+    public Integer visit(SpawnStatement stmt) { // compiled code runs sequentially: the block runs in place
+        block(stmt.getBody());
+        return null;
+    }
+
+    @Override
+    public Integer visit(JoinStatement stmt) { return null; }
+
+    // ==== Expressions: each visit returns the register holding the value ====
+
+    @Override
+    public Integer visit(BinaryExpressionNode node) {
+        return binary(node.getLeft(), node.getOperator(), node.getRight());
+    }
+
+    @Override
+    public Integer visit(UnaryExpressionNode node) { return node.getTerm().accept(this); }
+
+    @Override
+    public Integer visit(BinaryTermNode node) {
+        return binary(node.getLeft(), node.getOperator(), node.getRight());
+    }
+
+    @Override
+    public Integer visit(UnaryTermNode node) { return node.getFactor().accept(this); }
+
+    @Override
+    public Integer visit(IdentifierFactorNode node) {
+        int target = takeDest();
+        if (target < 0) return node.getSlot(); // read the variable register in place
+        emit(Op.MOVE, target, node.getSlot(), 0);
+        return target;
+    }
+
+    @Override
+    public Integer visit(NumberFactorNode node) {
+        int target = targetOrTemp();
+        if (node.isInRange()) {
+            emit(Op.CONST, target, node.getValue(), 0);
+        } else { // fails when executed, as in the tree
+            names.add(node.getIntLit().getLEXEME());
+            emit(Op.BIGCONST, target, names.size() - 1, 0);
+        }
+        return target;
+    }
+
+    @Override
+    public Integer visit(ParenFactorNode node) { return node.getExpr().accept(this); }
+
+    @Override
+    public Integer visit(MinusFactorNode node) {
+        Integer constant = NodeShapes.literal(node);
+        if (constant != null) {
+            int target = targetOrTemp();
+            emit(Op.CONST, target, constant, 0);
+            return target;
+        }
+        int target = takeDest();
+        int operand = node.getExpr().accept(this);
+        if (target < 0) target = temp();
+        emit(Op.NEG, target, operand, 0);
+        return target;
+    }
+
+    @Override
+    public Integer visit(RelationalExpressionNode node) {
+        throw new IllegalStateException("Relational expressions are compiled as branches");
+    }
+
+    // ==== Helpers ====
+
+    /** Compiles an expression so its value ends up in the given register. */
+    private void expression(ExpressionNode expr, int target) {
+        dest = target;
+        int reg = expr.accept(this);
+        dest = -1;
+        if (reg != target) emit(Op.MOVE, target, reg, 0);
+    }
+
+    private int binary(ExpressionNode left, ArithmeticOperator type, Object right) {
+        int target = takeDest();
+        Integer constant = NodeShapes.literal(right);
+        Integer leftConstant = NodeShapes.literal(left);
+        if (constant == null && leftConstant != null && type.isCommutative()) {
+            int r = accept(right); // commutative: use the immediate form with the operands swapped
+            if (target < 0) target = temp();
+            emit(immediate(type), target, r, leftConstant);
+            return target;
+        }
+        int l = left.accept(this);
+        if (constant != null && !(type == ArithmeticOperator.DIVIDE && constant == 0)) { // x / 0 keeps its runtime error
+            if (target < 0) target = temp();
+            emit(immediate(type), target, l, constant);
+            return target;
+        }
+        int r = accept(right);
+        if (target < 0) target = temp();
+        emit(Op.ADD + type.ordinal(), target, l, r); // ADD..DIV follow the operator order
+        return target;
+    }
+
+    private static int immediate(ArithmeticOperator type) {
+        return Op.ADDI + type.ordinal(); // ADDI..DIVI follow the operator order
+    }
+
+    /**
+     * Compiles a condition into a single compare-and-branch.
+     *
+     * @param condition the boolean expression to test
+     * @param jumpIf jump when the condition has this value
+     * @return the offset of the jump instruction, to be patched with its target */
+    private int branch(BooleanExpressionNode condition, boolean jumpIf) {
+        RelationalExpressionNode rel = (RelationalExpressionNode) condition;
+        int mark = nextRegister;
+        RelationalOperator operator = jumpIf ? rel.getOperator() : rel.getOperator().negate();
+        int relop = operator.ordinal(); // LT..NE follow the order of Op.JLT..JNE
+        int l = rel.getLeft().accept(this);
+        Integer constant = NodeShapes.literal(rel.getRight());
+        int at;
+        if (constant != null) at = emit(Op.JLTI + relop, l, constant, 0);
+        else at = emit(Op.JLT + relop, l, rel.getRight().accept(this), 0);
+        nextRegister = mark;
+        return at;
+    }
+
+    private int accept(Object node) {
+        if (node instanceof ExpressionNode) return ((ExpressionNode) node).accept(this);
+        return ((FactorNode) node).accept(this);
+    }
+
+
+    private int takeDest() {
+        int target = dest;
+        dest = -1;
+        return target;
+    }
+
+    private int targetOrTemp() {
+        int target = takeDest();
+        return (target >= 0) ? target : temp();
+    }
+
+    private int temp() {
+        int reg = nextRegister++;
+        if (nextRegister > maxRegister) maxRegister = nextRegister;
+        return reg;
+    }
+
+    private int emit(int op, int a, int b, int c) {
+        if (size + Op.WIDTH > code.length) code = Arrays.copyOf(code, code.length * 2);
+        int at = size;
+        code[size++] = op;
+        code[size++] = a;
+        code[size++] = b;
+        code[size++] = c;
+        return at;
+    }
+
+    private void patch(int at, int target) {
+        code[at + 3] = target;
+    }
+}
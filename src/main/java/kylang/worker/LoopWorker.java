@@ -0,0 +1,86 @@
+// Kyran Day, 10/17/2026.
+package kylang.worker;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import kylang.flat.FlatInterpreter;
+import kylang.flat.FlatProgram;
+import kylang.memory.Memory;
+import kylang.memory.SymbolTable;
+
+/**
+ * LoopWorker
+ * ------------------------------------------------------------
+ * The worker process a {@link WorkerPool} starts: reads chunk requests
+ * from stdin, runs each on the flat interpreter, and writes the results
+ * to stdout (see {@link WorkerPool} for the messages). Loop bodies are
+ * decoded once and kept by id. Exits when stdin closes.
+ *
+ * Usage: java -cp target/classes kylang.worker.LoopWorker */
+public final class LoopWorker {
+
+    private LoopWorker() {}
+
+    public static void main(String[] args) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(FileDescriptor.in)));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+        System.setOut(System.err); // stdout carries the replies; loop bodies never display anyway
+        Map<Integer, FlatProgram> bodies = new HashMap<>();
+        Map<Integer, SymbolTable> symbolTables = new HashMap<>();
+
+        while (true) {
+            int id;
+            try {
+                id = in.readInt();
+            } catch (EOFException e) { // the coordinator is done
+                return;
+            }
+            int length = in.readInt();
+            if (length > 0) { // first chunk of this loop on this worker
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                SymbolTable symbols = new SymbolTable();
+                bodies.put(id, FlatProgram.decode(ByteBuffer.wrap(bytes), symbols));
+                symbolTables.put(id, symbols);
+            }
+            FlatProgram body = bodies.get(id);
+            if (body == null) throw new IOException("No loop body with id " + id);
+            int slot = in.readInt(), first = in.readInt(), last = in.readInt();
+            int[] frame = WorkerPool.readInts(in), reductions = WorkerPool.readInts(in);
+            int[] identities = WorkerPool.readInts(in), privates = WorkerPool.readInts(in);
+
+            Memory memory = new Memory(symbolTables.get(id));
+            for (int s = 0; s < frame.length; s++) memory.put(s, frame[s]);
+            for (int r = 0; r < reductions.length; r++) memory.put(reductions[r], identities[r]);
+            boolean completed = run(new FlatInterpreter(body), body.getRoot(), memory, slot, first, last);
+            out.writeBoolean(completed);
+            if (completed) {
+                for (int s : reductions) out.writeInt(memory.get(s));
+                for (int s : privates) out.writeInt(memory.get(s));
+            }
+            out.flush();
+        }
+    }
+
+    /** @return false if an iteration threw; the coordinator then runs the loop itself */
+    private static boolean run(FlatInterpreter interpreter, int body, Memory memory, int slot, int first, int last) {
+        try {
+            for (long i = first; i <= last; i++) {
+                memory.put(slot, (int) i);
+                interpreter.run(body, memory);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+// Kyran Day, 10/17/2026.
+package kylang.worker;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WorkerPool
+ * ------------------------------------------------------------
+ * A fixed number of local worker JVMs ({@link LoopWorker}), started on
+ * first use with this process's class path, that each run one chunk of a
+ * loop at a time. A request goes to a worker's stdin as the arguments of
+ * {@link #run}, the body only the first time that worker sees it; the
+ * reply on its stdout is the chunk's reduction and private values, or
+ * {@code false} if an iteration threw.
+ *
+ * If a worker cannot be started or stops answering, the pool stops and
+ * every later call fails at once, so the caller runs its loops itself. */
+public final class WorkerPool implements AutoCloseable {
+
+    private final int size;
+    private final Map<byte[], Integer> ids = new IdentityHashMap<>(); // loop bodies sent so far, by identity
+    private Worker[] workers;
+    private IOException broken;
+
+    /**
+     * @param size the number of worker processes */
+    public WorkerPool(int size) {
+        if (size < 1) throw new IllegalArgumentException("A worker pool needs at least one worker, not " + size);
+        this.size = size;
+    }
+
+    /** @return the number of worker processes */
+    public int size() { return size; }
+
+    /**
+     * Runs chunks of a loop, each on its own worker, and waits for all of them.
+     *
+     * @param body the loop body, encoded by {@code FlatProgram.encode}; pass the same array for the same loop
+     * @param frame the value of every slot when the loop starts
+     * @param slot the loop variable's slot
+     * @param firsts the first counter value of each chunk, at most {@link #size} of them
+     * @param lasts the last counter value of each chunk
+     * @param reductions the slots whose partial results the chunks return
+     * @param identities the value each reduction slot starts from in every chunk
+     * @param privates the other slots whose final values the chunks return
+     * @return for each chunk, its reduction values followed by its private values; null if an iteration threw
+     * @throws IOException if the workers could not run the chunks */
+    public synchronized int[][] run(byte[] body, int[] frame, int slot, int[] firsts, int[] lasts,
+                                    int[] reductions, int[] identities, int[] privates) throws IOException {
+        if (broken != null) throw broken;
+        if (firsts.length > size) throw new IllegalArgumentException(firsts.length + " chunks for " + size + " workers");
+        try {
+            if (workers == null) start();
+            Integer id = ids.get(body);
+            if (id == null) ids.put(body, id = ids.size());
+            for (int c = 0; c < firsts.length; c++) { // every worker starts before any reply is read
+                Worker worker = workers[c];
+                DataOutputStream out = worker.out;
+                out.writeInt(id);
+                if (worker.bodies.get(id)) {
+                    out.writeInt(0);
+                } else {
+                    out.writeInt(body.length);
+                    out.write(body);
+                    worker.bodies.set(id);
+                }
+                out.writeInt(slot);
+                out.writeInt(firsts[c]);
+                out.writeInt(lasts[c]);
+                writeInts(out, frame);
+                writeInts(out, reductions);
+                writeInts(out, identities);
+                writeInts(out, privates);
+                out.flush();
+            }
+            int[][] results = new int[firsts.length][];
+            boolean failed = false;
+            for (int c = 0; c < firsts.length; c++) { // read every reply, so no worker is left mid-message
+                DataInputStream in = workers[c].in;
+                if (!in.readBoolean()) {
+                    failed = true;
+                    continue;
+                }
+                results[c] = new int[reductions.length + privates.length];
+                for (int k = 0; k < results[c].length; k++) results[c][k] = in.readInt();
+            }
+            return failed ? null : results;
+        } catch (IOException e) {
+            broken = e;
+            String reason = (e instanceof EOFException) ? "a worker process exited" : e.getMessage();
+            System.err.println("[workers] " + reason + "; running loops in this process");
+            stop();
+            throw e;
+        }
+    }
+
+    /** Lets every worker finish and exit, stopping any that has not within a second. */
+    @Override
+    public synchronized void close() {
+        if (workers == null) return;
+        for (Worker worker : workers) {
+            if (worker == null) continue;
+            try {
+                worker.out.close(); // end of input: the worker exits
+                if (!worker.process.waitFor(1, TimeUnit.SECONDS)) worker.process.destroyForcibly();
+            } catch (IOException e) {
+                worker.process.destroyForcibly();
+            } catch (InterruptedException e) {
+                worker.process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+        workers = null;
+    }
+
+    private void start() throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), LoopWorker.class.getName())
+                .redirectError(ProcessBuilder.Redirect.INHERIT);
+        workers = new Worker[size];
+        for (int w = 0; w < size; w++) workers[w] = new Worker(builder.start());
+    }
+
+    private void stop() {
+        if (workers == null) return;
+        for (Worker worker : workers) if (worker != null) worker.process.destroyForcibly();
+        workers = null;
+    }
+
+    static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) out.writeInt(value);
+    }
+
+    static int[] readInts(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) throw new IOException("Corrupt request: " + length + " values");
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++) values[i] = in.readInt();
+        return values;
+    }
+
+    /** One worker process and its pipes. */
+    private static final class Worker {
+
+        final Process process;
+        final DataOutputStream out;
+        final DataInputStream in;
+        final BitSet bodies = new BitSet(); // ids of the loop bodies it has
+
+        Worker(Process process) {
+            this.process = process;
+            this.out = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+            this.in = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+        }
+    }
+}